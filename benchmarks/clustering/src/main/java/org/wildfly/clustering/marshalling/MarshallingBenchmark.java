@@ -0,0 +1,243 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.Unmarshaller;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.clustering.marshalling.jboss.DynamicClassTable;
+import org.wildfly.clustering.marshalling.jboss.ExternalizerObjectTable;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingConfigurationRepository;
+import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingContext;
+import org.wildfly.clustering.marshalling.spi.binary.BinaryMarshallingContext;
+
+/**
+ * Compares the speed of writing and reading typical clustering payloads via JBoss Marshalling,
+ * configured as for distributed web sessions, against the binary marshalling backend.
+ * Most payloads are types for which the binary backend has an externalizer.
+ * Types without an externalizer, e.g. most application session attributes, fall back to Java serialization in the binary backend,
+ * which is represented by the "serializable" payload.
+ * The encoded size of each payload is reported via the secondary results of the write benchmarks.
+ * Launch via {@code java -jar benchmarks.jar MarshallingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarshallingBenchmark {
+
+    @Param({ "session-id", "uuid", "instant", "duration", "list", "map", "serializable" })
+    private String payload;
+
+    private MarshallingContext jbossContext;
+    private BinaryMarshallingContext binaryContext;
+    private Object value;
+    private byte[] jbossBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setup() throws IOException, ClassNotFoundException {
+        ClassLoader loader = MarshallingBenchmark.class.getClassLoader();
+        MarshallingConfiguration configuration = new MarshallingConfiguration();
+        configuration.setClassTable(new DynamicClassTable(loader));
+        configuration.setObjectTable(new ExternalizerObjectTable(loader));
+        this.jbossContext = new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), new SimpleMarshallingConfigurationRepository(configuration), loader);
+        this.binaryContext = new BinaryMarshallingContext(loader);
+        this.value = createPayload(this.payload);
+
+        this.jbossBytes = this.jbossEncode();
+        this.binaryBytes = this.binaryEncode();
+        if (!this.value.equals(this.jbossRead()) || !this.value.equals(this.binaryRead())) {
+            throw new IllegalStateException(this.payload);
+        }
+    }
+
+    private static Object createPayload(String payload) {
+        switch (payload) {
+            case "session-id": {
+                return "mGxVgbCGVmH3L2ybMu0d5cp2F-mHUzCJrS2nj3Ha";
+            }
+            case "uuid": {
+                return UUID.randomUUID();
+            }
+            case "instant": {
+                return Instant.now();
+            }
+            case "duration": {
+                return Duration.ofMinutes(30);
+            }
+            case "list": {
+                List<Object> list = new ArrayList<>(10);
+                for (int i = 0; i < 10; ++i) {
+                    list.add(UUID.randomUUID());
+                }
+                return list;
+            }
+            case "map": {
+                Map<String, Object> map = new HashMap<>();
+                for (int i = 0; i < 10; ++i) {
+                    map.put("attribute-" + i, Integer.valueOf(i));
+                }
+                return map;
+            }
+            case "serializable": {
+                Map<String, String> preferences = new HashMap<>();
+                preferences.put("locale", "en_US");
+                preferences.put("theme", "dark");
+                return new UserProfile("jdoe", new ArrayList<>(Arrays.asList("user", "admin")), Instant.now(), preferences);
+            }
+            default: {
+                throw new IllegalArgumentException(payload);
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] jbossWrite(EncodedSize size) throws IOException {
+        return size.record(this.jbossEncode());
+    }
+
+    private byte[] jbossEncode() throws IOException {
+        int version = this.jbossContext.getCurrentVersion();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (Marshaller marshaller = this.jbossContext.createMarshaller(version)) {
+            marshaller.start(Marshalling.createByteOutput(output));
+            marshaller.writeObject(this.value);
+            marshaller.finish();
+        }
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public Object jbossRead() throws IOException, ClassNotFoundException {
+        int version = this.jbossContext.getCurrentVersion();
+        try (Unmarshaller unmarshaller = this.jbossContext.createUnmarshaller(version)) {
+            unmarshaller.start(Marshalling.createByteInput(new ByteArrayInputStream(this.jbossBytes)));
+            Object result = unmarshaller.readObject();
+            unmarshaller.finish();
+            return result;
+        }
+    }
+
+    @Benchmark
+    public byte[] binaryWrite(EncodedSize size) throws IOException {
+        return size.record(this.binaryEncode());
+    }
+
+    private byte[] binaryEncode() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        this.binaryContext.writeTo(output, this.value);
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public Object binaryRead() throws IOException, ClassNotFoundException {
+        return this.binaryContext.readFrom(new ByteArrayInputStream(this.binaryBytes));
+    }
+
+    /**
+     * Secondary results of the write benchmarks.
+     * Event counters are reported as totals, so the encoded size of the payload, in bytes, is {@code bytes / writes}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+        public long bytes;
+        public long writes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.bytes = 0;
+            this.writes = 0;
+        }
+
+        byte[] record(byte[] encoded) {
+            this.bytes += encoded.length;
+            this.writes += 1;
+            return encoded;
+        }
+    }
+
+    /**
+     * A typical application session attribute, for which no externalizer exists.
+     */
+    static class UserProfile implements Serializable {
+        private static final long serialVersionUID = -4203851394226375370L;
+
+        private final String name;
+        private final List<String> roles;
+        private final Instant lastLogin;
+        private final Map<String, String> preferences;
+
+        UserProfile(String name, List<String> roles, Instant lastLogin, Map<String, String> preferences) {
+            this.name = name;
+            this.roles = roles;
+            this.lastLogin = lastLogin;
+            this.preferences = preferences;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.name.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof UserProfile)) return false;
+            UserProfile profile = (UserProfile) object;
+            return this.name.equals(profile.name) && this.roles.equals(profile.roles) && this.lastLogin.equals(profile.lastLogin) && Objects.equals(this.preferences, profile.preferences);
+        }
+    }
+}
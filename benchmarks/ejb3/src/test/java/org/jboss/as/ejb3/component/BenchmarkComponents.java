@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.component;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.jboss.as.ee.component.BasicComponentInstance;
+import org.jboss.as.ee.component.Component;
+import org.jboss.as.ee.component.ComponentInstance;
+import org.jboss.as.ee.component.interceptors.ComponentDispatcherInterceptor;
+import org.jboss.as.ejb3.component.interceptors.ShutDownInterceptorFactory;
+import org.jboss.as.ejb3.component.session.SessionBeanComponentCreateService;
+import org.jboss.as.ejb3.deployment.ApplicationExceptions;
+import org.jboss.as.naming.ImmediateManagedReference;
+import org.jboss.invocation.ImmediateInterceptorFactory;
+import org.jboss.invocation.Interceptor;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.invocation.InterceptorFactory;
+import org.jboss.invocation.InterceptorFactoryContext;
+import org.jboss.invocation.Interceptors;
+import org.jboss.invocation.SimpleInterceptorFactoryContext;
+import org.jboss.msc.value.InjectedValue;
+
+/**
+ * Boots the minimum of the component machinery needed to invoke a session bean through its interceptor chain,
+ * without a deployment or a service container.
+ * The create services, which are otherwise configured by the deployment unit processors, are mocks only consulted
+ * while constructing and starting the component, so they do not contribute to the measured invocations.
+ */
+public final class BenchmarkComponents {
+
+    /**
+     * The business method of {@link BenchmarkBean}, also the key of its component interceptor
+     */
+    public static final Method BUSINESS_METHOD;
+
+    static {
+        try {
+            BUSINESS_METHOD = BenchmarkBean.class.getMethod("echo", Object.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BenchmarkComponents() {
+    }
+
+    /**
+     * Creates a create service for a {@link BenchmarkBean} component, whose instances are constructed and
+     * invoked like those of a deployed bean without any interceptor classes.
+     *
+     * @param serviceClass the create service type of the component
+     * @return a create service to be further configured for the component type
+     */
+    public static <S extends SessionBeanComponentCreateService> S createService(Class<S> serviceClass) {
+        S service = mock(serviceClass);
+        when(service.getComponentName()).thenReturn(BenchmarkBean.class.getSimpleName());
+        when(service.getComponentClass()).thenReturn(BenchmarkBean.class);
+        when(service.getPostConstruct()).thenReturn(new ImmediateInterceptorFactory(new ConstructionInterceptor()));
+        when(service.getPreDestroy()).thenReturn(new ImmediateInterceptorFactory(Interceptors.getTerminalInterceptor()));
+        when(service.getComponentInterceptors()).thenReturn(Collections.<Method, InterceptorFactory>singletonMap(BUSINESS_METHOD, new ImmediateInterceptorFactory(new BusinessMethodInterceptor())));
+        when(service.getApplicationExceptions()).thenReturn(new ApplicationExceptions());
+        when(service.getShutDownInterceptorFactory()).thenReturn(new ShutDownInterceptorFactory());
+        when(service.getAsyncExecutorService()).thenReturn(new InjectedValue<ExecutorService>());
+        return service;
+    }
+
+    /**
+     * Creates the interceptors of a local view of the given started component, i.e. the shutdown interceptor,
+     * followed by the given component specific interceptors and the dispatch to the component instance.
+     *
+     * @param component a started component
+     * @param factories the factories of the component specific interceptors, in invocation order
+     * @return the interceptors to pass to {@link #invoke(Component, List, Object)}
+     */
+    public static List<Interceptor> createViewInterceptors(EJBComponent component, InterceptorFactory... factories) {
+        InterceptorFactoryContext context = new SimpleInterceptorFactoryContext();
+        context.getContextData().put(Component.class, component);
+        Interceptor[] interceptors = new Interceptor[factories.length + 2];
+        interceptors[0] = component.getShutDownInterceptorFactory().create(context);
+        for (int i = 0; i < factories.length; ++i) {
+            interceptors[i + 1] = factories[i].create(context);
+        }
+        interceptors[interceptors.length - 1] = new ComponentDispatcherInterceptor(BUSINESS_METHOD);
+        return Arrays.asList(interceptors);
+    }
+
+    /**
+     * Invokes the business method of a component, as a local view would.
+     *
+     * @param component the invoked component
+     * @param interceptors the interceptors of the view
+     * @param value the parameter of the business method
+     * @return the result of the business method
+     */
+    public static Object invoke(Component component, List<Interceptor> interceptors, Object value) throws Exception {
+        return invoke(component, interceptors, value, null, null);
+    }
+
+    /**
+     * Invokes the business method of a component, as a local view would, with additional private data
+     * associated with the invocation, e.g. the session of a stateful component.
+     */
+    public static <T> Object invoke(Component component, List<Interceptor> interceptors, Object value, Class<T> privateDataType, T privateData) throws Exception {
+        InterceptorContext context = new InterceptorContext();
+        context.putPrivateData(Component.class, component);
+        if (privateDataType != null) {
+            context.putPrivateData(privateDataType, privateData);
+        }
+        context.setContextData(new HashMap<String, Object>());
+        context.setMethod(BUSINESS_METHOD);
+        context.setParameters(new Object[] { value });
+        context.setInterceptors(interceptors);
+        return context.proceed();
+    }
+
+    /**
+     * Stands in for the post construct chain, which creates the bean instance.
+     */
+    private static class ConstructionInterceptor implements Interceptor {
+        @Override
+        public Object processInvocation(InterceptorContext context) throws Exception {
+            ComponentInstance instance = context.getPrivateData(ComponentInstance.class);
+            instance.setInstanceData(BasicComponentInstance.INSTANCE_KEY, new ImmediateManagedReference(new BenchmarkBean()));
+            return null;
+        }
+    }
+
+    /**
+     * Stands in for the component interceptors of the business method, which end in the invocation of the bean method.
+     */
+    private static class BusinessMethodInterceptor implements Interceptor {
+        @Override
+        public Object processInvocation(InterceptorContext context) throws Exception {
+            return context.getMethod().invoke(context.getTarget(), context.getParameters());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.component.singleton;
+
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.ejb.LockType;
+
+import org.jboss.as.ejb3.component.BenchmarkBean;
+import org.jboss.as.ejb3.component.BenchmarkComponents;
+import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
+import org.jboss.invocation.Interceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of a local invocation of a {@link SingletonComponent} with container managed concurrency.
+ * Launch via {@code mvn test-compile exec:exec -Djmh.args="SingletonInvocationBenchmark -t <threads>"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingletonInvocationBenchmark {
+
+    @Param({ "READ", "WRITE" })
+    private LockType lockType;
+
+    @Param({ "reentrant", "striped" })
+    private String lockMode;
+
+    private SingletonComponent component;
+    private List<Interceptor> interceptors;
+
+    @Setup
+    public void setup() {
+        SingletonComponentCreateService service = BenchmarkComponents.createService(SingletonComponentCreateService.class);
+        when(service.getBeanLockType()).thenReturn(Collections.singletonMap(BenchmarkBean.class.getName(), this.lockType));
+        when(service.getLockMode()).thenReturn(SingletonLockMode.fromValue(this.lockMode));
+        when(service.getDefaultAccessTimeoutService()).thenReturn(new DefaultAccessTimeoutService(5000L));
+        this.component = new SingletonComponent(service, null);
+        this.component.start();
+        this.interceptors = BenchmarkComponents.createViewInterceptors(this.component, SingletonComponentInstanceAssociationInterceptor.FACTORY, new ContainerManagedConcurrencyInterceptorFactory(Collections.<Method, Method>emptyMap()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.component.stop();
+    }
+
+    @Benchmark
+    public Object invoke() throws Exception {
+        return BenchmarkComponents.invoke(this.component, this.interceptors, this);
+    }
+}
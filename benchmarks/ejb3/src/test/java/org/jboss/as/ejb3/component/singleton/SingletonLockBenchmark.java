@@ -0,0 +1,107 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.component.singleton;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the throughput of the locks available to singleton beans, as acquired by
+ * {@link ContainerManagedConcurrencyInterceptor}, for READ only and mostly READ invocations.
+ * Launch via {@code mvn test-compile exec:exec -Djmh.args="SingletonLockBenchmark -t <threads>"},
+ * e.g. for 1, 2, 4, 8, 16, 32 and 64 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class SingletonLockBenchmark {
+
+    private static final long ACCESS_TIMEOUT = 5000L;
+
+    @Param({ "reentrant", "striped" })
+    private String lockMode;
+
+    /**
+     * Number of READ invocations per WRITE invocation, in the mixed benchmark
+     */
+    @Param({ "100" })
+    private int reads;
+
+    /**
+     * Amount of work done by the bean method while holding the lock
+     */
+    @Param({ "10" })
+    private int tokens;
+
+    private ReadWriteLock lock;
+
+    @State(Scope.Thread)
+    public static class Invocations {
+        int count;
+    }
+
+    @Setup
+    public void setup() {
+        this.lock = SingletonLockMode.fromValue(this.lockMode).createLock();
+    }
+
+    @Benchmark
+    public void read() throws InterruptedException {
+        this.invoke(this.lock.readLock());
+    }
+
+    @Benchmark
+    public void mostlyRead(Invocations invocations) throws InterruptedException {
+        this.invoke((++invocations.count % this.reads == 0) ? this.lock.writeLock() : this.lock.readLock());
+    }
+
+    private void invoke(Lock lock) throws InterruptedException {
+        if (!lock.tryLock(ACCESS_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException();
+        }
+        try {
+            Blackhole.consumeCPU(this.tokens);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.component.stateful;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ee.component.Component;
+import org.jboss.as.ee.component.ComponentInstance;
+import org.jboss.as.ejb3.cache.CacheFactory;
+import org.jboss.as.ejb3.cache.simple.SimpleCache;
+import org.jboss.as.ejb3.component.BenchmarkComponents;
+import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
+import org.jboss.as.server.ServerEnvironment;
+import org.jboss.ejb.client.SessionID;
+import org.jboss.invocation.ImmediateInterceptorFactory;
+import org.jboss.invocation.Interceptor;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.msc.value.ImmediateValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.clustering.service.concurrent.TaskScheduler;
+
+/**
+ * Measures the latency of a local invocation of an existing session of a {@link StatefulSessionComponent}, and the
+ * throughput of creating and removing sessions, using the non-distributable cache.
+ * Launch via {@code mvn test-compile exec:exec -Djmh.args="StatefulInvocationBenchmark -t <threads>"}.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatefulInvocationBenchmark {
+
+    private StatefulSessionComponent component;
+    private List<Interceptor> interceptors;
+
+    /**
+     * The session invoked by each benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class Session {
+        SessionID id;
+
+        @Setup(Level.Trial)
+        public void create(StatefulInvocationBenchmark benchmark) {
+            this.id = benchmark.component.createSession();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        StatefulSessionComponentCreateService service = BenchmarkComponents.createService(StatefulSessionComponentCreateService.class);
+        ServerEnvironment environment = mock(ServerEnvironment.class);
+        // No stateful timeout, so that sessions are only removed explicitly
+        CacheFactory<SessionID, StatefulSessionComponentInstance> cacheFactory = (identifierFactory, factory, passivationListener) -> new SimpleCache<>(factory, identifierFactory, null, environment, (TaskScheduler) null);
+        when(service.getCacheFactory()).thenReturn(new ImmediateValue<CacheFactory>(cacheFactory));
+        when(service.getDefaultAccessTimeoutService()).thenReturn(new DefaultAccessTimeoutService(5000L));
+        this.component = new StatefulSessionComponent(service) {
+        };
+        this.component.start();
+        this.interceptors = BenchmarkComponents.createViewInterceptors(this.component, StatefulComponentInstanceInterceptor.FACTORY, new ImmediateInterceptorFactory(new ReleaseInterceptor()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.component.stop();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object invoke(Session session) throws Exception {
+        return BenchmarkComponents.invoke(this.component, this.interceptors, this, SessionID.class, session.id);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void createRemove() {
+        this.component.removeSession(this.component.createSession());
+    }
+
+    /**
+     * Stands in for {@link StatefulSessionSynchronizationInterceptor}, which releases the instance to the cache
+     * at the end of an invocation outside of a transaction.
+     */
+    private static class ReleaseInterceptor implements Interceptor {
+        @Override
+        public Object processInvocation(InterceptorContext context) throws Exception {
+            try {
+                return context.proceed();
+            } finally {
+                StatefulSessionComponent component = (StatefulSessionComponent) context.getPrivateData(Component.class);
+                component.getCache().release((StatefulSessionComponentInstance) context.getPrivateData(ComponentInstance.class));
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.pool;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.pool.strictmax.StrictMaxPool;
+import org.jboss.as.ejb3.pool.striped.StripedPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the throughput of acquiring an instance from, and releasing it to, the pools of stateless beans.
+ * Launch via {@code mvn test-compile exec:exec -Djmh.args="PoolBenchmark -t <threads>"}, e.g. for 1, 4, 16 and 64 threads,
+ * where more threads than {@link #maxSize} will contend for instances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoolBenchmark {
+
+    @Param({ "strict-max", "striped" })
+    private String type;
+
+    @Param({ "20" })
+    private int maxSize;
+
+    /**
+     * Amount of work done while holding the instance
+     */
+    @Param({ "0", "100" })
+    private int tokens;
+
+    private Pool<Object> pool;
+
+    @Setup
+    public void setup() {
+        StatelessObjectFactory<Object> factory = new StatelessObjectFactory<Object>() {
+            @Override
+            public Object create() {
+                return new Object();
+            }
+
+            @Override
+            public void destroy(Object obj) {
+            }
+        };
+        this.pool = this.type.equals("striped") ? new StripedPool<>(factory, 0, this.maxSize, 5, TimeUnit.MINUTES) : new StrictMaxPool<>(factory, this.maxSize, 5, TimeUnit.MINUTES);
+        this.pool.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.pool.stop();
+    }
+
+    @Benchmark
+    public void getRelease() {
+        Object instance = this.pool.get();
+        try {
+            Blackhole.consumeCPU(this.tokens);
+        } finally {
+            this.pool.release(instance);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.timerservice.schedule;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import javax.ejb.ScheduleExpression;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the computation of the next timeout of a {@link CalendarBasedTimeout} within a matching day
+ * against walking the calendar fields, for a set of typical schedules.
+ * Launch via {@code mvn test-compile exec:exec -Djmh.args="CalendarBasedTimeoutBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarBasedTimeoutBenchmark {
+
+    /**
+     * second;minute;hour;dayOfMonth;dayOfWeek
+     */
+    @Param({ "*/15;*;*;*;*", "0;*/5;8-18;*;Mon-Fri", "0;0;2;*;*", "30;59;23;Last;*" })
+    private String schedule;
+
+    @Param({ "UTC", "Europe/Berlin" })
+    private String timezone;
+
+    private CalendarBasedTimeout timeout;
+    private Calendar current;
+
+    @Setup
+    public void setup() {
+        String[] values = this.schedule.split(";");
+        ScheduleExpression expression = new ScheduleExpression()
+                .second(values[0])
+                .minute(values[1])
+                .hour(values[2])
+                .dayOfMonth(values[3])
+                .dayOfWeek(values[4])
+                .timezone(this.timezone);
+        this.timeout = new CalendarBasedTimeout(expression);
+        this.current = new GregorianCalendar(TimeZone.getTimeZone(this.timezone));
+        this.current.clear();
+        this.current.set(2018, Calendar.JUNE, 15, 10, 7, 13);
+        // prime the matching day
+        this.timeout.getNextTimeout(this.current);
+    }
+
+    @Benchmark
+    public Calendar matchingDay() {
+        return this.timeout.getNextTimeout(this.current);
+    }
+
+    @Benchmark
+    public Calendar calendarFields() {
+        return this.timeout.computeNextTimeout(this.current, true);
+    }
+}
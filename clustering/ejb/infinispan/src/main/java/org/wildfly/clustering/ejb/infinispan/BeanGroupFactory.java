@@ -24,6 +24,8 @@ package org.wildfly.clustering.ejb.infinispan;
 import org.wildfly.clustering.ee.Creator;
 import org.wildfly.clustering.ee.Locator;
 import org.wildfly.clustering.ee.Remover;
+import org.wildfly.clustering.ejb.AffinityStatistics;
+import org.wildfly.clustering.ejb.PassivationStatistics;
 
 /**
  * A factory for creating a {@link BeanGroup}.
@@ -34,7 +36,7 @@ import org.wildfly.clustering.ee.Remover;
  * @param <I> the bean identifier type
  * @param <T> the bean type
  */
-public interface BeanGroupFactory<I, T> extends Creator<I, BeanGroupEntry<I, T>, Void>, Locator<I, BeanGroupEntry<I, T>>, Remover<I> {
+public interface BeanGroupFactory<I, T> extends Creator<I, BeanGroupEntry<I, T>, Void>, Locator<I, BeanGroupEntry<I, T>>, Remover<I>, PassivationStatistics, AffinityStatistics {
     /**
      * Create a new bean group using the specified identifier and entry.
      * @param id a group identifier
@@ -225,7 +225,8 @@ public class InfinispanBeanManager<I, T> implements BeanManager<I, T, Transactio
 
     Node locatePrimaryOwner(I id) {
         DistributionManager dist = this.cache.getAdvancedCache().getDistributionManager();
-        Address address = (dist != null) ? dist.getCacheTopology().getDistribution(id).primary() : null;
+        // Locate the owner of the bean's cache key, which shares its group, and thus its owner, with the bean group created alongside it
+        Address address = (dist != null) ? dist.getCacheTopology().getDistribution(this.beanFactory.createKey(id)).primary() : null;
         Node member = (address != null) ? this.nodeFactory.createNode(address) : null;
         return (member != null) ? member : this.registry.getGroup().getLocalMember();
     }
@@ -279,6 +280,31 @@ public class InfinispanBeanManager<I, T> implements BeanManager<I, T, Transactio
         return this.groupFactory.getPassiveCount();
     }
 
+    @Override
+    public int getPassivationQueueDepth() {
+        return this.groupFactory.getPassivationQueueDepth();
+    }
+
+    @Override
+    public long getMeanPassivationLatency() {
+        return this.groupFactory.getMeanPassivationLatency();
+    }
+
+    @Override
+    public long getMaxPassivationLatency() {
+        return this.groupFactory.getMaxPassivationLatency();
+    }
+
+    @Override
+    public long getLocalGroupReadCount() {
+        return this.groupFactory.getLocalGroupReadCount();
+    }
+
+    @Override
+    public long getRemoteGroupReadCount() {
+        return this.groupFactory.getRemoteGroupReadCount();
+    }
+
     @DataRehashed
     public void dataRehashed(DataRehashedEvent<BeanKey<I>, BeanEntry<I>> event) {
         Locality newLocality = new ConsistentHashLocality(event.getCache(), event.getConsistentHashAtEnd());
@@ -41,9 +41,12 @@ import org.wildfly.clustering.ejb.Time;
 import org.wildfly.clustering.ejb.infinispan.bean.InfinispanBeanFactory;
 import org.wildfly.clustering.ejb.infinispan.group.InfinispanBeanGroupFactory;
 import org.wildfly.clustering.infinispan.spi.affinity.KeyAffinityServiceFactory;
+import org.wildfly.clustering.marshalling.jboss.CompressedMarshalledValueFactory;
+import org.wildfly.clustering.marshalling.jboss.CompressingMarshallingContext;
 import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
 import org.wildfly.clustering.marshalling.jboss.SimpleMarshalledValueFactory;
 import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingContextFactory;
+import org.wildfly.clustering.marshalling.spi.Compressor;
 import org.wildfly.clustering.marshalling.spi.MarshalledValueFactory;
 import org.wildfly.clustering.registry.Registry;
 import org.wildfly.clustering.spi.NodeFactory;
@@ -67,13 +70,24 @@ public class InfinispanBeanManagerFactory<I, T> implements BeanManagerFactory<I,
 
     @Override
     public BeanManager<I, T, TransactionBatch> createBeanManager(IdentifierFactory<I> identifierFactory, PassivationListener<T> passivationListener, RemoveListener<T> removeListener) {
-        MarshallingContext context = new SimpleMarshallingContextFactory().createMarshallingContext(this.configuration.getMarshallingConfigurationRepository(), this.configuration.getBeanContext().getClassLoader());
-        MarshalledValueFactory<MarshallingContext> factory = new SimpleMarshalledValueFactory(context);
+        MarshallingContext marshallingContext = new SimpleMarshallingContextFactory().createMarshallingContext(this.configuration.getMarshallingConfigurationRepository(), this.configuration.getBeanContext().getClassLoader());
+        int compressionThreshold = this.configuration.getCompressionThreshold();
+        MarshallingContext context;
+        MarshalledValueFactory<MarshallingContext> factory;
+        if (compressionThreshold >= 0) {
+            CompressingMarshallingContext compressingContext = new CompressingMarshallingContext(marshallingContext, new Compressor(compressionThreshold));
+            context = compressingContext;
+            factory = new CompressedMarshalledValueFactory(compressingContext);
+        } else {
+            context = marshallingContext;
+            factory = new SimpleMarshalledValueFactory(marshallingContext);
+        }
         Cache<BeanKey<I>, BeanEntry<I>> beanCache = this.configuration.getCache();
         Cache<BeanGroupKey<I>, BeanGroupEntry<I, T>> groupCache = this.configuration.getCache();
         CacheProperties properties = new InfinispanCacheProperties(groupCache.getCacheConfiguration());
         String beanName = this.configuration.getBeanContext().getBeanName();
         BeanPassivationConfiguration passivationConfig = this.configuration.getPassivationConfiguration();
+        int passivationQueueSize = this.configuration.getPassivationQueueSize();
         PassivationConfiguration<T> passivation = new PassivationConfiguration<T>() {
             @Override
             public PassivationListener<T> getPassivationListener() {
@@ -84,6 +98,11 @@ public class InfinispanBeanManagerFactory<I, T> implements BeanManagerFactory<I,
             public BeanPassivationConfiguration getConfiguration() {
                 return passivationConfig;
             }
+
+            @Override
+            public int getQueueSize() {
+                return passivationQueueSize;
+            }
         };
         Predicate<Map.Entry<? super BeanKey<I>, ? super BeanEntry<I>>> beanFilter = new BeanFilter<>(beanName);
         BeanGroupFactory<I, T> groupFactory = new InfinispanBeanGroupFactory<>(groupCache, beanCache, beanFilter, factory, context, properties, passivation);
@@ -49,12 +49,20 @@ import org.wildfly.clustering.service.Builder;
 import org.wildfly.clustering.spi.ClusteringCacheRequirement;
 import org.wildfly.clustering.spi.ClusteringRequirement;
 import org.wildfly.clustering.spi.NodeFactory;
+import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
  * @author Paul Ferraro
  */
 public class InfinispanBeanManagerFactoryBuilder<I, T> implements Builder<BeanManagerFactory<I, T, TransactionBatch>>, Value<BeanManagerFactory<I, T, TransactionBatch>>, InfinispanBeanManagerFactoryConfiguration {
 
+    private static final String COMPRESSION_THRESHOLD = "org.wildfly.clustering.ejb.compression-threshold";
+    private static final String PASSIVATION_QUEUE_SIZE = "org.wildfly.clustering.ejb.passivation-queue-size";
+
+    static int resolvePassivationQueueSize() {
+        return Integer.parseInt(WildFlySecurityManager.getPropertyPrivileged(PASSIVATION_QUEUE_SIZE, "0"));
+    }
+
     private final CapabilityServiceSupport support;
     private final String name;
     private final BeanContext context;
@@ -148,4 +156,14 @@ public class InfinispanBeanManagerFactoryBuilder<I, T> implements Builder<BeanMa
     public CommandDispatcherFactory getCommandDispatcherFactory() {
         return this.dispatcherFactory.getValue();
     }
+
+    @Override
+    public int getCompressionThreshold() {
+        return Integer.parseInt(WildFlySecurityManager.getPropertyPrivileged(COMPRESSION_THRESHOLD, "-1"));
+    }
+
+    @Override
+    public int getPassivationQueueSize() {
+        return resolvePassivationQueueSize();
+    }
 }
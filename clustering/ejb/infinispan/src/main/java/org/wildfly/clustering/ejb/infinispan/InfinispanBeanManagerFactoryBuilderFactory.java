@@ -109,7 +109,11 @@ public class InfinispanBeanManagerFactoryBuilderFactory<I> implements BeanManage
                 InfinispanEjbLogger.ROOT_LOGGER.expirationDisabled(InfinispanCacheRequirement.CONFIGURATION.resolve(containerName, templateCacheName));
             }
 
-            int size = this.config.getMaxSize();
+            int maxSize = this.config.getMaxSize();
+            int queueSize = InfinispanBeanManagerFactoryBuilder.resolvePassivationQueueSize();
+            // If passivation is queued, the bean group factory passivates the bean groups it accessed in batches once the max size is exceeded.
+            // The data container bound remains as a backstop, e.g. for entries written by other members, allowing for the bean groups queued for passivation.
+            int size = ((maxSize >= 0) && (queueSize > 0)) ? (int) Math.min((long) maxSize + queueSize, Integer.MAX_VALUE) : maxSize;
             builder.memory().evictionType(EvictionType.COUNT).storageType(StorageType.OBJECT).size(size);
             if (size >= 0) {
                 // Only evict bean group entries
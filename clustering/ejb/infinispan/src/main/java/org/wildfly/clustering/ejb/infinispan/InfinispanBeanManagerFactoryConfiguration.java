@@ -47,4 +47,20 @@ public interface InfinispanBeanManagerFactoryConfiguration {
     NodeFactory<Address> getNodeFactory();
     Registry<String, ?> getRegistry();
     CommandDispatcherFactory getCommandDispatcherFactory();
+
+    /**
+     * Returns the minimum size, in bytes, of a marshalled bean group to be compressed.
+     * @return a number of bytes, or -1 if compression is disabled
+     */
+    default int getCompressionThreshold() {
+        return -1;
+    }
+
+    /**
+     * Returns the capacity of the asynchronous passivation queue.
+     * @return a number of bean groups, or 0 if passivation is synchronous
+     */
+    default int getPassivationQueueSize() {
+        return 0;
+    }
 }
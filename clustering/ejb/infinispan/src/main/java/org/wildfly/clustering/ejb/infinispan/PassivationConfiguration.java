@@ -39,4 +39,12 @@ public interface PassivationConfiguration<T> {
     PassivationListener<T> getPassivationListener();
 
     BeanPassivationConfiguration getConfiguration();
+
+    /**
+     * The maximum number of bean groups whose passivation, i.e. callbacks and cache store write, may be deferred to a background thread.
+     * @return a queue capacity, or 0 if passivation is fully synchronous
+     */
+    default int getQueueSize() {
+        return 0;
+    }
 }
@@ -21,19 +21,30 @@
  */
 package org.wildfly.clustering.ejb.infinispan.group;
 
+import java.security.PrivilegedAction;
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
 
 import org.infinispan.Cache;
 import org.infinispan.context.Flag;
+import org.infinispan.distribution.DistributionManager;
 import org.infinispan.notifications.Listener;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryActivated;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryPassivated;
 import org.infinispan.notifications.cachelistener.event.CacheEntryActivatedEvent;
 import org.infinispan.notifications.cachelistener.event.CacheEntryPassivatedEvent;
+import org.jboss.threads.JBossThreadFactory;
 import org.wildfly.clustering.ee.Mutator;
 import org.wildfly.clustering.ee.infinispan.CacheEntryMutator;
 import org.wildfly.clustering.ee.infinispan.CacheProperties;
@@ -50,6 +61,7 @@ import org.wildfly.clustering.ejb.infinispan.bean.InfinispanBeanKey;
 import org.wildfly.clustering.ejb.infinispan.logging.InfinispanEjbLogger;
 import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
 import org.wildfly.clustering.marshalling.spi.MarshalledValueFactory;
+import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
  * Encapsulates the cache mapping strategy of a bean group.
@@ -62,6 +74,13 @@ import org.wildfly.clustering.marshalling.spi.MarshalledValueFactory;
 @Listener
 public class InfinispanBeanGroupFactory<I, T> implements BeanGroupFactory<I, T> {
 
+    private static final int PASSIVATION_BATCH_SIZE = 64;
+
+    private static ThreadFactory createThreadFactory() {
+        PrivilegedAction<ThreadFactory> action = () -> new JBossThreadFactory(new ThreadGroup(InfinispanBeanGroupFactory.class.getSimpleName()), Boolean.FALSE, null, "%G - %t", null, null);
+        return WildFlySecurityManager.doUnchecked(action);
+    }
+
     private final Cache<BeanGroupKey<I>, BeanGroupEntry<I, T>> cache;
     private final Cache<BeanGroupKey<I>, BeanGroupEntry<I, T>> findCache;
     private final Cache<BeanKey<I>, BeanEntry<I>> beanCache;
@@ -69,7 +88,13 @@ public class InfinispanBeanGroupFactory<I, T> implements BeanGroupFactory<I, T>
     private final MarshalledValueFactory<MarshallingContext> factory;
     private final MarshallingContext context;
     private final AtomicInteger passiveCount = new AtomicInteger();
+    private final LongAdder localReads = new LongAdder();
+    private final LongAdder remoteReads = new LongAdder();
     private final PassivationListener<T> passivationListener;
+    // Identifiers of the bean groups resident in memory, in access order, if passivation is queued
+    private final Map<I, Boolean> residentGroups;
+    private final int maxSize;
+    private final PassivationQueue<I> passivationQueue;
 
     public InfinispanBeanGroupFactory(Cache<BeanGroupKey<I>, BeanGroupEntry<I, T>> cache, Cache<BeanKey<I>, BeanEntry<I>> beanCache, Predicate<Map.Entry<? super BeanKey<I>, ? super BeanEntry<I>>> beanFilter, MarshalledValueFactory<MarshallingContext> factory, MarshallingContext context, CacheProperties properties, PassivationConfiguration<T> passivation) {
         this.cache = cache;
@@ -79,12 +104,37 @@ public class InfinispanBeanGroupFactory<I, T> implements BeanGroupFactory<I, T>
         this.factory = factory;
         this.context = context;
         this.passivationListener = !properties.isPersistent() ? passivation.getPassivationListener() : null;
+        int queueSize = passivation.getQueueSize();
+        this.maxSize = passivation.getConfiguration().getMaxSize();
+        boolean queued = (queueSize > 0) && (this.maxSize >= 0);
+        // If queued, bean groups are evicted by this factory, so that the passivation of a bean group, i.e. its callbacks and its write to the cache store, does not block the thread that exceeded the max size
+        // The bound of the data container, which allows for the queued bean groups, remains as a backstop
+        this.residentGroups = queued ? new LinkedHashMap<>(16, 0.75f, true) : null;
+        this.passivationQueue = queued ? new PassivationQueue<>(queueSize, PASSIVATION_BATCH_SIZE, this::passivate, createThreadFactory()) : null;
         this.cache.addListener(this, new BeanGroupFilter());
     }
 
     @Override
     public void close() {
         this.cache.removeListener(this);
+        if (this.passivationQueue != null) {
+            this.passivationQueue.close();
+        }
+    }
+
+    @Override
+    public int getPassivationQueueDepth() {
+        return (this.passivationQueue != null) ? this.passivationQueue.getPassivationQueueDepth() : 0;
+    }
+
+    @Override
+    public long getMeanPassivationLatency() {
+        return (this.passivationQueue != null) ? this.passivationQueue.getMeanPassivationLatency() : 0L;
+    }
+
+    @Override
+    public long getMaxPassivationLatency() {
+        return (this.passivationQueue != null) ? this.passivationQueue.getMaxPassivationLatency() : 0L;
     }
 
     @Override
@@ -92,6 +142,16 @@ public class InfinispanBeanGroupFactory<I, T> implements BeanGroupFactory<I, T>
         return this.passiveCount.get();
     }
 
+    @Override
+    public long getLocalGroupReadCount() {
+        return this.localReads.sum();
+    }
+
+    @Override
+    public long getRemoteGroupReadCount() {
+        return this.remoteReads.sum();
+    }
+
     @Override
     public BeanGroupKey<I> createKey(I id) {
         return new InfinispanBeanGroupKey<>(id);
@@ -101,21 +161,72 @@ public class InfinispanBeanGroupFactory<I, T> implements BeanGroupFactory<I, T>
     public BeanGroupEntry<I, T> createValue(I id, Void context) {
         BeanGroupEntry<I, T> entry = new InfinispanBeanGroupEntry<>(this.factory.createMarshalledValue(new ConcurrentHashMap<>()));
         BeanGroupEntry<I, T> existing = this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).putIfAbsent(this.createKey(id), entry);
+        this.accessed(id);
         return (existing == null) ? entry : existing;
     }
 
     @Override
     public BeanGroupEntry<I, T> findValue(I id) {
-        return this.findCache.get(this.createKey(id));
+        BeanGroupKey<I> key = this.createKey(id);
+        this.recordRead(key);
+        return this.accessed(id, this.findCache.get(key));
     }
 
     @Override
     public BeanGroupEntry<I, T> tryValue(I id) {
-        return this.findCache.getAdvancedCache().withFlags(Flag.ZERO_LOCK_ACQUISITION_TIMEOUT, Flag.FAIL_SILENTLY).get(this.createKey(id));
+        BeanGroupKey<I> key = this.createKey(id);
+        this.recordRead(key);
+        return this.accessed(id, this.findCache.getAdvancedCache().withFlags(Flag.ZERO_LOCK_ACQUISITION_TIMEOUT, Flag.FAIL_SILENTLY).get(key));
+    }
+
+    private BeanGroupEntry<I, T> accessed(I id, BeanGroupEntry<I, T> entry) {
+        if (entry != null) {
+            this.accessed(id);
+        }
+        return entry;
+    }
+
+    /**
+     * Records an access of the specified bean group, and queues the passivation of the least recently used bean group if the max size was exceeded.
+     * @param id a bean group identifier
+     */
+    private void accessed(I id) {
+        if (this.residentGroups != null) {
+            I eldest = null;
+            synchronized (this.residentGroups) {
+                this.residentGroups.put(id, Boolean.TRUE);
+                if (this.residentGroups.size() > this.maxSize) {
+                    Iterator<I> ids = this.residentGroups.keySet().iterator();
+                    eldest = ids.next();
+                    ids.remove();
+                }
+            }
+            if (eldest != null) {
+                this.passivationQueue.offer(eldest);
+            }
+        }
+    }
+
+    private void evicted(I id) {
+        if (this.residentGroups != null) {
+            synchronized (this.residentGroups) {
+                this.residentGroups.remove(id);
+            }
+        }
+    }
+
+    private void recordRead(BeanGroupKey<I> key) {
+        DistributionManager dist = this.cache.getAdvancedCache().getDistributionManager();
+        if ((dist == null) || dist.getCacheTopology().getDistribution(key).isReadOwner()) {
+            this.localReads.increment();
+        } else {
+            this.remoteReads.increment();
+        }
     }
 
     @Override
     public boolean remove(I id) {
+        this.evicted(id);
         this.cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(this.createKey(id));
         return true;
     }
@@ -133,14 +244,22 @@ public class InfinispanBeanGroupFactory<I, T> implements BeanGroupFactory<I, T>
     public void passivated(CacheEntryPassivatedEvent<BeanGroupKey<I>, BeanGroupEntry<I, T>> event) {
         if (event.isPre()) {
             BeanGroupEntry<I, T> entry = event.getValue();
-            try (BeanGroup<I, T> group = new InfinispanBeanGroup<>(event.getKey().getId(), entry, this.context, Mutator.PASSIVE, this)) {
+            I groupId = event.getKey().getId();
+            this.evicted(groupId);
+            try (BeanGroup<I, T> group = new InfinispanBeanGroup<>(groupId, entry, this.context, Mutator.PASSIVE, this)) {
+                Set<BeanKey<I>> beanKeys = new HashSet<>();
                 for (I beanId : group.getBeans()) {
-                    BeanKey<I> beanKey = new InfinispanBeanKey<>(beanId);
-                    BeanEntry<I> beanEntry = this.beanCache.getAdvancedCache().withFlags(Flag.SKIP_CACHE_LOAD).get(beanKey);
-                    if ((beanEntry != null) && this.beanFilter.test(new AbstractMap.SimpleImmutableEntry<>(beanKey, beanEntry))) {
+                    beanKeys.add(new InfinispanBeanKey<>(beanId));
+                }
+                // Read the entries of all beans of this group at once
+                Map<BeanKey<I>, BeanEntry<I>> beanEntries = this.beanCache.getAdvancedCache().withFlags(Flag.SKIP_CACHE_LOAD).getAll(beanKeys);
+                for (Map.Entry<BeanKey<I>, BeanEntry<I>> beanEntry : beanEntries.entrySet()) {
+                    BeanKey<I> beanKey = beanEntry.getKey();
+                    if (this.beanFilter.test(beanEntry)) {
                         InfinispanEjbLogger.ROOT_LOGGER.tracef("Passivating bean %s", beanKey);
                         this.passiveCount.incrementAndGet();
-                        group.prePassivate(beanId, this.passivationListener);
+                        // Callbacks must complete before the group is written to the store
+                        group.prePassivate(beanKey.getId(), this.passivationListener);
                         // Cascade evict to bean entry
                         this.beanCache.evict(beanKey);
                     }
@@ -170,4 +289,20 @@ public class InfinispanBeanGroupFactory<I, T> implements BeanGroupFactory<I, T>
             }
         }
     }
+
+    private void passivate(List<I> groupIds) {
+        List<BeanGroupKey<I>> keys = new ArrayList<>(groupIds.size());
+        // Skip bean groups accessed since they were queued
+        synchronized (this.residentGroups) {
+            for (I groupId : groupIds) {
+                if (!this.residentGroups.containsKey(groupId)) {
+                    keys.add(this.createKey(groupId));
+                }
+            }
+        }
+        for (BeanGroupKey<I> key : keys) {
+            // Triggers the passivation of the bean group, i.e. its callbacks, its write to the cache store, and its cascading eviction
+            this.cache.evict(key);
+        }
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.ejb.infinispan.group;
+
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.wildfly.clustering.ejb.PassivationStatistics;
+import org.wildfly.clustering.ejb.infinispan.logging.InfinispanEjbLogger;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * A bounded queue of passivation work, drained in batches by a single background thread.
+ * If the queue is full, the work is performed by the calling thread, which throttles the rate of passivation to that of the writer.
+ *
+ * @author Paul Ferraro
+ *
+ * @param <E> the queued element type
+ */
+public class PassivationQueue<E> implements PassivationStatistics, AutoCloseable {
+
+    private static final long POLL_INTERVAL = 100;
+
+    private final BlockingQueue<QueuedElement<E>> queue;
+    private final int batchSize;
+    private final Consumer<List<E>> writer;
+    private final ExecutorService executor;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalLatency = new LongAdder();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new passivation queue.
+     * @param capacity the maximum number of queued elements
+     * @param batchSize the maximum number of elements passed to the writer at once
+     * @param writer performs the passivation work for a batch of elements
+     * @param threadFactory creates the thread that drains this queue
+     */
+    public PassivationQueue(int capacity, int batchSize, Consumer<List<E>> writer, ThreadFactory threadFactory) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.writer = writer;
+        this.executor = Executors.newSingleThreadExecutor(threadFactory);
+        this.executor.execute(this::drain);
+    }
+
+    /**
+     * Queues the specified element, or passes it to the writer directly if this queue is full or closed.
+     * @param element an element to passivate
+     */
+    public void offer(E element) {
+        QueuedElement<E> queued = new QueuedElement<>(element);
+        if (this.closed || !this.queue.offer(queued)) {
+            this.write(Collections.singletonList(queued));
+        }
+    }
+
+    private void drain() {
+        List<QueuedElement<E>> batch = new ArrayList<>(this.batchSize);
+        try {
+            while (!this.closed) {
+                QueuedElement<E> queued = this.queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (queued != null) {
+                    batch.add(queued);
+                    this.queue.drainTo(batch, this.batchSize - 1);
+                    this.write(batch);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<QueuedElement<E>> batch) {
+        List<E> elements = new ArrayList<>(batch.size());
+        for (QueuedElement<E> queued : batch) {
+            elements.add(queued.getElement());
+        }
+        try {
+            this.writer.accept(elements);
+        } catch (RuntimeException e) {
+            InfinispanEjbLogger.ROOT_LOGGER.warn(e.getLocalizedMessage(), e);
+        }
+        long now = System.nanoTime();
+        for (QueuedElement<E> queued : batch) {
+            long latency = now - queued.getTime();
+            this.completed.increment();
+            this.totalLatency.add(latency);
+            this.maxLatency.accumulateAndGet(latency, Math::max);
+        }
+    }
+
+    /**
+     * Stops the background thread, and flushes any elements remaining in the queue using the calling thread.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        PrivilegedAction<Void> action = () -> {
+            this.executor.shutdown();
+            return null;
+        };
+        WildFlySecurityManager.doUnchecked(action);
+        try {
+            this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<QueuedElement<E>> remaining = new ArrayList<>(this.queue.size());
+        this.queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            this.write(remaining);
+        }
+    }
+
+    @Override
+    public int getPassivationQueueDepth() {
+        return this.queue.size();
+    }
+
+    @Override
+    public long getMeanPassivationLatency() {
+        long count = this.completed.sum();
+        return (count > 0) ? TimeUnit.NANOSECONDS.toMillis(this.totalLatency.sum() / count) : 0L;
+    }
+
+    @Override
+    public long getMaxPassivationLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(this.maxLatency.get());
+    }
+
+    private static class QueuedElement<E> {
+        private final E element;
+        private final long time = System.nanoTime();
+
+        QueuedElement(E element) {
+            this.element = element;
+        }
+
+        E getElement() {
+            return this.element;
+        }
+
+        long getTime() {
+            return this.time;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.ejb.infinispan.group;
+
+import static org.mockito.Mockito.*;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Predicate;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.junit.Test;
+import org.wildfly.clustering.ee.infinispan.CacheProperties;
+import org.wildfly.clustering.ejb.BeanPassivationConfiguration;
+import org.wildfly.clustering.ejb.infinispan.BeanEntry;
+import org.wildfly.clustering.ejb.infinispan.BeanGroupEntry;
+import org.wildfly.clustering.ejb.infinispan.BeanGroupKey;
+import org.wildfly.clustering.ejb.infinispan.BeanKey;
+import org.wildfly.clustering.ejb.infinispan.PassivationConfiguration;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+import org.wildfly.clustering.marshalling.spi.MarshalledValueFactory;
+
+/**
+ * Unit test for the queued passivation of {@link InfinispanBeanGroupFactory}.
+ * @author Paul Ferraro
+ */
+public class InfinispanBeanGroupFactoryTestCase {
+
+    private final Cache<BeanGroupKey<Integer>, BeanGroupEntry<Integer, Object>> cache = mock(Cache.class);
+    private final AdvancedCache<BeanGroupKey<Integer>, BeanGroupEntry<Integer, Object>> advancedCache = mock(AdvancedCache.class);
+    private final Cache<BeanKey<Integer>, BeanEntry<Integer>> beanCache = mock(Cache.class);
+    private final AdvancedCache<BeanKey<Integer>, BeanEntry<Integer>> advancedBeanCache = mock(AdvancedCache.class);
+    private final Predicate<Map.Entry<? super BeanKey<Integer>, ? super BeanEntry<Integer>>> beanFilter = mock(Predicate.class);
+    private final MarshalledValueFactory<MarshallingContext> factory = mock(MarshalledValueFactory.class);
+    private final MarshallingContext context = mock(MarshallingContext.class);
+    private final CacheProperties properties = mock(CacheProperties.class);
+    private final PassivationConfiguration<Object> passivation = mock(PassivationConfiguration.class);
+    private final BeanPassivationConfiguration configuration = mock(BeanPassivationConfiguration.class);
+
+    private InfinispanBeanGroupFactory<Integer, Object> createFactory(int maxSize, int queueSize) {
+        when(this.cache.getAdvancedCache()).thenReturn(this.advancedCache);
+        when(this.advancedCache.withFlags(Flag.FORCE_SYNCHRONOUS)).thenReturn(this.advancedCache);
+        when(this.beanCache.getAdvancedCache()).thenReturn(this.advancedBeanCache);
+        when(this.passivation.getConfiguration()).thenReturn(this.configuration);
+        when(this.passivation.getQueueSize()).thenReturn(queueSize);
+        when(this.configuration.getMaxSize()).thenReturn(maxSize);
+        return new InfinispanBeanGroupFactory<>(this.cache, this.beanCache, this.beanFilter, this.factory, this.context, this.properties, this.passivation);
+    }
+
+    @Test
+    public void queued() {
+        InfinispanBeanGroupFactory<Integer, Object> factory = this.createFactory(1, 10);
+
+        factory.createValue(1, null);
+        factory.createValue(2, null);
+
+        // Drains the queue
+        factory.close();
+
+        // Least recently used bean group exceeding max size is passivated, i.e. evicted, by the queue
+        verify(this.cache).evict(new InfinispanBeanGroupKey<>(1));
+        verify(this.cache, never()).evict(new InfinispanBeanGroupKey<>(2));
+    }
+
+    @Test
+    public void accessedWhileQueued() throws InterruptedException {
+        InfinispanBeanGroupFactory<Integer, Object> factory = this.createFactory(1, 10);
+        BeanGroupEntry<Integer, Object> entry = mock(BeanGroupEntry.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+
+        // Block the queue while passivating the first bean group
+        doAnswer(invocation -> {
+            started.countDown();
+            proceed.await();
+            return null;
+        }).when(this.cache).evict(new InfinispanBeanGroupKey<>(0));
+        when(this.cache.get(new InfinispanBeanGroupKey<>(1))).thenReturn(entry);
+
+        factory.createValue(0, null);
+        factory.createValue(1, null);
+        started.await();
+
+        factory.createValue(2, null);
+        // Bean group 1 is queued for passivation, but is accessed before it is passivated
+        factory.findValue(1);
+
+        proceed.countDown();
+        factory.close();
+
+        verify(this.cache).evict(new InfinispanBeanGroupKey<>(0));
+        verify(this.cache, never()).evict(new InfinispanBeanGroupKey<>(1));
+        verify(this.cache).evict(new InfinispanBeanGroupKey<>(2));
+    }
+
+    @Test
+    public void synchronous() {
+        InfinispanBeanGroupFactory<Integer, Object> factory = this.createFactory(1, 0);
+
+        factory.createValue(1, null);
+        factory.createValue(2, null);
+
+        factory.close();
+
+        // Bean groups are evicted by the cache itself
+        verify(this.cache, never()).evict(new InfinispanBeanGroupKey<>(1));
+        verify(this.cache, never()).evict(new InfinispanBeanGroupKey<>(2));
+    }
+}
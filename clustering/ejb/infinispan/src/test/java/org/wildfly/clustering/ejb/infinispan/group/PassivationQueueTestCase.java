@@ -0,0 +1,99 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.ejb.infinispan.group;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link PassivationQueue}.
+ * @author Paul Ferraro
+ */
+public class PassivationQueueTestCase {
+
+    @Test
+    public void asynchronous() throws InterruptedException {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(3);
+        try (PassivationQueue<Integer> queue = new PassivationQueue<>(10, 10, batch -> {
+            written.addAll(batch);
+            batch.forEach(element -> latch.countDown());
+        }, Executors.defaultThreadFactory())) {
+            queue.offer(1);
+            queue.offer(2);
+            queue.offer(3);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(1, 2, 3), written);
+            assertEquals(0, queue.getPassivationQueueDepth());
+        }
+    }
+
+    @Test
+    public void backpressure() throws InterruptedException {
+        Thread caller = Thread.currentThread();
+        List<Integer> inline = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (PassivationQueue<Integer> queue = new PassivationQueue<>(1, 1, batch -> {
+            if (Thread.currentThread() == caller) {
+                inline.addAll(batch);
+                return;
+            }
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.addAll(batch);
+        }, Executors.defaultThreadFactory())) {
+            // Occupy the background thread
+            queue.offer(1);
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            // Fill the queue
+            queue.offer(2);
+            assertEquals(1, queue.getPassivationQueueDepth());
+            // Queue is full, so this must be written by the caller
+            queue.offer(3);
+            assertEquals(Collections.singletonList(3), inline);
+            release.countDown();
+        }
+        // The queued element is written either by the background thread, or when closing the queue, by the calling thread
+        List<Integer> all = new ArrayList<>(written);
+        all.addAll(inline);
+        Collections.sort(all);
+        assertEquals(Arrays.asList(1, 2, 3), all);
+        assertEquals(Integer.valueOf(1), written.get(0));
+        assertEquals(Integer.valueOf(3), inline.get(0));
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.ejb;
+
+/**
+ * Exposes statistics of the locality of bean group reads of a bean manager.
+ * @author Paul Ferraro
+ */
+public interface AffinityStatistics {
+    /**
+     * Returns the number of bean group reads for which this node was an owner of the group.
+     * @return a number of reads
+     */
+    default long getLocalGroupReadCount() {
+        return 0L;
+    }
+
+    /**
+     * Returns the number of bean group reads for which this node was not an owner of the group, and thus required a remote lookup.
+     * @return a number of reads
+     */
+    default long getRemoteGroupReadCount() {
+        return 0L;
+    }
+}
@@ -21,7 +21,7 @@
  */
 package org.wildfly.clustering.ejb;
 
-public interface BeanManagerStatistics {
+public interface BeanManagerStatistics extends PassivationStatistics, AffinityStatistics {
     int getActiveCount();
 
     int getPassiveCount();
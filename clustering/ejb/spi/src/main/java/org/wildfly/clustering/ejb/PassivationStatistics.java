@@ -0,0 +1,53 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.ejb;
+
+/**
+ * Exposes statistics of the passivation pipeline of a bean manager.
+ * @author Paul Ferraro
+ */
+public interface PassivationStatistics {
+    /**
+     * Returns the number of bean groups whose passivation is queued, but not yet completed.
+     * @return a queue depth, or 0 if passivation is synchronous
+     */
+    default int getPassivationQueueDepth() {
+        return 0;
+    }
+
+    /**
+     * Returns the mean time, in milliseconds, between the queuing of the passivation of a bean group and its completion.
+     * @return a latency in milliseconds
+     */
+    default long getMeanPassivationLatency() {
+        return 0L;
+    }
+
+    /**
+     * Returns the maximum time, in milliseconds, between the queuing of the passivation of a bean group and its completion.
+     * @return a latency in milliseconds
+     */
+    default long getMaxPassivationLatency() {
+        return 0L;
+    }
+}
@@ -28,6 +28,7 @@ import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.wildfly.clustering.marshalling.spi.ByteArrayPool;
 
 /**
  * Enumeration of management metrics for a cache container.
@@ -68,6 +69,36 @@ public enum CacheContainerMetric implements Metric<EmbeddedCacheManager> {
             return (address != null) ? new ModelNode(address.toString()) : null;
         }
     },
+    MARSHALLING_BUFFER_ACQUISITIONS(MetricKeys.MARSHALLING_BUFFER_ACQUISITIONS, ModelType.LONG) {
+        @Override
+        public ModelNode execute(EmbeddedCacheManager manager) {
+            return new ModelNode(ByteArrayPool.INSTANCE.getAcquisitionCount());
+        }
+    },
+    MARSHALLING_BUFFER_REUSES(MetricKeys.MARSHALLING_BUFFER_REUSES, ModelType.LONG) {
+        @Override
+        public ModelNode execute(EmbeddedCacheManager manager) {
+            return new ModelNode(ByteArrayPool.INSTANCE.getReuseCount());
+        }
+    },
+    MARSHALLING_BUFFER_ALLOCATIONS(MetricKeys.MARSHALLING_BUFFER_ALLOCATIONS, ModelType.LONG) {
+        @Override
+        public ModelNode execute(EmbeddedCacheManager manager) {
+            return new ModelNode(ByteArrayPool.INSTANCE.getAllocationCount());
+        }
+    },
+    MARSHALLING_BUFFER_ALLOCATED_BYTES(MetricKeys.MARSHALLING_BUFFER_ALLOCATED_BYTES, ModelType.LONG) {
+        @Override
+        public ModelNode execute(EmbeddedCacheManager manager) {
+            return new ModelNode(ByteArrayPool.INSTANCE.getAllocatedBytes());
+        }
+    },
+    MARSHALLING_BUFFER_RETAINED_BYTES(MetricKeys.MARSHALLING_BUFFER_RETAINED_BYTES, ModelType.LONG) {
+        @Override
+        public ModelNode execute(EmbeddedCacheManager manager) {
+            return new ModelNode(ByteArrayPool.INSTANCE.getRetainedBytes());
+        }
+    },
     ;
     private final AttributeDefinition definition;
 
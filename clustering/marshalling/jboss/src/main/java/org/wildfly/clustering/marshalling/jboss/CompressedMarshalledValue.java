@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.jboss;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import org.wildfly.clustering.marshalling.spi.Compressor;
+import org.wildfly.clustering.marshalling.spi.MarshalledValue;
+
+/**
+ * A marshalled value that is lazily serialized and deserialized on demand, whose serialized form is compressed
+ * if its size meets the threshold of the {@link Compressor} of its context.
+ * This implementation does not preserve the hash code of its object in serialized form.
+ * @author Paul Ferraro
+ */
+public class CompressedMarshalledValue<T> implements MarshalledValue<T, MarshallingContext> {
+    private static final long serialVersionUID = 5375932409618453263L;
+
+    // Used to write values that were deserialized, but never rehydrated with a compressing context
+    private static final Compressor UNCOMPRESSED = new Compressor(Integer.MAX_VALUE);
+
+    private transient volatile SimpleMarshalledValue<T> value;
+    private transient volatile Compressor compressor;
+    private transient volatile byte[] bytes;
+
+    public CompressedMarshalledValue(T object, CompressingMarshallingContext context) {
+        this.value = new SimpleMarshalledValue<>(object, context);
+        this.compressor = context.getCompressor();
+    }
+
+    CompressedMarshalledValue(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    byte[] getBytes() throws IOException {
+        byte[] bytes = this.bytes;
+        if (bytes != null) return bytes;
+        SimpleMarshalledValue<T> value = this.value;
+        byte[] uncompressed = (value != null) ? value.getBytes() : null;
+        if (uncompressed == null) return null;
+        Compressor compressor = this.compressor;
+        return ((compressor != null) ? compressor : UNCOMPRESSED).compress(uncompressed);
+    }
+
+    @Override
+    public synchronized T get(MarshallingContext context) throws IOException, ClassNotFoundException {
+        if (this.value == null) {
+            if (context instanceof CompressingMarshallingContext) {
+                this.compressor = ((CompressingMarshallingContext) context).getCompressor();
+            }
+            byte[] bytes = this.bytes;
+            this.value = new SimpleMarshalledValue<>((bytes != null) ? Compressor.decompress(bytes) : null);
+            this.bytes = null; // Free up memory
+        }
+        return this.value.get(context);
+    }
+
+    /**
+     * {@inheritDoc}
+     * N.B. Calls to hashCode will return 0 if this marshalled value was deserialized but its object not yet rehydrated.
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        SimpleMarshalledValue<T> value = this.value;
+        return (value != null) ? value.hashCode() : 0;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if ((object == null) || !(object instanceof CompressedMarshalledValue)) return false;
+        @SuppressWarnings("unchecked")
+        CompressedMarshalledValue<T> value = (CompressedMarshalledValue<T>) object;
+        SimpleMarshalledValue<T> ourValue = this.value;
+        SimpleMarshalledValue<T> theirValue = value.value;
+        if ((ourValue != null) && (theirValue != null)) {
+            return ourValue.equals(theirValue);
+        }
+        try {
+            byte[] us = this.getBytes();
+            byte[] them = value.getBytes();
+            return ((us != null) && (them != null)) ? Arrays.equals(us, them) : (us == them);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        SimpleMarshalledValue<T> value = this.value;
+        if (value != null) return value.toString();
+        byte[] bytes = this.bytes;
+        return (bytes != null) ? bytes.toString() : null;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        byte[] bytes = this.bytes;
+        if (bytes != null) {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            return;
+        }
+        SimpleMarshalledValue<T> value = this.value;
+        byte[] uncompressed = (value != null) ? value.getBytes() : null;
+        if (uncompressed != null) {
+            // Compress directly to the stream, avoiding an intermediate copy of the compressed form
+            Compressor compressor = this.compressor;
+            ((compressor != null) ? compressor : UNCOMPRESSED).writeTo(out, uncompressed);
+        } else {
+            out.writeInt(0);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int size = in.readInt();
+        byte[] bytes = null;
+        if (size > 0) {
+            bytes = new byte[size];
+            in.readFully(bytes);
+        }
+        this.bytes = bytes;
+    }
+}
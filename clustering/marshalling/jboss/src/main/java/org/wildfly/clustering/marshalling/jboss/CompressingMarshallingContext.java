@@ -0,0 +1,73 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.jboss;
+
+import java.io.IOException;
+
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Unmarshaller;
+import org.wildfly.clustering.marshalling.spi.Compressor;
+
+/**
+ * A {@link MarshallingContext} decorator that additionally provides the {@link Compressor} with which to compress marshalled values.
+ * @author Paul Ferraro
+ */
+public class CompressingMarshallingContext implements MarshallingContext {
+
+    private final MarshallingContext context;
+    private final Compressor compressor;
+
+    public CompressingMarshallingContext(MarshallingContext context, Compressor compressor) {
+        this.context = context;
+        this.compressor = compressor;
+    }
+
+    public Compressor getCompressor() {
+        return this.compressor;
+    }
+
+    @Override
+    public boolean isMarshallable(Object object) {
+        return this.context.isMarshallable(object);
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return this.context.getClassLoader();
+    }
+
+    @Override
+    public int getCurrentVersion() {
+        return this.context.getCurrentVersion();
+    }
+
+    @Override
+    public Unmarshaller createUnmarshaller(int version) throws IOException {
+        return this.context.createUnmarshaller(version);
+    }
+
+    @Override
+    public Marshaller createMarshaller(int version) throws IOException {
+        return this.context.createMarshaller(version);
+    }
+}
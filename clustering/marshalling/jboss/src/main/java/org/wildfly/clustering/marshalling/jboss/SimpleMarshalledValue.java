@@ -23,7 +23,8 @@
 package org.wildfly.clustering.marshalling.jboss;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -31,11 +32,10 @@ import java.util.Arrays;
 
 import org.jboss.marshalling.Marshaller;
 import org.jboss.marshalling.Marshalling;
-import org.jboss.marshalling.SimpleDataInput;
-import org.jboss.marshalling.SimpleDataOutput;
 import org.jboss.marshalling.Unmarshaller;
 import org.wildfly.clustering.marshalling.spi.IndexSerializer;
 import org.wildfly.clustering.marshalling.spi.MarshalledValue;
+import org.wildfly.clustering.marshalling.spi.PooledByteArrayOutputStream;
 import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
@@ -69,12 +69,12 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
         if (bytes != null) return bytes;
         if (this.object == null) return null;
         int version = this.context.getCurrentVersion();
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
         ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
-        try (SimpleDataOutput data = new SimpleDataOutput(Marshalling.createByteOutput(output))) {
-            IndexSerializer.VARIABLE.writeInt(data, version);
+        // Borrow a pooled buffer, and write the version directly to it, to avoid allocating intermediate buffers per serialization
+        try (PooledByteArrayOutputStream output = new PooledByteArrayOutputStream()) {
+            IndexSerializer.VARIABLE.writeInt(new DataOutputStream(output), version);
             try (Marshaller marshaller = this.context.createMarshaller(version)) {
-                marshaller.start(data);
+                marshaller.start(Marshalling.createByteOutput(output));
                 marshaller.writeObject(this.object);
                 marshaller.finish();
                 return output.toByteArray();
@@ -96,10 +96,10 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
             if (this.bytes != null) {
                 ByteArrayInputStream input = new ByteArrayInputStream(this.bytes);
                 ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
-                try (SimpleDataInput data = new SimpleDataInput(Marshalling.createByteInput(input))) {
-                    int version = IndexSerializer.VARIABLE.readInt(data);
+                try {
+                    int version = IndexSerializer.VARIABLE.readInt(new DataInputStream(input));
                     try (Unmarshaller unmarshaller = context.createUnmarshaller(version)) {
-                        unmarshaller.start(data);
+                        unmarshaller.start(Marshalling.createByteInput(input));
                         this.object = (T) unmarshaller.readObject();
                         unmarshaller.finish();
                         this.bytes = null; // Free up memory
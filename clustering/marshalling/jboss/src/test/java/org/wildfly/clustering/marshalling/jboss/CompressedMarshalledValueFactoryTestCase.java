@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.jboss;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.junit.Test;
+import org.wildfly.clustering.marshalling.spi.Compressor;
+
+/**
+ * Unit test for {@link CompressedMarshalledValueFactory}.
+ * @author Paul Ferraro
+ */
+public class CompressedMarshalledValueFactoryTestCase {
+    private final Compressor compressor = new Compressor(256);
+    private final CompressingMarshallingContext context;
+    private final CompressedMarshalledValueFactory factory;
+
+    public CompressedMarshalledValueFactoryTestCase() {
+        MarshallingConfigurationRepository repository = new MarshallingConfigurationRepository() {
+            @Override
+            public int getCurrentMarshallingVersion() {
+                return 0;
+            }
+
+            @Override
+            public MarshallingConfiguration getMarshallingConfiguration(int version) {
+                assertEquals(0, version);
+                return new MarshallingConfiguration();
+            }
+        };
+        this.context = new CompressingMarshallingContext(new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), repository, Thread.currentThread().getContextClassLoader()), this.compressor);
+        this.factory = new CompressedMarshalledValueFactory(this.context);
+    }
+
+    @Test
+    public void get() throws Exception {
+        // Below compression threshold
+        UUID uuid = UUID.randomUUID();
+        CompressedMarshalledValue<UUID> mv = this.factory.createMarshalledValue(uuid);
+        assertSame(uuid, mv.get(this.context));
+
+        CompressedMarshalledValue<UUID> copy = replicate(mv);
+        UUID uuid2 = copy.get(this.context);
+        assertNotSame(uuid, uuid2);
+        assertEquals(uuid, uuid2);
+
+        copy = replicate(copy);
+        assertEquals(uuid, copy.get(this.context));
+        assertEquals(0, this.compressor.getCompressedCount());
+
+        // Above compression threshold
+        List<String> list = new ArrayList<>(100);
+        for (int i = 0; i < 100; ++i) {
+            list.add("value-" + i);
+        }
+        CompressedMarshalledValue<List<String>> listValue = this.factory.createMarshalledValue(list);
+        CompressedMarshalledValue<List<String>> listCopy = replicate(listValue);
+        assertTrue(this.compressor.getCompressedCount() > 0);
+        assertTrue(this.compressor.getCompressedBytes() < this.compressor.getRawBytes());
+        assertEquals(list, listCopy.get(this.context));
+
+        // Rehydrated values remain compressed on subsequent replication
+        long compressed = this.compressor.getCompressedCount();
+        assertEquals(list, replicate(listCopy).get(this.context));
+        assertEquals(compressed + 1, this.compressor.getCompressedCount());
+
+        mv = this.factory.createMarshalledValue(null);
+        assertNull(mv.getBytes());
+        assertNull(mv.get(this.context));
+        assertNull(replicate(mv).get(this.context));
+    }
+
+    @Test
+    public void equals() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        CompressedMarshalledValue<UUID> mv = this.factory.createMarshalledValue(uuid);
+
+        assertTrue(mv.equals(mv));
+        assertFalse(mv.equals(null));
+
+        CompressedMarshalledValue<UUID> dup = this.factory.createMarshalledValue(uuid);
+        assertTrue(mv.equals(dup));
+        assertTrue(dup.equals(mv));
+
+        CompressedMarshalledValue<UUID> replica = replicate(mv);
+        assertTrue(mv.equals(replica));
+        assertTrue(replica.equals(mv));
+
+        CompressedMarshalledValue<UUID> nulled = this.factory.createMarshalledValue(null);
+        assertFalse(mv.equals(nulled));
+        assertFalse(nulled.equals(mv));
+        assertTrue(nulled.equals(this.factory.createMarshalledValue(null)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> CompressedMarshalledValue<V> replicate(CompressedMarshalledValue<V> mv) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(output)) {
+            out.writeObject(mv);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            return (CompressedMarshalledValue<V>) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of byte arrays used as marshalling buffers, organized into size classes.
+ * Each size class is 4 times larger than the previous, from 256 bytes to 64 KiB.
+ * Arrays larger than the largest size class are never retained, so that a single large value does not pin memory indefinitely.
+ * @author Paul Ferraro
+ */
+public class ByteArrayPool implements ByteArrayPoolStatistics {
+
+    private static final int MIN_SIZE_SHIFT = 8;
+    private static final int SIZE_CLASS_SHIFT = 2;
+    private static final int SIZE_CLASSES = 5;
+
+    /**
+     * The pool shared by all marshalled values of this process.
+     */
+    public static final ByteArrayPool INSTANCE = new ByteArrayPool(Runtime.getRuntime().availableProcessors() * 4);
+
+    private final int capacity;
+    private final Queue<byte[]>[] pools;
+    private final AtomicInteger[] pooled;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder reuses = new LongAdder();
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    /**
+     * Creates a new pool.
+     * @param capacity the maximum number of arrays retained per size class
+     */
+    @SuppressWarnings("unchecked")
+    public ByteArrayPool(int capacity) {
+        this.capacity = capacity;
+        this.pools = new Queue[SIZE_CLASSES];
+        this.pooled = new AtomicInteger[SIZE_CLASSES];
+        for (int i = 0; i < SIZE_CLASSES; ++i) {
+            this.pools[i] = new ConcurrentLinkedQueue<>();
+            this.pooled[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Returns the size of the largest pooled array.
+     * @return a number of bytes
+     */
+    public static int getMaxPooledSize() {
+        return sizeOf(SIZE_CLASSES - 1);
+    }
+
+    /**
+     * Returns an array of at least the specified length, reusing a pooled array if possible.
+     * @param length the minimum length of the array
+     * @return a byte array
+     */
+    public byte[] acquire(int length) {
+        this.acquisitions.increment();
+        int sizeClass = sizeClassOf(length);
+        if (sizeClass < 0) {
+            return this.allocate(length);
+        }
+        byte[] array = this.pools[sizeClass].poll();
+        if (array != null) {
+            this.pooled[sizeClass].decrementAndGet();
+            this.reuses.increment();
+            return array;
+        }
+        return this.allocate(sizeOf(sizeClass));
+    }
+
+    /**
+     * Returns the specified array to this pool.
+     * Arrays that were not acquired from this pool, or that would exceed the capacity of their size class, are discarded.
+     * @param array a byte array previously returned by {@link #acquire(int)}
+     */
+    public void release(byte[] array) {
+        int sizeClass = sizeClassOf(array.length);
+        if ((sizeClass < 0) || (sizeOf(sizeClass) != array.length)) return;
+        if (this.pooled[sizeClass].incrementAndGet() <= this.capacity) {
+            this.pools[sizeClass].offer(array);
+        } else {
+            this.pooled[sizeClass].decrementAndGet();
+        }
+    }
+
+    private byte[] allocate(int length) {
+        this.allocations.increment();
+        this.allocatedBytes.add(length);
+        return new byte[length];
+    }
+
+    private static int sizeOf(int sizeClass) {
+        return 1 << (MIN_SIZE_SHIFT + (sizeClass * SIZE_CLASS_SHIFT));
+    }
+
+    private static int sizeClassOf(int length) {
+        for (int i = 0; i < SIZE_CLASSES; ++i) {
+            if (length <= sizeOf(i)) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public long getAcquisitionCount() {
+        return this.acquisitions.sum();
+    }
+
+    @Override
+    public long getReuseCount() {
+        return this.reuses.sum();
+    }
+
+    @Override
+    public long getAllocationCount() {
+        return this.allocations.sum();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return this.allocatedBytes.sum();
+    }
+
+    @Override
+    public long getRetainedBytes() {
+        long bytes = 0;
+        for (int i = 0; i < SIZE_CLASSES; ++i) {
+            bytes += ((long) this.pooled[i].get()) * sizeOf(i);
+        }
+        return bytes;
+    }
+}
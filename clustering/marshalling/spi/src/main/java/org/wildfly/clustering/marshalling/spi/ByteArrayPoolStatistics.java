@@ -0,0 +1,60 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi;
+
+/**
+ * Exposes allocation statistics of a {@link ByteArrayPool}.
+ * @author Paul Ferraro
+ */
+public interface ByteArrayPoolStatistics {
+
+    /**
+     * Returns the number of buffers requested from the pool.
+     * @return a number of buffer requests
+     */
+    long getAcquisitionCount();
+
+    /**
+     * Returns the number of buffer requests satisfied by a pooled buffer.
+     * @return a number of reused buffers
+     */
+    long getReuseCount();
+
+    /**
+     * Returns the number of buffers allocated because no pooled buffer was available, or because the requested size exceeded the largest size class.
+     * @return a number of allocated buffers
+     */
+    long getAllocationCount();
+
+    /**
+     * Returns the total number of bytes allocated for buffers.
+     * @return a number of bytes
+     */
+    long getAllocatedBytes();
+
+    /**
+     * Returns the number of bytes currently retained by the pool.
+     * @return a number of bytes
+     */
+    long getRetainedBytes();
+}
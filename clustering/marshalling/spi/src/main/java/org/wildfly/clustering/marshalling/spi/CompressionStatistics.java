@@ -0,0 +1,54 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi;
+
+/**
+ * Exposes statistics of a {@link Compressor}, i.e. of the raw versus compressed size of marshalled values.
+ * @author Paul Ferraro
+ */
+public interface CompressionStatistics {
+
+    /**
+     * Returns the number of values whose marshalled form was compressed.
+     * @return a number of values
+     */
+    long getCompressedCount();
+
+    /**
+     * Returns the number of values whose marshalled form was stored uncompressed, either because it was smaller than the compression threshold, or because it was not compressible.
+     * @return a number of values
+     */
+    long getUncompressedCount();
+
+    /**
+     * Returns the total size of the marshalled values, prior to compression.
+     * @return a number of bytes
+     */
+    long getRawBytes();
+
+    /**
+     * Returns the total size of the marshalled values, after compression.
+     * @return a number of bytes
+     */
+    long getCompressedBytes();
+}
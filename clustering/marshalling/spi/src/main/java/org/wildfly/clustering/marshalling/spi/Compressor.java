@@ -0,0 +1,234 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses the marshalled form of values whose size meets a given threshold, using the deflate algorithm at its fastest level.
+ * The compressed form is self-describing, i.e. it can be decompressed via {@link #decompress(byte[])} regardless of the threshold with which it was compressed.
+ * Deflaters and inflaters are pooled, since they are costly to create and hold native memory.
+ * @author Paul Ferraro
+ */
+public class Compressor implements CompressionStatistics {
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 1;
+
+    private static final int POOL_CAPACITY = Runtime.getRuntime().availableProcessors();
+    private static final Queue<Deflater> DEFLATERS = new ConcurrentLinkedQueue<>();
+    private static final Queue<Inflater> INFLATERS = new ConcurrentLinkedQueue<>();
+
+    private final int threshold;
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder uncompressed = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+
+    /**
+     * Creates a new compressor.
+     * @param threshold the minimum size, in bytes, of a marshalled value to be compressed
+     */
+    public Compressor(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns the compressed form of the specified marshalled value.
+     * @param bytes the marshalled form of a value
+     * @return a compressed form, which may consist of the uncompressed bytes if below the compression threshold, or if not compressible
+     * @throws IOException if the value could not be compressed
+     */
+    public byte[] compress(byte[] bytes) throws IOException {
+        this.rawBytes.add(bytes.length);
+        if (bytes.length >= this.threshold) {
+            try (PooledByteArrayOutputStream output = new PooledByteArrayOutputStream()) {
+                if (this.deflate(bytes, output)) {
+                    return output.toByteArray();
+                }
+            }
+        }
+        byte[] result = new byte[bytes.length + 1];
+        result[0] = STORED;
+        System.arraycopy(bytes, 0, result, 1, bytes.length);
+        this.stored(bytes);
+        return result;
+    }
+
+    /**
+     * Writes the compressed form of the specified marshalled value to the specified output, prefixed by its length.
+     * Equivalent to writing the length and content of {@link #compress(byte[])}, but without copying the marshalled value.
+     * @param output a data output
+     * @param bytes the marshalled form of a value
+     * @throws IOException if the value could not be compressed or written
+     */
+    public void writeTo(DataOutput output, byte[] bytes) throws IOException {
+        this.rawBytes.add(bytes.length);
+        if (bytes.length >= this.threshold) {
+            try (PooledByteArrayOutputStream deflated = new PooledByteArrayOutputStream()) {
+                if (this.deflate(bytes, deflated)) {
+                    output.writeInt(deflated.size());
+                    deflated.writeTo(output);
+                    return;
+                }
+            }
+        }
+        output.writeInt(bytes.length + 1);
+        // Write the marker ahead of the marshalled value, rather than copying the value to prepend it
+        output.write(STORED);
+        output.write(bytes);
+        this.stored(bytes);
+    }
+
+    /**
+     * Writes the deflated form of the specified marshalled value to the specified stream.
+     * @return true, if the deflated form is smaller than the marshalled value, false otherwise
+     */
+    private boolean deflate(byte[] bytes, PooledByteArrayOutputStream output) throws IOException {
+        Deflater deflater = DEFLATERS.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.BEST_SPEED);
+        }
+        try {
+            output.write(DEFLATED);
+            IndexSerializer.VARIABLE.writeInt(new DataOutputStream(output), bytes.length);
+            DeflaterOutputStream deflated = new DeflaterOutputStream(output, deflater);
+            deflated.write(bytes);
+            // N.B. Do not close, which would also close the pooled stream
+            deflated.finish();
+            if (output.size() < bytes.length) {
+                this.compressed.increment();
+                this.compressedBytes.add(output.size());
+                return true;
+            }
+            return false;
+        } finally {
+            release(deflater);
+        }
+    }
+
+    private void stored(byte[] bytes) {
+        this.uncompressed.increment();
+        this.compressedBytes.add(bytes.length + 1);
+    }
+
+    /**
+     * Returns the marshalled value represented by the specified compressed form.
+     * @param bytes the compressed form of a marshalled value, as created by {@link #compress(byte[])}
+     * @return the marshalled form of a value
+     * @throws IOException if the compressed form is invalid
+     */
+    public static byte[] decompress(byte[] bytes) throws IOException {
+        if (bytes.length == 0) {
+            throw new InvalidObjectException(Arrays.toString(bytes));
+        }
+        switch (bytes[0]) {
+            case STORED: {
+                return Arrays.copyOfRange(bytes, 1, bytes.length);
+            }
+            case DEFLATED: {
+                ByteArrayInputStream input = new ByteArrayInputStream(bytes, 1, bytes.length - 1);
+                byte[] result = new byte[IndexSerializer.VARIABLE.readInt(new DataInputStream(input))];
+                int offset = bytes.length - input.available();
+                Inflater inflater = INFLATERS.poll();
+                if (inflater == null) {
+                    inflater = new Inflater();
+                }
+                try {
+                    inflater.setInput(bytes, offset, bytes.length - offset);
+                    int length = 0;
+                    while (!inflater.finished()) {
+                        int inflated = inflater.inflate(result, length, result.length - length);
+                        if ((inflated == 0) && (inflater.needsInput() || inflater.needsDictionary())) {
+                            throw new InvalidObjectException(Integer.toString(length));
+                        }
+                        length += inflated;
+                    }
+                    if (length != result.length) {
+                        throw new InvalidObjectException(Integer.toString(length));
+                    }
+                    return result;
+                } catch (DataFormatException e) {
+                    throw new IOException(e);
+                } finally {
+                    release(inflater);
+                }
+            }
+            default: {
+                throw new InvalidObjectException(Byte.toString(bytes[0]));
+            }
+        }
+    }
+
+    private static void release(Deflater deflater) {
+        // N.B. the size of the pool is small, so the linear cost of size() is negligible
+        if (DEFLATERS.size() < POOL_CAPACITY) {
+            deflater.reset();
+            DEFLATERS.offer(deflater);
+        } else {
+            deflater.end();
+        }
+    }
+
+    private static void release(Inflater inflater) {
+        if (INFLATERS.size() < POOL_CAPACITY) {
+            inflater.reset();
+            INFLATERS.offer(inflater);
+        } else {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public long getCompressedCount() {
+        return this.compressed.sum();
+    }
+
+    @Override
+    public long getUncompressedCount() {
+        return this.uncompressed.sum();
+    }
+
+    @Override
+    public long getRawBytes() {
+        return this.rawBytes.sum();
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return this.compressedBytes.sum();
+    }
+}
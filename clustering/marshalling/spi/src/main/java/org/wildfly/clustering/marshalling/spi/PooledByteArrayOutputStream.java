@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A growable in-memory output stream, analogous to {@link java.io.ByteArrayOutputStream}, whose buffers are borrowed from a {@link ByteArrayPool}.
+ * Unlike {@link java.io.ByteArrayOutputStream}, this stream is not thread-safe, and must be closed to return its buffer to the pool.
+ * @author Paul Ferraro
+ */
+public class PooledByteArrayOutputStream extends OutputStream {
+
+    private final ByteArrayPool pool;
+    private byte[] buffer;
+    private int size = 0;
+
+    public PooledByteArrayOutputStream() {
+        this(ByteArrayPool.INSTANCE);
+    }
+
+    public PooledByteArrayOutputStream(ByteArrayPool pool) {
+        this.pool = pool;
+        this.buffer = pool.acquire(0);
+    }
+
+    private byte[] ensureCapacity(int capacity) throws IOException {
+        byte[] buffer = this.buffer;
+        if (buffer == null) {
+            throw new IOException("Stream closed");
+        }
+        if (capacity < 0) {
+            throw new OutOfMemoryError();
+        }
+        if (capacity > buffer.length) {
+            int length = capacity;
+            if (capacity > ByteArrayPool.getMaxPooledSize()) {
+                // Beyond the largest size class, grow geometrically
+                int doubled = buffer.length << 1;
+                if (doubled > capacity) {
+                    length = doubled;
+                }
+            }
+            byte[] expanded = this.pool.acquire(length);
+            System.arraycopy(buffer, 0, expanded, 0, this.size);
+            this.pool.release(buffer);
+            this.buffer = expanded;
+            return expanded;
+        }
+        return buffer;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        byte[] buffer = this.ensureCapacity(this.size + 1);
+        buffer[this.size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if ((offset < 0) || (length < 0) || (length > bytes.length - offset)) {
+            throw new IndexOutOfBoundsException();
+        }
+        byte[] buffer = this.ensureCapacity(this.size + length);
+        System.arraycopy(bytes, offset, buffer, this.size, length);
+        this.size += length;
+    }
+
+    /**
+     * Returns the number of bytes written to this stream.
+     * @return a number of bytes
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns a copy of the bytes written to this stream.
+     * @return a byte array
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.size);
+    }
+
+    /**
+     * Writes the bytes written to this stream to the specified output, without copying them.
+     * @param output a data output
+     * @throws IOException if the bytes could not be written
+     */
+    public void writeTo(DataOutput output) throws IOException {
+        output.write(this.buffer, 0, this.size);
+    }
+
+    /**
+     * Returns the buffer of this stream to its pool.  Subsequent writes will fail.
+     */
+    @Override
+    public void close() {
+        byte[] buffer = this.buffer;
+        if (buffer != null) {
+            this.buffer = null;
+            this.pool.release(buffer);
+        }
+    }
+}
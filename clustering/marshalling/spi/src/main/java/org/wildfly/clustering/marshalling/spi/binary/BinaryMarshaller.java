@@ -0,0 +1,71 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+
+import org.wildfly.clustering.marshalling.spi.InvalidSerializedFormException;
+import org.wildfly.clustering.marshalling.spi.Marshaller;
+import org.wildfly.clustering.marshalling.spi.PooledByteArrayOutputStream;
+
+/**
+ * {@link Marshaller} of the binary marshalling backend, which eagerly marshals objects to a byte array.
+ */
+public class BinaryMarshaller implements Marshaller<Object, byte[]> {
+    private final BinaryMarshallingContext context;
+
+    public BinaryMarshaller(BinaryMarshallingContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public Object read(byte[] value) throws InvalidSerializedFormException {
+        if (value == null) return null;
+        try {
+            return this.context.readFrom(new ByteArrayInputStream(value));
+        } catch (ClassNotFoundException | InvalidClassException | InvalidObjectException e) {
+            throw new InvalidSerializedFormException(e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public byte[] write(Object object) {
+        if (object == null) return null;
+        try (PooledByteArrayOutputStream output = new PooledByteArrayOutputStream()) {
+            this.context.writeTo(output, object);
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public boolean isMarshallable(Object object) {
+        return this.context.isMarshallable(object);
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.function.Predicate;
+
+import org.wildfly.clustering.marshalling.Externalizer;
+import org.wildfly.clustering.marshalling.spi.DefaultExternalizer;
+import org.wildfly.clustering.marshalling.spi.Marshallability;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Marshalling context of the binary marshalling backend.
+ * The schema of this backend is the ordered table of externalizers, comprised of the {@link DefaultExternalizer}s followed by those externalizers visible to a given class loader,
+ * in the same order as used by the JBoss Marshalling object table.  All members of a cluster must therefore share the same set of externalizers.
+ * Objects are written as a variable-length type tag, followed by the externalized form of the object.
+ * Objects for which no externalizer exists are written via Java serialization.
+ * Classes resolved while reading such objects must be accepted by the class filter of this context.
+ */
+public class BinaryMarshallingContext implements Marshallability {
+
+    static final int CURRENT_VERSION = 1;
+
+    // Type tags, externalizer indexes follow
+    static final int NULL = 0;
+    static final int STRING = 1;
+    static final int BYTE_ARRAY = 2;
+    static final int INTEGER = 3;
+    static final int LONG = 4;
+    static final int TRUE = 5;
+    static final int FALSE = 6;
+    static final int SERIALIZED = 7;
+    static final int EXTERNALIZER_OFFSET = 8;
+
+    // Packages and classes known to be exploitable via Java deserialization
+    private static final List<String> DENIED_CLASS_PREFIXES = Arrays.asList(
+            "bsh.",
+            "com.mchange.v2.c3p0.",
+            "com.sun.org.apache.xalan.internal.xsltc.trax.",
+            "com.sun.rowset.JdbcRowSetImpl",
+            "java.rmi.server.RemoteObjectInvocationHandler",
+            "java.rmi.server.UnicastRemoteObject",
+            "javax.management.BadAttributeValueExpException",
+            "org.apache.commons.beanutils.BeanComparator",
+            "org.apache.commons.collections.functors.",
+            "org.apache.commons.collections4.functors.",
+            "org.apache.xalan.xsltc.trax.",
+            "org.codehaus.groovy.runtime.",
+            "org.mozilla.javascript.",
+            "org.python.core.",
+            "org.springframework.beans.factory.ObjectFactory",
+            "sun.rmi.server.");
+
+    /**
+     * The default filter of classes read via Java serialization, which rejects known deserialization gadgets, including arrays thereof.
+     */
+    public static final Predicate<String> DEFAULT_CLASS_FILTER = name -> {
+        // Strip array descriptor, e.g. [[Lfoo.Bar;
+        int start = name.lastIndexOf('[') + 1;
+        String className = ((start > 0) && name.startsWith("L", start)) ? name.substring(start + 1, name.length() - 1) : name;
+        for (String prefix : DENIED_CLASS_PREFIXES) {
+            if (className.startsWith(prefix)) return false;
+        }
+        return true;
+    };
+
+    private final ClassLoader loader;
+    private final List<Externalizer<Object>> externalizers;
+    private final Predicate<String> classFilter;
+    private final Map<Class<?>, Integer> indexes = new IdentityHashMap<>();
+
+    public BinaryMarshallingContext(ClassLoader loader) {
+        this(loader, DEFAULT_CLASS_FILTER);
+    }
+
+    public BinaryMarshallingContext(ClassLoader loader, Predicate<String> classFilter) {
+        this(loader, loadExternalizers(loader), classFilter);
+    }
+
+    public BinaryMarshallingContext(ClassLoader loader, List<Externalizer<Object>> externalizers) {
+        this(loader, externalizers, DEFAULT_CLASS_FILTER);
+    }
+
+    /**
+     * Creates a binary marshalling context.
+     * @param loader the class loader used to resolve classes
+     * @param externalizers the externalizer table
+     * @param classFilter accepts the names of the classes that may be read via Java serialization
+     */
+    public BinaryMarshallingContext(ClassLoader loader, List<Externalizer<Object>> externalizers, Predicate<String> classFilter) {
+        this.loader = loader;
+        this.externalizers = externalizers;
+        this.classFilter = classFilter;
+        ListIterator<Externalizer<Object>> iterator = externalizers.listIterator();
+        while (iterator.hasNext()) {
+            this.indexes.putIfAbsent(iterator.next().getTargetClass(), iterator.previousIndex());
+        }
+    }
+
+    private static List<Externalizer<Object>> loadExternalizers(ClassLoader loader) {
+        List<Externalizer<Object>> result = new ArrayList<>(EnumSet.allOf(DefaultExternalizer.class));
+        for (Externalizer<Object> externalizer : ServiceLoader.load(Externalizer.class, loader)) {
+            result.add(externalizer);
+        }
+        return result;
+    }
+
+    public ClassLoader getClassLoader() {
+        return this.loader;
+    }
+
+    @Override
+    public boolean isMarshallable(Object object) {
+        return (object == null) || (object instanceof String) || (object instanceof byte[]) || (object instanceof Integer) || (object instanceof Long) || (object instanceof Boolean) || (this.findIndex(object) != null) || (object instanceof Serializable);
+    }
+
+    /**
+     * Writes the specified object to the specified stream, prefixed by the version of this context.
+     * @param output an output stream
+     * @param object the object to write
+     * @throws IOException if the object could not be written
+     */
+    public void writeTo(OutputStream output, Object object) throws IOException {
+        BinaryObjectOutput out = new BinaryObjectOutput(output, this);
+        out.writeInt(CURRENT_VERSION);
+        out.writeObject(object);
+        out.flush();
+    }
+
+    /**
+     * Reads an object from the specified stream, as written by {@link #writeTo(OutputStream, Object)}.
+     * @param input an input stream
+     * @return the object read from the stream
+     * @throws IOException if the object could not be read
+     * @throws ClassNotFoundException if the class of the object could not be loaded
+     */
+    public Object readFrom(InputStream input) throws IOException, ClassNotFoundException {
+        BinaryObjectInput in = new BinaryObjectInput(input, this);
+        int version = in.readInt();
+        if (version != CURRENT_VERSION) {
+            throw new InvalidObjectException(Integer.toString(version));
+        }
+        if (this.loader == null) {
+            return in.readObject();
+        }
+        // Always restore the previous context class loader, even if there was none
+        ClassLoader loader = WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(this.loader);
+        try {
+            return in.readObject();
+        } finally {
+            WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(loader);
+        }
+    }
+
+    Integer findIndex(Object object) {
+        Class<?> targetClass = object.getClass().isEnum() ? ((Enum<?>) object).getDeclaringClass() : object.getClass();
+        Class<?> superClass = targetClass.getSuperclass();
+        // If implementation class has no externalizer, search any abstract superclasses
+        while (!this.indexes.containsKey(targetClass) && (superClass != null) && Modifier.isAbstract(superClass.getModifiers())) {
+            targetClass = superClass;
+            superClass = targetClass.getSuperclass();
+        }
+        return this.indexes.get(targetClass);
+    }
+
+    Externalizer<Object> getExternalizer(int index) throws IOException {
+        if (index >= this.externalizers.size()) {
+            throw new InvalidObjectException(Integer.toString(index));
+        }
+        return this.externalizers.get(index);
+    }
+
+    byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+                BinaryMarshallingContext.this.checkClass(description.getName());
+                try {
+                    return Class.forName(description.getName(), false, BinaryMarshallingContext.this.loader);
+                } catch (ClassNotFoundException e) {
+                    return super.resolveClass(description);
+                }
+            }
+
+            @Override
+            protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+                for (String name : interfaces) {
+                    BinaryMarshallingContext.this.checkClass(name);
+                }
+                ClassLoader loader = BinaryMarshallingContext.this.loader;
+                if (loader == null) {
+                    return super.resolveProxyClass(interfaces);
+                }
+                // Resolve proxy interfaces via the same class loader as other classes
+                Class<?>[] interfaceClasses = new Class<?>[interfaces.length];
+                try {
+                    for (int i = 0; i < interfaces.length; ++i) {
+                        interfaceClasses[i] = Class.forName(interfaces[i], false, loader);
+                    }
+                } catch (ClassNotFoundException e) {
+                    return super.resolveProxyClass(interfaces);
+                }
+                try {
+                    return Proxy.getProxyClass(loader, interfaceClasses);
+                } catch (IllegalArgumentException e) {
+                    throw new ClassNotFoundException(null, e);
+                }
+            }
+        }) {
+            return input.readObject();
+        }
+    }
+
+    private void checkClass(String name) throws InvalidClassException {
+        if (!this.classFilter.test(name)) {
+            throw new InvalidClassException(name, "Class not accepted by filter");
+        }
+    }
+}
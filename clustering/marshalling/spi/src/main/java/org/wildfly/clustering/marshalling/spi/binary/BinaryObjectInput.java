@@ -0,0 +1,234 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi.binary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link ObjectInput} of the binary marshalling backend, reading the format written by {@link BinaryObjectOutput}.
+ */
+class BinaryObjectInput implements ObjectInput {
+
+    private final InputStream input;
+    private final BinaryMarshallingContext context;
+
+    BinaryObjectInput(InputStream input, BinaryMarshallingContext context) {
+        this.input = input;
+        this.context = context;
+    }
+
+    @Override
+    public Object readObject() throws ClassNotFoundException, IOException {
+        int tag = this.readUnsignedVarInt();
+        switch (tag) {
+            case BinaryMarshallingContext.NULL: {
+                return null;
+            }
+            case BinaryMarshallingContext.STRING: {
+                return this.readUTF();
+            }
+            case BinaryMarshallingContext.BYTE_ARRAY: {
+                return this.readByteArray();
+            }
+            case BinaryMarshallingContext.INTEGER: {
+                return this.readInt();
+            }
+            case BinaryMarshallingContext.LONG: {
+                return this.readLong();
+            }
+            case BinaryMarshallingContext.TRUE: {
+                return Boolean.TRUE;
+            }
+            case BinaryMarshallingContext.FALSE: {
+                return Boolean.FALSE;
+            }
+            case BinaryMarshallingContext.SERIALIZED: {
+                return this.context.deserialize(this.readByteArray());
+            }
+            default: {
+                return this.context.getExternalizer(tag - BinaryMarshallingContext.EXTERNALIZER_OFFSET).readObject(this);
+            }
+        }
+    }
+
+    private byte[] readByteArray() throws IOException {
+        byte[] bytes = new byte[this.readUnsignedVarInt()];
+        this.readFully(bytes);
+        return bytes;
+    }
+
+    private int readUnsignedVarInt() throws IOException {
+        int b = this.readUnsignedByte();
+        int result = b & 0x7F;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            if (shift > 28) {
+                throw new InvalidObjectException(Integer.toString(result));
+            }
+            b = this.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+        }
+        return result;
+    }
+
+    private long readUnsignedVarLong() throws IOException {
+        int b = this.readUnsignedByte();
+        long result = b & 0x7F;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            if (shift > 63) {
+                throw new InvalidObjectException(Long.toString(result));
+            }
+            b = this.readUnsignedByte();
+            result |= (b & 0x7FL) << shift;
+        }
+        return result;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return this.input.read();
+    }
+
+    @Override
+    public int read(byte[] bytes) throws IOException {
+        return this.input.read(bytes);
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        return this.input.read(bytes, offset, length);
+    }
+
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+        this.readFully(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int offset, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int count = this.input.read(bytes, offset + read, length - read);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            read += count;
+        }
+    }
+
+    @Override
+    public int skipBytes(int n) throws IOException {
+        return (int) this.input.skip(n);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        return this.input.skip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return this.input.available();
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return this.readUnsignedByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return (byte) this.readUnsignedByte();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        int b = this.input.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return (short) this.readUnsignedShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return (this.readUnsignedByte() << 8) | this.readUnsignedByte();
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return (char) this.readUnsignedShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        int value = this.readUnsignedVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        long value = this.readUnsignedVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(this.readFixedInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        long high = this.readFixedInt();
+        long low = this.readFixedInt() & 0xFFFFFFFFL;
+        return Double.longBitsToDouble((high << 32) | low);
+    }
+
+    private int readFixedInt() throws IOException {
+        return (this.readUnsignedShort() << 16) | this.readUnsignedShort();
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return new String(this.readByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+}
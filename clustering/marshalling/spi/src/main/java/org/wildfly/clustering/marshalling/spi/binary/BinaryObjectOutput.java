@@ -0,0 +1,195 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi.binary;
+
+import java.io.IOException;
+import java.io.ObjectOutput;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.wildfly.clustering.marshalling.Externalizer;
+
+/**
+ * {@link ObjectOutput} of the binary marshalling backend.
+ * Integers and longs are written using a zig-zag variable-length encoding, such that small values of either sign require fewer bytes.
+ */
+class BinaryObjectOutput implements ObjectOutput {
+
+    private final OutputStream output;
+    private final BinaryMarshallingContext context;
+
+    BinaryObjectOutput(OutputStream output, BinaryMarshallingContext context) {
+        this.output = output;
+        this.context = context;
+    }
+
+    @Override
+    public void writeObject(Object object) throws IOException {
+        if (object == null) {
+            this.writeTag(BinaryMarshallingContext.NULL);
+        } else if (object instanceof String) {
+            this.writeTag(BinaryMarshallingContext.STRING);
+            this.writeUTF((String) object);
+        } else if (object instanceof byte[]) {
+            this.writeTag(BinaryMarshallingContext.BYTE_ARRAY);
+            this.writeByteArray((byte[]) object);
+        } else if (object instanceof Integer) {
+            this.writeTag(BinaryMarshallingContext.INTEGER);
+            this.writeInt((Integer) object);
+        } else if (object instanceof Long) {
+            this.writeTag(BinaryMarshallingContext.LONG);
+            this.writeLong((Long) object);
+        } else if (object instanceof Boolean) {
+            this.writeTag(((Boolean) object) ? BinaryMarshallingContext.TRUE : BinaryMarshallingContext.FALSE);
+        } else {
+            Integer index = this.context.findIndex(object);
+            if (index != null) {
+                Externalizer<Object> externalizer = this.context.getExternalizer(index);
+                this.writeTag(BinaryMarshallingContext.EXTERNALIZER_OFFSET + index);
+                externalizer.writeObject(this, object);
+            } else {
+                this.writeTag(BinaryMarshallingContext.SERIALIZED);
+                this.writeByteArray(this.context.serialize(object));
+            }
+        }
+    }
+
+    private void writeTag(int tag) throws IOException {
+        this.writeUnsignedVarInt(tag);
+    }
+
+    private void writeByteArray(byte[] bytes) throws IOException {
+        this.writeUnsignedVarInt(bytes.length);
+        this.output.write(bytes);
+    }
+
+    private void writeUnsignedVarInt(int value) throws IOException {
+        int i = value;
+        while ((i & ~0x7F) != 0) {
+            this.output.write((i & 0x7F) | 0x80);
+            i >>>= 7;
+        }
+        this.output.write(i);
+    }
+
+    private void writeUnsignedVarLong(long value) throws IOException {
+        long i = value;
+        while ((i & ~0x7FL) != 0) {
+            this.output.write((int) ((i & 0x7F) | 0x80));
+            i >>>= 7;
+        }
+        this.output.write((int) i);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        this.output.write(b);
+    }
+
+    @Override
+    public void write(byte[] bytes) throws IOException {
+        this.output.write(bytes);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        this.output.write(bytes, offset, length);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws IOException {
+        this.output.write(value ? 1 : 0);
+    }
+
+    @Override
+    public void writeByte(int value) throws IOException {
+        this.output.write(value);
+    }
+
+    @Override
+    public void writeShort(int value) throws IOException {
+        this.output.write((value >>> 8) & 0xFF);
+        this.output.write(value & 0xFF);
+    }
+
+    @Override
+    public void writeChar(int value) throws IOException {
+        this.writeShort(value);
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException {
+        this.writeUnsignedVarInt((value << 1) ^ (value >> 31));
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        this.writeUnsignedVarLong((value << 1) ^ (value >> 63));
+    }
+
+    @Override
+    public void writeFloat(float value) throws IOException {
+        this.writeFixedInt(Float.floatToIntBits(value));
+    }
+
+    @Override
+    public void writeDouble(double value) throws IOException {
+        long bits = Double.doubleToLongBits(value);
+        this.writeFixedInt((int) (bits >>> 32));
+        this.writeFixedInt((int) bits);
+    }
+
+    private void writeFixedInt(int value) throws IOException {
+        this.writeShort(value >>> 16);
+        this.writeShort(value);
+    }
+
+    @Override
+    public void writeBytes(String value) throws IOException {
+        for (int i = 0; i < value.length(); ++i) {
+            this.output.write((byte) value.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeChars(String value) throws IOException {
+        for (int i = 0; i < value.length(); ++i) {
+            this.writeChar(value.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeUTF(String value) throws IOException {
+        this.writeByteArray(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.output.close();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link ByteArrayPool} and {@link PooledByteArrayOutputStream}.
+ * @author Paul Ferraro
+ */
+public class ByteArrayPoolTestCase {
+
+    @Test
+    public void reuse() {
+        ByteArrayPool pool = new ByteArrayPool(1);
+
+        byte[] first = pool.acquire(100);
+        assertEquals(256, first.length);
+        byte[] second = pool.acquire(100);
+        assertNotSame(first, second);
+        assertEquals(2, pool.getAllocationCount());
+
+        pool.release(first);
+        // Exceeds capacity of size class
+        pool.release(second);
+        assertEquals(256, pool.getRetainedBytes());
+
+        assertSame(first, pool.acquire(256));
+        assertEquals(1, pool.getReuseCount());
+        assertEquals(0, pool.getRetainedBytes());
+
+        // Next size class
+        assertEquals(1024, pool.acquire(257).length);
+
+        // Oversized arrays are never pooled
+        byte[] oversized = pool.acquire(ByteArrayPool.getMaxPooledSize() + 1);
+        assertEquals(ByteArrayPool.getMaxPooledSize() + 1, oversized.length);
+        pool.release(oversized);
+        assertEquals(0, pool.getRetainedBytes());
+
+        // Foreign arrays are never pooled
+        pool.release(new byte[300]);
+        assertEquals(0, pool.getRetainedBytes());
+
+        assertEquals(5, pool.getAcquisitionCount());
+        assertEquals(4, pool.getAllocationCount());
+    }
+
+    @Test
+    public void stream() throws IOException {
+        ByteArrayPool pool = new ByteArrayPool(4);
+        Random random = new Random();
+        for (int size : new int[] { 0, 1, 255, 256, 257, 5000, ByteArrayPool.getMaxPooledSize(), ByteArrayPool.getMaxPooledSize() * 3 + 1 }) {
+            byte[] expected = new byte[size];
+            random.nextBytes(expected);
+            try (PooledByteArrayOutputStream output = new PooledByteArrayOutputStream(pool)) {
+                int offset = 0;
+                if (size > 0) {
+                    output.write(expected[0]);
+                    offset = 1;
+                }
+                while (offset < size) {
+                    int length = Math.min(size - offset, 1000);
+                    output.write(expected, offset, length);
+                    offset += length;
+                }
+                assertEquals(size, output.size());
+                assertArrayEquals(expected, output.toByteArray());
+            }
+        }
+        // Buffers were returned to the pool on close, so are reused by subsequent streams
+        long allocations = pool.getAllocationCount();
+        long reuses = pool.getReuseCount();
+        try (PooledByteArrayOutputStream output = new PooledByteArrayOutputStream(pool)) {
+            output.write(new byte[5000]);
+        }
+        assertEquals(allocations, pool.getAllocationCount());
+        assertEquals(reuses + 2, pool.getReuseCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void closed() throws IOException {
+        PooledByteArrayOutputStream output = new PooledByteArrayOutputStream(new ByteArrayPool(1));
+        output.close();
+        output.write(0);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link Compressor}.
+ * @author Paul Ferraro
+ */
+public class CompressorTestCase {
+
+    @Test
+    public void test() throws IOException {
+        Compressor compressor = new Compressor(100);
+
+        // Below threshold
+        byte[] small = new byte[99];
+        byte[] result = compressor.compress(small);
+        assertEquals(small.length + 1, result.length);
+        assertArrayEquals(small, Compressor.decompress(result));
+        assertEquals(1, compressor.getUncompressedCount());
+        assertEquals(0, compressor.getCompressedCount());
+
+        // Compressible
+        byte[] large = new byte[10000];
+        Arrays.fill(large, (byte) 'x');
+        result = compressor.compress(large);
+        assertTrue(result.length < large.length);
+        assertArrayEquals(large, Compressor.decompress(result));
+        assertEquals(1, compressor.getCompressedCount());
+
+        // Incompressible
+        byte[] random = new byte[10000];
+        new Random().nextBytes(random);
+        result = compressor.compress(random);
+        assertEquals(random.length + 1, result.length);
+        assertArrayEquals(random, Compressor.decompress(result));
+        assertEquals(2, compressor.getUncompressedCount());
+
+        assertEquals(small.length + large.length + random.length, compressor.getRawBytes());
+        assertTrue(compressor.getCompressedBytes() < compressor.getRawBytes());
+    }
+
+    @Test
+    public void writeTo() throws IOException {
+        byte[] small = new byte[99];
+        byte[] large = new byte[10000];
+        Arrays.fill(large, (byte) 'x');
+        byte[] random = new byte[10000];
+        new Random().nextBytes(random);
+
+        for (byte[] bytes : Arrays.asList(small, large, random)) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new Compressor(100).writeTo(new DataOutputStream(output), bytes);
+
+            // Written form is the length-prefixed compressed form
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(output.toByteArray()));
+            byte[] result = new byte[input.readInt()];
+            input.readFully(result);
+            assertEquals(0, input.available());
+            assertArrayEquals(new Compressor(100).compress(bytes), result);
+            assertArrayEquals(bytes, Compressor.decompress(result));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void invalid() throws IOException {
+        byte[] bytes = new Compressor(0).compress(new byte[1000]);
+        Compressor.decompress(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+}
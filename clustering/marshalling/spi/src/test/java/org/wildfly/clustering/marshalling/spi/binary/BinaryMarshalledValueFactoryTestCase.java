@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi.binary;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the binary marshalling backend.
+ */
+public class BinaryMarshalledValueFactoryTestCase {
+    private final BinaryMarshallingContext context = new BinaryMarshallingContext(Thread.currentThread().getContextClassLoader());
+    private final BinaryMarshalledValueFactory factory = new BinaryMarshalledValueFactory(this.context);
+
+    @Test
+    public void get() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        BinaryMarshalledValue<UUID> mv = this.factory.createMarshalledValue(uuid);
+
+        assertNotNull(mv.peek());
+        assertSame(uuid, mv.peek());
+        assertSame(uuid, mv.get(this.context));
+
+        BinaryMarshalledValue<UUID> copy = replicate(mv);
+
+        assertNull(copy.peek());
+
+        UUID uuid2 = copy.get(this.context);
+        assertNotSame(uuid, uuid2);
+        assertEquals(uuid, uuid2);
+
+        copy = replicate(copy);
+        uuid2 = copy.get(this.context);
+        assertEquals(uuid, uuid2);
+
+        mv = this.factory.createMarshalledValue(null);
+        assertNull(mv.peek());
+        assertNull(mv.getBytes());
+        assertNull(mv.get(this.context));
+    }
+
+    @Test
+    public void equals() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        BinaryMarshalledValue<UUID> mv = this.factory.createMarshalledValue(uuid);
+
+        assertTrue(mv.equals(mv));
+        assertFalse(mv.equals(null));
+
+        BinaryMarshalledValue<UUID> dup = this.factory.createMarshalledValue(uuid);
+        assertTrue(mv.equals(dup));
+        assertTrue(dup.equals(mv));
+
+        BinaryMarshalledValue<UUID> replica = replicate(mv);
+        assertTrue(mv.equals(replica));
+        assertTrue(replica.equals(mv));
+
+        BinaryMarshalledValue<UUID> nulled = this.factory.createMarshalledValue(null);
+        assertFalse(mv.equals(nulled));
+        assertFalse(nulled.equals(mv));
+        assertTrue(nulled.equals(this.factory.createMarshalledValue(null)));
+    }
+
+    @Test
+    public void marshaller() throws Exception {
+        BinaryMarshaller marshaller = new BinaryMarshaller(this.context);
+        Map<String, Object> map = new HashMap<>();
+        map.put("int", -1);
+        map.put("long", Long.MIN_VALUE);
+        map.put("bytes", new byte[] { 1, 2, 3 });
+        Object[] values = new Object[] { null, "", "\u00A7 text", 0, Integer.MAX_VALUE, Integer.MIN_VALUE, 1L, Long.MAX_VALUE, Boolean.TRUE, Boolean.FALSE,
+            UUID.randomUUID(), Instant.now(), Duration.ofSeconds(30L, 5L), TimeUnit.MINUTES, Collections.emptyList(), Arrays.asList(1, 2L, "3"),
+            new TreeSet<>(Arrays.asList("a", "b")), Collections.singletonMap("key", UUID.randomUUID()), new BigDecimal("3.14159"), 2.5d, 'c' };
+        for (Object value : values) {
+            assertTrue(marshaller.isMarshallable(value));
+            Object result = marshaller.read(marshaller.write(value));
+            assertEquals(value, result);
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> result = (Map<String, Object>) marshaller.read(marshaller.write(map));
+        assertEquals(map.get("int"), result.get("int"));
+        assertEquals(map.get("long"), result.get("long"));
+        assertArrayEquals((byte[]) map.get("bytes"), (byte[]) result.get("bytes"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> BinaryMarshalledValue<V> replicate(BinaryMarshalledValue<V> mv) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(output)) {
+            oos.writeObject(mv);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            return (BinaryMarshalledValue<V>) ois.readObject();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling.spi.binary;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.wildfly.clustering.marshalling.Externalizer;
+import org.wildfly.clustering.marshalling.spi.InvalidSerializedFormException;
+
+/**
+ * Unit tests for {@link BinaryMarshallingContext}.
+ */
+public class BinaryMarshallingContextTestCase {
+
+    @Test
+    public void restoreContextClassLoader() throws Exception {
+        ClassLoader loader = new URLClassLoader(new URL[0], this.getClass().getClassLoader());
+        // Verify that the context class loader is set while reading
+        Externalizer<Object> externalizer = new ContextClassLoaderExternalizer(loader);
+        BinaryMarshallingContext context = new BinaryMarshallingContext(loader, Collections.singletonList(externalizer));
+        byte[] bytes = write(context, new ContextClassLoaderExternalizer.Marker());
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try {
+            ClassLoader previous = new URLClassLoader(new URL[0], null);
+            thread.setContextClassLoader(previous);
+            assertNotNull(read(context, bytes));
+            assertSame(previous, thread.getContextClassLoader());
+
+            // Previous context class loader must be restored, even if null
+            thread.setContextClassLoader(null);
+            assertNotNull(read(context, bytes));
+            assertNull(thread.getContextClassLoader());
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    public void classFilter() throws Exception {
+        ClassLoader loader = this.getClass().getClassLoader();
+        BinaryMarshaller marshaller = new BinaryMarshaller(new BinaryMarshallingContext(loader, name -> !name.endsWith(Denied.class.getSimpleName())));
+
+        Allowed allowed = new Allowed("allowed");
+        assertEquals(allowed, marshaller.read(marshaller.write(allowed)));
+
+        byte[] denied = marshaller.write(new Denied());
+        try {
+            marshaller.read(denied);
+            fail("Denied class was deserialized");
+        } catch (InvalidSerializedFormException e) {
+            // Expected
+        }
+
+        // Filter also applies to classes referenced by a serialized object
+        byte[] nested = marshaller.write(new Allowed(new Denied()));
+        try {
+            marshaller.read(nested);
+            fail("Denied class was deserialized");
+        } catch (InvalidSerializedFormException e) {
+            // Expected
+        }
+
+        // Filter also applies to arrays
+        byte[] array = marshaller.write(new Allowed(new Denied[] { new Denied() }));
+        try {
+            marshaller.read(array);
+            fail("Denied class was deserialized");
+        } catch (InvalidSerializedFormException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void proxyClassLoader() throws Exception {
+        ClassLoader loader = new URLClassLoader(new URL[0], this.getClass().getClassLoader());
+        BinaryMarshallingContext context = new BinaryMarshallingContext(loader);
+        Object proxy = Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class<?>[] { Greeter.class }, new GreeterInvocationHandler());
+
+        Object result = read(context, write(context, proxy));
+
+        // Proxy classes are resolved via the class loader of the context, as are other classes
+        assertSame(loader, result.getClass().getClassLoader());
+        assertEquals("hello", ((Greeter) result).greet());
+    }
+
+    @Test
+    public void defaultClassFilter() {
+        for (String name : Arrays.asList(String.class.getName(), Allowed.class.getName(), "[Ljava.lang.String;", "[I", "org.apache.commons.collections.ArrayStack")) {
+            assertTrue(name, BinaryMarshallingContext.DEFAULT_CLASS_FILTER.test(name));
+        }
+        for (String name : Arrays.asList("org.apache.commons.collections.functors.InvokerTransformer", "[Lorg.apache.commons.collections.functors.InvokerTransformer;", "[[Lorg.codehaus.groovy.runtime.MethodClosure;", "com.sun.org.apache.xalan.internal.xsltc.trax.TemplatesImpl")) {
+            assertFalse(name, BinaryMarshallingContext.DEFAULT_CLASS_FILTER.test(name));
+        }
+    }
+
+    private static byte[] write(BinaryMarshallingContext context, Object object) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        context.writeTo(output, object);
+        return output.toByteArray();
+    }
+
+    private static Object read(BinaryMarshallingContext context, byte[] bytes) throws IOException, ClassNotFoundException {
+        return context.readFrom(new ByteArrayInputStream(bytes));
+    }
+
+    static class Allowed implements Serializable {
+        private static final long serialVersionUID = 6211389346735658458L;
+
+        private final Object value;
+
+        Allowed(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return (object instanceof Allowed) && this.value.equals(((Allowed) object).value);
+        }
+    }
+
+    public interface Greeter {
+        String greet();
+    }
+
+    static class GreeterInvocationHandler implements InvocationHandler, Serializable {
+        private static final long serialVersionUID = 3170474932455165085L;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return "hello";
+        }
+    }
+
+    static class Denied implements Serializable {
+        private static final long serialVersionUID = -2284380718462931633L;
+    }
+
+    static class ContextClassLoaderExternalizer implements Externalizer<Object> {
+        private final ClassLoader expected;
+
+        ContextClassLoaderExternalizer(ClassLoader expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void writeObject(ObjectOutput output, Object object) {
+            // Nothing to write
+        }
+
+        @Override
+        public Object readObject(ObjectInput input) {
+            assertSame(this.expected, Thread.currentThread().getContextClassLoader());
+            return new Marker();
+        }
+
+        @Override
+        public Class<Object> getTargetClass() {
+            @SuppressWarnings("unchecked")
+            Class<Object> targetClass = (Class<Object>) (Class<?>) Marker.class;
+            return targetClass;
+        }
+
+        static class Marker {
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.service.concurrent;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link TaskScheduler} based on a hashed timing wheel.
+ * Scheduling and cancellation are O(1), independent of the number of scheduled tasks, at the expense of timing precision,
+ * which is bounded by the tick duration.
+ * Tasks are handed off to a single worker thread, which advances the wheel once per tick, expiring the tasks of a given bucket as a batch.
+ * Tasks whose delay exceeds one revolution of the wheel are retained in their bucket for the requisite number of rounds.
+ * Tasks run on the worker thread, and should therefore be short-lived.
+ * The worker thread is only started once the first task is scheduled, so an unused scheduler costs no thread nor wakeups.
+ */
+public class HashedWheelScheduler implements TaskScheduler, AutoCloseable {
+
+    // Bounds the number of newly scheduled tasks transferred into the wheel per tick, so that the worker cannot starve
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Node> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Node> cancellations = new ConcurrentLinkedQueue<>();
+    private final LongAdder scheduledCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+    private final LongAdder cancelledCount = new LongAdder();
+    private final ThreadFactory factory;
+    // Written once, before the worker is started
+    private long startTime;
+    private volatile Thread worker;
+    private volatile boolean closed = false;
+    // Only accessed by worker thread
+    private long tick = 0;
+
+    /**
+     * Creates a new timing wheel scheduler.
+     * @param factory the factory for the worker thread
+     * @param tickDuration the duration of a single tick of the wheel
+     * @param unit the unit of the tick duration
+     * @param wheelSize the number of buckets in the wheel, which will be rounded up to the next power of 2
+     */
+    public HashedWheelScheduler(ThreadFactory factory, long tickDuration, TimeUnit unit, int wheelSize) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException(Long.toString(tickDuration));
+        }
+        if ((wheelSize <= 0) || (wheelSize > (1 << 30))) {
+            throw new IllegalArgumentException(Integer.toString(wheelSize));
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = (wheelSize == 1) ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; ++i) {
+            this.wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.factory = factory;
+    }
+
+    private synchronized void start() {
+        if (this.closed) {
+            throw new RejectedExecutionException();
+        }
+        if (this.worker == null) {
+            this.startTime = System.nanoTime();
+            Thread worker = this.factory.newThread(new Worker());
+            this.worker = worker;
+            worker.start();
+        }
+    }
+
+    @Override
+    public Cancellable schedule(Runnable task, long delay, TimeUnit unit) {
+        if (this.closed) {
+            throw new RejectedExecutionException();
+        }
+        if (this.worker == null) {
+            this.start();
+        }
+        long deadline = System.nanoTime() - this.startTime + Math.max(unit.toNanos(delay), 0L);
+        Node node = new Node(task, deadline);
+        this.pending.add(node);
+        this.scheduledCount.increment();
+        return node;
+    }
+
+    @Override
+    public void close() {
+        Thread worker;
+        synchronized (this) {
+            this.closed = true;
+            worker = this.worker;
+        }
+        if (worker == null) return;
+        LockSupport.unpark(worker);
+        if (Thread.currentThread() != worker) {
+            boolean interrupted = false;
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tasks scheduled since this scheduler was created.
+     * @return a number of tasks
+     */
+    public long getScheduledCount() {
+        return this.scheduledCount.sum();
+    }
+
+    /**
+     * Returns the number of tasks that have run since this scheduler was created.
+     * @return a number of tasks
+     */
+    public long getExpiredCount() {
+        return this.expiredCount.sum();
+    }
+
+    /**
+     * Returns the number of tasks that were cancelled before they could run.
+     * @return a number of tasks
+     */
+    public long getCancelledCount() {
+        return this.cancelledCount.sum();
+    }
+
+    /**
+     * Returns the approximate number of tasks awaiting execution.
+     * @return a number of tasks
+     */
+    public long getPendingCount() {
+        return Math.max(this.scheduledCount.sum() - this.expiredCount.sum() - this.cancelledCount.sum(), 0L);
+    }
+
+    /**
+     * Returns the duration of a single tick of this wheel.
+     * @param unit the desired unit
+     * @return the tick duration
+     */
+    public long getTickDuration(TimeUnit unit) {
+        return unit.convert(this.tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    class Worker implements Runnable {
+        @Override
+        public void run() {
+            HashedWheelScheduler scheduler = HashedWheelScheduler.this;
+            long time = this.awaitNextTick();
+            while (time >= 0) {
+                this.removeCancelled();
+                this.transferPending();
+                scheduler.wheel[(int) (scheduler.tick & scheduler.mask)].expire();
+                scheduler.tick += 1;
+                time = this.awaitNextTick();
+            }
+            // Abandon remaining tasks, consistent with ScheduledExecutorService.shutdownNow()
+            scheduler.pending.clear();
+            scheduler.cancellations.clear();
+            for (Bucket bucket : scheduler.wheel) {
+                bucket.clear();
+            }
+        }
+
+        /**
+         * Waits until the end of the current tick.
+         * @return the elapsed time since the start of this scheduler, or -1 if this scheduler was closed
+         */
+        private long awaitNextTick() {
+            HashedWheelScheduler scheduler = HashedWheelScheduler.this;
+            long end = scheduler.tickNanos * (scheduler.tick + 1);
+            while (!scheduler.closed) {
+                long time = System.nanoTime() - scheduler.startTime;
+                long remaining = end - time;
+                if (remaining <= 0) {
+                    return time;
+                }
+                LockSupport.parkNanos(scheduler, remaining);
+                // Clear any interrupt, which would otherwise cause parkNanos(...) to return immediately
+                Thread.interrupted();
+            }
+            return -1L;
+        }
+
+        private void removeCancelled() {
+            Node node = HashedWheelScheduler.this.cancellations.poll();
+            while (node != null) {
+                if (node.bucket != null) {
+                    node.bucket.remove(node);
+                }
+                node = HashedWheelScheduler.this.cancellations.poll();
+            }
+        }
+
+        private void transferPending() {
+            HashedWheelScheduler scheduler = HashedWheelScheduler.this;
+            for (int i = 0; i < MAX_TRANSFERS_PER_TICK; ++i) {
+                Node node = scheduler.pending.poll();
+                if (node == null) return;
+                if (node.state != Node.PENDING) continue;
+                long ticks = node.deadline / scheduler.tickNanos;
+                node.rounds = (ticks - scheduler.tick) / scheduler.wheel.length;
+                // If deadline already passed, expire during current tick
+                scheduler.wheel[(int) (Math.max(ticks, scheduler.tick) & scheduler.mask)].add(node);
+            }
+        }
+    }
+
+    /**
+     * A bucket of the wheel, implemented as an intrusive doubly linked list.  Only accessed by the worker thread.
+     */
+    class Bucket {
+        private Node head;
+        private Node tail;
+
+        void add(Node node) {
+            node.bucket = this;
+            if (this.tail == null) {
+                this.head = node;
+            } else {
+                this.tail.next = node;
+                node.previous = this.tail;
+            }
+            this.tail = node;
+        }
+
+        Node remove(Node node) {
+            Node next = node.next;
+            if (node.previous != null) {
+                node.previous.next = next;
+            } else {
+                this.head = next;
+            }
+            if (next != null) {
+                next.previous = node.previous;
+            } else {
+                this.tail = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            node.bucket = null;
+            return next;
+        }
+
+        void expire() {
+            Node node = this.head;
+            while (node != null) {
+                if (node.rounds <= 0) {
+                    Node next = this.remove(node);
+                    node.expire();
+                    node = next;
+                } else if (node.state != Node.PENDING) {
+                    node = this.remove(node);
+                } else {
+                    node.rounds -= 1;
+                    node = node.next;
+                }
+            }
+        }
+
+        void clear() {
+            Node node = this.head;
+            while (node != null) {
+                node = this.remove(node);
+            }
+        }
+    }
+
+    class Node implements Cancellable {
+        static final int PENDING = 0;
+        static final int CANCELLED = 1;
+        static final int EXPIRED = 2;
+
+        private final Runnable task;
+        final long deadline;
+        volatile int state = PENDING;
+        // Only accessed by worker thread
+        long rounds;
+        Bucket bucket;
+        Node previous;
+        Node next;
+
+        Node(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, PENDING, CANCELLED)) return false;
+            HashedWheelScheduler.this.cancellations.add(this);
+            HashedWheelScheduler.this.cancelledCount.increment();
+            return true;
+        }
+
+        void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, PENDING, EXPIRED)) return;
+            HashedWheelScheduler.this.expiredCount.increment();
+            try {
+                this.task.run();
+            } catch (RuntimeException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+
+    static final AtomicIntegerFieldUpdater<Node> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Node.class, "state");
+}
@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.service.concurrent;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceTarget;
+import org.wildfly.clustering.service.AsynchronousServiceBuilder;
+import org.wildfly.clustering.service.Builder;
+import org.wildfly.clustering.service.SuppliedValueService;
+
+/**
+ * Service that provides a {@link TaskScheduler} backed by a {@link HashedWheelScheduler}.
+ */
+public class HashedWheelSchedulerServiceBuilder implements Builder<TaskScheduler>, Function<HashedWheelScheduler, TaskScheduler>, Supplier<HashedWheelScheduler>, Consumer<HashedWheelScheduler> {
+
+    private final ServiceName name;
+    private final ThreadFactory factory;
+    private final long tickDuration;
+    private final TimeUnit unit;
+    private volatile int wheelSize = 512;
+
+    public HashedWheelSchedulerServiceBuilder(ServiceName name, ThreadFactory factory, long tickDuration, TimeUnit unit) {
+        this.name = name;
+        this.factory = factory;
+        this.tickDuration = tickDuration;
+        this.unit = unit;
+    }
+
+    @Override
+    public TaskScheduler apply(HashedWheelScheduler scheduler) {
+        // Do not expose close()
+        return scheduler::schedule;
+    }
+
+    @Override
+    public HashedWheelScheduler get() {
+        return new HashedWheelScheduler(this.factory, this.tickDuration, this.unit, this.wheelSize);
+    }
+
+    @Override
+    public void accept(HashedWheelScheduler scheduler) {
+        scheduler.close();
+    }
+
+    @Override
+    public ServiceName getServiceName() {
+        return this.name;
+    }
+
+    @Override
+    public ServiceBuilder<TaskScheduler> build(ServiceTarget target) {
+        Service<TaskScheduler> service = new SuppliedValueService<>(this, this, this);
+        return new AsynchronousServiceBuilder<>(this.name, service).startSynchronously().build(target).setInitialMode(ServiceController.Mode.ON_DEMAND);
+    }
+
+    public HashedWheelSchedulerServiceBuilder wheelSize(int size) {
+        this.wheelSize = size;
+        return this;
+    }
+}
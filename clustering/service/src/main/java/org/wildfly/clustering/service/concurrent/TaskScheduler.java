@@ -0,0 +1,53 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.service.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules tasks for deferred execution, returning a lightweight handle through which a scheduled task may be cancelled.
+ */
+public interface TaskScheduler {
+
+    /**
+     * Schedules the specified task to run after the specified delay.
+     * @param task a task
+     * @param delay the delay after which the task should run
+     * @param unit the unit of the delay
+     * @return a handle via which the task can be cancelled
+     * @throws java.util.concurrent.RejectedExecutionException if the scheduler is no longer accepting tasks
+     */
+    Cancellable schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Handle to a scheduled task.
+     */
+    @FunctionalInterface
+    interface Cancellable {
+        /**
+         * Cancels the scheduled task.
+         * @return true, if the task was cancelled before it ran, false otherwise.
+         */
+        boolean cancel();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.service.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link HashedWheelScheduler}.
+ */
+public class HashedWheelSchedulerTestCase {
+
+    @Test
+    public void schedule() throws InterruptedException {
+        try (HashedWheelScheduler scheduler = new HashedWheelScheduler(Executors.defaultThreadFactory(), 10, TimeUnit.MILLISECONDS, 8)) {
+            CountDownLatch latch = new CountDownLatch(3);
+            long start = System.nanoTime();
+            scheduler.schedule(latch::countDown, 0, TimeUnit.MILLISECONDS);
+            scheduler.schedule(latch::countDown, 30, TimeUnit.MILLISECONDS);
+            // Spans multiple revolutions of the wheel
+            scheduler.schedule(latch::countDown, 200, TimeUnit.MILLISECONDS);
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+            assertEquals(3, scheduler.getScheduledCount());
+            assertEquals(3, scheduler.getExpiredCount());
+            assertEquals(0, scheduler.getPendingCount());
+        }
+    }
+
+    @Test
+    public void cancel() throws InterruptedException {
+        try (HashedWheelScheduler scheduler = new HashedWheelScheduler(Executors.defaultThreadFactory(), 10, TimeUnit.MILLISECONDS, 8)) {
+            AtomicInteger count = new AtomicInteger();
+            CountDownLatch latch = new CountDownLatch(1);
+            TaskScheduler.Cancellable cancelled = scheduler.schedule(count::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+            TaskScheduler.Cancellable expired = scheduler.schedule(latch::countDown, 100, TimeUnit.MILLISECONDS);
+
+            assertTrue(cancelled.cancel());
+            // Cancellation is idempotent
+            assertFalse(cancelled.cancel());
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            // Task already ran
+            assertFalse(expired.cancel());
+            assertEquals(0, count.get());
+            assertEquals(1, scheduler.getCancelledCount());
+            assertEquals(1, scheduler.getExpiredCount());
+        }
+    }
+
+    @Test
+    public void lazy() throws InterruptedException {
+        AtomicInteger threads = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            threads.incrementAndGet();
+            return Executors.defaultThreadFactory().newThread(task);
+        };
+        try (HashedWheelScheduler scheduler = new HashedWheelScheduler(factory, 10, TimeUnit.MILLISECONDS, 8)) {
+            // No worker thread until a task is scheduled
+            assertEquals(0, threads.get());
+
+            CountDownLatch latch = new CountDownLatch(2);
+            scheduler.schedule(latch::countDown, 0, TimeUnit.MILLISECONDS);
+            scheduler.schedule(latch::countDown, 20, TimeUnit.MILLISECONDS);
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(1, threads.get());
+        }
+
+        // Closing an unused scheduler starts no thread
+        HashedWheelScheduler scheduler = new HashedWheelScheduler(factory, 10, TimeUnit.MILLISECONDS, 8);
+        scheduler.close();
+        try {
+            scheduler.schedule(threads::incrementAndGet, 0, TimeUnit.MILLISECONDS);
+            fail("Closed scheduler should reject task");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        }
+        assertEquals(1, threads.get());
+    }
+
+    @Test
+    public void close() {
+        HashedWheelScheduler scheduler = new HashedWheelScheduler(Executors.defaultThreadFactory(), 10, TimeUnit.MILLISECONDS, 8);
+        AtomicInteger count = new AtomicInteger();
+        scheduler.schedule(count::incrementAndGet, 1, TimeUnit.MINUTES);
+        scheduler.close();
+
+        try {
+            scheduler.schedule(count::incrementAndGet, 0, TimeUnit.MILLISECONDS);
+            fail("Closed scheduler should reject task");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        }
+        assertEquals(0, count.get());
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.security.PrivilegedAction;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.jboss.threads.JBossThreadFactory;
+import org.wildfly.clustering.ee.Batch;
+import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.Mutator;
+import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Coalesces the last access time updates of sessions on the local node, and writes them to the cache in batches on a fixed interval.
+ * This avoids a replicated write per request to record the last access time, most notably for read-only requests.
+ * To ensure that sessions are never expired prematurely, updates of sessions whose max inactive interval is not sufficiently larger than the flush interval are written through immediately.
+ * Pending meta data is private to this writer, and is never mutated once enqueued, since it may be marshalled concurrently by a flush.
+ * Since another member may have written a more recent last access time in the interim, pending updates never replace a more recent last access time.
+ * Updates of a batch that failed to write are retained for the next flush, unless superseded in the interim.
+ */
+public class DeferredSessionAccessMetaDataWriter implements AutoCloseable {
+
+    // The flush interval may not exceed this fraction of the max inactive interval of a session
+    private static final int MAX_INACTIVE_INTERVAL_FRACTION = 4;
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static ThreadFactory createThreadFactory() {
+        PrivilegedAction<ThreadFactory> action = () -> new JBossThreadFactory(new ThreadGroup(DeferredSessionAccessMetaDataWriter.class.getSimpleName()), Boolean.FALSE, null, "%G - %t", null, null);
+        return WildFlySecurityManager.doUnchecked(action);
+    }
+
+    private final Cache<SessionAccessMetaDataKey, SessionAccessMetaData> cache;
+    private final Batcher<TransactionBatch> batcher;
+    private final Duration interval;
+    private final Map<String, SessionAccessMetaData> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(createThreadFactory());
+
+    public DeferredSessionAccessMetaDataWriter(Cache<SessionAccessMetaDataKey, SessionAccessMetaData> cache, Batcher<TransactionBatch> batcher, Duration interval) {
+        this.cache = cache;
+        this.batcher = batcher;
+        this.interval = interval;
+        long millis = interval.toMillis();
+        this.executor.scheduleWithFixedDelay(this::flush, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a mutator for the access meta data of the specified session that defers its write to the next flush, if possible.
+     * @param id a session identifier
+     * @param creationMetaData the creation meta data of the session
+     * @param accessMetaData the access meta data of the session
+     * @param mutator the mutator to use if the write cannot be deferred
+     * @return a mutator
+     */
+    public Mutator createMutator(String id, ImmutableSessionCreationMetaData creationMetaData, SessionAccessMetaData accessMetaData, Mutator mutator) {
+        return () -> {
+            Duration maxInactiveInterval = creationMetaData.getMaxInactiveInterval();
+            if (maxInactiveInterval.isZero() || (maxInactiveInterval.compareTo(this.interval.multipliedBy(MAX_INACTIVE_INTERVAL_FRACTION)) >= 0)) {
+                this.pending.put(id, copy(accessMetaData));
+            } else {
+                this.pending.remove(id);
+                mutator.mutate();
+            }
+        };
+    }
+
+    /**
+     * Returns the access meta data of the specified session awaiting write, if any.
+     * @param id a session identifier
+     * @return a copy of the pending access meta data, or null if there is none
+     */
+    public SessionAccessMetaData get(String id) {
+        SessionAccessMetaData metaData = this.pending.get(id);
+        return (metaData != null) ? copy(metaData) : null;
+    }
+
+    /**
+     * Discards any pending write of the access meta data of the specified session, e.g. because the session was removed.
+     * @param id a session identifier
+     */
+    public void cancel(String id) {
+        this.pending.remove(id);
+    }
+
+    private static SessionAccessMetaData copy(ImmutableSessionAccessMetaData metaData) {
+        SessionAccessMetaData copy = new SimpleSessionAccessMetaData();
+        copy.setLastAccessedDuration(metaData.getLastAccessedDuration());
+        return copy;
+    }
+
+    void flush() {
+        Iterator<Map.Entry<String, SessionAccessMetaData>> entries = this.pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map<String, SessionAccessMetaData> written = new HashMap<>();
+            try (Batch batch = this.batcher.createBatch()) {
+                // Use FAIL_SILENTLY to prevent a single write from failing the remaining writes of the batch due to remote exceptions
+                Cache<SessionAccessMetaDataKey, SessionAccessMetaData> cache = this.cache.getAdvancedCache().withFlags(Flag.FAIL_SILENTLY);
+                for (int count = 0; (count < MAX_BATCH_SIZE) && entries.hasNext(); ++count) {
+                    Map.Entry<String, SessionAccessMetaData> entry = entries.next();
+                    String id = entry.getKey();
+                    SessionAccessMetaData metaData = entry.getValue();
+                    // Only remove if not updated in the interim
+                    if (this.pending.remove(id, metaData)) {
+                        written.put(id, metaData);
+                    }
+                    // Never overwrite a more recent last access time, nor resurrect the access meta data of a removed session
+                    cache.compute(new SessionAccessMetaDataKey(id), new SessionAccessMetaDataUpdate(metaData.getLastAccessedDuration()));
+                }
+            } catch (RuntimeException e) {
+                InfinispanWebLogger.ROOT_LOGGER.failedToWriteSessionAccessMetaData(e, written.size());
+                // Retry with the next flush, unless updated in the interim
+                for (Map.Entry<String, SessionAccessMetaData> entry : written.entrySet()) {
+                    this.pending.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(this.interval.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Write any remaining updates
+        this.flush();
+    }
+}
@@ -74,9 +74,12 @@ import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
 import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
 import org.wildfly.clustering.web.session.Session;
 import org.wildfly.clustering.web.session.SessionAttributes;
+import org.wildfly.clustering.web.session.SessionAttributeActivationStatistics;
 import org.wildfly.clustering.web.session.SessionExpirationListener;
 import org.wildfly.clustering.web.session.SessionManager;
 import org.wildfly.clustering.web.session.SessionMetaData;
+import org.wildfly.clustering.web.session.SessionExpirationStatistics;
+import org.wildfly.clustering.web.session.SessionMetaDataCacheStatistics;
 
 /**
  * Generic session manager implementation - independent of cache mapping strategy.
@@ -99,6 +102,9 @@ public class InfinispanSessionManager<MV, AV, L> implements SessionManager<L, Tr
     private final Predicate<Object> filter = new SessionCreationMetaDataKeyFilter();
     private final Recordable<ImmutableSession> recorder;
     private final ServletContext context;
+    private final SessionMetaDataCacheStatistics metaDataCacheStatistics;
+    private final SessionExpirationStatistics expirationStatistics;
+    private final SessionAttributeActivationStatistics attributeActivationStatistics;
 
     private volatile Duration defaultMaxInactiveInterval = Duration.ofMinutes(30L);
     private volatile Registration expirationRegistration;
@@ -116,6 +122,9 @@ public class InfinispanSessionManager<MV, AV, L> implements SessionManager<L, Tr
         this.memberFactory = configuration.getMemberFactory();
         this.recorder = configuration.getInactiveSessionRecorder();
         this.context = configuration.getServletContext();
+        this.metaDataCacheStatistics = configuration.getMetaDataCacheStatistics();
+        this.expirationStatistics = configuration.getExpirationStatistics();
+        this.attributeActivationStatistics = configuration.getAttributeActivationStatistics();
     }
 
     @Override
@@ -258,6 +267,56 @@ public class InfinispanSessionManager<MV, AV, L> implements SessionManager<L, Tr
         return this.getActiveSessions().size();
     }
 
+    @Override
+    public long getMetaDataCacheHitCount() {
+        return (this.metaDataCacheStatistics != null) ? this.metaDataCacheStatistics.getMetaDataCacheHitCount() : 0L;
+    }
+
+    @Override
+    public long getMetaDataCacheMissCount() {
+        return (this.metaDataCacheStatistics != null) ? this.metaDataCacheStatistics.getMetaDataCacheMissCount() : 0L;
+    }
+
+    @Override
+    public long getScheduledExpirationCount() {
+        return (this.expirationStatistics != null) ? this.expirationStatistics.getScheduledExpirationCount() : 0L;
+    }
+
+    @Override
+    public long getExpirationBacklog() {
+        return (this.expirationStatistics != null) ? this.expirationStatistics.getExpirationBacklog() : 0L;
+    }
+
+    @Override
+    public long getProcessedExpirationCount() {
+        return (this.expirationStatistics != null) ? this.expirationStatistics.getProcessedExpirationCount() : 0L;
+    }
+
+    @Override
+    public Duration getMeanExpirationLag() {
+        return (this.expirationStatistics != null) ? this.expirationStatistics.getMeanExpirationLag() : Duration.ZERO;
+    }
+
+    @Override
+    public Duration getMaxExpirationLag() {
+        return (this.expirationStatistics != null) ? this.expirationStatistics.getMaxExpirationLag() : Duration.ZERO;
+    }
+
+    @Override
+    public long getDeferredAttributeCount() {
+        return (this.attributeActivationStatistics != null) ? this.attributeActivationStatistics.getDeferredAttributeCount() : 0L;
+    }
+
+    @Override
+    public long getDeserializedAttributeCount() {
+        return (this.attributeActivationStatistics != null) ? this.attributeActivationStatistics.getDeserializedAttributeCount() : 0L;
+    }
+
+    @Override
+    public long getAvoidedAttributeDeserializationCount() {
+        return (this.attributeActivationStatistics != null) ? this.attributeActivationStatistics.getAvoidedAttributeDeserializationCount() : 0L;
+    }
+
     @CacheEntryActivated
     public void activated(CacheEntryActivatedEvent<SessionCreationMetaDataKey, ?> event) {
         if (!event.isPre() && !this.properties.isPersistent()) {
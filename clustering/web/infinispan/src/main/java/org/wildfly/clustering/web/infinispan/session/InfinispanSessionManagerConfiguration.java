@@ -36,7 +36,10 @@ import org.wildfly.clustering.infinispan.spi.distribution.Key;
 import org.wildfly.clustering.spi.NodeFactory;
 import org.wildfly.clustering.web.IdentifierFactory;
 import org.wildfly.clustering.web.session.ImmutableSession;
+import org.wildfly.clustering.web.session.SessionAttributeActivationStatistics;
 import org.wildfly.clustering.web.session.SessionExpirationListener;
+import org.wildfly.clustering.web.session.SessionExpirationStatistics;
+import org.wildfly.clustering.web.session.SessionMetaDataCacheStatistics;
 
 /**
  * Configuration for an {@link InfinispanSessionManager}.
@@ -54,4 +57,10 @@ public interface InfinispanSessionManagerConfiguration {
     Recordable<ImmutableSession> getInactiveSessionRecorder();
     Registrar<SessionExpirationListener> getExpirationRegistar();
     Group getGroup();
+
+    SessionMetaDataCacheStatistics getMetaDataCacheStatistics();
+
+    SessionExpirationStatistics getExpirationStatistics();
+
+    SessionAttributeActivationStatistics getAttributeActivationStatistics();
 }
@@ -22,6 +22,7 @@
 package org.wildfly.clustering.web.infinispan.session;
 
 import java.security.PrivilegedAction;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -65,6 +66,7 @@ import org.wildfly.clustering.marshalling.spi.MarshalledValueMarshaller;
 import org.wildfly.clustering.spi.NodeFactory;
 import org.wildfly.clustering.web.IdentifierFactory;
 import org.wildfly.clustering.web.infinispan.AffinityIdentifierFactory;
+import org.wildfly.clustering.web.infinispan.session.coarse.CoarseDeltaSessionAttributesFactory;
 import org.wildfly.clustering.web.infinispan.session.coarse.CoarseSessionAttributesFactory;
 import org.wildfly.clustering.web.infinispan.session.fine.FineSessionAttributesFactory;
 import org.wildfly.clustering.web.session.ImmutableSession;
@@ -73,6 +75,9 @@ import org.wildfly.clustering.web.session.SessionManager;
 import org.wildfly.clustering.web.session.SessionManagerConfiguration;
 import org.wildfly.clustering.web.session.SessionManagerFactory;
 import org.wildfly.clustering.web.session.SessionManagerFactoryConfiguration;
+import org.wildfly.clustering.web.session.SessionAttributeActivationStatistics;
+import org.wildfly.clustering.web.session.SessionExpirationStatistics;
+import org.wildfly.clustering.web.session.SessionMetaDataCacheStatistics;
 import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
@@ -97,7 +102,10 @@ public class InfinispanSessionManagerFactory<C extends Marshallability, L> imple
 
     private final KeyAffinityServiceFactory affinityFactory;
     private final SessionFactory<InfinispanSessionMetaData<L>, ?, L> factory;
-    private final Scheduler scheduler;
+    private final SessionExpirationScheduler scheduler;
+    private final SessionAttributeActivationStatistics attributeActivationStatistics;
+    private final SessionMetaDataNearCache<L> nearCache;
+    private final DeferredSessionAccessMetaDataWriter accessMetaDataWriter;
     private final SessionCreationMetaDataKeyFilter filter = new SessionCreationMetaDataKeyFilter();
     private final ExecutorService executor = Executors.newSingleThreadExecutor(createThreadFactory());
     private final AtomicReference<Future<?>> rehashFuture = new AtomicReference<>();
@@ -108,15 +116,25 @@ public class InfinispanSessionManagerFactory<C extends Marshallability, L> imple
         this.memberFactory = config.getMemberFactory();
         this.batcher = new InfinispanBatcher(this.cache);
         this.properties = new InfinispanCacheProperties(this.cache.getCacheConfiguration());
-        SessionMetaDataFactory<InfinispanSessionMetaData<L>, L> metaDataFactory = new InfinispanSessionMetaDataFactory<>(config.getCache(), this.properties);
-        this.factory = new InfinispanSessionFactory<>(metaDataFactory, this.createSessionAttributesFactory(config), config.getSessionManagerFactoryConfiguration().getLocalContextFactory());
+        int nearCacheSize = config.getMetaDataNearCacheSize();
+        // A near-cache is only useful if some sessions are not stored locally
+        this.nearCache = (nearCacheSize > 0) && !this.properties.isLockOnRead() && (this.cache.getAdvancedCache().getDistributionManager() != null) ? new SessionMetaDataNearCache<>(this.cache, nearCacheSize) : null;
+        Duration flushInterval = config.getAccessMetaDataFlushInterval();
+        this.accessMetaDataWriter = !flushInterval.isZero() && !flushInterval.isNegative() ? new DeferredSessionAccessMetaDataWriter(config.getCache(), this.batcher, flushInterval) : null;
+        SessionMetaDataFactory<InfinispanSessionMetaData<L>, L> metaDataFactory = new InfinispanSessionMetaDataFactory<>(config.getCache(), this.properties, this.nearCache, this.accessMetaDataWriter);
+        SessionAttributesFactory<?> attributesFactory = this.createSessionAttributesFactory(config);
+        this.attributeActivationStatistics = attributesFactory.getActivationStatistics();
+        this.factory = new InfinispanSessionFactory<>(metaDataFactory, attributesFactory, config.getSessionManagerFactoryConfiguration().getLocalContextFactory());
         CommandDispatcherFactory dispatcherFactory = config.getCommandDispatcherFactory();
         ExpiredSessionRemover<?, ?, L> remover = new ExpiredSessionRemover<>(this.factory);
         this.expirationRegistrar = remover;
-        this.scheduler = new SessionExpirationScheduler(this.batcher, remover);
+        this.scheduler = new SessionExpirationScheduler(this.batcher, remover, this.factory, config.getExpirationSchedulerShards());
         this.dispatcher = dispatcherFactory.createCommandDispatcher(this.cache.getName(), this.scheduler);
         this.group = dispatcherFactory.getGroup();
         this.cache.addListener(this);
+        if (this.nearCache != null) {
+            this.cache.addListener(this.nearCache, new SessionMetaDataKeyFilter(), null);
+        }
         this.schedule(new SimpleLocality(false), new CacheLocality(this.cache));
     }
 
@@ -178,6 +196,21 @@ public class InfinispanSessionManagerFactory<C extends Marshallability, L> imple
             public Recordable<ImmutableSession> getInactiveSessionRecorder() {
                 return configuration.getInactiveSessionRecorder();
             }
+
+            @Override
+            public SessionMetaDataCacheStatistics getMetaDataCacheStatistics() {
+                return InfinispanSessionManagerFactory.this.nearCache;
+            }
+
+            @Override
+            public SessionExpirationStatistics getExpirationStatistics() {
+                return InfinispanSessionManagerFactory.this.scheduler;
+            }
+
+            @Override
+            public SessionAttributeActivationStatistics getAttributeActivationStatistics() {
+                return InfinispanSessionManagerFactory.this.attributeActivationStatistics;
+            }
         };
         return new InfinispanSessionManager<>(this.factory, config);
     }
@@ -194,6 +227,9 @@ public class InfinispanSessionManagerFactory<C extends Marshallability, L> imple
             case COARSE: {
                 return new CoarseSessionAttributesFactory<>(configuration.getCache(), new MarshalledValueMarshaller<>(factory, context), this.properties);
             }
+            case COARSE_DELTA: {
+                return new CoarseDeltaSessionAttributesFactory<>(configuration.getCache(), new MarshalledValueMarshaller<>(factory, context), this.properties);
+            }
             default: {
                 // Impossible
                 throw new IllegalStateException();
@@ -204,6 +240,9 @@ public class InfinispanSessionManagerFactory<C extends Marshallability, L> imple
     @Override
     public void close() {
         this.cache.removeListener(this);
+        if (this.nearCache != null) {
+            this.cache.removeListener(this.nearCache);
+        }
         PrivilegedAction<List<Runnable>> action = () -> this.executor.shutdownNow();
         WildFlySecurityManager.doUnchecked(action);
         try {
@@ -213,6 +252,9 @@ public class InfinispanSessionManagerFactory<C extends Marshallability, L> imple
         }
         this.dispatcher.close();
         this.scheduler.close();
+        if (this.accessMetaDataWriter != null) {
+            this.accessMetaDataWriter.close();
+        }
     }
 
     @DataRehashed
@@ -21,6 +21,7 @@
  */
 package org.wildfly.clustering.web.infinispan.session;
 
+import java.time.Duration;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -169,4 +170,19 @@ public class InfinispanSessionManagerFactoryBuilder<C extends Marshallability, L
     public NodeFactory<Address> getMemberFactory() {
         return this.group.getValue();
     }
+
+    @Override
+    public int getMetaDataNearCacheSize() {
+        return this.configuration.getMetaDataNearCacheSize();
+    }
+
+    @Override
+    public int getExpirationSchedulerShards() {
+        return this.configuration.getExpirationSchedulerShards();
+    }
+
+    @Override
+    public Duration getAccessMetaDataFlushInterval() {
+        return this.configuration.getAccessMetaDataFlushInterval();
+    }
 }
@@ -21,6 +21,8 @@
  */
 package org.wildfly.clustering.web.infinispan.session;
 
+import java.time.Duration;
+
 import org.infinispan.Cache;
 import org.infinispan.remoting.transport.Address;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
@@ -40,4 +42,28 @@ public interface InfinispanSessionManagerFactoryConfiguration<C extends Marshall
     CommandDispatcherFactory getCommandDispatcherFactory();
 
     NodeFactory<Address> getMemberFactory();
+
+    /**
+     * Returns the maximum number of sessions, not owned by the local node, whose meta data should be cached locally.
+     * @return a number of sessions, or 0 if the near-cache is disabled
+     */
+    default int getMetaDataNearCacheSize() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of timing wheels across which the expiration of sessions is scheduled.
+     * @return a positive number of timing wheels
+     */
+    default int getExpirationSchedulerShards() {
+        return SessionExpirationScheduler.DEFAULT_SHARDS;
+    }
+
+    /**
+     * Returns the interval at which coalesced last access time updates are written to the cache.
+     * @return a flush interval, or {@link Duration#ZERO} if the last access time is written per request
+     */
+    default Duration getAccessMetaDataFlushInterval() {
+        return Duration.ZERO;
+    }
 }
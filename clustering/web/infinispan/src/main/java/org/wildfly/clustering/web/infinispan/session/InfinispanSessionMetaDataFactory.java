@@ -22,6 +22,8 @@
 
 package org.wildfly.clustering.web.infinispan.session;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.infinispan.Cache;
 import org.infinispan.context.Flag;
 import org.infinispan.notifications.Listener;
@@ -43,13 +45,29 @@ public class InfinispanSessionMetaDataFactory<L> implements SessionMetaDataFacto
     private final Cache<SessionCreationMetaDataKey, SessionCreationMetaDataEntry<L>> findCreationMetaDataCache;
     private final Cache<SessionAccessMetaDataKey, SessionAccessMetaData> accessMetaDataCache;
     private final CacheProperties properties;
+    private final SessionMetaDataNearCache<L> nearCache;
+    private final DeferredSessionAccessMetaDataWriter accessMetaDataWriter;
 
-    @SuppressWarnings("unchecked")
     public InfinispanSessionMetaDataFactory(Cache<? extends Key<String>, ?> cache, CacheProperties properties) {
+        this(cache, properties, null, null);
+    }
+
+    /**
+     * Creates a meta data factory whose lookups are fronted by the specified near-cache, and whose last access time updates are deferred to the specified writer.
+     * @param cache the session cache
+     * @param properties the session cache properties
+     * @param nearCache a near-cache of session meta data, or null if disabled
+     * @param accessMetaDataWriter a writer of coalesced access meta data, or null if access meta data is written per request
+     */
+    @SuppressWarnings("unchecked")
+    public InfinispanSessionMetaDataFactory(Cache<? extends Key<String>, ?> cache, CacheProperties properties, SessionMetaDataNearCache<L> nearCache, DeferredSessionAccessMetaDataWriter accessMetaDataWriter) {
         this.creationMetaDataCache = (Cache<SessionCreationMetaDataKey, SessionCreationMetaDataEntry<L>>) cache;
         this.findCreationMetaDataCache = properties.isLockOnRead() ? this.creationMetaDataCache.getAdvancedCache().withFlags(Flag.FORCE_WRITE_LOCK) : this.creationMetaDataCache;
         this.accessMetaDataCache = (Cache<SessionAccessMetaDataKey, SessionAccessMetaData>) cache;
         this.properties = properties;
+        // Near-cache lookups cannot honor read locks
+        this.nearCache = !properties.isLockOnRead() ? nearCache : null;
+        this.accessMetaDataWriter = accessMetaDataWriter;
     }
 
     @Override
@@ -60,7 +78,12 @@ public class InfinispanSessionMetaDataFactory<L> implements SessionMetaDataFacto
         }
         SessionAccessMetaData accessMetaData = new SimpleSessionAccessMetaData();
         this.accessMetaDataCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).put(new SessionAccessMetaDataKey(id), accessMetaData);
-        return new InfinispanSessionMetaData<>(creationMetaDataEntry.getMetaData(), accessMetaData, creationMetaDataEntry.getLocalContext());
+        InfinispanSessionMetaData<L> value = new InfinispanSessionMetaData<>(creationMetaDataEntry.getMetaData(), accessMetaData, creationMetaDataEntry.getLocalContext());
+        SessionMetaDataNearCache<L> nearCache = this.nearCache;
+        if ((nearCache != null) && nearCache.isApplicable(id)) {
+            nearCache.put(id, nearCache.load(id), value);
+        }
+        return value;
     }
 
     @Override
@@ -74,10 +97,31 @@ public class InfinispanSessionMetaDataFactory<L> implements SessionMetaDataFacto
     }
 
     private InfinispanSessionMetaData<L> getValue(String id, Cache<SessionCreationMetaDataKey, SessionCreationMetaDataEntry<L>> creationMetaDataCache) {
+        SessionMetaDataNearCache<L> nearCache = this.nearCache;
+        if ((nearCache != null) && nearCache.isApplicable(id)) {
+            InfinispanSessionMetaData<L> value = nearCache.get(id);
+            if (value == null) {
+                AtomicBoolean valid = nearCache.load(id);
+                value = this.readValue(id, creationMetaDataCache);
+                nearCache.put(id, valid, value);
+            }
+            return value;
+        }
+        return this.readValue(id, creationMetaDataCache);
+    }
+
+    private InfinispanSessionMetaData<L> readValue(String id, Cache<SessionCreationMetaDataKey, SessionCreationMetaDataEntry<L>> creationMetaDataCache) {
         SessionCreationMetaDataKey key = new SessionCreationMetaDataKey(id);
         SessionCreationMetaDataEntry<L> creationMetaDataEntry = creationMetaDataCache.get(key);
         if (creationMetaDataEntry != null) {
             SessionAccessMetaData accessMetaData = this.accessMetaDataCache.get(new SessionAccessMetaDataKey(id));
+            if ((accessMetaData != null) && (this.accessMetaDataWriter != null)) {
+                // Prefer a more recent last access time that was not yet written
+                SessionAccessMetaData pendingAccessMetaData = this.accessMetaDataWriter.get(id);
+                if (pendingAccessMetaData != null) {
+                    accessMetaData = pendingAccessMetaData;
+                }
+            }
             if (accessMetaData != null) {
                 return new InfinispanSessionMetaData<>(creationMetaDataEntry.getMetaData(), accessMetaData, creationMetaDataEntry.getLocalContext());
             }
@@ -89,17 +133,34 @@ public class InfinispanSessionMetaDataFactory<L> implements SessionMetaDataFacto
 
     @Override
     public InvalidatableSessionMetaData createSessionMetaData(String id, InfinispanSessionMetaData<L> entry) {
+        SessionMetaDataNearCache<L> nearCache = (this.nearCache != null) && this.nearCache.isApplicable(id) ? this.nearCache : null;
+
         SessionCreationMetaDataKey creationMetaDataKey = new SessionCreationMetaDataKey(id);
         Mutator creationMutator = this.properties.isTransactional() && this.creationMetaDataCache.getAdvancedCache().getCacheEntry(creationMetaDataKey).isCreated() ? Mutator.PASSIVE : new CacheEntryMutator<>(this.creationMetaDataCache, creationMetaDataKey, new SessionCreationMetaDataEntry<>(entry.getCreationMetaData(), entry.getLocalContext()));
-        SessionCreationMetaData creationMetaData = new MutableSessionCreationMetaData(entry.getCreationMetaData(), creationMutator);
+        SessionCreationMetaData creationMetaData = new MutableSessionCreationMetaData(entry.getCreationMetaData(), createNearCacheMutator(nearCache, id, entry, creationMutator));
 
         SessionAccessMetaDataKey accessMetaDataKey = new SessionAccessMetaDataKey(id);
         Mutator accessMutator = this.properties.isTransactional() && this.accessMetaDataCache.getAdvancedCache().getCacheEntry(accessMetaDataKey).isCreated() ? Mutator.PASSIVE : new CacheEntryMutator<>(this.accessMetaDataCache, accessMetaDataKey, entry.getAccessMetaData());
-        SessionAccessMetaData accessMetaData = new MutableSessionAccessMetaData(entry.getAccessMetaData(), accessMutator);
+        if ((this.accessMetaDataWriter != null) && (accessMutator != Mutator.PASSIVE)) {
+            accessMutator = this.accessMetaDataWriter.createMutator(id, creationMetaData, entry.getAccessMetaData(), accessMutator);
+        }
+        SessionAccessMetaData accessMetaData = new MutableSessionAccessMetaData(entry.getAccessMetaData(), createNearCacheMutator(nearCache, id, entry, accessMutator));
 
         return new SimpleSessionMetaData(creationMetaData, accessMetaData);
     }
 
+    /**
+     * Decorates the specified mutator such that the modified meta data is also applied to the specified near-cache,
+     * whose listener does not observe modifications of sessions owned by other members.
+     */
+    private static <L> Mutator createNearCacheMutator(SessionMetaDataNearCache<L> nearCache, String id, InfinispanSessionMetaData<L> entry, Mutator mutator) {
+        if (nearCache == null) return mutator;
+        return () -> {
+            mutator.mutate();
+            nearCache.update(id, entry);
+        };
+    }
+
     @Override
     public ImmutableSessionMetaData createImmutableSessionMetaData(String id, InfinispanSessionMetaData<L> entry) {
         return new SimpleSessionMetaData(entry.getCreationMetaData(), entry.getAccessMetaData());
@@ -116,6 +177,12 @@ public class InfinispanSessionMetaDataFactory<L> implements SessionMetaDataFacto
     }
 
     private boolean remove(String id, Cache<SessionCreationMetaDataKey, SessionCreationMetaDataEntry<L>> creationMetaDataCache) {
+        if (this.nearCache != null) {
+            this.nearCache.invalidate(id);
+        }
+        if (this.accessMetaDataWriter != null) {
+            this.accessMetaDataWriter.cancel(id);
+        }
         SessionCreationMetaDataKey key = new SessionCreationMetaDataKey(id);
         if (!this.properties.isLockOnWrite() || creationMetaDataCache.getAdvancedCache().withFlags(Flag.ZERO_LOCK_ACQUISITION_TIMEOUT, Flag.FAIL_SILENTLY).lock(key)) {
             creationMetaDataCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(key);
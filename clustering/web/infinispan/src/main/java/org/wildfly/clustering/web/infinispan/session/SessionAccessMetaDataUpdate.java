@@ -0,0 +1,56 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.time.Duration;
+import java.util.function.BiFunction;
+
+/**
+ * A last access time update of a session.
+ * Applied to the cache entry of the access meta data of a session via {@link org.infinispan.Cache#compute(Object, BiFunction)},
+ * such that a more recent last access time, written concurrently via another member, is never overwritten.
+ * @author Paul Ferraro
+ */
+public class SessionAccessMetaDataUpdate implements BiFunction<SessionAccessMetaDataKey, SessionAccessMetaData, SessionAccessMetaData> {
+
+    private final Duration lastAccessedDuration;
+
+    public SessionAccessMetaDataUpdate(Duration lastAccessedDuration) {
+        this.lastAccessedDuration = lastAccessedDuration;
+    }
+
+    public Duration getLastAccessedDuration() {
+        return this.lastAccessedDuration;
+    }
+
+    @Override
+    public SessionAccessMetaData apply(SessionAccessMetaDataKey key, SessionAccessMetaData current) {
+        // Never recreate the access meta data of a session that was removed concurrently, e.g. via invalidation or expiration
+        if (current == null) return null;
+        if (current.getLastAccessedDuration().compareTo(this.lastAccessedDuration) >= 0) return current;
+        // The current value is shared with concurrent readers, so do not modify it
+        SessionAccessMetaData result = new SimpleSessionAccessMetaData();
+        result.setLastAccessedDuration(this.lastAccessedDuration);
+        return result;
+    }
+}
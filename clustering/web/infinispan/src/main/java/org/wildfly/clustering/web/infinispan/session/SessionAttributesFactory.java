@@ -26,6 +26,7 @@ import org.wildfly.clustering.ee.Creator;
 import org.wildfly.clustering.ee.Locator;
 import org.wildfly.clustering.ee.Remover;
 import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
+import org.wildfly.clustering.web.session.SessionAttributeActivationStatistics;
 
 /**
  * @author Paul Ferraro
@@ -33,4 +34,12 @@ import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
 public interface SessionAttributesFactory<V> extends Creator<String, V, Void>, Locator<String, V>, Remover<String> {
     SessionAttributes createSessionAttributes(String id, V value);
     ImmutableSessionAttributes createImmutableSessionAttributes(String id, V value);
+
+    /**
+     * Returns statistics concerning the on-demand deserialization of session attributes, if supported by this factory.
+     * @return activation statistics, or null if attributes are deserialized eagerly
+     */
+    default SessionAttributeActivationStatistics getActivationStatistics() {
+        return null;
+    }
 }
@@ -25,14 +25,20 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.jboss.threads.JBossThreadFactory;
 import org.wildfly.clustering.ee.Batch;
@@ -40,23 +46,77 @@ import org.wildfly.clustering.ee.Batcher;
 import org.wildfly.clustering.ee.Remover;
 import org.wildfly.clustering.ee.infinispan.TransactionBatch;
 import org.wildfly.clustering.infinispan.spi.distribution.Locality;
+import org.wildfly.clustering.service.concurrent.HashedWheelScheduler;
+import org.wildfly.clustering.service.concurrent.TaskScheduler.Cancellable;
 import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
 import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
+import org.wildfly.clustering.web.session.SessionExpirationStatistics;
 
 /**
  * Session expiration scheduler that eagerly expires sessions as soon as they are eligible.
  * If/When Infinispan implements expiration notifications (ISPN-694), this will be obsolete.
+ * Sessions are sharded by identifier across a number of timing wheels, such that (re)scheduling is O(1) and does not contend on a single queue.
+ * A single shard is used by default, since each shard costs a wheel thread and a removal thread per deployment; these threads are only started once needed.
+ * Expired sessions are not removed by the wheel itself, but are queued per shard and removed in batches, each within a single transaction.
+ * If the removal of a batch fails, the sessions whose expiration listeners were already notified are removed without notifying them again.
  * @author Paul Ferraro
  */
-public class SessionExpirationScheduler implements Scheduler {
+public class SessionExpirationScheduler implements Scheduler, SessionExpirationStatistics {
 
-    final Map<String, Future<?>> expirationFutures = new ConcurrentHashMap<>();
+    public static final int DEFAULT_SHARDS = 1;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long TICK_MILLIS = 100;
+    // Spans ~7 minutes per revolution; longer timeouts are retained for multiple rounds
+    private static final int WHEEL_SIZE = 4096;
+
+    final Map<String, Expiration> expirations = new ConcurrentHashMap<>();
     final Batcher<TransactionBatch> batcher;
     final Remover<String> remover;
-    private final ScheduledExecutorService executor;
+    final Remover<String> notifiedRemover;
+    private final Shard[] shards;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final LongAdder backlog = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+    private final LongAdder totalLag = new LongAdder();
+    private final LongAccumulator maxLag = new LongAccumulator(Math::max, 0L);
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a session expiration scheduler.
+     * @param batcher a batcher
+     * @param remover removes an expired session, notifying its expiration listeners
+     * @param notifiedRemover removes a session whose expiration listeners were already notified
+     */
+    public SessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, Remover<String> notifiedRemover) {
+        this(batcher, remover, notifiedRemover, DEFAULT_SHARDS);
+    }
+
+    /**
+     * Creates a session expiration scheduler using the specified number of timing wheels.
+     * @param batcher a batcher
+     * @param remover removes an expired session, notifying its expiration listeners
+     * @param notifiedRemover removes a session whose expiration listeners were already notified
+     * @param shards the number of timing wheels
+     */
+    public SessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, Remover<String> notifiedRemover, int shards) {
+        this(batcher, remover, notifiedRemover, shards, DEFAULT_BATCH_SIZE);
+    }
 
-    public SessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover) {
-        this(batcher, remover, createScheduledExecutor(createThreadFactory()));
+    public SessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, Remover<String> notifiedRemover, int shards, int batchSize) {
+        if ((shards <= 0) || (batchSize <= 0)) {
+            throw new IllegalArgumentException();
+        }
+        this.batcher = batcher;
+        this.remover = remover;
+        this.notifiedRemover = notifiedRemover;
+        this.batchSize = batchSize;
+        ThreadFactory factory = createThreadFactory();
+        this.executor = Executors.newFixedThreadPool(shards, factory);
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; ++i) {
+            this.shards[i] = new Shard(new HashedWheelScheduler(factory, TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SIZE));
+        }
     }
 
     private static ThreadFactory createThreadFactory() {
@@ -68,24 +128,11 @@ public class SessionExpirationScheduler implements Scheduler {
         });
     }
 
-    private static ScheduledExecutorService createScheduledExecutor(ThreadFactory factory) {
-        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, factory);
-        executor.setRemoveOnCancelPolicy(true);
-        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
-        return executor;
-    }
-
-    public SessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, ScheduledExecutorService executor) {
-        this.batcher = batcher;
-        this.remover = remover;
-        this.executor = executor;
-    }
-
     @Override
     public void cancel(String sessionId) {
-        Future<?> future = this.expirationFutures.remove(sessionId);
-        if (future != null) {
-            future.cancel(false);
+        Expiration expiration = this.expirations.remove(sessionId);
+        if (expiration != null) {
+            expiration.cancel();
         }
     }
 
@@ -93,20 +140,29 @@ public class SessionExpirationScheduler implements Scheduler {
     public void schedule(String sessionId, ImmutableSessionMetaData metaData) {
         Duration maxInactiveInterval = metaData.getMaxInactiveInterval();
         if (!maxInactiveInterval.isZero()) {
-            Instant lastAccessed = metaData.getLastAccessedTime();
-            Duration delay = Duration.between(Instant.now(), lastAccessed.plus(maxInactiveInterval));
-            Runnable task = new ExpirationTask(sessionId);
-            long seconds = !delay.isNegative() ? delay.getSeconds() + 1 : 0;
-            InfinispanWebLogger.ROOT_LOGGER.tracef("Session %s will expire in %d sec", sessionId, seconds);
-            synchronized (task) {
-                this.expirationFutures.put(sessionId, this.executor.schedule(task, seconds, TimeUnit.SECONDS));
+            Instant expirationTime = metaData.getLastAccessedTime().plus(maxInactiveInterval);
+            Duration delay = Duration.between(Instant.now(), expirationTime);
+            // The wheel never expires a task before its deadline, so no rounding is necessary
+            long millis = !delay.isNegative() ? delay.toMillis() + 1 : 0;
+            InfinispanWebLogger.ROOT_LOGGER.tracef("Session %s will expire in %d ms", sessionId, millis);
+            Shard shard = this.shards[shard(sessionId, this.shards.length)];
+            Expiration expiration = new Expiration(sessionId, expirationTime, shard);
+            Expiration previous = this.expirations.put(sessionId, expiration);
+            if (previous != null) {
+                previous.cancel();
+            }
+            try {
+                expiration.schedule(millis);
+            } catch (RejectedExecutionException e) {
+                // Scheduler was closed
+                this.expirations.remove(sessionId, expiration);
             }
         }
     }
 
     @Override
     public void cancel(Locality locality) {
-        for (String sessionId : this.expirationFutures.keySet()) {
+        for (String sessionId : this.expirations.keySet()) {
             if (Thread.currentThread().isInterrupted()) break;
             if (!locality.isLocal(sessionId)) {
                 this.cancel(sessionId);
@@ -116,45 +172,215 @@ public class SessionExpirationScheduler implements Scheduler {
 
     @Override
     public void close() {
+        this.closed = true;
+        // Abandon scheduled expirations, consistent with ScheduledExecutorService.shutdownNow()
+        for (Shard shard : this.shards) {
+            shard.wheel.close();
+        }
         this.executor.shutdown();
-        for (Future<?> future : this.expirationFutures.values()) {
-            future.cancel(true);
+        for (Shard shard : this.shards) {
+            shard.clear();
+        }
+        try {
+            this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.expirations.clear();
+    }
+
+    @Override
+    public long getScheduledExpirationCount() {
+        return this.expirations.size();
+    }
+
+    @Override
+    public long getExpirationBacklog() {
+        return this.backlog.sum();
+    }
+
+    @Override
+    public long getProcessedExpirationCount() {
+        return this.expiredCount.sum();
+    }
+
+    @Override
+    public Duration getMeanExpirationLag() {
+        long count = this.expiredCount.sum();
+        return Duration.ofMillis((count > 0) ? this.totalLag.sum() / count : 0L);
+    }
+
+    @Override
+    public Duration getMaxExpirationLag() {
+        return Duration.ofMillis(this.maxLag.get());
+    }
+
+    private static int shard(String sessionId, int shards) {
+        int hash = sessionId.hashCode();
+        // Spread the high bits, since session identifiers may share a common suffix
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards;
+    }
+
+    void removed(Expiration expiration) {
+        long lag = Math.max(Duration.between(expiration.time, Instant.now()).toMillis(), 0L);
+        this.totalLag.add(lag);
+        this.maxLag.accumulate(lag);
+        this.expiredCount.increment();
+        this.backlog.decrement();
+    }
+
+    void remove(List<Expiration> batch) {
+        // The number of sessions whose expiration listeners were notified
+        int notified = 0;
+        Throwable failure = null;
+        try (Batch transaction = this.batcher.createBatch()) {
+            try {
+                for (Expiration expiration : batch) {
+                    InfinispanWebLogger.ROOT_LOGGER.tracef("Expiring session %s", expiration.id);
+                    this.remover.remove(expiration.id);
+                    notified += 1;
+                }
+            } catch (Throwable e) {
+                transaction.discard();
+                throw e;
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+        if (failure == null) {
+            batch.forEach(this::removed);
+            return;
+        }
+        if (notified == batch.size()) {
+            InfinispanWebLogger.ROOT_LOGGER.debugf(failure, "Failed to commit the removal of %d expired sessions", batch.size());
+        }
+        // The removal of every session in the batch was rolled back, but the expiration listeners of the first sessions were already notified
+        this.removeNotified(batch.subList(0, notified));
+        if (notified < batch.size()) {
+            // Skip the session that failed to expire, and retry the remainder of the batch
+            Expiration expiration = batch.get(notified);
+            InfinispanWebLogger.ROOT_LOGGER.failedToExpireSession(failure, expiration.id);
+            this.removed(expiration);
+            List<Expiration> remaining = batch.subList(notified + 1, batch.size());
+            if (!remaining.isEmpty() && !this.closed) {
+                this.remove(new ArrayList<>(remaining));
+            }
         }
-        for (Future<?> future : this.expirationFutures.values()) {
-            if (!future.isDone()) {
+    }
+
+    private void removeNotified(List<Expiration> expirations) {
+        for (Expiration expiration : expirations) {
+            if (this.closed) break;
+            try (Batch transaction = this.batcher.createBatch()) {
                 try {
-                    future.get();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    // Ignore
+                    this.notifiedRemover.remove(expiration.id);
+                } catch (Throwable e) {
+                    transaction.discard();
+                    throw e;
                 }
+            } catch (Throwable e) {
+                InfinispanWebLogger.ROOT_LOGGER.failedToExpireSession(e, expiration.id);
             }
+            this.removed(expiration);
         }
-        this.expirationFutures.clear();
     }
 
-    private class ExpirationTask implements Runnable {
-        private final String id;
+    /**
+     * A timing wheel and the queue of expired sessions awaiting removal.
+     */
+    private class Shard implements Runnable {
+        final HashedWheelScheduler wheel;
+        private final Queue<Expiration> expired = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean(false);
 
-        ExpirationTask(String id) {
-            this.id = id;
+        Shard(HashedWheelScheduler wheel) {
+            this.wheel = wheel;
+        }
+
+        // Invoked by the wheel thread, which should not block on removal
+        void expired(Expiration expiration) {
+            SessionExpirationScheduler.this.backlog.increment();
+            this.expired.add(expiration);
+            this.drain();
+        }
+
+        private void drain() {
+            if (this.draining.compareAndSet(false, true)) {
+                try {
+                    SessionExpirationScheduler.this.executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    this.draining.set(false);
+                }
+            }
+        }
+
+        void clear() {
+            Expiration expiration = this.expired.poll();
+            while (expiration != null) {
+                SessionExpirationScheduler.this.backlog.decrement();
+                expiration = this.expired.poll();
+            }
         }
 
         @Override
         public void run() {
-            InfinispanWebLogger.ROOT_LOGGER.tracef("Expiring session %s", this.id);
-            try (Batch batch = SessionExpirationScheduler.this.batcher.createBatch()) {
-                try {
-                    SessionExpirationScheduler.this.remover.remove(this.id);
-                } catch (Throwable e) {
-                    InfinispanWebLogger.ROOT_LOGGER.failedToExpireSession(e, this.id);
-                    batch.discard();
+            SessionExpirationScheduler scheduler = SessionExpirationScheduler.this;
+            try {
+                List<Expiration> batch = new ArrayList<>(scheduler.batchSize);
+                while (!scheduler.closed) {
+                    while (batch.size() < scheduler.batchSize) {
+                        Expiration expiration = this.expired.poll();
+                        if (expiration == null) break;
+                        batch.add(expiration);
+                    }
+                    if (batch.isEmpty()) break;
+                    scheduler.remove(batch);
+                    batch.clear();
                 }
             } finally {
-                synchronized (this) {
-                    SessionExpirationScheduler.this.expirationFutures.remove(this.id);
-                }
+                this.draining.set(false);
+            }
+            // Handle any expirations queued after our last poll
+            if (!this.expired.isEmpty() && !scheduler.closed) {
+                this.drain();
+            }
+        }
+    }
+
+    private class Expiration implements Runnable {
+        final String id;
+        final Instant time;
+        private final Shard shard;
+        private volatile Cancellable cancellable;
+        private volatile boolean cancelled = false;
+
+        Expiration(String id, Instant time, Shard shard) {
+            this.id = id;
+            this.time = time;
+            this.shard = shard;
+        }
+
+        void schedule(long millis) {
+            this.cancellable = this.shard.wheel.schedule(this, millis, TimeUnit.MILLISECONDS);
+            // Handle cancellation that raced with scheduling
+            if (this.cancelled) {
+                this.cancellable.cancel();
+            }
+        }
+
+        void cancel() {
+            this.cancelled = true;
+            Cancellable cancellable = this.cancellable;
+            if (cancellable != null) {
+                cancellable.cancel();
+            }
+        }
+
+        @Override
+        public void run() {
+            // Skip if session was cancelled or rescheduled in the interim
+            if (SessionExpirationScheduler.this.expirations.remove(this.id, this)) {
+                this.shard.expired(this);
             }
         }
     }
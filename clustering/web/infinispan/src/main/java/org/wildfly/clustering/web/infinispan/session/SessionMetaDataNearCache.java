@@ -0,0 +1,250 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.Cache;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryExpired;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.annotation.TopologyChanged;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryModifiedEvent;
+import org.infinispan.notifications.cachelistener.event.TopologyChangedEvent;
+import org.wildfly.clustering.infinispan.spi.distribution.Key;
+import org.wildfly.clustering.web.session.SessionMetaDataCacheStatistics;
+
+/**
+ * Bounded, node-local cache of the meta data of sessions whose cache entries are not owned by the current node.
+ * Avoids a remote read of the creation and access meta data of a session for every request routed to a non-owner.
+ * Modifications made via the current node are applied directly via {@link #update(String, InfinispanSessionMetaData)} and {@link #invalidate(String)},
+ * so that meta data changes need not be broadcast to every member.
+ * Consequently, this relies on session affinity, i.e. that requests for a given session are routed to the same node while the topology is stable.
+ * Since requests may be rerouted to a different node following a topology change, all entries are invalidated on topology change.
+ * This is only suitable for caches that do not lock on read.
+ * Meta data is cached as an immutable snapshot, from which each lookup creates a private copy, since callers mutate the meta data of a session in place.
+ */
+@Listener(sync = false)
+public class SessionMetaDataNearCache<L> implements SessionMetaDataCacheStatistics {
+
+    private final Cache<? extends Key<String>, ?> cache;
+    private final Map<String, SessionMetaDataSnapshot<L>> entries;
+    // Tracks in-flight loads, so that a concurrent modification prevents caching of a stale value
+    private final Map<String, AtomicBoolean> loads = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public SessionMetaDataNearCache(Cache<? extends Key<String>, ?> cache, int size) {
+        this.cache = cache;
+        this.entries = new LinkedHashMap<String, SessionMetaDataSnapshot<L>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 5376553779925318632L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SessionMetaDataSnapshot<L>> eldest) {
+                return this.size() > size;
+            }
+        };
+    }
+
+    /**
+     * Indicates whether the meta data of the specified session would require a remote read.
+     * @param id a session identifier
+     * @return true, if the current node is not an owner of the session, false otherwise
+     */
+    public boolean isApplicable(String id) {
+        DistributionManager dist = this.cache.getAdvancedCache().getDistributionManager();
+        return (dist != null) && !dist.getCacheTopology().isReadOwner(new SessionCreationMetaDataKey(id));
+    }
+
+    /**
+     * Returns the cached meta data of the specified session, if present.
+     * If absent, the caller is expected to load the meta data, and populate this cache via {@link #put(String, AtomicBoolean, InfinispanSessionMetaData)}.
+     * @param id a session identifier
+     * @return a copy of the cached meta data, or null if not present
+     */
+    public InfinispanSessionMetaData<L> get(String id) {
+        SessionMetaDataSnapshot<L> snapshot;
+        synchronized (this.entries) {
+            snapshot = this.entries.get(id);
+        }
+        if (snapshot != null) {
+            this.hits.increment();
+            return snapshot.copy();
+        }
+        this.misses.increment();
+        return null;
+    }
+
+    /**
+     * Indicates that the meta data of the specified session is about to be loaded.
+     * @param id a session identifier
+     * @return a token to be passed to {@link #put(String, AtomicBoolean, InfinispanSessionMetaData)}
+     */
+    public AtomicBoolean load(String id) {
+        AtomicBoolean valid = new AtomicBoolean(true);
+        this.loads.put(id, valid);
+        return valid;
+    }
+
+    /**
+     * Caches the loaded meta data of the specified session, unless the session was modified while loading.
+     * @param id a session identifier
+     * @param valid the token returned by {@link #load(String)}
+     * @param value the loaded meta data, or null if the session does not exist
+     */
+    public void put(String id, AtomicBoolean valid, InfinispanSessionMetaData<L> value) {
+        this.loads.remove(id, valid);
+        if ((value != null) && value.getCreationMetaData().isValid() && valid.get()) {
+            SessionMetaDataSnapshot<L> snapshot = new SessionMetaDataSnapshot<>(value.getCreationMetaData(), value.getAccessMetaData(), value.getLocalContext());
+            synchronized (this.entries) {
+                this.entries.put(id, snapshot);
+            }
+        }
+    }
+
+    /**
+     * Applies the meta data of the specified session, as modified via the current node, to its cached entry, if present.
+     * @param id a session identifier
+     * @param value the modified meta data
+     */
+    public void update(String id, InfinispanSessionMetaData<L> value) {
+        this.cancelLoad(id);
+        synchronized (this.entries) {
+            if (this.entries.containsKey(id)) {
+                if (value.getCreationMetaData().isValid()) {
+                    this.entries.put(id, new SessionMetaDataSnapshot<>(value.getCreationMetaData(), value.getAccessMetaData(), value.getLocalContext()));
+                } else {
+                    this.entries.remove(id);
+                }
+            }
+        }
+    }
+
+    public void invalidate(String id) {
+        this.cancelLoad(id);
+        synchronized (this.entries) {
+            this.entries.remove(id);
+        }
+    }
+
+    private void cancelLoad(String id) {
+        AtomicBoolean valid = this.loads.get(id);
+        if (valid != null) {
+            valid.set(false);
+        }
+    }
+
+    @Override
+    public long getMetaDataCacheHitCount() {
+        return this.hits.sum();
+    }
+
+    @Override
+    public long getMetaDataCacheMissCount() {
+        return this.misses.sum();
+    }
+
+    @SuppressWarnings("unchecked")
+    @CacheEntryModified
+    public void modified(CacheEntryModifiedEvent<Key<String>, Object> event) {
+        Key<String> key = event.getKey();
+        String id = key.getValue();
+        Object value = event.getValue();
+        this.cancelLoad(id);
+        synchronized (this.entries) {
+            SessionMetaDataSnapshot<L> snapshot = this.entries.get(id);
+            if (snapshot != null) {
+                if ((key instanceof SessionCreationMetaDataKey) && (value instanceof SessionCreationMetaDataEntry) && ((SessionCreationMetaDataEntry<L>) value).getMetaData().isValid()) {
+                    // Retain the local context, which is not replicated
+                    this.entries.put(id, new SessionMetaDataSnapshot<>(((SessionCreationMetaDataEntry<L>) value).getMetaData(), snapshot.lastAccessedDuration, snapshot.localContext));
+                } else if ((key instanceof SessionAccessMetaDataKey) && (value instanceof SessionAccessMetaData)) {
+                    this.entries.put(id, new SessionMetaDataSnapshot<>(snapshot.creationTime, snapshot.maxInactiveInterval, ((SessionAccessMetaData) value).getLastAccessedDuration(), snapshot.localContext));
+                } else {
+                    this.entries.remove(id);
+                }
+            }
+        }
+    }
+
+    @CacheEntryRemoved
+    @CacheEntryExpired
+    public void removed(CacheEntryEvent<Key<String>, ?> event) {
+        this.invalidate(event.getKey().getValue());
+    }
+
+    @TopologyChanged
+    public void topologyChanged(TopologyChangedEvent<Key<String>, ?> event) {
+        if (event.isPre()) return;
+        // Sessions may have been accessed via other members during the topology change
+        for (AtomicBoolean valid : this.loads.values()) {
+            valid.set(false);
+        }
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * Immutable snapshot of the meta data of a session.
+     * Only the local context is shared between copies, since it is never replicated.
+     */
+    private static class SessionMetaDataSnapshot<L> {
+        final Instant creationTime;
+        final Duration maxInactiveInterval;
+        final Duration lastAccessedDuration;
+        final AtomicReference<L> localContext;
+
+        SessionMetaDataSnapshot(ImmutableSessionCreationMetaData creationMetaData, ImmutableSessionAccessMetaData accessMetaData, AtomicReference<L> localContext) {
+            this(creationMetaData, accessMetaData.getLastAccessedDuration(), localContext);
+        }
+
+        SessionMetaDataSnapshot(ImmutableSessionCreationMetaData creationMetaData, Duration lastAccessedDuration, AtomicReference<L> localContext) {
+            this(creationMetaData.getCreationTime(), creationMetaData.getMaxInactiveInterval(), lastAccessedDuration, localContext);
+        }
+
+        SessionMetaDataSnapshot(Instant creationTime, Duration maxInactiveInterval, Duration lastAccessedDuration, AtomicReference<L> localContext) {
+            this.creationTime = creationTime;
+            this.maxInactiveInterval = maxInactiveInterval;
+            this.lastAccessedDuration = lastAccessedDuration;
+            this.localContext = localContext;
+        }
+
+        InfinispanSessionMetaData<L> copy() {
+            SessionCreationMetaData creationMetaData = new SimpleSessionCreationMetaData(this.creationTime);
+            creationMetaData.setMaxInactiveInterval(this.maxInactiveInterval);
+            SessionAccessMetaData accessMetaData = new SimpleSessionAccessMetaData();
+            accessMetaData.setLastAccessedDuration(this.lastAccessedDuration);
+            return new InfinispanSessionMetaData<>(creationMetaData, accessMetaData, this.localContext);
+        }
+    }
+}
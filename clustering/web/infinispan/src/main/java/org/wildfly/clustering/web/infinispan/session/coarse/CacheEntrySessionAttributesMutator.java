@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.infinispan.distribution.DistributionManager;
+
+/**
+ * Mutates the cache entry of the attributes of a coarse granularity session.
+ * Only the changed attributes are replicated, unless the entry was created within the current transaction,
+ * or the topology of the cache changed since the entry was read, in which case the entry is replicated in full,
+ * since its owners may no longer hold a copy of it to which the changes can be applied.
+ */
+public class CacheEntrySessionAttributesMutator<V> implements SessionAttributesMutator<V> {
+
+    private final Cache<SessionAttributesKey, Map<String, V>> cache;
+    private final SessionAttributesKey key;
+    private final boolean created;
+    private volatile Map<String, V> attributes;
+    private final int topologyId;
+
+    /**
+     * Creates a mutator of the cache entry of the attributes of a session.
+     * @param cache the cache of session attributes
+     * @param key the key of the cache entry
+     * @param attributes the marshalled session attributes, as read from the cache entry
+     * @param created indicates whether the cache entry was created within the current transaction
+     */
+    public CacheEntrySessionAttributesMutator(Cache<SessionAttributesKey, Map<String, V>> cache, SessionAttributesKey key, Map<String, V> attributes, boolean created) {
+        this.cache = cache;
+        this.key = key;
+        this.attributes = attributes;
+        this.created = created;
+        this.topologyId = getTopologyId(cache);
+    }
+
+    @Override
+    public void mutate(Map<String, V> updates, Set<String> removals) {
+        // Use FAIL_SILENTLY to prevent mutation from failing locally due to remote exceptions
+        Cache<SessionAttributesKey, Map<String, V>> cache = this.cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES, Flag.FAIL_SILENTLY);
+        SessionAttributesDelta<V> delta = new SessionAttributesDelta<>(updates, removals);
+        // Track the changes locally, in case a subsequent mutation needs to replicate the entry in full
+        Map<String, V> attributes = delta.apply(this.key, this.attributes);
+        this.attributes = attributes;
+        if (this.created || (getTopologyId(this.cache) != this.topologyId)) {
+            cache.put(this.key, attributes);
+        } else {
+            cache.compute(this.key, delta);
+        }
+    }
+
+    private static int getTopologyId(Cache<?, ?> cache) {
+        DistributionManager dist = cache.getAdvancedCache().getDistributionManager();
+        return (dist != null) ? dist.getCacheTopology().getTopologyId() : 0;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.infinispan.commons.marshall.NotSerializableException;
+import org.wildfly.clustering.ee.infinispan.CacheProperties;
+import org.wildfly.clustering.marshalling.spi.Marshaller;
+import org.wildfly.clustering.web.infinispan.session.SessionAttributes;
+import org.wildfly.clustering.web.session.SessionAttributeImmutability;
+
+/**
+ * Exposes session attributes for a coarse granularity session whose attributes are marshalled individually.
+ * Only the attributes that were changed, or that may have been mutated, within a request are marshalled and replicated.
+ * Within a transaction, all changes are replicated on {@link #close()}.
+ * Otherwise, added, replaced and removed attributes are replicated immediately, and possibly mutated attributes on {@link #close()}.
+ * @author Paul Ferraro
+ */
+public class CoarseDeltaSessionAttributes<V> extends CoarseImmutableSessionAttributes implements SessionAttributes {
+    private final Map<String, Object> attributes;
+    private final Set<String> updates = ConcurrentHashMap.newKeySet();
+    private final Set<String> removals = ConcurrentHashMap.newKeySet();
+    private final SessionAttributesMutator<V> mutator;
+    private final Marshaller<Object, V> marshaller;
+    private final CacheProperties properties;
+
+    public CoarseDeltaSessionAttributes(Map<String, Object> attributes, SessionAttributesMutator<V> mutator, Marshaller<Object, V> marshaller, CacheProperties properties) {
+        super(attributes);
+        this.attributes = attributes;
+        this.mutator = mutator;
+        this.marshaller = marshaller;
+        this.properties = properties;
+    }
+
+    @Override
+    public Object removeAttribute(String name) {
+        Object value = this.attributes.remove(name);
+        if (value != null) {
+            this.updates.remove(name);
+            if (this.properties.isTransactional()) {
+                this.removals.add(name);
+            } else {
+                this.mutator.mutate(Collections.emptyMap(), Collections.singleton(name));
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Object setAttribute(String name, Object value) {
+        if (value == null) {
+            return this.removeAttribute(name);
+        }
+        if (this.properties.isMarshalling() && !this.marshaller.isMarshallable(value)) {
+            throw new IllegalArgumentException(new NotSerializableException(value.getClass().getName()));
+        }
+        Object old = this.attributes.put(name, value);
+        this.removals.remove(name);
+        if (this.properties.isTransactional()) {
+            this.updates.add(name);
+        } else {
+            this.updates.remove(name);
+            this.mutator.mutate(Collections.singletonMap(name, this.marshaller.write(value)), Collections.emptySet());
+        }
+        return old;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        Object value = this.attributes.get(name);
+        if (!SessionAttributeImmutability.INSTANCE.test(value)) {
+            this.updates.add(name);
+        }
+        return value;
+    }
+
+    @Override
+    public void close() {
+        if (!this.updates.isEmpty() || !this.removals.isEmpty()) {
+            Map<String, V> updates = new HashMap<>();
+            for (String name : this.updates) {
+                Object value = this.attributes.get(name);
+                if (value != null) {
+                    updates.put(name, this.marshaller.write(value));
+                }
+            }
+            this.mutator.mutate(updates, new HashSet<>(this.removals));
+        }
+    }
+}
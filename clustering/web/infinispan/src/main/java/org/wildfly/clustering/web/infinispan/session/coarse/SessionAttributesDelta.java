@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * The attributes of a coarse granularity session that changed within a request.
+ * Applied to the cache entry of the session attributes via {@link org.infinispan.Cache#compute(Object, BiFunction)},
+ * such that only the changed attributes are replicated to the owners of the entry, which apply them to their copy of the entry,
+ * without unmarshalling any attribute.
+ */
+public class SessionAttributesDelta<V> implements BiFunction<SessionAttributesKey, Map<String, V>, Map<String, V>> {
+
+    private final Map<String, V> updates;
+    private final Set<String> removals;
+
+    public SessionAttributesDelta(Map<String, V> updates, Set<String> removals) {
+        this.updates = updates;
+        this.removals = removals;
+    }
+
+    public Map<String, V> getUpdates() {
+        return this.updates;
+    }
+
+    public Set<String> getRemovals() {
+        return this.removals;
+    }
+
+    @Override
+    public Map<String, V> apply(SessionAttributesKey key, Map<String, V> attributes) {
+        // Never recreate an entry that was removed concurrently, e.g. via invalidation or expiration
+        if (attributes == null) return null;
+        // The current value is shared with concurrent readers, so do not modify it
+        Map<String, V> result = new HashMap<>(attributes);
+        result.putAll(this.updates);
+        for (String name : this.removals) {
+            result.remove(name);
+        }
+        return result;
+    }
+}
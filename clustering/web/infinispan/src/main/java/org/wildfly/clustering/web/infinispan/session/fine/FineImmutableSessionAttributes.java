@@ -23,8 +23,11 @@ package org.wildfly.clustering.web.infinispan.session.fine;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.wildfly.clustering.ee.Mutator;
 import org.wildfly.clustering.marshalling.spi.InvalidSerializedFormException;
 import org.wildfly.clustering.marshalling.spi.Marshaller;
 import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
@@ -32,19 +35,29 @@ import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
 
 /**
  * Exposes session attributes for fine granularity sessions.
+ * Attribute values are retained in their marshalled form within a request-local view, and are only deserialized on first access.
+ * An attribute whose cache entry is missing, or whose value can no longer be deserialized, e.g. following a redeploy with incompatible classes,
+ * is discarded on first access, as if it was never set.
  * @author Paul Ferraro
  */
 public class FineImmutableSessionAttributes<V> implements ImmutableSessionAttributes {
     private final String id;
     private final Map<String, Integer> names;
+    private final Mutator namesMutator;
     private final Cache<SessionAttributeKey, V> cache;
     private final Marshaller<Object, V> marshaller;
+    private final FineSessionAttributeActivationStatistics statistics;
+    // Request-local view of the marshalled values of the attributes accessed thus far
+    private final Map<String, V> values = new ConcurrentHashMap<>();
+    private final Set<String> deserialized = ConcurrentHashMap.newKeySet();
 
-    public FineImmutableSessionAttributes(String id, Map<String, Integer> names, Cache<SessionAttributeKey, V> attributeCache, Marshaller<Object, V> marshaller) {
+    public FineImmutableSessionAttributes(String id, Map<String, Integer> names, Mutator namesMutator, Cache<SessionAttributeKey, V> attributeCache, Marshaller<Object, V> marshaller, FineSessionAttributeActivationStatistics statistics) {
         this.id = id;
         this.names = names;
+        this.namesMutator = namesMutator;
         this.cache = attributeCache;
         this.marshaller = marshaller;
+        this.statistics = statistics;
     }
 
     @Override
@@ -55,19 +68,104 @@ public class FineImmutableSessionAttributes<V> implements ImmutableSessionAttrib
     @Override
     public Object getAttribute(String name) {
         Integer attributeId = this.names.get(name);
-        return (attributeId != null) ? this.read(name, this.cache.get(this.createKey(attributeId))) : null;
+        return (attributeId != null) ? this.activate(name, attributeId) : null;
     }
 
     protected SessionAttributeKey createKey(int attributeId) {
         return new SessionAttributeKey(this.id, attributeId);
     }
 
-    protected Object read(String name, V value) {
+    /**
+     * Returns the deserialized value of the specified attribute.
+     * If the cache entry of the attribute is missing, or its value can no longer be deserialized, the attribute is discarded.
+     * @param name an attribute name
+     * @param attributeId the identifier of the attribute
+     * @return the attribute value, or null if the attribute was discarded
+     */
+    protected Object activate(String name, int attributeId) {
+        V value = this.getValue(name, attributeId);
+        if (value == null) {
+            InfinispanWebLogger.ROOT_LOGGER.missingSessionAttributeCacheEntry(this.id, name);
+            this.purge(name, attributeId);
+            return null;
+        }
+        try {
+            return this.read(name, value);
+        } catch (InvalidSerializedFormException e) {
+            InfinispanWebLogger.ROOT_LOGGER.failedToActivateSessionAttribute(e, this.id, name);
+            this.purge(name, attributeId);
+            return null;
+        }
+    }
+
+    /**
+     * Removes the specified attribute, whose value is missing or unreadable, from this session.
+     * @param name an attribute name
+     * @param attributeId the identifier of the attribute
+     */
+    protected void purge(String name, int attributeId) {
+        if (this.names.remove(name, attributeId)) {
+            this.namesMutator.mutate();
+        }
+        this.cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(this.createKey(attributeId));
+        this.values.remove(name);
+        this.deserialized.remove(name);
+    }
+
+    /**
+     * Returns the marshalled value of the specified attribute, fetching it from the cache on first access.
+     * @param name an attribute name
+     * @param attributeId the identifier of the attribute
+     * @return a marshalled value, or null if the cache entry of the attribute is missing
+     */
+    protected V getValue(String name, int attributeId) {
+        V value = this.values.get(name);
+        if (value == null) {
+            value = this.cache.get(this.createKey(attributeId));
+            if (value != null) {
+                this.values.put(name, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Updates the request-local view of the specified attribute.
+     * @param name an attribute name
+     * @param value a marshalled value, or null if the attribute was removed
+     */
+    protected void setValue(String name, V value) {
+        if (value != null) {
+            this.values.put(name, value);
+            // A value written by this request is already in its deserialized form
+            this.deserialized.add(name);
+        } else {
+            this.values.remove(name);
+        }
+    }
+
+    protected Object read(String name, V value) throws InvalidSerializedFormException {
+        if (value == null) return null;
+        Object result = this.marshaller.read(value);
+        if (this.deserialized.add(name)) {
+            this.statistics.deserialized();
+        }
+        return result;
+    }
+
+    /**
+     * Reads the previous value of an attribute that was replaced or removed.
+     * A previous value that can no longer be deserialized is superseded anyway, and is therefore reported as null.
+     * @param name an attribute name
+     * @param value the previous marshalled value, or null if there was none
+     * @return the previous attribute value, or null if there was none or it could not be read
+     */
+    protected Object readPrevious(String name, V value) {
         try {
-            return this.marshaller.read(value);
+            return this.read(name, value);
         } catch (InvalidSerializedFormException e) {
-            // This should not happen here, since attributes were pre-activated during FineSessionFactory.findValue(...)
-            throw InfinispanWebLogger.ROOT_LOGGER.failedToReadSessionAttribute(e, this.id, name);
+            InfinispanWebLogger.ROOT_LOGGER.failedToActivateSessionAttribute(e, this.id, name);
+            return null;
         }
     }
 }
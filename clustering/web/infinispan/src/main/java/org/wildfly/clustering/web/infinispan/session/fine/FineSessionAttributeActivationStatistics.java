@@ -0,0 +1,55 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.web.infinispan.session.fine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.wildfly.clustering.web.session.SessionAttributeActivationStatistics;
+
+/**
+ * Records the extent to which deferring the deserialization of fine granularity session attributes avoided unmarshalling.
+ * Attributes are no longer unmarshalled when a session is activated, but only on first access within a given request.
+ */
+public class FineSessionAttributeActivationStatistics implements SessionAttributeActivationStatistics {
+
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder deserialized = new LongAdder();
+
+    void deferred(int attributes) {
+        this.deferred.add(attributes);
+    }
+
+    void deserialized() {
+        this.deserialized.increment();
+    }
+
+    @Override
+    public long getDeferredAttributeCount() {
+        return this.deferred.sum();
+    }
+
+    @Override
+    public long getDeserializedAttributeCount() {
+        return this.deserialized.sum();
+    }
+}
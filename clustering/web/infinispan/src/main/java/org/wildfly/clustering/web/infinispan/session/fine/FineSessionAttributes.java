@@ -49,8 +49,8 @@ public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V>
     private final Marshaller<Object, V> marshaller;
     private final CacheProperties properties;
 
-    public FineSessionAttributes(String id, AtomicInteger sequence, ConcurrentMap<String, Integer> names, Mutator namesMutator, Cache<SessionAttributeKey, V> cache, Marshaller<Object, V> marshaller, CacheProperties properties) {
-        super(id, names, cache, marshaller);
+    public FineSessionAttributes(String id, AtomicInteger sequence, ConcurrentMap<String, Integer> names, Mutator namesMutator, Cache<SessionAttributeKey, V> cache, Marshaller<Object, V> marshaller, CacheProperties properties, FineSessionAttributeActivationStatistics statistics) {
+        super(id, names, namesMutator, cache, marshaller, statistics);
         this.sequence = sequence;
         this.names = names;
         this.namesMutator = namesMutator;
@@ -65,7 +65,8 @@ public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V>
         if (attributeId == null) return null;
         this.namesMutator.mutate();
         SessionAttributeKey key = this.createKey(attributeId);
-        Object result = this.read(name, this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).remove(key));
+        Object result = this.readPrevious(name, this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).remove(key));
+        this.setValue(name, null);
         this.mutations.remove(name);
         return result;
     }
@@ -85,7 +86,8 @@ public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V>
             this.namesMutator.mutate();
         }
         SessionAttributeKey key = this.createKey(attributeId);
-        Object result = this.read(name, this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).put(key, value));
+        Object result = this.readPrevious(name, this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).put(key, value));
+        this.setValue(name, value);
         this.mutations.remove(name);
         return result;
     }
@@ -94,12 +96,13 @@ public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V>
     public Object getAttribute(String name) {
         Integer attributeId = this.names.get(name);
         if (attributeId == null) return null;
-        SessionAttributeKey key = this.createKey(attributeId);
-        V value = this.cache.get(key);
-        Object attribute = this.read(name, value);
+        Object attribute = this.activate(name, attributeId);
         if (attribute != null) {
             // If the object is mutable, we need to indicate that the attribute should be replicated
             if (!SessionAttributeImmutability.INSTANCE.test(attribute)) {
+                SessionAttributeKey key = this.createKey(attributeId);
+                // The marshalled value was retained by activate(...)
+                V value = this.getValue(name, attributeId);
                 Mutator mutator = this.mutations.computeIfAbsent(name, k -> new CacheEntryMutator<>(this.cache, key, value));
                 // If cache is not transactional, mutate on close instead.
                 if (this.properties.isTransactional()) {
@@ -110,6 +113,12 @@ public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V>
         return attribute;
     }
 
+    @Override
+    protected void purge(String name, int attributeId) {
+        super.purge(name, attributeId);
+        this.mutations.remove(name);
+    }
+
     @Override
     public void close() {
         if (!this.properties.isTransactional()) {
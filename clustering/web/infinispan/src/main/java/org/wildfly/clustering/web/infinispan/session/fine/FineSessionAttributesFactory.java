@@ -37,13 +37,12 @@ import org.wildfly.clustering.ee.Mutator;
 import org.wildfly.clustering.ee.infinispan.CacheEntryMutator;
 import org.wildfly.clustering.ee.infinispan.CacheProperties;
 import org.wildfly.clustering.infinispan.spi.distribution.Key;
-import org.wildfly.clustering.marshalling.spi.InvalidSerializedFormException;
 import org.wildfly.clustering.marshalling.spi.Marshaller;
-import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
 import org.wildfly.clustering.web.infinispan.session.SessionAttributes;
 import org.wildfly.clustering.web.infinispan.session.SessionAttributesFactory;
 import org.wildfly.clustering.web.infinispan.session.SessionCreationMetaDataKey;
 import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
+import org.wildfly.clustering.web.session.SessionAttributeActivationStatistics;
 
 /**
  * {@link SessionAttributesFactory} for fine granularity sessions.
@@ -58,6 +57,7 @@ public class FineSessionAttributesFactory<V> implements SessionAttributesFactory
     private final Cache<SessionAttributeKey, V> attributeCache;
     private final Marshaller<Object, V> marshaller;
     private final CacheProperties properties;
+    private final FineSessionAttributeActivationStatistics statistics = new FineSessionAttributeActivationStatistics();
 
     public FineSessionAttributesFactory(Cache<SessionAttributeNamesKey, SessionAttributeNamesEntry> namesCache, Cache<SessionAttributeKey, V> attributeCache, Marshaller<Object, V> marshaller, CacheProperties properties) {
         this.namesCache = namesCache;
@@ -77,21 +77,8 @@ public class FineSessionAttributesFactory<V> implements SessionAttributesFactory
     public SessionAttributeNamesEntry findValue(String id) {
         SessionAttributeNamesEntry entry = this.namesCache.get(new SessionAttributeNamesKey(id));
         if (entry != null) {
-            for (Map.Entry<String, Integer> nameEntry : entry.getNames().entrySet()) {
-                V value = this.attributeCache.get(new SessionAttributeKey(id, nameEntry.getValue()));
-                if (value != null) {
-                    try {
-                        this.marshaller.read(value);
-                        continue;
-                    } catch (InvalidSerializedFormException e) {
-                        InfinispanWebLogger.ROOT_LOGGER.failedToActivateSessionAttribute(e, id, nameEntry.getKey());
-                    }
-                } else {
-                    InfinispanWebLogger.ROOT_LOGGER.missingSessionAttributeCacheEntry(id, nameEntry.getKey());
-                }
-                this.remove(id);
-                return null;
-            }
+            // Defer fetching and deserialization of attribute values until first access
+            this.statistics.deferred(entry.getNames().size());
         }
         return entry;
     }
@@ -110,12 +97,19 @@ public class FineSessionAttributesFactory<V> implements SessionAttributesFactory
     public SessionAttributes createSessionAttributes(String id, SessionAttributeNamesEntry entry) {
         SessionAttributeNamesKey key = new SessionAttributeNamesKey(id);
         Mutator mutator = this.properties.isTransactional() && this.namesCache.getAdvancedCache().getCacheEntry(key).isCreated() ? Mutator.PASSIVE : new CacheEntryMutator<>(this.namesCache, key, entry);
-        return new FineSessionAttributes<>(id, entry.getSequence(), entry.getNames(), mutator, this.attributeCache, this.marshaller, this.properties);
+        return new FineSessionAttributes<>(id, entry.getSequence(), entry.getNames(), mutator, this.attributeCache, this.marshaller, this.properties, this.statistics);
     }
 
     @Override
     public ImmutableSessionAttributes createImmutableSessionAttributes(String id, SessionAttributeNamesEntry entry) {
-        return new FineImmutableSessionAttributes<>(id, entry.getNames(), this.attributeCache, this.marshaller);
+        // Only used to discard attributes that can no longer be read
+        Mutator mutator = () -> new CacheEntryMutator<>(this.namesCache, new SessionAttributeNamesKey(id), entry).mutate();
+        return new FineImmutableSessionAttributes<>(id, entry.getNames(), mutator, this.attributeCache, this.marshaller, this.statistics);
+    }
+
+    @Override
+    public SessionAttributeActivationStatistics getActivationStatistics() {
+        return this.statistics;
     }
 
     @CacheEntriesEvicted
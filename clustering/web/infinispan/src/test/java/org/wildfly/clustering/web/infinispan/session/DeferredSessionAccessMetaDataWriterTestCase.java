@@ -0,0 +1,188 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.web.infinispan.session;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.Mutator;
+import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+
+/**
+ * Unit test for {@link DeferredSessionAccessMetaDataWriter}.
+ * @author Paul Ferraro
+ */
+public class DeferredSessionAccessMetaDataWriterTestCase {
+    private final Cache<SessionAccessMetaDataKey, SessionAccessMetaData> cache = mock(Cache.class);
+    private final AdvancedCache<SessionAccessMetaDataKey, SessionAccessMetaData> advancedCache = mock(AdvancedCache.class);
+    private final Batcher<TransactionBatch> batcher = mock(Batcher.class);
+    private final TransactionBatch batch = mock(TransactionBatch.class);
+    private final Mutator mutator = mock(Mutator.class);
+    // Use a long interval, so that flushes are only triggered by the test
+    private final DeferredSessionAccessMetaDataWriter writer = new DeferredSessionAccessMetaDataWriter(this.cache, this.batcher, Duration.ofHours(1));
+
+    public DeferredSessionAccessMetaDataWriterTestCase() {
+        when(this.cache.getAdvancedCache()).thenReturn(this.advancedCache);
+        when(this.advancedCache.withFlags(Flag.FAIL_SILENTLY)).thenReturn(this.advancedCache);
+        when(this.batcher.createBatch()).thenReturn(this.batch);
+    }
+
+    @After
+    public void destroy() {
+        this.writer.close();
+    }
+
+    @Test
+    public void deferred() {
+        String id = "session";
+        SessionCreationMetaData creationMetaData = new SimpleSessionCreationMetaData();
+        creationMetaData.setMaxInactiveInterval(Duration.ofHours(4));
+        SessionAccessMetaData accessMetaData = new SimpleSessionAccessMetaData();
+        accessMetaData.setLastAccessedDuration(Duration.ofSeconds(10));
+
+        assertNull(this.writer.get(id));
+
+        this.writer.createMutator(id, creationMetaData, accessMetaData, this.mutator).mutate();
+
+        verifyZeroInteractions(this.mutator);
+
+        // Subsequent mutation of the enqueued meta data by the request must not affect the pending write
+        accessMetaData.setLastAccessedDuration(Duration.ofSeconds(20));
+
+        SessionAccessMetaData pending = this.writer.get(id);
+        assertNotNull(pending);
+        assertNotSame(accessMetaData, pending);
+        assertEquals(Duration.ofSeconds(10), pending.getLastAccessedDuration());
+
+        // Mutation of the returned meta data must not affect the pending write
+        pending.setLastAccessedDuration(Duration.ofSeconds(30));
+
+        assertEquals(Duration.ofSeconds(10), this.writer.get(id).getLastAccessedDuration());
+
+        this.writer.flush();
+
+        ArgumentCaptor<SessionAccessMetaDataUpdate> capturedUpdate = ArgumentCaptor.forClass(SessionAccessMetaDataUpdate.class);
+        verify(this.advancedCache).compute(eq(new SessionAccessMetaDataKey(id)), capturedUpdate.capture());
+        verify(this.batch).close();
+
+        assertEquals(Duration.ofSeconds(10), capturedUpdate.getValue().getLastAccessedDuration());
+
+        assertNull(this.writer.get(id));
+    }
+
+    @Test
+    public void coalesced() {
+        String id = "session";
+        SessionCreationMetaData creationMetaData = new SimpleSessionCreationMetaData();
+        creationMetaData.setMaxInactiveInterval(Duration.ZERO);
+        SessionAccessMetaData accessMetaData = new SimpleSessionAccessMetaData();
+
+        for (int i = 1; i <= 3; ++i) {
+            accessMetaData.setLastAccessedDuration(Duration.ofSeconds(i));
+            this.writer.createMutator(id, creationMetaData, accessMetaData, this.mutator).mutate();
+        }
+
+        verifyZeroInteractions(this.mutator);
+        assertEquals(Duration.ofSeconds(3), this.writer.get(id).getLastAccessedDuration());
+
+        this.writer.flush();
+
+        ArgumentCaptor<SessionAccessMetaDataUpdate> capturedUpdate = ArgumentCaptor.forClass(SessionAccessMetaDataUpdate.class);
+        verify(this.advancedCache, times(1)).compute(eq(new SessionAccessMetaDataKey(id)), capturedUpdate.capture());
+        assertEquals(Duration.ofSeconds(3), capturedUpdate.getValue().getLastAccessedDuration());
+    }
+
+    @Test
+    public void writeThrough() {
+        String id = "session";
+        SessionCreationMetaData creationMetaData = new SimpleSessionCreationMetaData();
+        SessionAccessMetaData accessMetaData = new SimpleSessionAccessMetaData();
+
+        // Defer, then shorten the max inactive interval such that the write can no longer be deferred
+        creationMetaData.setMaxInactiveInterval(Duration.ofHours(4));
+        this.writer.createMutator(id, creationMetaData, accessMetaData, this.mutator).mutate();
+        assertNotNull(this.writer.get(id));
+
+        creationMetaData.setMaxInactiveInterval(Duration.ofHours(1));
+        this.writer.createMutator(id, creationMetaData, accessMetaData, this.mutator).mutate();
+
+        verify(this.mutator).mutate();
+        assertNull(this.writer.get(id));
+
+        this.writer.flush();
+
+        verify(this.advancedCache, never()).compute(any(), any());
+    }
+
+    @Test
+    public void cancel() {
+        String id = "session";
+        SessionCreationMetaData creationMetaData = new SimpleSessionCreationMetaData();
+        creationMetaData.setMaxInactiveInterval(Duration.ofHours(4));
+
+        this.writer.createMutator(id, creationMetaData, new SimpleSessionAccessMetaData(), this.mutator).mutate();
+        this.writer.cancel(id);
+
+        assertNull(this.writer.get(id));
+
+        this.writer.flush();
+
+        verify(this.advancedCache, never()).compute(any(), any());
+    }
+
+    @Test
+    public void retry() {
+        String id = "session";
+        SessionCreationMetaData creationMetaData = new SimpleSessionCreationMetaData();
+        creationMetaData.setMaxInactiveInterval(Duration.ofHours(4));
+        SessionAccessMetaData accessMetaData = new SimpleSessionAccessMetaData();
+        accessMetaData.setLastAccessedDuration(Duration.ofSeconds(10));
+
+        this.writer.createMutator(id, creationMetaData, accessMetaData, this.mutator).mutate();
+
+        doThrow(new IllegalStateException()).when(this.batch).close();
+
+        this.writer.flush();
+
+        // Updates of a failed batch are retained for the next flush
+        SessionAccessMetaData pending = this.writer.get(id);
+        assertNotNull(pending);
+        assertEquals(Duration.ofSeconds(10), pending.getLastAccessedDuration());
+
+        doNothing().when(this.batch).close();
+
+        this.writer.flush();
+
+        verify(this.advancedCache, times(2)).compute(eq(new SessionAccessMetaDataKey(id)), any());
+        assertNull(this.writer.get(id));
+    }
+}
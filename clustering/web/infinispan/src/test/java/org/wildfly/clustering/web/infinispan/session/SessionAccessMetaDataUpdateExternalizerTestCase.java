@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wildfly.clustering.marshalling.ExternalizerTester;
+
+/**
+ * Unit test for {@link SessionAccessMetaDataUpdateExternalizer}.
+ * @author Paul Ferraro
+ */
+public class SessionAccessMetaDataUpdateExternalizerTestCase {
+
+    @Test
+    public void test() throws ClassNotFoundException, IOException {
+        SessionAccessMetaDataUpdate update = new SessionAccessMetaDataUpdate(Duration.ofMinutes(1));
+        new ExternalizerTester<>(new SessionAccessMetaDataUpdateExternalizer(), SessionAccessMetaDataUpdateExternalizerTestCase::assertEquals).test(update);
+    }
+
+    @Test
+    public void apply() {
+        SessionAccessMetaDataKey key = new SessionAccessMetaDataKey("session");
+        SessionAccessMetaDataUpdate update = new SessionAccessMetaDataUpdate(Duration.ofSeconds(10));
+
+        SessionAccessMetaData older = new SimpleSessionAccessMetaData();
+        older.setLastAccessedDuration(Duration.ofSeconds(5));
+        SessionAccessMetaData result = update.apply(key, older);
+        Assert.assertEquals(Duration.ofSeconds(10), result.getLastAccessedDuration());
+        // The current value must not be modified
+        Assert.assertEquals(Duration.ofSeconds(5), older.getLastAccessedDuration());
+
+        // A more recent last access time, e.g. written via another member, is retained
+        SessionAccessMetaData newer = new SimpleSessionAccessMetaData();
+        newer.setLastAccessedDuration(Duration.ofSeconds(20));
+        Assert.assertSame(newer, update.apply(key, newer));
+
+        Assert.assertNull(update.apply(key, null));
+    }
+
+    static void assertEquals(SessionAccessMetaDataUpdate update1, SessionAccessMetaDataUpdate update2) {
+        Assert.assertEquals(update1.getLastAccessedDuration(), update2.getLastAccessedDuration());
+    }
+}
@@ -21,14 +21,17 @@
  */
 package org.wildfly.clustering.web.infinispan.session;
 
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 import org.wildfly.clustering.ee.Batcher;
@@ -47,6 +50,7 @@ public class SessionExpirationSchedulerTestCase {
         Batcher<TransactionBatch> batcher = mock(Batcher.class);
         TransactionBatch batch = mock(TransactionBatch.class);
         Remover<String> remover = mock(Remover.class);
+        Remover<String> notifiedRemover = mock(Remover.class);
         ImmutableSessionMetaData immortalSessionMetaData = mock(ImmutableSessionMetaData.class);
         ImmutableSessionMetaData expiringSessionMetaData = mock(ImmutableSessionMetaData.class);
         ImmutableSessionMetaData canceledSessionMetaData = mock(ImmutableSessionMetaData.class);
@@ -64,7 +68,7 @@ public class SessionExpirationSchedulerTestCase {
         when(expiringSessionMetaData.getLastAccessedTime()).thenReturn(now);
         when(canceledSessionMetaData.getLastAccessedTime()).thenReturn(now);
 
-        try (Scheduler scheduler = new SessionExpirationScheduler(batcher, remover)) {
+        try (Scheduler scheduler = new SessionExpirationScheduler(batcher, remover, notifiedRemover)) {
             scheduler.schedule(immortalSessionId, immortalSessionMetaData);
             scheduler.schedule(canceledSessionId, canceledSessionMetaData);
             scheduler.schedule(expiringSessionId, expiringSessionMetaData);
@@ -79,6 +83,129 @@ public class SessionExpirationSchedulerTestCase {
         verify(remover).remove(expiringSessionId);
         verify(remover, never()).remove(canceledSessionId);
         verify(batch).close();
+        verifyZeroInteractions(notifiedRemover);
     }
 
+    @Test
+    public void batch() throws InterruptedException {
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Map<String, AtomicInteger> removals = new ConcurrentHashMap<>();
+        Remover<String> remover = id -> removals.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet() > 0;
+        Remover<String> notifiedRemover = mock(Remover.class);
+        List<String> sessionIds = createSessionIds(20);
+
+        when(batcher.createBatch()).thenReturn(batch);
+
+        try (SessionExpirationScheduler scheduler = new SessionExpirationScheduler(batcher, remover, notifiedRemover, 1, 8)) {
+            for (String sessionId : sessionIds) {
+                scheduler.schedule(sessionId, createExpiredMetaData());
+            }
+            awaitProcessed(scheduler, sessionIds.size());
+
+            assertEquals(0L, scheduler.getScheduledExpirationCount());
+            assertEquals(0L, scheduler.getExpirationBacklog());
+            assertEquals(sessionIds.size(), scheduler.getProcessedExpirationCount());
+            assertFalse(scheduler.getMeanExpirationLag().isNegative());
+            assertTrue(scheduler.getMaxExpirationLag().compareTo(scheduler.getMeanExpirationLag()) >= 0);
+        }
+
+        for (String sessionId : sessionIds) {
+            assertEquals(sessionId, 1, removals.get(sessionId).get());
+        }
+        // Sessions were removed in batches of at most 8
+        verify(batcher, atLeast(3)).createBatch();
+        verify(batcher, atMost(sessionIds.size())).createBatch();
+        verify(batch, never()).discard();
+        verifyZeroInteractions(notifiedRemover);
+    }
+
+    @Test
+    public void failedRemoval() throws InterruptedException {
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Map<String, AtomicInteger> removals = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> notifiedRemovals = new ConcurrentHashMap<>();
+        List<String> sessionIds = createSessionIds(20);
+        String failingSessionId = sessionIds.get(10);
+        Remover<String> remover = id -> {
+            removals.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+            if (id.equals(failingSessionId)) {
+                throw new IllegalStateException();
+            }
+            return true;
+        };
+        Remover<String> notifiedRemover = id -> notifiedRemovals.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet() > 0;
+
+        when(batcher.createBatch()).thenReturn(batch);
+
+        try (SessionExpirationScheduler scheduler = new SessionExpirationScheduler(batcher, remover, notifiedRemover, 1, 100)) {
+            for (String sessionId : sessionIds) {
+                scheduler.schedule(sessionId, createExpiredMetaData());
+            }
+            awaitProcessed(scheduler, sessionIds.size());
+
+            assertEquals(0L, scheduler.getExpirationBacklog());
+            assertEquals(sessionIds.size(), scheduler.getProcessedExpirationCount());
+        }
+
+        verify(batch, atLeastOnce()).discard();
+        // The expiration listeners of each session are notified exactly once, even if the removal of its batch was rolled back
+        for (String sessionId : sessionIds) {
+            assertEquals(sessionId, 1, removals.get(sessionId).get());
+        }
+        // The failing session is never retried
+        assertFalse(notifiedRemovals.containsKey(failingSessionId));
+        for (AtomicInteger count : notifiedRemovals.values()) {
+            assertEquals(1, count.get());
+        }
+    }
+
+    @Test
+    public void failedCommit() throws InterruptedException {
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch failingBatch = mock(TransactionBatch.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Remover<String> remover = mock(Remover.class);
+        Remover<String> notifiedRemover = mock(Remover.class);
+        String sessionId = "session";
+
+        doThrow(new IllegalStateException()).when(failingBatch).close();
+        when(batcher.createBatch()).thenReturn(failingBatch, batch);
+
+        try (SessionExpirationScheduler scheduler = new SessionExpirationScheduler(batcher, remover, notifiedRemover, 1, 100)) {
+            scheduler.schedule(sessionId, createExpiredMetaData());
+            awaitProcessed(scheduler, 1);
+
+            assertEquals(0L, scheduler.getExpirationBacklog());
+        }
+
+        // The removal is retried without notifying the expiration listeners again
+        verify(remover).remove(sessionId);
+        verify(notifiedRemover).remove(sessionId);
+        verify(batch).close();
+    }
+
+    private static List<String> createSessionIds(int count) {
+        List<String> sessionIds = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            sessionIds.add("session-" + i);
+        }
+        return sessionIds;
+    }
+
+    private static ImmutableSessionMetaData createExpiredMetaData() {
+        ImmutableSessionMetaData metaData = mock(ImmutableSessionMetaData.class);
+        when(metaData.getMaxInactiveInterval()).thenReturn(Duration.ofMillis(1L));
+        when(metaData.getLastAccessedTime()).thenReturn(Instant.now().minusSeconds(1L));
+        return metaData;
+    }
+
+    private static void awaitProcessed(SessionExpirationScheduler scheduler, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while (scheduler.getProcessedExpirationCount() < count) {
+            assertTrue(System.nanoTime() < deadline);
+            TimeUnit.MILLISECONDS.sleep(10L);
+        }
+    }
 }
@@ -0,0 +1,241 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.web.infinispan.session;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.infinispan.Cache;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryModifiedEvent;
+import org.infinispan.notifications.cachelistener.event.TopologyChangedEvent;
+import org.junit.Test;
+import org.wildfly.clustering.infinispan.spi.distribution.Key;
+
+/**
+ * Unit test for {@link SessionMetaDataNearCache}.
+ * @author Paul Ferraro
+ */
+public class SessionMetaDataNearCacheTestCase {
+    private final Cache<Key<String>, Object> cache = mock(Cache.class);
+    private final SessionMetaDataNearCache<Object> nearCache = new SessionMetaDataNearCache<>(this.cache, 2);
+
+    @Test
+    public void copyOnRead() {
+        String id = "session";
+        Instant creationTime = Instant.now();
+        AtomicReference<Object> localContext = new AtomicReference<>();
+        InfinispanSessionMetaData<Object> value = createMetaData(creationTime, Duration.ofMinutes(30), Duration.ofSeconds(10), localContext);
+
+        assertNull(this.nearCache.get(id));
+
+        this.nearCache.put(id, this.nearCache.load(id), value);
+
+        // Mutating the loaded value must not affect the cached meta data
+        value.getCreationMetaData().setMaxInactiveInterval(Duration.ofMinutes(1));
+        value.getAccessMetaData().setLastAccessedDuration(Duration.ofSeconds(20));
+
+        InfinispanSessionMetaData<Object> result = this.nearCache.get(id);
+        assertNotNull(result);
+        assertNotSame(value, result);
+        assertEquals(creationTime, result.getCreationMetaData().getCreationTime());
+        assertEquals(Duration.ofMinutes(30), result.getCreationMetaData().getMaxInactiveInterval());
+        assertEquals(Duration.ofSeconds(10), result.getAccessMetaData().getLastAccessedDuration());
+        assertTrue(result.getCreationMetaData().isValid());
+        // Local context is not replicated, so it must be shared
+        assertSame(localContext, result.getLocalContext());
+
+        // Mutating a returned copy must not affect the cached meta data, nor other copies
+        result.getCreationMetaData().setMaxInactiveInterval(Duration.ofMinutes(2));
+        result.getAccessMetaData().setLastAccessedDuration(Duration.ofSeconds(30));
+        result.getCreationMetaData().invalidate();
+
+        InfinispanSessionMetaData<Object> other = this.nearCache.get(id);
+        assertNotSame(result, other);
+        assertNotSame(result.getCreationMetaData(), other.getCreationMetaData());
+        assertNotSame(result.getAccessMetaData(), other.getAccessMetaData());
+        assertEquals(Duration.ofMinutes(30), other.getCreationMetaData().getMaxInactiveInterval());
+        assertEquals(Duration.ofSeconds(10), other.getAccessMetaData().getLastAccessedDuration());
+        assertTrue(other.getCreationMetaData().isValid());
+
+        assertEquals(2L, this.nearCache.getMetaDataCacheHitCount());
+        assertEquals(1L, this.nearCache.getMetaDataCacheMissCount());
+    }
+
+    @Test
+    public void invalidSession() {
+        String id = "session";
+        InfinispanSessionMetaData<Object> value = createMetaData(Instant.now(), Duration.ofMinutes(30), Duration.ZERO, new AtomicReference<>());
+        value.getCreationMetaData().invalidate();
+
+        this.nearCache.put(id, this.nearCache.load(id), value);
+
+        assertNull(this.nearCache.get(id));
+    }
+
+    @Test
+    public void concurrentModification() {
+        String id = "session";
+        InfinispanSessionMetaData<Object> value = createMetaData(Instant.now(), Duration.ofMinutes(30), Duration.ZERO, new AtomicReference<>());
+
+        AtomicBoolean valid = this.nearCache.load(id);
+        this.nearCache.modified(createModifiedEvent(new SessionAccessMetaDataKey(id), value.getAccessMetaData()));
+        this.nearCache.put(id, valid, value);
+
+        // Loaded value is potentially stale, so must not be cached
+        assertNull(this.nearCache.get(id));
+    }
+
+    @Test
+    public void modified() {
+        String id = "session";
+        Instant creationTime = Instant.now();
+        AtomicReference<Object> localContext = new AtomicReference<>();
+        this.nearCache.put(id, this.nearCache.load(id), createMetaData(creationTime, Duration.ofMinutes(30), Duration.ZERO, localContext));
+
+        SessionAccessMetaData accessMetaData = new SimpleSessionAccessMetaData();
+        accessMetaData.setLastAccessedDuration(Duration.ofSeconds(5));
+        this.nearCache.modified(createModifiedEvent(new SessionAccessMetaDataKey(id), accessMetaData));
+        // Subsequent mutation of the event value must not affect the cached meta data
+        accessMetaData.setLastAccessedDuration(Duration.ofSeconds(15));
+
+        InfinispanSessionMetaData<Object> result = this.nearCache.get(id);
+        assertEquals(Duration.ofSeconds(5), result.getAccessMetaData().getLastAccessedDuration());
+        assertEquals(Duration.ofMinutes(30), result.getCreationMetaData().getMaxInactiveInterval());
+
+        SessionCreationMetaData creationMetaData = new SimpleSessionCreationMetaData(creationTime);
+        creationMetaData.setMaxInactiveInterval(Duration.ofMinutes(10));
+        this.nearCache.modified(createModifiedEvent(new SessionCreationMetaDataKey(id), new SessionCreationMetaDataEntry<>(creationMetaData)));
+
+        result = this.nearCache.get(id);
+        assertEquals(Duration.ofMinutes(10), result.getCreationMetaData().getMaxInactiveInterval());
+        assertEquals(Duration.ofSeconds(5), result.getAccessMetaData().getLastAccessedDuration());
+        assertSame(localContext, result.getLocalContext());
+
+        // Invalidated sessions are evicted
+        creationMetaData.invalidate();
+        this.nearCache.modified(createModifiedEvent(new SessionCreationMetaDataKey(id), new SessionCreationMetaDataEntry<>(creationMetaData)));
+
+        assertNull(this.nearCache.get(id));
+    }
+
+    @Test
+    public void removed() {
+        String id = "session";
+        this.nearCache.put(id, this.nearCache.load(id), createMetaData(Instant.now(), Duration.ofMinutes(30), Duration.ZERO, new AtomicReference<>()));
+
+        CacheEntryEvent<Key<String>, Object> event = mock(CacheEntryEvent.class);
+        when(event.getKey()).thenReturn(new SessionCreationMetaDataKey(id));
+        this.nearCache.removed(event);
+
+        assertNull(this.nearCache.get(id));
+    }
+
+    @Test
+    public void update() {
+        String id = "session";
+        Instant creationTime = Instant.now();
+        AtomicReference<Object> localContext = new AtomicReference<>();
+        InfinispanSessionMetaData<Object> value = createMetaData(creationTime, Duration.ofMinutes(30), Duration.ZERO, localContext);
+
+        // Only cached entries are updated
+        this.nearCache.update(id, value);
+        assertNull(this.nearCache.get(id));
+
+        this.nearCache.put(id, this.nearCache.load(id), value);
+
+        value.getAccessMetaData().setLastAccessedDuration(Duration.ofSeconds(10));
+        this.nearCache.update(id, value);
+
+        InfinispanSessionMetaData<Object> result = this.nearCache.get(id);
+        assertNotNull(result);
+        assertEquals(Duration.ofSeconds(10), result.getAccessMetaData().getLastAccessedDuration());
+        assertEquals(creationTime, result.getCreationMetaData().getCreationTime());
+        assertSame(localContext, result.getLocalContext());
+
+        // A load concurrent with a local modification is not cached
+        this.nearCache.invalidate(id);
+        AtomicBoolean valid = this.nearCache.load(id);
+        this.nearCache.update(id, value);
+        this.nearCache.put(id, valid, value);
+        assertNull(this.nearCache.get(id));
+
+        this.nearCache.put(id, this.nearCache.load(id), value);
+        value.getCreationMetaData().invalidate();
+        this.nearCache.update(id, value);
+
+        assertNull(this.nearCache.get(id));
+    }
+
+    @Test
+    public void topologyChanged() {
+        this.nearCache.put("a", this.nearCache.load("a"), createMetaData(Instant.now(), Duration.ofMinutes(30), Duration.ZERO, new AtomicReference<>()));
+        AtomicBoolean valid = this.nearCache.load("b");
+
+        TopologyChangedEvent<Key<String>, Object> event = mock(TopologyChangedEvent.class);
+        when(event.isPre()).thenReturn(true);
+        this.nearCache.topologyChanged(event);
+
+        assertNotNull(this.nearCache.get("a"));
+
+        when(event.isPre()).thenReturn(false);
+        this.nearCache.topologyChanged(event);
+
+        // Sessions may have been accessed via other members, so all entries, and in-flight loads, are invalidated
+        assertNull(this.nearCache.get("a"));
+        this.nearCache.put("b", valid, createMetaData(Instant.now(), Duration.ofMinutes(30), Duration.ZERO, new AtomicReference<>()));
+        assertNull(this.nearCache.get("b"));
+    }
+
+    @Test
+    public void bounded() {
+        for (String id : new String[] { "a", "b", "c" }) {
+            this.nearCache.put(id, this.nearCache.load(id), createMetaData(Instant.now(), Duration.ofMinutes(30), Duration.ZERO, new AtomicReference<>()));
+        }
+
+        // Least recently used entry is evicted
+        assertNull(this.nearCache.get("a"));
+        assertNotNull(this.nearCache.get("b"));
+        assertNotNull(this.nearCache.get("c"));
+    }
+
+    private static CacheEntryModifiedEvent<Key<String>, Object> createModifiedEvent(Key<String> key, Object value) {
+        CacheEntryModifiedEvent<Key<String>, Object> event = mock(CacheEntryModifiedEvent.class);
+        when(event.getKey()).thenReturn(key);
+        when(event.getValue()).thenReturn(value);
+        return event;
+    }
+
+    private static InfinispanSessionMetaData<Object> createMetaData(Instant creationTime, Duration maxInactiveInterval, Duration lastAccessedDuration, AtomicReference<Object> localContext) {
+        SessionCreationMetaData creationMetaData = new SimpleSessionCreationMetaData(creationTime);
+        creationMetaData.setMaxInactiveInterval(maxInactiveInterval);
+        SessionAccessMetaData accessMetaData = new SimpleSessionAccessMetaData();
+        accessMetaData.setLastAccessedDuration(lastAccessedDuration);
+        return new InfinispanSessionMetaData<>(creationMetaData, accessMetaData, localContext);
+    }
+}
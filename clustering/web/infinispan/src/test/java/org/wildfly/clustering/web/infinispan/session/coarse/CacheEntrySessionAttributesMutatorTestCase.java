@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.context.Flag;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.LocalizedCacheTopology;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Unit test for {@link CacheEntrySessionAttributesMutator}.
+ * @author Paul Ferraro
+ */
+public class CacheEntrySessionAttributesMutatorTestCase {
+    private final AdvancedCache<SessionAttributesKey, Map<String, Object>> cache = mock(AdvancedCache.class);
+    private final DistributionManager dist = mock(DistributionManager.class);
+    private final LocalizedCacheTopology topology = mock(LocalizedCacheTopology.class);
+    private final SessionAttributesKey key = new SessionAttributesKey("session");
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    public CacheEntrySessionAttributesMutatorTestCase() {
+        when(this.cache.getAdvancedCache()).thenReturn(this.cache);
+        when(this.cache.withFlags(Flag.IGNORE_RETURN_VALUES, Flag.FAIL_SILENTLY)).thenReturn(this.cache);
+        when(this.cache.getDistributionManager()).thenReturn(this.dist);
+        when(this.dist.getCacheTopology()).thenReturn(this.topology);
+        when(this.topology.getTopologyId()).thenReturn(1);
+        this.attributes.put("a", "a0");
+        this.attributes.put("b", "b0");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void delta() {
+        SessionAttributesMutator<Object> mutator = new CacheEntrySessionAttributesMutator<>(this.cache, this.key, this.attributes, false);
+
+        mutator.mutate(Collections.singletonMap("a", "a1"), Collections.singleton("b"));
+
+        ArgumentCaptor<SessionAttributesDelta<Object>> captor = ArgumentCaptor.forClass((Class<SessionAttributesDelta<Object>>) (Class<?>) SessionAttributesDelta.class);
+        verify(this.cache).compute(same(this.key), captor.capture());
+        verify(this.cache, never()).put(any(), any());
+
+        SessionAttributesDelta<Object> delta = captor.getValue();
+        assertEquals(Collections.singletonMap("a", "a1"), delta.getUpdates());
+        assertEquals(Collections.singleton("b"), delta.getRemovals());
+        // The attributes read from the cache are never modified
+        assertEquals("a0", this.attributes.get("a"));
+        assertEquals("b0", this.attributes.get("b"));
+    }
+
+    @Test
+    public void created() {
+        SessionAttributesMutator<Object> mutator = new CacheEntrySessionAttributesMutator<>(this.cache, this.key, this.attributes, true);
+
+        mutator.mutate(Collections.singletonMap("a", "a1"), Collections.emptySet());
+        mutator.mutate(Collections.singletonMap("c", "c1"), Collections.singleton("b"));
+
+        // A newly created entry is replicated in full, including the changes of previous mutations
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("a", "a1");
+        expected.put("c", "c1");
+        verify(this.cache).put(this.key, expected);
+        verify(this.cache, never()).compute(any(), any());
+    }
+
+    @Test
+    public void topologyChanged() {
+        SessionAttributesMutator<Object> mutator = new CacheEntrySessionAttributesMutator<>(this.cache, this.key, this.attributes, false);
+
+        mutator.mutate(Collections.singletonMap("a", "a1"), Collections.emptySet());
+        verify(this.cache).compute(same(this.key), any());
+
+        // Once the topology changed, new owners may not hold a copy to which a delta could be applied
+        when(this.topology.getTopologyId()).thenReturn(2);
+
+        mutator.mutate(Collections.singletonMap("c", "c1"), Collections.emptySet());
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("a", "a1");
+        expected.put("b", "b0");
+        expected.put("c", "c1");
+        verify(this.cache).put(this.key, expected);
+        verify(this.cache, times(1)).compute(any(), any());
+    }
+
+    @Test
+    public void local() {
+        when(this.cache.getDistributionManager()).thenReturn(null);
+        SessionAttributesMutator<Object> mutator = new CacheEntrySessionAttributesMutator<>(this.cache, this.key, this.attributes, false);
+
+        mutator.mutate(Collections.singletonMap("a", "a1"), Collections.emptySet());
+        mutator.mutate(Collections.emptyMap(), Collections.singleton("a"));
+
+        verify(this.cache, times(2)).compute(same(this.key), any());
+        verify(this.cache, never()).put(any(), any());
+    }
+}
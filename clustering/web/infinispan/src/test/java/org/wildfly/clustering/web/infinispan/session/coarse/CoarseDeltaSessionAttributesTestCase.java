@@ -0,0 +1,178 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+import org.wildfly.clustering.ee.infinispan.CacheProperties;
+import org.wildfly.clustering.marshalling.spi.Marshaller;
+
+/**
+ * Unit test for {@link CoarseDeltaSessionAttributes}.
+ * @author Paul Ferraro
+ */
+public class CoarseDeltaSessionAttributesTestCase {
+    private final SessionAttributesMutator<Object> mutator = mock(SessionAttributesMutator.class);
+    private final Marshaller<Object, Object> marshaller = mock(Marshaller.class);
+    private final CacheProperties properties = mock(CacheProperties.class);
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    public CoarseDeltaSessionAttributesTestCase() {
+        when(this.marshaller.isMarshallable(any())).thenReturn(true);
+        when(this.marshaller.write(any())).thenAnswer(invocation -> new Marshalled(invocation.getArguments()[0]));
+        this.attributes.put("immutable", "value");
+        this.attributes.put("mutable", new ArrayList<>());
+        this.attributes.put("removed", "value");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void transactional() {
+        when(this.properties.isTransactional()).thenReturn(true);
+        CoarseDeltaSessionAttributes<Object> attributes = new CoarseDeltaSessionAttributes<>(this.attributes, this.mutator, this.marshaller, this.properties);
+
+        assertNull(attributes.setAttribute("added", 1));
+        assertEquals("value", attributes.removeAttribute("removed"));
+        assertEquals("value", attributes.getAttribute("immutable"));
+        List<Object> mutable = (List<Object>) attributes.getAttribute("mutable");
+        mutable.add("element");
+        // Added and removed within the same request, so never marshalled
+        assertNull(attributes.setAttribute("transient", 2));
+        assertEquals(2, attributes.removeAttribute("transient"));
+        // Removing an absent attribute is not a change
+        assertNull(attributes.removeAttribute("missing"));
+
+        verifyZeroInteractions(this.mutator);
+
+        attributes.close();
+
+        Map<String, Object> expectedUpdates = new HashMap<>();
+        expectedUpdates.put("added", new Marshalled(1));
+        expectedUpdates.put("mutable", new Marshalled(mutable));
+        verify(this.mutator).mutate(expectedUpdates, new HashSet<>(Arrays.asList("removed", "transient")));
+        verifyNoMoreInteractions(this.mutator);
+        // Neither unchanged nor immutable attributes are marshalled
+        verify(this.marshaller, never()).write("value");
+        verify(this.marshaller, never()).write(2);
+    }
+
+    @Test
+    public void transactionalReplacement() {
+        when(this.properties.isTransactional()).thenReturn(true);
+        CoarseDeltaSessionAttributes<Object> attributes = new CoarseDeltaSessionAttributes<>(this.attributes, this.mutator, this.marshaller, this.properties);
+
+        assertEquals("value", attributes.removeAttribute("removed"));
+        assertNull(attributes.setAttribute("removed", "replacement"));
+
+        attributes.close();
+
+        verify(this.mutator).mutate(Collections.<String, Object>singletonMap("removed", new Marshalled("replacement")), Collections.<String>emptySet());
+    }
+
+    @Test
+    public void nonTransactional() {
+        when(this.properties.isTransactional()).thenReturn(false);
+        CoarseDeltaSessionAttributes<Object> attributes = new CoarseDeltaSessionAttributes<>(this.attributes, this.mutator, this.marshaller, this.properties);
+
+        // Added, replaced and removed attributes are replicated immediately
+        assertNull(attributes.setAttribute("added", 1));
+        verify(this.mutator).mutate(Collections.<String, Object>singletonMap("added", new Marshalled(1)), Collections.<String>emptySet());
+
+        assertEquals("value", attributes.removeAttribute("removed"));
+        verify(this.mutator).mutate(Collections.<String, Object>emptyMap(), Collections.<String>singleton("removed"));
+
+        Object mutable = attributes.getAttribute("mutable");
+        verifyNoMoreInteractions(this.mutator);
+
+        // Possibly mutated attributes are replicated on close
+        attributes.close();
+
+        verify(this.mutator).mutate(Collections.<String, Object>singletonMap("mutable", new Marshalled(mutable)), Collections.<String>emptySet());
+        verifyNoMoreInteractions(this.mutator);
+    }
+
+    @Test
+    public void unchanged() {
+        when(this.properties.isTransactional()).thenReturn(true);
+        CoarseDeltaSessionAttributes<Object> attributes = new CoarseDeltaSessionAttributes<>(this.attributes, this.mutator, this.marshaller, this.properties);
+
+        assertEquals("value", attributes.getAttribute("immutable"));
+        assertNull(attributes.getAttribute("missing"));
+
+        attributes.close();
+
+        verifyZeroInteractions(this.mutator);
+    }
+
+    @Test
+    public void notMarshallable() {
+        when(this.properties.isMarshalling()).thenReturn(true);
+        Object value = new Object();
+        when(this.marshaller.isMarshallable(value)).thenReturn(false);
+        CoarseDeltaSessionAttributes<Object> attributes = new CoarseDeltaSessionAttributes<>(this.attributes, this.mutator, this.marshaller, this.properties);
+
+        try {
+            attributes.setAttribute("invalid", value);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        assertFalse(this.attributes.containsKey("invalid"));
+
+        attributes.close();
+
+        verifyZeroInteractions(this.mutator);
+    }
+
+    /**
+     * Stands in for the marshalled form of an attribute value.
+     */
+    private static class Marshalled {
+        private final Object value;
+
+        Marshalled(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.value);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return (object instanceof Marshalled) && (((Marshalled) object).value == this.value);
+        }
+    }
+}
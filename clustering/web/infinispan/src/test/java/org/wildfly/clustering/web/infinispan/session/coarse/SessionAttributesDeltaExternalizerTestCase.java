@@ -0,0 +1,73 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wildfly.clustering.marshalling.ExternalizerTester;
+
+/**
+ * Unit test for {@link SessionAttributesDeltaExternalizer}.
+ */
+public class SessionAttributesDeltaExternalizerTestCase {
+
+    @Test
+    public void test() throws ClassNotFoundException, IOException {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("a", 1);
+        updates.put("b", "2");
+        SessionAttributesDelta<Object> delta = new SessionAttributesDelta<>(updates, Collections.singleton("c"));
+        new ExternalizerTester<>(new SessionAttributesDeltaExternalizer(), SessionAttributesDeltaExternalizerTestCase::assertEquals).test(delta);
+    }
+
+    @Test
+    public void apply() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("a", 0);
+        attributes.put("c", 3);
+        attributes.put("d", 4);
+        SessionAttributesDelta<Object> delta = new SessionAttributesDelta<>(Collections.singletonMap("a", 1), Collections.singleton("c"));
+        SessionAttributesKey key = new SessionAttributesKey("session");
+
+        Map<String, Object> result = delta.apply(key, attributes);
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(1, result.get("a"));
+        Assert.assertEquals(4, result.get("d"));
+        // The current value must not be modified
+        Assert.assertEquals(3, attributes.size());
+        Assert.assertEquals(0, attributes.get("a"));
+
+        Assert.assertNull(delta.apply(key, null));
+    }
+
+    static void assertEquals(SessionAttributesDelta<Object> delta1, SessionAttributesDelta<Object> delta2) {
+        Assert.assertEquals(delta1.getUpdates(), delta2.getUpdates());
+        Assert.assertEquals(delta1.getRemovals(), delta2.getRemovals());
+    }
+}
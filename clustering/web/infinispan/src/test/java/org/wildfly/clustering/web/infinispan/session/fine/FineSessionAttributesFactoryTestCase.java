@@ -0,0 +1,155 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.web.infinispan.session.fine;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.junit.Test;
+import org.wildfly.clustering.ee.infinispan.CacheProperties;
+import org.wildfly.clustering.marshalling.spi.InvalidSerializedFormException;
+import org.wildfly.clustering.marshalling.spi.Marshaller;
+import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
+import org.wildfly.clustering.web.session.SessionAttributeActivationStatistics;
+
+/**
+ * Unit test for the lazy activation of attributes created by {@link FineSessionAttributesFactory}.
+ * @author Paul Ferraro
+ */
+public class FineSessionAttributesFactoryTestCase {
+    private final Cache<SessionAttributeNamesKey, SessionAttributeNamesEntry> namesCache = mock(Cache.class);
+    private final Cache<SessionAttributeKey, Object> attributeCache = mock(Cache.class);
+    private final Marshaller<Object, Object> marshaller = mock(Marshaller.class);
+    private final CacheProperties properties = mock(CacheProperties.class);
+
+    @Test
+    public void activationStatistics() throws InvalidSerializedFormException {
+        FineSessionAttributesFactory<Object> factory = new FineSessionAttributesFactory<>(this.namesCache, this.attributeCache, this.marshaller, this.properties);
+        SessionAttributeActivationStatistics statistics = factory.getActivationStatistics();
+
+        assertNotNull(statistics);
+        assertEquals(0L, statistics.getDeferredAttributeCount());
+        assertEquals(0L, statistics.getDeserializedAttributeCount());
+        assertEquals(0L, statistics.getAvoidedAttributeDeserializationCount());
+
+        String id = "session";
+        ConcurrentMap<String, Integer> names = new ConcurrentHashMap<>();
+        names.put("a", 0);
+        names.put("b", 1);
+        names.put("c", 2);
+        SessionAttributeNamesEntry entry = new SessionAttributeNamesEntry(new AtomicInteger(3), names);
+        Object marshalledValue = new Object();
+        Object value = "value";
+
+        when(this.namesCache.get(new SessionAttributeNamesKey(id))).thenReturn(entry);
+        when(this.attributeCache.get(new SessionAttributeKey(id, 0))).thenReturn(marshalledValue);
+        when(this.marshaller.read(marshalledValue)).thenReturn(value);
+
+        assertSame(entry, factory.findValue(id));
+
+        // Attribute values are not fetched, nor deserialized, on activation
+        verifyZeroInteractions(this.attributeCache);
+        verifyZeroInteractions(this.marshaller);
+        assertEquals(3L, statistics.getDeferredAttributeCount());
+        assertEquals(0L, statistics.getDeserializedAttributeCount());
+        assertEquals(3L, statistics.getAvoidedAttributeDeserializationCount());
+
+        ImmutableSessionAttributes attributes = factory.createImmutableSessionAttributes(id, entry);
+
+        assertSame(value, attributes.getAttribute("a"));
+        // Subsequent access within the same request is not a new deserialization
+        assertSame(value, attributes.getAttribute("a"));
+        assertNull(attributes.getAttribute("missing"));
+
+        verify(this.attributeCache).get(new SessionAttributeKey(id, 0));
+        verify(this.attributeCache, never()).get(new SessionAttributeKey(id, 1));
+        verify(this.attributeCache, never()).get(new SessionAttributeKey(id, 2));
+        assertEquals(3L, statistics.getDeferredAttributeCount());
+        assertEquals(1L, statistics.getDeserializedAttributeCount());
+        assertEquals(2L, statistics.getAvoidedAttributeDeserializationCount());
+
+        // A missing session is not counted
+        assertNull(factory.findValue("missing"));
+        assertEquals(3L, statistics.getDeferredAttributeCount());
+    }
+
+    @Test
+    public void discardUnreadableAttributes() throws InvalidSerializedFormException {
+        AdvancedCache<SessionAttributeNamesKey, SessionAttributeNamesEntry> namesCache = mock(AdvancedCache.class);
+        AdvancedCache<SessionAttributeKey, Object> attributeCache = mock(AdvancedCache.class);
+        Configuration config = new ConfigurationBuilder().build();
+        FineSessionAttributesFactory<Object> factory = new FineSessionAttributesFactory<>(namesCache, attributeCache, this.marshaller, this.properties);
+
+        String id = "session";
+        ConcurrentMap<String, Integer> names = new ConcurrentHashMap<>();
+        names.put("readable", 0);
+        names.put("unreadable", 1);
+        names.put("missing", 2);
+        SessionAttributeNamesEntry entry = new SessionAttributeNamesEntry(new AtomicInteger(3), names);
+        Object readableValue = new Object();
+        Object unreadableValue = new Object();
+        Object value = "value";
+
+        when(namesCache.getCacheConfiguration()).thenReturn(config);
+        when(namesCache.getAdvancedCache()).thenReturn(namesCache);
+        when(namesCache.withFlags(Flag.IGNORE_RETURN_VALUES, Flag.FAIL_SILENTLY)).thenReturn(namesCache);
+        when(attributeCache.getAdvancedCache()).thenReturn(attributeCache);
+        when(attributeCache.withFlags(Flag.IGNORE_RETURN_VALUES)).thenReturn(attributeCache);
+        when(attributeCache.get(new SessionAttributeKey(id, 0))).thenReturn(readableValue);
+        when(attributeCache.get(new SessionAttributeKey(id, 1))).thenReturn(unreadableValue);
+        when(this.marshaller.read(readableValue)).thenReturn(value);
+        when(this.marshaller.read(unreadableValue)).thenThrow(new InvalidSerializedFormException("unreadable"));
+
+        ImmutableSessionAttributes attributes = factory.createImmutableSessionAttributes(id, entry);
+
+        // An attribute that can no longer be deserialized is discarded, rather than failing the request
+        assertNull(attributes.getAttribute("unreadable"));
+        assertFalse(attributes.getAttributeNames().contains("unreadable"));
+        verify(attributeCache).remove(new SessionAttributeKey(id, 1));
+        verify(namesCache).put(new SessionAttributeNamesKey(id), entry);
+
+        // An attribute whose cache entry is missing is likewise discarded
+        assertNull(attributes.getAttribute("missing"));
+        assertFalse(attributes.getAttributeNames().contains("missing"));
+        verify(attributeCache).remove(new SessionAttributeKey(id, 2));
+        verify(namesCache, times(2)).put(new SessionAttributeNamesKey(id), entry);
+
+        // Discarded attributes are not fetched again
+        assertNull(attributes.getAttribute("unreadable"));
+        verify(attributeCache, times(1)).get(new SessionAttributeKey(id, 1));
+
+        assertSame(value, attributes.getAttribute("readable"));
+        assertEquals(1, attributes.getAttributeNames().size());
+        assertTrue(entry.getNames().containsKey("readable"));
+        verify(attributeCache, never()).remove(new SessionAttributeKey(id, 0));
+    }
+}
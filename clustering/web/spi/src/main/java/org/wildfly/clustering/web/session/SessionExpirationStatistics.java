@@ -0,0 +1,65 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.session;
+
+import java.time.Duration;
+
+/**
+ * Statistics for the eager expiration of sessions, if any.
+ */
+public interface SessionExpirationStatistics {
+
+    /**
+     * @return The number of sessions currently scheduled for expiration
+     */
+    default long getScheduledExpirationCount() {
+        return 0L;
+    }
+
+    /**
+     * @return The number of expired sessions awaiting removal
+     */
+    default long getExpirationBacklog() {
+        return 0L;
+    }
+
+    /**
+     * @return The number of expired sessions processed since the session manager was started
+     */
+    default long getProcessedExpirationCount() {
+        return 0L;
+    }
+
+    /**
+     * @return The mean duration between the expiration time of a session and its removal
+     */
+    default Duration getMeanExpirationLag() {
+        return Duration.ZERO;
+    }
+
+    /**
+     * @return The maximum duration between the expiration time of a session and its removal
+     */
+    default Duration getMaxExpirationLag() {
+        return Duration.ZERO;
+    }
+}
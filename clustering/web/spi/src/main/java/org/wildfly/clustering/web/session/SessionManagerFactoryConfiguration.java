@@ -21,6 +21,8 @@
  */
 package org.wildfly.clustering.web.session;
 
+import java.time.Duration;
+
 import org.wildfly.clustering.marshalling.spi.Marshallability;
 import org.wildfly.clustering.marshalling.spi.MarshalledValueFactory;
 import org.wildfly.clustering.web.LocalContextFactory;
@@ -30,7 +32,15 @@ import org.wildfly.clustering.web.LocalContextFactory;
  * @author Paul Ferraro
  */
 public interface SessionManagerFactoryConfiguration<C extends Marshallability, L> {
-    enum SessionAttributePersistenceStrategy { COARSE, FINE }
+    /**
+     * Strategies for persisting session attributes.
+     * <ul>
+     * <li>{@link #COARSE} persists all attributes of a session together, preserving references shared between attributes</li>
+     * <li>{@link #COARSE_DELTA} persists all attributes of a session together, but marshals and replicates them individually, such that only changed attributes are replicated</li>
+     * <li>{@link #FINE} persists each attribute of a session separately</li>
+     * </ul>
+     */
+    enum SessionAttributePersistenceStrategy { COARSE, COARSE_DELTA, FINE }
 
     int getMaxActiveSessions();
 
@@ -47,4 +57,28 @@ public interface SessionManagerFactoryConfiguration<C extends Marshallability, L
     C getMarshallingContext();
 
     LocalContextFactory<L> getLocalContextFactory();
+
+    /**
+     * Returns the maximum number of sessions, not owned by the local node, whose meta data should be cached locally, if supported by the session manager.
+     * @return a number of sessions, or 0 if the near-cache is disabled
+     */
+    default int getMetaDataNearCacheSize() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of timing wheels across which the expiration of sessions is scheduled, if supported by the session manager.
+     * @return a positive number of timing wheels
+     */
+    default int getExpirationSchedulerShards() {
+        return 1;
+    }
+
+    /**
+     * Returns the interval at which coalesced last access time updates are written, if supported by the session manager.
+     * @return a flush interval, or {@link Duration#ZERO} if the last access time is written per request
+     */
+    default Duration getAccessMetaDataFlushInterval() {
+        return Duration.ZERO;
+    }
 }
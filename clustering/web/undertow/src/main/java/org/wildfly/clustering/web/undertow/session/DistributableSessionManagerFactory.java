@@ -27,6 +27,7 @@ import org.wildfly.clustering.ee.Batch;
 import org.wildfly.clustering.ee.BatchContext;
 import org.wildfly.clustering.ee.Batcher;
 import org.wildfly.clustering.ee.Recordable;
+import org.wildfly.clustering.marshalling.spi.CompressionStatistics;
 import org.wildfly.clustering.web.IdentifierFactory;
 import org.wildfly.clustering.web.session.ImmutableSession;
 import org.wildfly.clustering.web.session.SessionExpirationListener;
@@ -50,10 +51,12 @@ public class DistributableSessionManagerFactory implements io.undertow.servlet.a
 
     private final SessionManagerFactory<LocalSessionContext, Batch> factory;
     private final DistributableSessionManagerConfiguration config;
+    private final CompressionStatistics compressionStatistics;
 
-    public DistributableSessionManagerFactory(SessionManagerFactory<LocalSessionContext, Batch> factory, DistributableSessionManagerConfiguration config) {
+    public DistributableSessionManagerFactory(SessionManagerFactory<LocalSessionContext, Batch> factory, DistributableSessionManagerConfiguration config, CompressionStatistics compressionStatistics) {
         this.factory = factory;
         this.config = config;
+        this.compressionStatistics = compressionStatistics;
     }
 
     @Override
@@ -101,7 +104,7 @@ public class DistributableSessionManagerFactory implements io.undertow.servlet.a
                 };
             }
         });
-        RecordableSessionManagerStatistics statistics = (inactiveSessionStatistics != null) ? new DistributableSessionManagerStatistics(manager, inactiveSessionStatistics, this.config.getMaxActiveSessions()) : null;
+        RecordableSessionManagerStatistics statistics = (inactiveSessionStatistics != null) ? new DistributableSessionManagerStatistics(manager, inactiveSessionStatistics, manager, manager, manager, this.compressionStatistics, this.config.getMaxActiveSessions()) : null;
         return new DistributableSessionManager(info.getDeploymentName(), manager, listeners, statistics);
     }
 }
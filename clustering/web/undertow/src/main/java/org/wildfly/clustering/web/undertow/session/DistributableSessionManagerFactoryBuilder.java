@@ -23,6 +23,7 @@ package org.wildfly.clustering.web.undertow.session;
 
 import java.io.Externalizable;
 import java.io.Serializable;
+import java.time.Duration;
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.function.Function;
@@ -43,13 +44,20 @@ import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.value.InjectedValue;
 import org.wildfly.clustering.ee.Batch;
+import org.wildfly.clustering.marshalling.jboss.CompressedMarshalledValueFactory;
+import org.wildfly.clustering.marshalling.jboss.CompressingMarshallingContext;
 import org.wildfly.clustering.marshalling.jboss.ExternalizerObjectTable;
 import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
 import org.wildfly.clustering.marshalling.jboss.SimpleClassTable;
 import org.wildfly.clustering.marshalling.jboss.SimpleMarshalledValueFactory;
 import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingConfigurationRepository;
 import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingContextFactory;
+import org.wildfly.clustering.marshalling.spi.CompressionStatistics;
+import org.wildfly.clustering.marshalling.spi.Compressor;
+import org.wildfly.clustering.marshalling.spi.Marshallability;
 import org.wildfly.clustering.marshalling.spi.MarshalledValueFactory;
+import org.wildfly.clustering.marshalling.spi.binary.BinaryMarshalledValueFactory;
+import org.wildfly.clustering.marshalling.spi.binary.BinaryMarshallingContext;
 import org.wildfly.clustering.service.Builder;
 import org.wildfly.clustering.service.MappedValueService;
 import org.wildfly.clustering.web.LocalContextFactory;
@@ -95,6 +103,7 @@ public class DistributableSessionManagerFactoryBuilder implements CapabilityServ
 
     private final ServiceName name;
     private final DistributableSessionManagerConfiguration config;
+    private final CompressionStatistics compressionStatistics;
     private final CapabilityServiceBuilder<org.wildfly.clustering.web.session.SessionManagerFactory<LocalSessionContext, Batch>> factoryBuilder;
 
     public DistributableSessionManagerFactoryBuilder(ServiceName name, DistributableSessionManagerConfiguration config, SessionManagerFactoryBuilderProvider<Batch> provider) {
@@ -102,56 +111,38 @@ public class DistributableSessionManagerFactoryBuilder implements CapabilityServ
         this.config = config;
 
         Module module = config.getModule();
-        MarshallingContext context = new SimpleMarshallingContextFactory().createMarshallingContext(new SimpleMarshallingConfigurationRepository(MarshallingVersion.class, MarshallingVersion.CURRENT, module), module.getClassLoader());
-        MarshalledValueFactory<MarshallingContext> factory = new SimpleMarshalledValueFactory(context);
         LocalContextFactory<LocalSessionContext> localContextFactory = new LocalSessionContextFactory();
-        SessionManagerFactoryConfiguration<MarshallingContext, LocalSessionContext> configuration = new SessionManagerFactoryConfiguration<MarshallingContext, LocalSessionContext>() {
-            @Override
-            public int getMaxActiveSessions() {
-                return config.getMaxActiveSessions();
-            }
-
-            @Override
-            public SessionAttributePersistenceStrategy getAttributePersistenceStrategy() {
-                return strategies.get(config.getGranularity());
-            }
-
-            @Override
-            public String getServerName() {
-                return config.getServerName();
-            }
-
-            @Override
-            public String getDeploymentName() {
-                return config.getDeploymentName();
+        switch (config.getMarshaller()) {
+            case BINARY: {
+                BinaryMarshallingContext context = new BinaryMarshallingContext(module.getClassLoader());
+                this.compressionStatistics = null;
+                this.factoryBuilder = provider.getBuilder(new DistributableSessionManagerFactoryConfiguration<>(config, new BinaryMarshalledValueFactory(context), context, localContextFactory));
+                break;
             }
-
-            @Override
-            public String getCacheName() {
-                return config.getCacheName();
+            default: {
+                MarshallingContext marshallingContext = new SimpleMarshallingContextFactory().createMarshallingContext(new SimpleMarshallingConfigurationRepository(MarshallingVersion.class, MarshallingVersion.CURRENT, module), module.getClassLoader());
+                int compressionThreshold = config.getCompressionThreshold();
+                MarshallingContext context;
+                MarshalledValueFactory<MarshallingContext> factory;
+                if (compressionThreshold >= 0) {
+                    Compressor compressor = new Compressor(compressionThreshold);
+                    CompressingMarshallingContext compressingContext = new CompressingMarshallingContext(marshallingContext, compressor);
+                    context = compressingContext;
+                    factory = new CompressedMarshalledValueFactory(compressingContext);
+                    this.compressionStatistics = compressor;
+                } else {
+                    context = marshallingContext;
+                    factory = new SimpleMarshalledValueFactory(marshallingContext);
+                    this.compressionStatistics = null;
+                }
+                this.factoryBuilder = provider.getBuilder(new DistributableSessionManagerFactoryConfiguration<>(config, factory, context, localContextFactory));
             }
-
-            @Override
-            public MarshalledValueFactory<MarshallingContext> getMarshalledValueFactory() {
-                return factory;
-            }
-
-            @Override
-            public MarshallingContext getMarshallingContext() {
-                return context;
-            }
-
-            @Override
-            public LocalContextFactory<LocalSessionContext> getLocalContextFactory() {
-                return localContextFactory;
-            }
-        };
-        this.factoryBuilder = provider.getBuilder(configuration);
+        }
     }
 
     @Override
     public SessionManagerFactory apply(org.wildfly.clustering.web.session.SessionManagerFactory<LocalSessionContext, Batch> factory) {
-        return new DistributableSessionManagerFactory(factory, this.config);
+        return new DistributableSessionManagerFactory(factory, this.config, this.compressionStatistics);
     }
 
     @Override
@@ -175,4 +166,74 @@ public class DistributableSessionManagerFactoryBuilder implements CapabilityServ
                 .addDependency(this.factoryBuilder.getServiceName(), (Class<org.wildfly.clustering.web.session.SessionManagerFactory<LocalSessionContext, Batch>>) (Class<?>) org.wildfly.clustering.web.session.SessionManagerFactory.class, sessionManagerFactoryValue)
                 .setInitialMode(ServiceController.Mode.ON_DEMAND);
     }
+
+    private static class DistributableSessionManagerFactoryConfiguration<C extends Marshallability> implements SessionManagerFactoryConfiguration<C, LocalSessionContext> {
+        private final DistributableSessionManagerConfiguration config;
+        private final MarshalledValueFactory<C> factory;
+        private final C context;
+        private final LocalContextFactory<LocalSessionContext> localContextFactory;
+
+        DistributableSessionManagerFactoryConfiguration(DistributableSessionManagerConfiguration config, MarshalledValueFactory<C> factory, C context, LocalContextFactory<LocalSessionContext> localContextFactory) {
+            this.config = config;
+            this.factory = factory;
+            this.context = context;
+            this.localContextFactory = localContextFactory;
+        }
+
+        @Override
+        public int getMaxActiveSessions() {
+            return this.config.getMaxActiveSessions();
+        }
+
+        @Override
+        public SessionAttributePersistenceStrategy getAttributePersistenceStrategy() {
+            SessionAttributePersistenceStrategy strategy = strategies.get(this.config.getGranularity());
+            return ((strategy == SessionAttributePersistenceStrategy.COARSE) && this.config.isDeltaReplicationEnabled()) ? SessionAttributePersistenceStrategy.COARSE_DELTA : strategy;
+        }
+
+        @Override
+        public String getServerName() {
+            return this.config.getServerName();
+        }
+
+        @Override
+        public String getDeploymentName() {
+            return this.config.getDeploymentName();
+        }
+
+        @Override
+        public String getCacheName() {
+            return this.config.getCacheName();
+        }
+
+        @Override
+        public MarshalledValueFactory<C> getMarshalledValueFactory() {
+            return this.factory;
+        }
+
+        @Override
+        public C getMarshallingContext() {
+            return this.context;
+        }
+
+        @Override
+        public LocalContextFactory<LocalSessionContext> getLocalContextFactory() {
+            return this.localContextFactory;
+        }
+
+        @Override
+        public int getMetaDataNearCacheSize() {
+            return this.config.getMetaDataNearCacheSize();
+        }
+
+        @Override
+        public int getExpirationSchedulerShards() {
+            return this.config.getExpirationSchedulerShards();
+        }
+
+        @Override
+        public Duration getAccessMetaDataFlushInterval() {
+            return this.config.getAccessMetaDataFlushInterval();
+        }
+    }
 }
@@ -22,10 +22,15 @@
 
 package org.wildfly.clustering.web.undertow.session;
 
+import java.time.Duration;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.wildfly.clustering.marshalling.spi.CompressionStatistics;
 import org.wildfly.clustering.web.session.ActiveSessionStatistics;
 import org.wildfly.clustering.web.session.InactiveSessionStatistics;
+import org.wildfly.clustering.web.session.SessionAttributeActivationStatistics;
+import org.wildfly.clustering.web.session.SessionExpirationStatistics;
+import org.wildfly.clustering.web.session.SessionMetaDataCacheStatistics;
 
 import io.undertow.server.session.Session;
 
@@ -36,12 +41,20 @@ public class DistributableSessionManagerStatistics implements RecordableSessionM
 
     private final InactiveSessionStatistics inactiveSessionStatistics;
     private final ActiveSessionStatistics activeSessionStatistics;
+    private final SessionMetaDataCacheStatistics metaDataCacheStatistics;
+    private final SessionExpirationStatistics expirationStatistics;
+    private final SessionAttributeActivationStatistics attributeActivationStatistics;
+    private final CompressionStatistics compressionStatistics;
     private final int maxActiveSessions;
     private volatile long startTime = System.currentTimeMillis();
     private final AtomicLong createdSessionCount = new AtomicLong();
 
-    public DistributableSessionManagerStatistics(ActiveSessionStatistics activeSessionStatistics, InactiveSessionStatistics inactiveSessionStatistics, int maxActiveSessions) {
+    public DistributableSessionManagerStatistics(ActiveSessionStatistics activeSessionStatistics, InactiveSessionStatistics inactiveSessionStatistics, SessionMetaDataCacheStatistics metaDataCacheStatistics, SessionExpirationStatistics expirationStatistics, SessionAttributeActivationStatistics attributeActivationStatistics, CompressionStatistics compressionStatistics, int maxActiveSessions) {
         this.activeSessionStatistics = activeSessionStatistics;
+        this.metaDataCacheStatistics = metaDataCacheStatistics;
+        this.expirationStatistics = expirationStatistics;
+        this.attributeActivationStatistics = attributeActivationStatistics;
+        this.compressionStatistics = compressionStatistics;
         this.inactiveSessionStatistics = inactiveSessionStatistics;
         this.maxActiveSessions = maxActiveSessions;
         this.reset();
@@ -98,4 +111,74 @@ public class DistributableSessionManagerStatistics implements RecordableSessionM
     public long getStartTime() {
         return this.startTime;
     }
+
+    @Override
+    public long getMetaDataCacheHitCount() {
+        return this.metaDataCacheStatistics.getMetaDataCacheHitCount();
+    }
+
+    @Override
+    public long getMetaDataCacheMissCount() {
+        return this.metaDataCacheStatistics.getMetaDataCacheMissCount();
+    }
+
+    @Override
+    public long getScheduledExpirationCount() {
+        return this.expirationStatistics.getScheduledExpirationCount();
+    }
+
+    @Override
+    public long getExpirationBacklog() {
+        return this.expirationStatistics.getExpirationBacklog();
+    }
+
+    @Override
+    public long getProcessedExpirationCount() {
+        return this.expirationStatistics.getProcessedExpirationCount();
+    }
+
+    @Override
+    public Duration getMeanExpirationLag() {
+        return this.expirationStatistics.getMeanExpirationLag();
+    }
+
+    @Override
+    public Duration getMaxExpirationLag() {
+        return this.expirationStatistics.getMaxExpirationLag();
+    }
+
+    @Override
+    public long getDeferredAttributeCount() {
+        return this.attributeActivationStatistics.getDeferredAttributeCount();
+    }
+
+    @Override
+    public long getDeserializedAttributeCount() {
+        return this.attributeActivationStatistics.getDeserializedAttributeCount();
+    }
+
+    @Override
+    public long getAvoidedAttributeDeserializationCount() {
+        return this.attributeActivationStatistics.getAvoidedAttributeDeserializationCount();
+    }
+
+    @Override
+    public long getCompressedCount() {
+        return (this.compressionStatistics != null) ? this.compressionStatistics.getCompressedCount() : 0L;
+    }
+
+    @Override
+    public long getUncompressedCount() {
+        return (this.compressionStatistics != null) ? this.compressionStatistics.getUncompressedCount() : 0L;
+    }
+
+    @Override
+    public long getRawBytes() {
+        return (this.compressionStatistics != null) ? this.compressionStatistics.getRawBytes() : 0L;
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return (this.compressionStatistics != null) ? this.compressionStatistics.getCompressedBytes() : 0L;
+    }
 }
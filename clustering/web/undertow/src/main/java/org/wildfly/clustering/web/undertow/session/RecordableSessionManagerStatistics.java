@@ -22,6 +22,10 @@
 package org.wildfly.clustering.web.undertow.session;
 
 import org.wildfly.clustering.ee.Recordable;
+import org.wildfly.clustering.marshalling.spi.CompressionStatistics;
+import org.wildfly.clustering.web.session.SessionAttributeActivationStatistics;
+import org.wildfly.clustering.web.session.SessionExpirationStatistics;
+import org.wildfly.clustering.web.session.SessionMetaDataCacheStatistics;
 
 import io.undertow.server.session.Session;
 import io.undertow.server.session.SessionManagerStatistics;
@@ -29,5 +33,5 @@ import io.undertow.server.session.SessionManagerStatistics;
 /**
  * @author Paul Ferraro
  */
-public interface RecordableSessionManagerStatistics extends SessionManagerStatistics, Recordable<Session> {
+public interface RecordableSessionManagerStatistics extends SessionManagerStatistics, SessionMetaDataCacheStatistics, SessionExpirationStatistics, SessionAttributeActivationStatistics, CompressionStatistics, Recordable<Session> {
 }
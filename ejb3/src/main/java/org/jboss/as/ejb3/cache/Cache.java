@@ -94,6 +94,46 @@ public interface Cache<K, V extends Identifiable<K>> extends AffinitySupport<K>,
 
     int getTotalSize();
 
+    /**
+     * Returns the number of expirations scheduled by this cache, if supported.
+     * @return a number of expirations
+     */
+    default long getExpirationScheduledCount() {
+        return 0L;
+    }
+
+    /**
+     * Returns the number of cached objects removed due to expiration, if supported.
+     * @return a number of expired objects
+     */
+    default long getExpiredCount() {
+        return 0L;
+    }
+
+    /**
+     * Returns the number of passivations queued by this cache, but not yet completed, if supported.
+     * @return a number of passivations
+     */
+    default int getPassivationQueueDepth() {
+        return 0;
+    }
+
+    /**
+     * Returns the mean time, in milliseconds, that a queued passivation waits for completion, if supported.
+     * @return a latency in milliseconds
+     */
+    default long getMeanPassivationLatency() {
+        return 0L;
+    }
+
+    /**
+     * Returns the maximum time, in milliseconds, that a queued passivation waited for completion, if supported.
+     * @return a latency in milliseconds
+     */
+    default long getMaxPassivationLatency() {
+        return 0L;
+    }
+
     /**
      * Checks whether the supplied {@link Throwable} is remotable meaning it can be safely sent to the client over the wire.
      */
@@ -219,6 +219,21 @@ public class DistributableCache<K, V extends Identifiable<K> & Contextual<Batch>
         return this.manager.getActiveCount() + this.manager.getPassiveCount();
     }
 
+    @Override
+    public int getPassivationQueueDepth() {
+        return this.manager.getPassivationQueueDepth();
+    }
+
+    @Override
+    public long getMeanPassivationLatency() {
+        return this.manager.getMeanPassivationLatency();
+    }
+
+    @Override
+    public long getMaxPassivationLatency() {
+        return this.manager.getMaxPassivationLatency();
+    }
+
     @Override
     public boolean isRemotable(Throwable throwable) {
         return this.manager.isRemotable(throwable);
@@ -21,14 +21,13 @@
  */
 package org.jboss.as.ejb3.cache.simple;
 
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.jboss.as.ejb3.cache.Cache;
 import org.jboss.as.ejb3.cache.Identifiable;
@@ -39,6 +38,7 @@ import org.jboss.as.server.ServerEnvironment;
 import org.jboss.ejb.client.Affinity;
 import org.jboss.ejb.client.NodeAffinity;
 import org.wildfly.clustering.ejb.IdentifierFactory;
+import org.wildfly.clustering.service.concurrent.TaskScheduler;
 
 /**
  * Simple {@link Cache} implementation using in-memory storage and eager expiration.
@@ -50,20 +50,28 @@ import org.wildfly.clustering.ejb.IdentifierFactory;
  */
 public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
 
-    final Map<K, Future<?>> expirationFutures = new ConcurrentHashMap<>();
     private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
     private final StatefulObjectFactory<V> factory;
     private final IdentifierFactory<K> identifierFactory;
     private final StatefulTimeoutInfo timeout;
     private final ServerEnvironment environment;
-    private final ScheduledExecutorService executor;
+    private final TaskScheduler scheduler;
+    private final LongAdder expirationScheduledCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
 
     public SimpleCache(StatefulObjectFactory<V> factory, IdentifierFactory<K> identifierFactory, StatefulTimeoutInfo timeout, ServerEnvironment environment, ScheduledExecutorService executor) {
+        this(factory, identifierFactory, timeout, environment, (task, delay, unit) -> {
+            Future<?> future = executor.schedule(task, delay, unit);
+            return () -> future.cancel(true);
+        });
+    }
+
+    public SimpleCache(StatefulObjectFactory<V> factory, IdentifierFactory<K> identifierFactory, StatefulTimeoutInfo timeout, ServerEnvironment environment, TaskScheduler scheduler) {
         this.factory = factory;
         this.identifierFactory = identifierFactory;
         this.timeout = timeout;
         this.environment = environment;
-        this.executor = executor;
+        this.scheduler = scheduler;
     }
 
     @Override
@@ -73,25 +81,13 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
 
     @Override
     public void stop() {
-        for (Future<?> future: this.expirationFutures.values()) {
-            future.cancel(true);
-        }
-        for (Future<?> future: this.expirationFutures.values()) {
-            if (!future.isCancelled() && !future.isDone()) {
-                try {
-                    future.get();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    // Ignore
-                }
-            }
+        for (Entry<V> entry : this.entries.values()) {
+            entry.cancelExpiration();
         }
-        for(Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
-            this.factory.destroyInstance(entry.getValue().getValue());
+        // Expiration tasks that are already running will not destroy entries that we remove here
+        for (K key : this.entries.keySet()) {
+            this.remove(key);
         }
-        this.expirationFutures.clear();
-        this.entries.clear();
     }
 
     @Override
@@ -135,12 +131,9 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
 
     @Override
     public V get(K key) {
-        Future<?> future = this.expirationFutures.get(key);
-        if (future != null) {
-            future.cancel(true);
-        }
         Entry<V> entry = this.entries.get(key);
         if (entry == null) return null;
+        entry.cancelExpiration();
         entry.use();
         return entry.getValue();
     }
@@ -159,11 +152,8 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
                 long value = this.timeout.getValue();
                 if (value > 0) {
                     TimeUnit unit = this.timeout.getTimeUnit();
-                    RemoveTask task = new RemoveTask(id);
-                    // Make sure the expiration future map insertion happens before map removal (during task execution).
-                    synchronized (task) {
-                        this.expirationFutures.put(id, this.executor.schedule(task, value, unit));
-                    }
+                    entry.setExpiration(this.scheduler.schedule(new RemoveTask(id), value, unit));
+                    this.expirationScheduledCount.increment();
                 } else if (value == 0) {
                     // The EJB specification allows a 0 timeout, which means the bean is immediately eligible for removal.
                     // However, removing it directly is faster than scheduling it for immediate removal.
@@ -188,6 +178,16 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
         return this.getCacheSize();
     }
 
+    @Override
+    public long getExpirationScheduledCount() {
+        return this.expirationScheduledCount.sum();
+    }
+
+    @Override
+    public long getExpiredCount() {
+        return this.expiredCount.sum();
+    }
+
     class RemoveTask implements Runnable {
         private final K key;
 
@@ -196,22 +196,38 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
         }
 
         @Override
-        public synchronized void run() {
+        public void run() {
             if (!Thread.currentThread().isInterrupted()) {
-                SimpleCache.this.remove(this.key);
+                Entry<V> entry = SimpleCache.this.entries.remove(this.key);
+                if (entry != null) {
+                    SimpleCache.this.expiredCount.increment();
+                    SimpleCache.this.factory.destroyInstance(entry.getValue());
+                }
             }
-            SimpleCache.this.expirationFutures.remove(this.key);
         }
     }
 
     static class Entry<V> {
         private final V value;
         private final AtomicInteger usage = new AtomicInteger();
+        private volatile TaskScheduler.Cancellable expiration;
 
         Entry(V value) {
             this.value = value;
         }
 
+        void setExpiration(TaskScheduler.Cancellable expiration) {
+            this.expiration = expiration;
+        }
+
+        void cancelExpiration() {
+            TaskScheduler.Cancellable expiration = this.expiration;
+            if (expiration != null) {
+                this.expiration = null;
+                expiration.cancel();
+            }
+        }
+
         void use() {
             this.usage.incrementAndGet();
         }
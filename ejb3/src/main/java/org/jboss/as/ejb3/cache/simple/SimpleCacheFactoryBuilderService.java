@@ -25,6 +25,7 @@ import static java.security.AccessController.doPrivileged;
 
 import java.security.PrivilegedAction;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.jboss.as.controller.capability.CapabilityServiceSupport;
 import org.jboss.as.ejb3.cache.CacheFactory;
@@ -37,6 +38,7 @@ import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
 import org.jboss.threads.JBossThreadFactory;
 import org.wildfly.clustering.ejb.BeanContext;
+import org.wildfly.clustering.service.concurrent.HashedWheelSchedulerServiceBuilder;
 import org.wildfly.clustering.service.concurrent.RemoveOnCancelScheduledExecutorServiceBuilder;
 
 /**
@@ -57,10 +59,21 @@ public class SimpleCacheFactoryBuilderService<K, V extends Identifiable<K>> exte
     });
 
     private final String name;
+    private final Long expirationResolution;
 
     public SimpleCacheFactoryBuilderService(String name) {
+        this(name, null);
+    }
+
+    /**
+     * Creates a builder for simple cache factories.
+     * @param name the cache name
+     * @param expirationResolution the tick duration, in milliseconds, of the timing wheel used to expire beans, or null to schedule expiration via an executor
+     */
+    public SimpleCacheFactoryBuilderService(String name, Long expirationResolution) {
         super(name);
         this.name = name;
+        this.expirationResolution = expirationResolution;
     }
 
     @Override
@@ -70,12 +83,17 @@ public class SimpleCacheFactoryBuilderService<K, V extends Identifiable<K>> exte
 
     @Override
     public void installDeploymentUnitDependencies(CapabilityServiceSupport support, ServiceTarget target, ServiceName deploymentUnitServiceName) {
-        new RemoveOnCancelScheduledExecutorServiceBuilder(deploymentUnitServiceName.append(this.name, "expiration"), THREAD_FACTORY).build(target).install();
+        ServiceName name = deploymentUnitServiceName.append(this.name, "expiration");
+        if (this.expirationResolution != null) {
+            new HashedWheelSchedulerServiceBuilder(name, THREAD_FACTORY, this.expirationResolution, TimeUnit.MILLISECONDS).build(target).install();
+        } else {
+            new RemoveOnCancelScheduledExecutorServiceBuilder(name, THREAD_FACTORY).build(target).install();
+        }
     }
 
     @Override
     public ServiceBuilder<? extends CacheFactory<K, V>> build(ServiceTarget target, ServiceName name, BeanContext context, StatefulTimeoutInfo timeout) {
-        return SimpleCacheFactoryService.build(this.name, target, name, context, timeout);
+        return SimpleCacheFactoryService.build(this.name, target, name, context, timeout, this.expirationResolution != null);
     }
 
     @Override
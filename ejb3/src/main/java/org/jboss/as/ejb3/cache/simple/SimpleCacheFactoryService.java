@@ -38,6 +38,7 @@ import org.jboss.msc.value.InjectedValue;
 import org.wildfly.clustering.ejb.BeanContext;
 import org.wildfly.clustering.ejb.IdentifierFactory;
 import org.wildfly.clustering.ejb.PassivationListener;
+import org.wildfly.clustering.service.concurrent.TaskScheduler;
 
 /**
  * Service that provides a simple {@link CacheFactory}.
@@ -50,15 +51,29 @@ import org.wildfly.clustering.ejb.PassivationListener;
 public class SimpleCacheFactoryService<K, V extends Identifiable<K>> extends AbstractService<CacheFactory<K, V>> implements CacheFactory<K, V> {
 
     public static <K, V extends Identifiable<K>> ServiceBuilder<CacheFactory<K, V>> build(String name, ServiceTarget target, ServiceName serviceName, BeanContext context, StatefulTimeoutInfo timeout) {
+        return build(name, target, serviceName, context, timeout, false);
+    }
+
+    /**
+     * Builds a simple cache factory service.
+     * @param timingWheel indicates whether the expiration service of the deployment unit is a {@link TaskScheduler}, rather than a {@link ScheduledExecutorService}
+     */
+    public static <K, V extends Identifiable<K>> ServiceBuilder<CacheFactory<K, V>> build(String name, ServiceTarget target, ServiceName serviceName, BeanContext context, StatefulTimeoutInfo timeout, boolean timingWheel) {
         SimpleCacheFactoryService<K, V> service = new SimpleCacheFactoryService<>(timeout);
-        return target.addService(serviceName, service)
-                .addDependency(ServerEnvironmentService.SERVICE_NAME, ServerEnvironment.class, service.environment)
-                .addDependency(context.getDeploymentUnitServiceName().append(name, "expiration"), ScheduledExecutorService.class, service.executor)
-        ;
+        ServiceName expirationServiceName = context.getDeploymentUnitServiceName().append(name, "expiration");
+        ServiceBuilder<CacheFactory<K, V>> builder = target.addService(serviceName, service)
+                .addDependency(ServerEnvironmentService.SERVICE_NAME, ServerEnvironment.class, service.environment);
+        if (timingWheel) {
+            builder.addDependency(expirationServiceName, TaskScheduler.class, service.scheduler);
+        } else {
+            builder.addDependency(expirationServiceName, ScheduledExecutorService.class, service.executor);
+        }
+        return builder;
     }
 
     private final InjectedValue<ServerEnvironment> environment = new InjectedValue<>();
     private final InjectedValue<ScheduledExecutorService> executor = new InjectedValue<>();
+    private final InjectedValue<TaskScheduler> scheduler = new InjectedValue<>();
     private final StatefulTimeoutInfo timeout;
 
     private SimpleCacheFactoryService(StatefulTimeoutInfo timeout) {
@@ -72,6 +87,10 @@ public class SimpleCacheFactoryService<K, V extends Identifiable<K>> extends Abs
 
     @Override
     public Cache<K, V> createCache(IdentifierFactory<K> identifierFactory, StatefulObjectFactory<V> factory, PassivationListener<V> passivationListener) {
+        TaskScheduler scheduler = this.scheduler.getOptionalValue();
+        if (scheduler != null) {
+            return new SimpleCache<>(factory, identifierFactory, this.timeout, this.environment.getValue(), scheduler);
+        }
         return new SimpleCache<>(factory, identifierFactory, this.timeout, this.environment.getValue(), this.executor.getValue());
     }
 }
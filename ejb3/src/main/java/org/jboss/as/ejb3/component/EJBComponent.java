@@ -58,6 +58,7 @@ import org.jboss.as.ee.component.BasicComponent;
 import org.jboss.as.ee.component.ComponentView;
 import org.jboss.as.ejb3.component.allowedmethods.AllowedMethodsInformation;
 import org.jboss.as.ejb3.component.interceptors.ShutDownInterceptorFactory;
+import org.jboss.as.ejb3.component.invocationmetrics.InterceptorMetrics;
 import org.jboss.as.ejb3.component.invocationmetrics.InvocationMetrics;
 import org.jboss.as.ejb3.context.CurrentInvocationContext;
 import org.jboss.as.ejb3.logging.EjbLogger;
@@ -118,6 +119,7 @@ public abstract class EJBComponent extends BasicComponent implements ServerActiv
     private final String policyContextID;
 
     private final InvocationMetrics invocationMetrics = new InvocationMetrics();
+    private final InterceptorMetrics interceptorMetrics;
     private final EJBSuspendHandlerService ejbSuspendHandlerService;
     private final ShutDownInterceptorFactory shutDownInterceptorFactory;
     private final UserTransaction userTransaction;
@@ -194,6 +196,7 @@ public abstract class EJBComponent extends BasicComponent implements ServerActiv
         this.incomingRunAsIdentity = null;
         this.identityOutflowFunction = ejbComponentCreateService.getIdentityOutflowFunction();
         this.securityRequired = ejbComponentCreateService.isSecurityRequired();
+        this.interceptorMetrics = ejbComponentCreateService.getInterceptorMetrics();
     }
 
     protected <T> T createViewInstanceProxy(final Class<T> viewInterface, final Map<Object, Object> contextData) {
@@ -579,6 +582,13 @@ public abstract class EJBComponent extends BasicComponent implements ServerActiv
         return invocationMetrics;
     }
 
+    /**
+     * @return the per interceptor statistics, or null if interceptor statistics were disabled when the component was deployed
+     */
+    public InterceptorMetrics getInterceptorMetrics() {
+        return interceptorMetrics;
+    }
+
     public ControlPoint getControlPoint() {
         return this.controlPoint;
     }
@@ -47,6 +47,7 @@ import org.jboss.as.ee.component.ComponentConfiguration;
 import org.jboss.as.ee.component.ViewConfiguration;
 import org.jboss.as.ee.component.ViewDescription;
 import org.jboss.as.ejb3.component.interceptors.ShutDownInterceptorFactory;
+import org.jboss.as.ejb3.component.invocationmetrics.InterceptorMetrics;
 import org.jboss.as.ejb3.component.messagedriven.MessageDrivenComponentDescription;
 import org.jboss.as.ejb3.deployment.ApplicationExceptions;
 import org.jboss.as.ejb3.security.EJBSecurityMetaData;
@@ -113,6 +114,8 @@ public class EJBComponentCreateService extends BasicComponentCreateService {
 
     private final boolean securityRequired;
 
+    private final InterceptorMetrics interceptorMetrics;
+
     /**
      * Construct a new instance.
      *
@@ -214,6 +217,7 @@ public class EJBComponentCreateService extends BasicComponentCreateService {
         this.distinctName = componentConfiguration.getComponentDescription().getModuleDescription().getDistinctName();
         this.shutDownInterceptorFactory = ejbComponentDescription.getShutDownInterceptorFactory();
         this.securityRequired = ejbComponentDescription.isSecurityRequired();
+        this.interceptorMetrics = ejbComponentDescription.getInterceptorMetrics();
     }
 
     @Override
@@ -417,4 +421,8 @@ public class EJBComponentCreateService extends BasicComponentCreateService {
     public boolean isSecurityRequired() {
         return securityRequired;
     }
+
+    public InterceptorMetrics getInterceptorMetrics() {
+        return interceptorMetrics;
+    }
 }
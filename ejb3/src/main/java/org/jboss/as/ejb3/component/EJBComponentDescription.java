@@ -73,6 +73,7 @@ import org.jboss.as.ejb3.component.interceptors.EjbExceptionTransformingIntercep
 import org.jboss.as.ejb3.component.interceptors.LoggingInterceptor;
 import org.jboss.as.ejb3.component.interceptors.ShutDownInterceptorFactory;
 import org.jboss.as.ejb3.component.invocationmetrics.ExecutionTimeInterceptor;
+import org.jboss.as.ejb3.component.invocationmetrics.InterceptorMetrics;
 import org.jboss.as.ejb3.component.invocationmetrics.WaitTimeInterceptor;
 import org.jboss.as.ejb3.deployment.ApplicableMethodInformation;
 import org.jboss.as.ejb3.deployment.ApplicationExceptions;
@@ -276,6 +277,16 @@ public abstract class EJBComponentDescription extends ComponentDescription {
 
     private boolean securityRequired;
 
+    /**
+     * Whether interceptors which do nothing for this bean are left out of its interceptor chains
+     */
+    private boolean leanInterceptorChain;
+
+    /**
+     * The per interceptor statistics of this bean, if interceptor statistics are enabled
+     */
+    private InterceptorMetrics interceptorMetrics;
+
     /**
      * Construct a new instance.
      *
@@ -348,7 +359,9 @@ public abstract class EJBComponentDescription extends ComponentDescription {
                     if (ejbComponentDescription.isSecurityDomainKnown()) {
                         final HashMap<Integer, InterceptorFactory> elytronInterceptorFactories = getElytronInterceptorFactories(policyContextID, ejbComponentDescription.isEnableJacc(), true);
                         elytronInterceptorFactories.forEach((priority, elytronInterceptorFactory) -> configuration.addTimeoutViewInterceptor(elytronInterceptorFactory, priority));
-                    } else if (deploymentUnit.hasAttachment(SecurityAttachments.SECURITY_ENABLED)) {
+                    } else if (deploymentUnit.hasAttachment(SecurityAttachments.SECURITY_ENABLED)
+                            && !(ejbComponentDescription.isLeanInterceptorChain() && (getSecurityDomain() == null || getSecurityDomain().isEmpty()))) {
+                        // the view chains get no security context without a security domain either, a lean chain does the same for timeouts
                         configuration.addTimeoutViewInterceptor(new SecurityContextInterceptorFactory(securityRequired, policyContextID), InterceptorOrder.View.SECURITY_CONTEXT);
                     }
                     final Set<Method> classMethods = configuration.getClassIndex().getClassMethods();
@@ -1200,4 +1213,25 @@ public abstract class EJBComponentDescription extends ComponentDescription {
         return securityRequired;
     }
 
+    public boolean isLeanInterceptorChain() {
+        return leanInterceptorChain;
+    }
+
+    public void setLeanInterceptorChain(final boolean leanInterceptorChain) {
+        this.leanInterceptorChain = leanInterceptorChain;
+    }
+
+    /**
+     * Returns the per interceptor statistics of this bean, or null if interceptor statistics are disabled for it
+     *
+     * @return the interceptor statistics, or null
+     */
+    public InterceptorMetrics getInterceptorMetrics() {
+        return interceptorMetrics;
+    }
+
+    public void setInterceptorStatisticsEnabled(final boolean interceptorStatisticsEnabled) {
+        this.interceptorMetrics = interceptorStatisticsEnabled ? new InterceptorMetrics() : null;
+    }
+
 }
@@ -22,8 +22,13 @@
 
 package org.jboss.as.ejb3.component;
 
+import java.lang.reflect.Method;
+
 import org.jboss.as.ee.component.ComponentConfiguration;
 import org.jboss.as.ee.component.ViewConfiguration;
+import org.jboss.as.ejb3.component.invocationmetrics.InstrumentedInterceptorFactory;
+import org.jboss.as.ejb3.component.invocationmetrics.InterceptorMetrics;
+import org.jboss.invocation.InterceptorFactory;
 import org.jboss.invocation.proxy.ProxyFactory;
 import org.jboss.msc.service.ServiceName;
 
@@ -45,4 +50,20 @@ public class EJBViewConfiguration extends ViewConfiguration {
         return methodIntf;
     }
 
+    @Override
+    public void addViewInterceptor(final Method method, final InterceptorFactory interceptorFactory, final int priority) {
+        final InterceptorMetrics metrics = getInterceptorMetrics();
+        super.addViewInterceptor(method, metrics != null ? InstrumentedInterceptorFactory.view(interceptorFactory, metrics, priority) : interceptorFactory, priority);
+    }
+
+    @Override
+    public void addClientInterceptor(final Method method, final InterceptorFactory interceptorFactory, final int priority) {
+        final InterceptorMetrics metrics = getInterceptorMetrics();
+        super.addClientInterceptor(method, metrics != null ? InstrumentedInterceptorFactory.client(interceptorFactory, metrics, priority) : interceptorFactory, priority);
+    }
+
+    private InterceptorMetrics getInterceptorMetrics() {
+        return ((EJBComponentDescription) getComponentConfiguration().getComponentDescription()).getInterceptorMetrics();
+    }
+
 }
@@ -65,7 +65,8 @@ public final class LogDiagnosticContextStorageInterceptor implements Interceptor
 
     public Object processInvocation(final InterceptorContext context) throws Exception {
         final Map<String, Object> mdc = MDC.getMap();
-        if(mdc != null){
+        // nothing to hand over if neither context is in use, the recovery interceptor starts from empty contexts anyway
+        if(mdc != null && !(mdc.isEmpty() && NDC.getDepth() == 0)){
             context.putPrivateData(KEY, new StoredLogDiagnosticContext(mdc, NDC.get()));
             try {
                 return context.proceed();
@@ -0,0 +1,119 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.invocationmetrics;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.jboss.as.ee.component.interceptors.InterceptorOrder;
+import org.jboss.invocation.Interceptor;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.invocation.InterceptorFactory;
+import org.jboss.invocation.InterceptorFactoryContext;
+
+/**
+ * An {@link InterceptorFactory} which records the invocations, time and allocations of the interceptors created by
+ * another factory into {@link InterceptorMetrics}.
+ * The interceptors are named after their {@link InterceptorOrder} position, e.g. {@code view:cmt-transaction-interceptor}.
+ */
+public class InstrumentedInterceptorFactory implements InterceptorFactory {
+
+    private static final int VIEW_ORDER_OFFSET = 0x10000;
+    private static final Map<Integer, String> CLIENT_NAMES = names(InterceptorOrder.Client.class);
+    private static final Map<Integer, String> VIEW_NAMES = names(InterceptorOrder.View.class);
+
+    private final InterceptorFactory factory;
+    private final InterceptorMetrics metrics;
+    private final String name;
+    private final int order;
+
+    private InstrumentedInterceptorFactory(final InterceptorFactory factory, final InterceptorMetrics metrics, final String name, final int order) {
+        this.factory = factory;
+        this.metrics = metrics;
+        this.name = name;
+        this.order = order;
+    }
+
+    public static InterceptorFactory client(final InterceptorFactory factory, final InterceptorMetrics metrics, final int priority) {
+        return new InstrumentedInterceptorFactory(factory, metrics, "client:" + name(CLIENT_NAMES, priority), priority);
+    }
+
+    public static InterceptorFactory view(final InterceptorFactory factory, final InterceptorMetrics metrics, final int priority) {
+        return new InstrumentedInterceptorFactory(factory, metrics, "view:" + name(VIEW_NAMES, priority), VIEW_ORDER_OFFSET + priority);
+    }
+
+    @Override
+    public Interceptor create(final InterceptorFactoryContext context) {
+        return new InstrumentedInterceptor(this.factory.create(context), this.metrics.counters(this.name, this.order));
+    }
+
+    private static String name(final Map<Integer, String> names, final int priority) {
+        final String name = names.get(priority);
+        return name != null ? name : "0x" + Integer.toHexString(priority);
+    }
+
+    private static Map<Integer, String> names(final Class<?> order) {
+        final Map<Integer, String> names = new HashMap<>();
+        for (Field field : order.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == int.class && !field.isAnnotationPresent(Deprecated.class)) {
+                try {
+                    names.putIfAbsent(field.getInt(null), field.getName().toLowerCase(Locale.ENGLISH).replace('_', '-'));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return names;
+    }
+
+    private static class InstrumentedInterceptor implements Interceptor {
+        private final Interceptor interceptor;
+        private final InterceptorMetrics.Counters counters;
+
+        InstrumentedInterceptor(final Interceptor interceptor, final InterceptorMetrics.Counters counters) {
+            this.interceptor = interceptor;
+            this.counters = counters;
+        }
+
+        @Override
+        public Object processInvocation(final InterceptorContext context) throws Exception {
+            final long[] completed = InterceptorMetrics.completed();
+            final long completedTime = completed[0];
+            final long completedBytes = completed[1];
+            final long startBytes = InterceptorMetrics.threadAllocatedBytes();
+            final long start = System.nanoTime();
+            try {
+                return this.interceptor.processInvocation(context);
+            } finally {
+                final long time = System.nanoTime() - start;
+                final long bytes = InterceptorMetrics.threadAllocatedBytes() - startBytes;
+                // exclude what the instrumented interceptors further down the chain have already accounted for
+                this.counters.record(time - (completed[0] - completedTime), bytes - (completed[1] - completedBytes));
+                completed[0] = completedTime + time;
+                completed[1] = completedBytes + bytes;
+            }
+        }
+    }
+}
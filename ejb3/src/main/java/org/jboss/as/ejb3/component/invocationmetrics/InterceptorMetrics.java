@@ -0,0 +1,157 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.invocationmetrics;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per interceptor statistics of the view interceptor chains of an EJB component.
+ * <p/>
+ * The time and the allocated bytes of an interceptor are its own, i.e. the share spent in instrumented interceptors
+ * further down the chain is excluded. Allocated bytes are only recorded if the JVM supports per thread allocation
+ * accounting.
+ */
+public class InterceptorMetrics {
+    public static class Values {
+        final long invocations;
+        final long executionTime;
+        final long allocatedBytes;
+
+        private Values(final long invocations, final long executionTime, final long allocatedBytes) {
+            this.invocations = invocations;
+            this.executionTime = executionTime;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public long getInvocations() {
+            return invocations;
+        }
+
+        /**
+         * @return the time spent in the interceptor itself, in nanoseconds
+         */
+        public long getExecutionTime() {
+            return executionTime;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+
+    static final class Counters {
+        final int order;
+        final LongAdder invocations = new LongAdder();
+        final LongAdder executionTime = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+
+        Counters(final int order) {
+            this.order = order;
+        }
+
+        void record(final long time, final long bytes) {
+            invocations.increment();
+            executionTime.add(time);
+            allocatedBytes.add(bytes);
+        }
+    }
+
+    /**
+     * Time and allocated bytes of the instrumented interceptors which completed on the current thread. Only
+     * differences are used, so these are never reset.
+     */
+    private static final ThreadLocal<long[]> COMPLETED = ThreadLocal.withInitial(() -> new long[2]);
+    private static final MethodHandle THREAD_ALLOCATED_BYTES = threadAllocatedBytesHandle();
+
+    private final ConcurrentMap<String, Counters> interceptors = new ConcurrentHashMap<>();
+
+    Counters counters(final String name, final int order) {
+        return interceptors.computeIfAbsent(name, key -> new Counters(order));
+    }
+
+    /**
+     * @return the statistics of each interceptor, in the order the interceptors run
+     */
+    public Map<String, Values> getInterceptors() {
+        final List<Map.Entry<String, Counters>> entries = new ArrayList<>(interceptors.entrySet());
+        Collections.sort(entries, Comparator.comparingInt((Map.Entry<String, Counters> entry) -> entry.getValue().order).thenComparing(Map.Entry::getKey));
+        final Map<String, Values> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Counters> entry : entries) {
+            final Counters counters = entry.getValue();
+            result.put(entry.getKey(), new Values(counters.invocations.sum(), counters.executionTime.sum(), counters.allocatedBytes.sum()));
+        }
+        return result;
+    }
+
+    static long[] completed() {
+        return COMPLETED.get();
+    }
+
+    static long threadAllocatedBytes() {
+        if (THREAD_ALLOCATED_BYTES == null) {
+            return 0L;
+        }
+        try {
+            return (long) THREAD_ALLOCATED_BYTES.invokeExact(Thread.currentThread().getId());
+        } catch (Throwable e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Resolves {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} through the public interface
+     * implemented by the platform bean, so that no compile or module dependency on the extension is needed.
+     */
+    private static MethodHandle threadAllocatedBytesHandle() {
+        try {
+            final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            for (Class<?> type : bean.getClass().getInterfaces()) {
+                if (ThreadMXBean.class.isAssignableFrom(type) && type != ThreadMXBean.class) {
+                    final Method supported = type.getMethod("isThreadAllocatedMemorySupported");
+                    final Method enabled = type.getMethod("isThreadAllocatedMemoryEnabled");
+                    if (!(Boolean) supported.invoke(bean) || !(Boolean) enabled.invoke(bean)) {
+                        return null;
+                    }
+                    final Method method = type.getMethod("getThreadAllocatedBytes", long.class);
+                    return MethodHandles.publicLookup().unreflect(method).bindTo(bean).asType(MethodType.methodType(long.class, long.class));
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // allocation accounting is unavailable
+        }
+        return null;
+    }
+}
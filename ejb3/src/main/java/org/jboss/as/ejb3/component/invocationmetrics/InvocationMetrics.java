@@ -19,6 +19,7 @@
  * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
+
 package org.jboss.as.ejb3.component.invocationmetrics;
 
 import java.lang.reflect.Method;
@@ -29,10 +30,16 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * Invocation statistics of an EJB component, in total and per method.
+ * <p/>
+ * Totals are kept in {@link LongAdder}s and latency distributions in fixed-memory {@link LatencyHistogram}s, so
+ * that recording an invocation neither allocates nor contends on a single memory location.
+ *
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
  */
 public class InvocationMetrics {
@@ -40,11 +47,15 @@ public class InvocationMetrics {
         final long invocations;
         final long executionTime;
         final long waitTime;
-
-        private Values(final long invocations, final long waitTime, final long executionTime) {
-            this.invocations = invocations;
-            this.executionTime = executionTime;
-            this.waitTime = waitTime;
+        final long[] executionTimePercentiles;
+        final long[] waitTimePercentiles;
+
+        private Values(final Counters counters) {
+            this.invocations = counters.invocations.sum();
+            this.executionTime = TimeUnit.NANOSECONDS.toMillis(counters.executionTime.sum());
+            this.waitTime = TimeUnit.NANOSECONDS.toMillis(counters.waitTime.sum());
+            this.executionTimePercentiles = percentiles(counters.executionTimes);
+            this.waitTimePercentiles = percentiles(counters.waitTimes);
         }
 
         public long getExecutionTime() {
@@ -58,40 +69,69 @@ public class InvocationMetrics {
         public long getWaitTime() {
             return waitTime;
         }
+
+        /**
+         * @return the 50th, 99th and 99.9th percentiles of the execution time, in microseconds
+         */
+        public long[] getExecutionTimePercentiles() {
+            return executionTimePercentiles.clone();
+        }
+
+        /**
+         * @return the 50th, 99th and 99.9th percentiles of the wait time, in microseconds
+         */
+        public long[] getWaitTimePercentiles() {
+            return waitTimePercentiles.clone();
+        }
     }
 
-    private final AtomicReference<Values> values = new AtomicReference<Values>(new Values(0, 0, 0));
+    /**
+     * The quantiles reported by {@link Values#getExecutionTimePercentiles()} and {@link Values#getWaitTimePercentiles()}.
+     */
+    public static final double[] QUANTILES = { 0.5, 0.99, 0.999 };
+
+    static final class Counters {
+        final LongAdder invocations = new LongAdder();
+        final LongAdder executionTime = new LongAdder();
+        final LongAdder waitTime = new LongAdder();
+        final LatencyHistogram executionTimes = new LatencyHistogram();
+        final LatencyHistogram waitTimes = new LatencyHistogram();
+
+        void record(final long waitTime, final long executionTime) {
+            invocations.increment();
+            this.waitTime.add(waitTime);
+            this.executionTime.add(executionTime);
+            waitTimes.record(TimeUnit.NANOSECONDS.toMicros(waitTime));
+            executionTimes.record(TimeUnit.NANOSECONDS.toMicros(executionTime));
+        }
+    }
+
+    private final Counters values = new Counters();
     private final AtomicLong concurrent = new AtomicLong(0);
     private final AtomicLong peakConcurrent = new AtomicLong(0);
 
-    private final ConcurrentMap<String, AtomicReference<Values>> methods = new ConcurrentHashMap<String, AtomicReference<Values>>();
+    private final ConcurrentMap<String, Counters> methods = new ConcurrentHashMap<String, Counters>();
 
+    /**
+     * @param invocationWaitTime the time spent waiting for an instance, in nanoseconds
+     * @param invocationExecutionTime the time spent within the bean method, in nanoseconds
+     */
     void finishInvocation(final Method method, final long invocationWaitTime, final long invocationExecutionTime) {
         concurrent.decrementAndGet();
-        for(;;) {
-            final Values oldv = values.get();
-            final Values newv = new Values(oldv.invocations + 1, oldv.waitTime + invocationWaitTime, oldv.executionTime + invocationExecutionTime);
-            if (values.compareAndSet(oldv, newv))
-                break;
-        }
-        final AtomicReference<Values> methodValues = ref(methods, method.getName());
-        for (;;) {
-            final Values oldv = methodValues.get();
-            final Values newv = new Values(oldv.invocations + 1, oldv.waitTime + invocationWaitTime, oldv.executionTime + invocationExecutionTime);
-            if (methodValues.compareAndSet(oldv, newv))
-                break;
+        values.record(invocationWaitTime, invocationExecutionTime);
+        Counters methodValues = methods.get(method.getName());
+        if (methodValues == null) {
+            methodValues = methods.computeIfAbsent(method.getName(), key -> new Counters());
         }
+        methodValues.record(invocationWaitTime, invocationExecutionTime);
     }
 
-    private static AtomicReference<Values> ref(final ConcurrentMap<String, AtomicReference<Values>> map, final String key) {
-        AtomicReference<Values> ref = map.get(key);
-        if (ref == null) {
-            ref = new AtomicReference<Values>(new Values(0, 0, 0));
-            final AtomicReference<Values> prevRef = map.putIfAbsent(key, ref);
-            if (prevRef != null)
-                ref = prevRef;
+    private static long[] percentiles(final LatencyHistogram histogram) {
+        final long[] result = new long[QUANTILES.length];
+        for (int i = 0; i < QUANTILES.length; ++i) {
+            result[i] = histogram.getValueAtQuantile(QUANTILES[i]);
         }
-        return ref;
+        return result;
     }
 
     public long getConcurrent() {
@@ -99,11 +139,25 @@ public class InvocationMetrics {
     }
 
     public long getExecutionTime() {
-        return values.get().executionTime;
+        return TimeUnit.NANOSECONDS.toMillis(values.executionTime.sum());
     }
 
     public long getInvocations() {
-        return values.get().invocations;
+        return values.invocations.sum();
+    }
+
+    /**
+     * @return the 50th, 99th and 99.9th percentiles of the execution time of all methods, in microseconds
+     */
+    public long[] getExecutionTimePercentiles() {
+        return percentiles(values.executionTimes);
+    }
+
+    /**
+     * @return the 50th, 99th and 99.9th percentiles of the wait time of all methods, in microseconds
+     */
+    public long[] getWaitTimePercentiles() {
+        return percentiles(values.waitTimes);
     }
 
     public Map<String, Values> getMethods() {
@@ -113,7 +167,7 @@ public class InvocationMetrics {
                 return new AbstractSet<Entry<String, Values>>() {
                     @Override
                     public Iterator<Entry<String, Values>> iterator() {
-                        final Iterator<Entry<String, AtomicReference<Values>>> delegate = methods.entrySet().iterator();
+                        final Iterator<Entry<String, Counters>> delegate = methods.entrySet().iterator();
                         return new Iterator<Entry<String, Values>>() {
                             @Override
                             public boolean hasNext() {
@@ -122,7 +176,7 @@ public class InvocationMetrics {
 
                             @Override
                             public Entry<String, Values> next() {
-                                final Entry<String, AtomicReference<Values>> next = delegate.next();
+                                final Entry<String, Counters> next = delegate.next();
                                 return new Entry<String, Values>() {
                                     @Override
                                     public String getKey() {
@@ -131,7 +185,7 @@ public class InvocationMetrics {
 
                                     @Override
                                     public Values getValue() {
-                                        return next.getValue().get();
+                                        return new Values(next.getValue());
                                     }
 
                                     @Override
@@ -162,13 +216,12 @@ public class InvocationMetrics {
     }
 
     public long getWaitTime() {
-        return values.get().waitTime;
+        return TimeUnit.NANOSECONDS.toMillis(values.waitTime.sum());
     }
 
     void startInvocation() {
         final long v = concurrent.incrementAndGet();
-        // concurrent might decrement here, but we take that missing peak for granted.
         if (peakConcurrent.get() < v)
-            peakConcurrent.incrementAndGet();
+            peakConcurrent.accumulateAndGet(v, Math::max);
     }
 }
@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.component.invocationmetrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-memory histogram of latencies, in microseconds.
+ * <p/>
+ * Values are recorded into log-linear buckets: each power of two range is split into {@value #SUB_BUCKETS} linear
+ * buckets, so that the relative error of a reported percentile is bounded by 1/{@value #SUB_BUCKETS} regardless of
+ * magnitude. Values above the largest bucket are recorded into the largest bucket.
+ * <p/>
+ * Each bucket is a {@link LongAdder}, rather than a slot of a shared array, so that concurrent invocations recording
+ * into the same or adjacent buckets do not contend on the same cache line.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 2^36 microseconds is roughly 19 hours
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKETS = index((1L << (MAX_EXPONENT + 1)) - 1) + 1;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    static int index(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(value, 0L);
+        }
+        final int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+        if (exponent == MAX_EXPONENT && value >= (1L << (MAX_EXPONENT + 1))) {
+            return BUCKETS - 1;
+        }
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * @return the largest value recorded into the bucket with the specified index
+     */
+    static long highestEquivalentValue(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int exponent = (index >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        final long subBucket = index & (SUB_BUCKETS - 1);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+
+    public void record(final long micros) {
+        counts[index(micros)].increment();
+    }
+
+    /**
+     * @param quantile a value between 0 and 1, e.g. 0.99
+     * @return the smallest recorded value, in microseconds, that is greater than or equal to the specified quantile of
+     * all recorded values, or 0 if nothing was recorded
+     */
+    public long getValueAtQuantile(final double quantile) {
+        final long[] snapshot = new long[BUCKETS];
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; ++i) {
+            snapshot[i] = counts[i].sum();
+            total += snapshot[i];
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+        long cumulative = 0L;
+        for (int i = 0; i < BUCKETS; ++i) {
+            cumulative += snapshot[i];
+            if (cumulative >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return highestEquivalentValue(BUCKETS - 1);
+    }
+}
@@ -25,7 +25,11 @@ package org.jboss.as.ejb3.component.pool;
 import org.jboss.as.ejb3.pool.Pool;
 import org.jboss.as.ejb3.pool.StatelessObjectFactory;
 import org.jboss.as.ejb3.pool.strictmax.StrictMaxPool;
+import org.jboss.as.ejb3.pool.striped.StripedPool;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -39,22 +43,44 @@ public class StrictMaxPoolConfig extends PoolConfig {
 
     public static final TimeUnit DEFAULT_TIMEOUT_UNIT = TimeUnit.MINUTES;
 
+    public static final int DEFAULT_MIN_POOL_SIZE = 0;
+
 
     private volatile int maxPoolSize;
 
+    private volatile int minPoolSize;
+
+    private volatile boolean striped;
+
     private volatile TimeUnit timeoutUnit;
 
     private volatile long timeout;
 
+    /**
+     * The striped pools created from this config, which are resized along with it
+     */
+    private final Set<StripedPool<?>> stripedPools = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<StripedPool<?>, Boolean>()));
+
     public StrictMaxPoolConfig(final String poolName, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(poolName, maxSize, timeout, timeUnit, false, DEFAULT_MIN_POOL_SIZE);
+    }
+
+    public StrictMaxPoolConfig(final String poolName, int maxSize, long timeout, TimeUnit timeUnit, boolean striped, int minSize) {
         super(poolName);
         this.maxPoolSize = maxSize;
         this.timeout = timeout;
         this.timeoutUnit = timeUnit;
+        this.striped = striped;
+        this.minPoolSize = minSize;
     }
 
     @Override
     public <T> Pool<T> createPool(final StatelessObjectFactory<T> statelessObjectFactory) {
+        if (this.striped) {
+            StripedPool<T> pool = new StripedPool<T>(statelessObjectFactory, this.minPoolSize, this.maxPoolSize, this.timeout, this.timeoutUnit);
+            this.stripedPools.add(pool);
+            return pool;
+        }
         return new StrictMaxPool<T>(statelessObjectFactory, this.maxPoolSize, this.timeout, this.timeoutUnit);
     }
 
@@ -64,6 +90,32 @@ public class StrictMaxPoolConfig extends PoolConfig {
 
     public void setMaxPoolSize(int maxPoolSize) {
         this.maxPoolSize = maxPoolSize;
+        synchronized (this.stripedPools) {
+            for (StripedPool<?> pool : this.stripedPools) {
+                pool.setMaxSize(maxPoolSize);
+            }
+        }
+    }
+
+    public int getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    public void setMinPoolSize(int minPoolSize) {
+        this.minPoolSize = minPoolSize;
+        synchronized (this.stripedPools) {
+            for (StripedPool<?> pool : this.stripedPools) {
+                pool.setMinSize(minPoolSize);
+            }
+        }
+    }
+
+    public boolean isStriped() {
+        return striped;
+    }
+
+    public void setStriped(boolean striped) {
+        this.striped = striped;
     }
 
     public TimeUnit getTimeoutUnit() {
@@ -87,6 +139,8 @@ public class StrictMaxPoolConfig extends PoolConfig {
         return "StrictMaxPoolConfig{" +
                 "name=" + this.poolName +
                 ", maxPoolSize=" + maxPoolSize +
+                ", minPoolSize=" + minPoolSize +
+                ", striped=" + striped +
                 ", timeoutUnit=" + timeoutUnit +
                 ", timeout=" + timeout +
                 '}';
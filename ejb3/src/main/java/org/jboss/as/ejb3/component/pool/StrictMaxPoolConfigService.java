@@ -58,9 +58,13 @@ public class StrictMaxPoolConfigService implements Service<StrictMaxPoolConfig>
 
 
     public StrictMaxPoolConfigService(final String poolName, int declaredMaxSize, Derive derive, long timeout, TimeUnit timeUnit) {
+        this(poolName, declaredMaxSize, derive, timeout, timeUnit, false, StrictMaxPoolConfig.DEFAULT_MIN_POOL_SIZE);
+    }
+
+    public StrictMaxPoolConfigService(final String poolName, int declaredMaxSize, Derive derive, long timeout, TimeUnit timeUnit, boolean striped, int minSize) {
         this.declaredMaxSize = declaredMaxSize;
         this.derive = derive;
-        this.poolConfig = new StrictMaxPoolConfig(poolName, declaredMaxSize, timeout, timeUnit);
+        this.poolConfig = new StrictMaxPoolConfig(poolName, declaredMaxSize, timeout, timeUnit, striped, minSize);
     }
 
     @Override
@@ -115,6 +119,14 @@ public class StrictMaxPoolConfigService implements Service<StrictMaxPoolConfig>
         poolConfig.setTimeoutUnit(timeUnit);
     }
 
+    public void setStriped(boolean striped) {
+        poolConfig.setStriped(striped);
+    }
+
+    public void setMinPoolSize(int minSize) {
+        poolConfig.setMinPoolSize(minSize);
+    }
+
     @Override
     public void stop(StopContext context) {
 
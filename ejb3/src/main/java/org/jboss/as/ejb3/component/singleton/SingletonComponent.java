@@ -74,9 +74,9 @@ public class SingletonComponent extends SessionBeanComponent {
     private final Object creationLock = new Object();
 
     /**
-     * A spec compliant {@link EJBReadWriteLock}
+     * A spec compliant lock, either a {@link EJBReadWriteLock} or a {@link StripedEJBReadWriteLock}
      */
-    private final ReadWriteLock readWriteLock = new EJBReadWriteLock();
+    private final ReadWriteLock readWriteLock;
 
     /**
      * Construct a new instance.
@@ -94,6 +94,7 @@ public class SingletonComponent extends SessionBeanComponent {
         this.methodLockTypes = singletonComponentCreateService.getMethodApplicableLockTypes();
         this.methodAccessTimeouts = singletonComponentCreateService.getMethodApplicableAccessTimeouts();
         this.defaultAccessTimeoutProvider = singletonComponentCreateService.getDefaultAccessTimeoutService();
+        this.readWriteLock = singletonComponentCreateService.getLockMode().createLock();
     }
 
     @Override
@@ -40,12 +40,14 @@ public class SingletonComponentCreateService extends SessionBeanComponentCreateS
 
     private final boolean initOnStartup;
     private final List<ServiceName> dependsOn;
+    private final SingletonLockMode lockMode;
     private final InjectedValue<DefaultAccessTimeoutService> defaultAccessTimeoutService = new InjectedValue<DefaultAccessTimeoutService>();
 
     public SingletonComponentCreateService(final ComponentConfiguration componentConfiguration, final ApplicationExceptions ejbJarConfiguration, final boolean initOnStartup, final List<ServiceName> dependsOn) {
         super(componentConfiguration, ejbJarConfiguration);
         this.initOnStartup = initOnStartup;
         this.dependsOn = dependsOn;
+        this.lockMode = ((SingletonComponentDescription) componentConfiguration.getComponentDescription()).getLockMode();
     }
 
     @Override
@@ -57,6 +59,10 @@ public class SingletonComponentCreateService extends SessionBeanComponentCreateS
         return this.initOnStartup;
     }
 
+    public SingletonLockMode getLockMode() {
+        return this.lockMode;
+    }
+
     public DefaultAccessTimeoutService getDefaultAccessTimeoutService() {
         return defaultAccessTimeoutService.getValue();
     }
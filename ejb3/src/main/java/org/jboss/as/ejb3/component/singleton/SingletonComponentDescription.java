@@ -82,6 +82,11 @@ public class SingletonComponentDescription extends SessionBeanComponentDescripti
 
     private final List<ServiceName> dependsOn = new ArrayList<ServiceName>();
 
+    /**
+     * The lock used for container managed concurrency
+     */
+    private volatile SingletonLockMode lockMode = SingletonLockMode.REENTRANT;
+
     /**
      * Construct a new instance.
      *
@@ -195,6 +200,19 @@ public class SingletonComponentDescription extends SessionBeanComponentDescripti
 
     }
 
+    /**
+     * Returns the kind of lock used for container managed concurrency of this singleton bean
+     *
+     * @return the lock mode
+     */
+    public SingletonLockMode getLockMode() {
+        return this.lockMode;
+    }
+
+    public void setLockMode(final SingletonLockMode lockMode) {
+        this.lockMode = lockMode;
+    }
+
     @Override
     public SessionBeanType getSessionBeanType() {
         return SessionBeanComponentDescription.SessionBeanType.SINGLETON;
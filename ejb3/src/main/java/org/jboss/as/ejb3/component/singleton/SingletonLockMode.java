@@ -0,0 +1,79 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.component.singleton;
+
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * The {@link ReadWriteLock} implementation used by a singleton bean with container managed concurrency.
+ */
+public enum SingletonLockMode {
+
+    /**
+     * A lock backed by a {@link java.util.concurrent.locks.ReentrantReadWriteLock}, suited to write-heavy beans
+     */
+    REENTRANT("reentrant") {
+        @Override
+        public ReadWriteLock createLock() {
+            return new EJBReadWriteLock();
+        }
+    },
+    /**
+     * A lock whose read lock scales with the number of concurrent readers, at the expense of the write lock, suited
+     * to beans whose methods are mostly {@link javax.ejb.LockType#READ}
+     */
+    STRIPED("striped") {
+        @Override
+        public ReadWriteLock createLock() {
+            return new StripedEJBReadWriteLock();
+        }
+    },
+    ;
+
+    private final String value;
+
+    SingletonLockMode(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Creates a new lock for a singleton bean.
+     *
+     * @return a new lock
+     */
+    public abstract ReadWriteLock createLock();
+
+    @Override
+    public String toString() {
+        return this.value;
+    }
+
+    public static SingletonLockMode fromValue(String value) {
+        for (SingletonLockMode mode : values()) {
+            if (mode.value.equals(value)) {
+                return mode;
+            }
+        }
+        return valueOf(value);
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.component.singleton;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+
+/**
+ * A {@link ReadWriteLock} with the semantics of {@link EJBReadWriteLock}, whose read lock scales with the number of
+ * concurrent readers.
+ * <p>
+ * Readers register in one of several counters, chosen by thread and each on its own cache line, instead of a single
+ * shared lock word, so that concurrent invocations of {@link javax.ejb.LockType#READ} methods do not contend with each
+ * other. A writer excludes new readers by raising a flag and then waits for the counters to drain, which makes the
+ * write lock more expensive than the one of {@link EJBReadWriteLock}. Read locks are reentrant, and may be acquired
+ * by the thread holding the write lock, but a thread holding a read lock can't acquire the write lock.
+ * </p>
+ */
+public class StripedEJBReadWriteLock implements ReadWriteLock {
+
+    /**
+     * Distance, in array elements, between two reader counters, so that each counter sits on its own cache line
+     */
+    private static final int PADDING = 8;
+
+    private static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+
+    private static final int MAX_WRITER_YIELDS = 100;
+
+    private static final long WRITER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final long NO_TIMEOUT = -1L;
+
+    private final AtomicLongArray readers = new AtomicLongArray(STRIPES * PADDING);
+
+    /**
+     * Serializes writers, and lets readers wait for the active writer
+     */
+    private final ReentrantLock writerLock = new ReentrantLock();
+
+    private volatile boolean writing;
+
+    /**
+     * Keep track of the number of read locks held by this thread
+     */
+    private final ThreadLocal<int[]> readLockCount = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    private final Lock readLock = new ReadLock();
+
+    private final Lock writeLock = new WriteLock();
+
+    static int stripes(int processors) {
+        // the next power of two of twice the number of processors, so that collisions of threads are unlikely
+        return Math.min(Integer.highestOneBit(Math.max(processors * 2 - 1, 1)) << 1, 256);
+    }
+
+    /**
+     * Returns the reader counter of the current thread.
+     */
+    private static int readerIndex() {
+        long hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return ((int) (hash >>> 32) & (STRIPES - 1)) * PADDING;
+    }
+
+    private boolean acquireReadLock(boolean interruptible, long timeout) throws InterruptedException {
+        final long start = System.nanoTime();
+        final int[] count = this.readLockCount.get();
+        final int index = readerIndex();
+        if (count[0] > 0 || this.writerLock.isHeldByCurrentThread()) {
+            // a reentrant read lock must not wait for a pending writer, which is itself waiting for this thread
+            this.readers.getAndIncrement(index);
+            count[0]++;
+            return true;
+        }
+        while (true) {
+            this.readers.getAndIncrement(index);
+            if (!this.writing) {
+                count[0]++;
+                return true;
+            }
+            this.readers.getAndDecrement(index);
+            // wait for the writer to release the write lock
+            if (timeout == NO_TIMEOUT) {
+                if (interruptible) {
+                    this.writerLock.lockInterruptibly();
+                } else {
+                    this.writerLock.lock();
+                }
+            } else {
+                long remaining = timeout - (System.nanoTime() - start);
+                if (remaining <= 0 || !this.writerLock.tryLock(remaining, TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+            }
+            this.writerLock.unlock();
+        }
+    }
+
+    private void releaseReadLock() {
+        final int[] count = this.readLockCount.get();
+        assert count[0] > 0 : "can't decrease, read lock is not held";
+        count[0]--;
+        this.readers.getAndDecrement(readerIndex());
+    }
+
+    private boolean acquireWriteLock(boolean interruptible, long timeout) throws InterruptedException {
+        final long start = System.nanoTime();
+        checkLoopback();
+        if (timeout == NO_TIMEOUT) {
+            if (interruptible) {
+                this.writerLock.lockInterruptibly();
+            } else {
+                this.writerLock.lock();
+            }
+        } else if (!this.writerLock.tryLock(timeout, TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        if (this.writerLock.getHoldCount() > 1) {
+            // reentrant write lock
+            return true;
+        }
+        this.writing = true;
+        // wait for the active readers to release their read locks
+        int yields = 0;
+        while (this.hasReaders()) {
+            if (interruptible && Thread.interrupted()) {
+                this.releaseWriteLock();
+                throw new InterruptedException();
+            }
+            if (timeout != NO_TIMEOUT && System.nanoTime() - start >= timeout) {
+                this.releaseWriteLock();
+                return false;
+            }
+            if (yields < MAX_WRITER_YIELDS) {
+                yields++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, WRITER_PARK_NANOS);
+            }
+        }
+        return true;
+    }
+
+    private void releaseWriteLock() {
+        if (this.writerLock.getHoldCount() == 1) {
+            this.writing = false;
+        }
+        this.writerLock.unlock();
+    }
+
+    private boolean hasReaders() {
+        for (int i = 0; i < STRIPES; i++) {
+            if (this.readers.get(i * PADDING) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ensures that the current thread doesn't hold any read locks. If
+     * the thread holds any read locks, this method throws a {@link javax.ejb.IllegalLoopbackException}.
+     */
+    private void checkLoopback() {
+        if (this.readLockCount.get()[0] > 0) {
+            throw EjbLogger.ROOT_LOGGER.failToUpgradeToWriteLock();
+        }
+    }
+
+    @Override
+    public Lock readLock() {
+        return this.readLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return this.writeLock;
+    }
+
+    private class ReadLock implements Lock {
+
+        @Override
+        public void lock() {
+            try {
+                acquireReadLock(false, NO_TIMEOUT);
+            } catch (InterruptedException e) {
+                // not thrown by uninterruptible acquisition
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            acquireReadLock(true, NO_TIMEOUT);
+        }
+
+        @Override
+        public boolean tryLock() {
+            try {
+                return acquireReadLock(false, 0L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            return acquireReadLock(true, Math.max(unit.toNanos(time), 0L));
+        }
+
+        @Override
+        public void unlock() {
+            releaseReadLock();
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class WriteLock implements Lock {
+
+        @Override
+        public void lock() {
+            try {
+                acquireWriteLock(false, NO_TIMEOUT);
+            } catch (InterruptedException e) {
+                // not thrown by uninterruptible acquisition
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            acquireWriteLock(true, NO_TIMEOUT);
+        }
+
+        @Override
+        public boolean tryLock() {
+            try {
+                return acquireWriteLock(false, 0L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            return acquireWriteLock(true, Math.max(unit.toNanos(time), 0L));
+        }
+
+        @Override
+        public void unlock() {
+            releaseWriteLock();
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
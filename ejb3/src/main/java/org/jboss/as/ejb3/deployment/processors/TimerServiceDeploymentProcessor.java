@@ -24,7 +24,6 @@ package org.jboss.as.ejb3.deployment.processors;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
 import java.util.concurrent.ExecutorService;
 
 import org.jboss.as.ee.component.Attachments;
@@ -42,6 +41,7 @@ import org.jboss.as.ejb3.component.stateful.StatefulComponentDescription;
 import org.jboss.as.ejb3.deployment.EjbDeploymentAttachmentKeys;
 import org.jboss.as.ejb3.timerservice.NonFunctionalTimerService;
 import org.jboss.as.ejb3.timerservice.TimedObjectInvokerImpl;
+import org.jboss.as.ejb3.timerservice.TimerScheduler;
 import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
 import org.jboss.as.ejb3.timerservice.TimerServiceMetaData;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
@@ -133,7 +133,7 @@ public class TimerServiceDeploymentProcessor implements DeploymentUnitProcessor
                             final ServiceName serviceName = componentDescription.getServiceName().append(TimerServiceImpl.SERVICE_NAME);
                             final TimerServiceImpl service = new TimerServiceImpl(ejbComponentDescription.getScheduleMethods(), serviceName, timerServiceRegistry);
                             final ServiceBuilder<javax.ejb.TimerService> createBuilder = context.getServiceTarget().addService(serviceName, service);
-                            createBuilder.addDependency(TIMER_SERVICE_NAME, Timer.class, service.getTimerInjectedValue());
+                            createBuilder.addDependency(TIMER_SERVICE_NAME, TimerScheduler.class, service.getTimerInjectedValue());
                             createBuilder.addDependency(componentDescription.getCreateServiceName(), EJBComponent.class, service.getEjbComponentInjectedValue());
                             createBuilder.addDependency(timerServiceThreadPool, ExecutorService.class, service.getExecutorServiceInjectedValue());
                             if (timerPersistenceServices.containsKey(ejbComponentDescription.getEJBName())) {
@@ -141,12 +141,12 @@ public class AsynchronousMergingProcessor extends AbstractMergingProcessor<Sessi
 
                             if (componentMethod != null) {
                                 if (componentDescription.getAsynchronousClasses().contains(componentMethod.getDeclaringClass().getName())) {
-                                    addAsyncInterceptor(configuration, method, isSecurityDomainKnown);
+                                    addAsyncInterceptor(configuration, method, isSecurityDomainKnown, componentDescription.isLeanInterceptorChain());
                                     configuration.addAsyncMethod(method);
                                 } else {
                                     MethodIdentifier id = MethodIdentifier.getIdentifierForMethod(method);
                                     if (componentDescription.getAsynchronousMethods().contains(id)) {
-                                        addAsyncInterceptor(configuration, method, isSecurityDomainKnown);
+                                        addAsyncInterceptor(configuration, method, isSecurityDomainKnown, componentDescription.isLeanInterceptorChain());
                                         configuration.addAsyncMethod(method);
                                     }
                                 }
@@ -158,9 +158,12 @@ public class AsynchronousMergingProcessor extends AbstractMergingProcessor<Sessi
         }
     }
 
-    private static void addAsyncInterceptor(final ViewConfiguration configuration, final Method method, final boolean isSecurityDomainKnown) throws DeploymentUnitProcessingException {
+    static void addAsyncInterceptor(final ViewConfiguration configuration, final Method method, final boolean isSecurityDomainKnown, final boolean leanInterceptorChain) throws DeploymentUnitProcessingException {
         if (method.getReturnType().equals(void.class) || method.getReturnType().equals(Future.class)) {
-            configuration.addClientInterceptor(method, LogDiagnosticContextStorageInterceptor.getFactory(), InterceptorOrder.Client.LOCAL_ASYNC_LOG_SAVE);
+            // a lean chain does not hand the caller's MDC and NDC over to the asynchronous invocation
+            if (!leanInterceptorChain) {
+                configuration.addClientInterceptor(method, LogDiagnosticContextStorageInterceptor.getFactory(), InterceptorOrder.Client.LOCAL_ASYNC_LOG_SAVE);
+            }
 
             if (isSecurityDomainKnown) {
                 // Make sure the security domain is available in the private data of the InterceptorContext
@@ -168,7 +171,9 @@ public class AsynchronousMergingProcessor extends AbstractMergingProcessor<Sessi
             }
             configuration.addClientInterceptor(method, AsyncFutureInterceptorFactory.INSTANCE, InterceptorOrder.Client.LOCAL_ASYNC_INVOCATION);
 
-            configuration.addClientInterceptor(method, LogDiagnosticContextRecoveryInterceptor.getFactory(), InterceptorOrder.Client.LOCAL_ASYNC_LOG_RESTORE);
+            if (!leanInterceptorChain) {
+                configuration.addClientInterceptor(method, LogDiagnosticContextRecoveryInterceptor.getFactory(), InterceptorOrder.Client.LOCAL_ASYNC_LOG_RESTORE);
+            }
         } else {
             throw EjbLogger.ROOT_LOGGER.wrongReturnTypeForAsyncMethod(method);
         }
@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.deployment.processors.merging;
+
+import org.jboss.as.ee.component.EEApplicationClasses;
+import org.jboss.as.ejb3.component.EJBComponentDescription;
+import org.jboss.as.server.deployment.DeploymentUnit;
+import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
+import org.jboss.as.server.deployment.reflect.DeploymentReflectionIndex;
+
+/**
+ * A {@link org.jboss.as.server.deployment.DeploymentUnitProcessor} which applies the subsystem wide lean interceptor
+ * chain and interceptor statistics settings to the {@link EJBComponentDescription}s of a deployment.
+ */
+public class InterceptorChainMergingProcessor extends AbstractMergingProcessor<EJBComponentDescription> {
+
+    private volatile boolean leanInterceptorChain = false;
+    private volatile boolean interceptorStatisticsEnabled = false;
+
+    public InterceptorChainMergingProcessor() {
+        super(EJBComponentDescription.class);
+    }
+
+    @Override
+    protected void handleAnnotations(DeploymentUnit deploymentUnit, EEApplicationClasses applicationClasses, DeploymentReflectionIndex deploymentReflectionIndex, Class<?> componentClass, EJBComponentDescription description) throws DeploymentUnitProcessingException {
+        // there are no annotations for the interceptor chain
+    }
+
+    @Override
+    protected void handleDeploymentDescriptor(DeploymentUnit deploymentUnit, DeploymentReflectionIndex deploymentReflectionIndex, Class<?> componentClass, EJBComponentDescription description) throws DeploymentUnitProcessingException {
+        description.setLeanInterceptorChain(this.leanInterceptorChain);
+        description.setInterceptorStatisticsEnabled(this.interceptorStatisticsEnabled);
+    }
+
+    public boolean isLeanInterceptorChain() {
+        return leanInterceptorChain;
+    }
+
+    public void setLeanInterceptorChain(final boolean leanInterceptorChain) {
+        this.leanInterceptorChain = leanInterceptorChain;
+    }
+
+    public boolean isInterceptorStatisticsEnabled() {
+        return interceptorStatisticsEnabled;
+    }
+
+    public void setInterceptorStatisticsEnabled(final boolean interceptorStatisticsEnabled) {
+        this.interceptorStatisticsEnabled = interceptorStatisticsEnabled;
+    }
+}
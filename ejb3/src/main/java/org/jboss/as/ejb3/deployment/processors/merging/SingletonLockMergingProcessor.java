@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.deployment.processors.merging;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.as.ee.component.EEApplicationClasses;
+import org.jboss.as.ejb3.component.singleton.EJBBoundSingletonLockMetaData;
+import org.jboss.as.ejb3.component.singleton.SingletonComponentDescription;
+import org.jboss.as.ejb3.component.singleton.SingletonLockMode;
+import org.jboss.as.ejb3.deployment.EjbDeploymentAttachmentKeys;
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.server.deployment.DeploymentUnit;
+import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
+import org.jboss.as.server.deployment.reflect.DeploymentReflectionIndex;
+import org.jboss.metadata.ejb.spec.AssemblyDescriptorMetaData;
+import org.jboss.metadata.ejb.spec.EjbJarMetaData;
+
+/**
+ * A {@link org.jboss.as.server.deployment.DeploymentUnitProcessor} which processes EJB deployments and configures the
+ * lock mode on the {@link SingletonComponentDescription}s, from the deployment descriptor or else from the subsystem
+ * default.
+ */
+public class SingletonLockMergingProcessor extends AbstractMergingProcessor<SingletonComponentDescription> {
+
+    private volatile SingletonLockMode defaultLockMode = SingletonLockMode.REENTRANT;
+
+    public SingletonLockMergingProcessor() {
+        super(SingletonComponentDescription.class);
+    }
+
+    @Override
+    protected void handleAnnotations(DeploymentUnit deploymentUnit, EEApplicationClasses applicationClasses, DeploymentReflectionIndex deploymentReflectionIndex, Class<?> componentClass, SingletonComponentDescription description) throws DeploymentUnitProcessingException {
+        // there's no annotation for the lock mode
+    }
+
+    @Override
+    protected void handleDeploymentDescriptor(DeploymentUnit deploymentUnit, DeploymentReflectionIndex deploymentReflectionIndex, Class<?> componentClass, SingletonComponentDescription description) throws DeploymentUnitProcessingException {
+        final String ejbName = description.getEJBName();
+        String lockMode = null;
+        final EjbJarMetaData ejbJarMetaData = deploymentUnit.getAttachment(EjbDeploymentAttachmentKeys.EJB_JAR_METADATA);
+        if (ejbJarMetaData != null) {
+            final AssemblyDescriptorMetaData assemblyMetadata = ejbJarMetaData.getAssemblyDescriptor();
+            if (assemblyMetadata != null) {
+                final List<EJBBoundSingletonLockMetaData> lockMetaDatas = assemblyMetadata.getAny(EJBBoundSingletonLockMetaData.class);
+                if (lockMetaDatas != null) {
+                    for (final EJBBoundSingletonLockMetaData lockMetaData : lockMetaDatas) {
+                        // if this applies for all EJBs and if there isn't a lock mode already explicitly specified
+                        // for the specific bean (i.e. via an ejb-name match)
+                        if ("*".equals(lockMetaData.getEjbName()) && lockMode == null) {
+                            lockMode = lockMetaData.getLockMode();
+                        } else if (ejbName.equals(lockMetaData.getEjbName())) {
+                            lockMode = lockMetaData.getLockMode();
+                        }
+                    }
+                }
+            }
+        }
+        if (lockMode != null) {
+            try {
+                description.setLockMode(SingletonLockMode.fromValue(lockMode));
+            } catch (IllegalArgumentException e) {
+                throw EjbLogger.ROOT_LOGGER.invalidSingletonLockMode(lockMode, ejbName, Arrays.toString(SingletonLockMode.values()));
+            }
+        } else {
+            description.setLockMode(this.defaultLockMode);
+        }
+    }
+
+    public SingletonLockMode getDefaultLockMode() {
+        return defaultLockMode;
+    }
+
+    public void setDefaultLockMode(final SingletonLockMode defaultLockMode) {
+        this.defaultLockMode = defaultLockMode;
+    }
+}
@@ -3170,4 +3170,22 @@ public interface EjbLogger extends BasicLogger {
     @LogMessage(level = WARN)
     @Message(id = 506, value = "[EJB3.2 spec, section 5.6.2] Message Driven Bean can not have a 'finalize' method. (MDB: %s)")
     void mdbCantHaveFinalizeMethod(String className);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 507, value = "Failed to run timer service task %s")
+    void timerSchedulerTaskFailed(Runnable task, @Cause Throwable cause);
+
+    @Message(id = 508, value = "Cannot read timer service metric - service %s unreachable")
+    OperationFailedException cannotReadTimerServiceMetric(ServiceName serviceName);
+
+    @LogMessage(level = WARN)
+    @Message(id = 509, value = "Timer journal %s is truncated or corrupt after %d bytes, the remainder has been discarded")
+    void timerJournalTruncated(File journal, long validLength);
+
+    @Message(id = 510, value = "Invalid singleton lock mode '%s' for EJB %s, expected one of %s")
+    DeploymentUnitProcessingException invalidSingletonLockMode(String lockMode, String ejbName, String validModes);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 511, value = "Timer journal %s is not in a recognized format and has been moved to %s, the timers it holds have not been restored")
+    void unrecognizedTimerJournal(File journal, File movedTo);
 }
@@ -0,0 +1,466 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.striped;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.pool.AbstractPool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+
+/**
+ * A pool with a strict maximum size whose permits and free instances are striped across a number of independent
+ * {@link Stripe}s, so that concurrent invocations on different threads do not contend on a single semaphore or queue.
+ * <p/>
+ * Each thread acquires from, and releases to, its home stripe. When the home stripe is exhausted, permits and
+ * instances are stolen from the other stripes, so the pool as a whole never hands out more than {@link #getMaxSize()}
+ * instances. Only when all stripes are exhausted does a thread block, waiting for a permit to be handed off by a
+ * releasing thread.
+ * <p/>
+ * As a permit is not necessarily returned to the stripe from which it was taken, shrinking the pool does not reduce the
+ * permits of individual stripes. Instead, the reduction is recorded as a pool-wide debt, which is repaid from any
+ * permit that becomes available, before that permit can be acquired again.
+ * <p/>
+ * The number of idle instances retained by the pool is elastic. It grows with demand up to the maximum size, and
+ * whenever a caller had to wait for an instance. After a period without waits or growth it shrinks again towards the
+ * larger of the minimum size and the number of instances currently in use; surplus instances are then destroyed as
+ * they are released.
+ */
+public class StripedPool<T> extends AbstractPool<T> {
+
+    /**
+     * The time without observed waits or growth after which the number of retained instances is shrunk.
+     */
+    static final long SHRINK_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    private static final AtomicLongFieldUpdater<StripedPool> LAST_ADJUSTMENT_UPDATER = AtomicLongFieldUpdater.newUpdater(StripedPool.class, "lastAdjustment");
+
+    private final Stripe<T>[] stripes;
+    private final int mask;
+    /**
+     * Permits handed off directly from releasing threads to threads blocked in {@link #get()}
+     */
+    private final Semaphore handoff = new Semaphore(0);
+    private final AtomicInteger waiters = new AtomicInteger(0);
+    /**
+     * Permits still to be withdrawn from circulation following a reduction of the maximum size
+     */
+    private final AtomicInteger debt = new AtomicInteger(0);
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+    private final long timeout;
+    private final TimeUnit timeUnit;
+
+    private volatile int maxSize;
+    private volatile int minSize;
+    /**
+     * The number of instances the pool will keep, somewhere between minSize and maxSize
+     */
+    private volatile int retainedSize;
+    /**
+     * The time, in nanoseconds, at which retainedSize was last grown or shrunk
+     */
+    private volatile long lastAdjustment = System.nanoTime();
+
+    public StripedPool(StatelessObjectFactory<T> factory, int minSize, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(factory, minSize, maxSize, Runtime.getRuntime().availableProcessors(), timeout, timeUnit);
+    }
+
+    @SuppressWarnings("unchecked")
+    StripedPool(StatelessObjectFactory<T> factory, int minSize, int maxSize, int concurrency, long timeout, TimeUnit timeUnit) {
+        super(factory);
+        this.minSize = Math.min(minSize, maxSize);
+        this.maxSize = maxSize;
+        this.retainedSize = maxSize;
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+        // Use a power of 2 number of stripes, but no more than are needed to give each stripe a permit
+        int count = Math.max(1, Math.min(ceilingPowerOfTwo(concurrency), Integer.highestOneBit(Math.max(1, maxSize))));
+        this.mask = count - 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; ++i) {
+            // Distribute permits evenly, giving any remainder to the first stripes
+            this.stripes[i] = new Stripe<>((maxSize / count) + ((i < (maxSize % count)) ? 1 : 0));
+        }
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return (value <= 1) ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * Get an instance without identity.
+     * Can be used by finders,create-methods, and activation
+     *
+     * @return Context /w instance
+     */
+    @Override
+    public T get() {
+        int index = this.index();
+        if (!this.tryAcquire(index)) {
+            this.acquire(index);
+        }
+
+        T bean = this.poll(index);
+
+        if (bean != null) {
+            //we found a bean instance in the pool, return it
+            return bean;
+        }
+
+        try {
+            // Pool is empty, create an instance
+            bean = this.create();
+        } finally {
+            if (bean == null) {
+                this.releasePermit(this.stripes[index]);
+            }
+        }
+        // Demand exceeds what we were prepared to retain, so grow
+        int size = this.getCurrentSize();
+        if (size > this.retainedSize) {
+            this.retainedSize = Math.min(size, this.maxSize);
+            this.lastAdjustment = System.nanoTime();
+        }
+        return bean;
+    }
+
+    /**
+     * Return an instance after invocation.
+     *
+     * @param obj the instance
+     */
+    @Override
+    public void release(T obj) {
+        Stripe<T> stripe = this.stripes[this.index()];
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("%s/%s Free instance: %s", this.getCurrentSize(), this.maxSize, this);
+        }
+        try {
+            if (this.getCurrentSize() > this.retain()) {
+                this.destroy(obj);
+            } else {
+                stripe.instances.offerFirst(obj);
+            }
+        } finally {
+            this.releasePermit(stripe);
+        }
+    }
+
+    @Override
+    public void discard(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Discard instance %s#%s", this, ctx);
+        }
+
+        this.releasePermit(this.stripes[this.index()]);
+
+        // Let the super do any other remove stuff
+        super.doRemove(ctx);
+    }
+
+    @Override
+    @Deprecated
+    public void remove(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Removing instance: %s#%s", this, ctx);
+        }
+
+        this.releasePermit(this.stripes[this.index()]);
+        // let the super do the other remove stuff
+        super.doRemove(ctx);
+    }
+
+    @Override
+    public int getCurrentSize() {
+        return this.getCreateCount() - this.getRemoveCount();
+    }
+
+    @Override
+    public int getAvailableCount() {
+        int available = this.handoff.availablePermits();
+        for (Stripe<T> stripe : this.stripes) {
+            available += stripe.permits.availablePermits();
+        }
+        return Math.max(available - this.debt.get(), 0);
+    }
+
+    @Override
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Resizes this pool. Increasing the maximum size immediately releases additional permits to any waiting threads.
+     * Decreasing the maximum size takes effect as instances in use are released; surplus idle instances are destroyed.
+     *
+     * @param maxSize the new maximum number of instances
+     */
+    @Override
+    public synchronized void setMaxSize(int maxSize) {
+        int delta = maxSize - this.maxSize;
+        this.maxSize = maxSize;
+        if (delta > 0) {
+            for (int i = 0; i < this.stripes.length; ++i) {
+                int permits = (delta / this.stripes.length) + ((i < (delta % this.stripes.length)) ? 1 : 0);
+                for (int j = 0; j < permits; ++j) {
+                    this.releasePermit(this.stripes[i]);
+                }
+            }
+        } else if (delta < 0) {
+            // Repay as much as possible from idle permits now, the remainder from permits of instances in use as they are released
+            this.debt.addAndGet(-delta);
+            for (Stripe<T> stripe : this.stripes) {
+                this.repay(stripe.permits);
+            }
+            this.repay(this.handoff);
+            if (this.retainedSize > maxSize) {
+                this.retainedSize = maxSize;
+            }
+            this.evict(maxSize);
+        }
+    }
+
+    public int getMinSize() {
+        return this.minSize;
+    }
+
+    /**
+     * Sets the number of instances below which this pool will not shrink.
+     *
+     * @param minSize the minimum number of retained instances
+     */
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+        if (this.retainedSize < minSize) {
+            this.retainedSize = Math.min(minSize, this.maxSize);
+        }
+    }
+
+    /**
+     * Returns the number of instances this pool currently retains when they are released.
+     *
+     * @return a number between the minimum and maximum size of this pool
+     */
+    public int getRetainedSize() {
+        return this.retainedSize;
+    }
+
+    /**
+     * Returns the number of calls to {@link #get()} that had to wait for an instance.
+     */
+    public long getWaitCount() {
+        return this.waitCount.sum();
+    }
+
+    /**
+     * Returns the total time, in nanoseconds, spent by callers of {@link #get()} waiting for an instance.
+     */
+    public long getWaitTime() {
+        return this.waitTime.sum();
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+        for (Stripe<T> stripe : this.stripes) {
+            for (T obj = stripe.instances.pollFirst(); obj != null; obj = stripe.instances.pollFirst()) {
+                this.destroy(obj);
+            }
+        }
+    }
+
+    /**
+     * Identifies the home stripe of the current thread.
+     */
+    private int index() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & this.mask;
+    }
+
+    /**
+     * Attempts to acquire a permit, without blocking, from the home stripe, then from the other stripes.
+     */
+    private boolean tryAcquire(int index) {
+        for (int i = 0; i < this.stripes.length; ++i) {
+            Semaphore permits = this.stripes[(index + i) & this.mask].permits;
+            while (permits.tryAcquire()) {
+                if (!this.payDebt()) {
+                    return true;
+                }
+            }
+        }
+        // Recover any permit handed off to a waiter that has since timed out
+        while (this.handoff.tryAcquire()) {
+            if (!this.payDebt()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Blocks until a permit is handed off by a releasing thread, or the acquisition timeout elapses.
+     */
+    private void acquire(int index) {
+        long start = System.nanoTime();
+        this.waiters.incrementAndGet();
+        try {
+            // Re-check the stripes now that releasing threads can see us waiting
+            if (this.tryAcquire(index)) return;
+            long deadline = start + this.timeUnit.toNanos(this.timeout);
+            while (true) {
+                boolean acquired = this.handoff.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (!acquired)
+                    throw EjbLogger.ROOT_LOGGER.failedToAcquirePermit(this.timeout, this.timeUnit);
+                // A permit handed off while the pool is being shrunk may be owed
+                if (!this.payDebt()) return;
+            }
+        } catch (InterruptedException e) {
+            throw EjbLogger.ROOT_LOGGER.acquireSemaphoreInterrupted();
+        } finally {
+            this.waiters.decrementAndGet();
+            long now = System.nanoTime();
+            this.waitCount.increment();
+            this.waitTime.add(now - start);
+            // Contention, so keep everything we create
+            this.retainedSize = this.maxSize;
+            this.lastAdjustment = now;
+        }
+    }
+
+    /**
+     * Returns a permit to the specified stripe, or hands it off to a waiting thread.
+     */
+    private void releasePermit(Stripe<T> stripe) {
+        if (this.payDebt()) return;
+        stripe.permits.release();
+        // Any concurrent shrink will have either found the permit above or is counted here
+        if (this.debt.get() > 0) {
+            this.repay(stripe.permits);
+        }
+        // Any thread that started waiting before this check will have either found the permit above or is counted here
+        if ((this.waiters.get() > 0) && stripe.permits.tryAcquire()) {
+            this.handoff.release();
+        }
+    }
+
+    /**
+     * Withdraws a permit from circulation, if any are still owed following a reduction of the maximum size.
+     *
+     * @return true, if the caller's permit was used to repay the debt, false otherwise
+     */
+    private boolean payDebt() {
+        int owed = this.debt.get();
+        while (owed > 0) {
+            if (this.debt.compareAndSet(owed, owed - 1)) {
+                return true;
+            }
+            owed = this.debt.get();
+        }
+        return false;
+    }
+
+    /**
+     * Repays as much of any outstanding debt as possible using the idle permits of the specified semaphore.
+     */
+    private void repay(Semaphore permits) {
+        while ((this.debt.get() > 0) && permits.tryAcquire()) {
+            if (!this.payDebt()) {
+                permits.release();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Polls a free instance from the home stripe, then from the other stripes.
+     */
+    private T poll(int index) {
+        for (int i = 0; i < this.stripes.length; ++i) {
+            T bean = this.stripes[(index + i) & this.mask].instances.pollFirst();
+            if (bean != null) {
+                return bean;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of instances to retain, shrinking it if there has been no contention for a while.
+     */
+    private int retain() {
+        int retained = this.retainedSize;
+        int min = this.minSize;
+        if (retained > min) {
+            long last = this.lastAdjustment;
+            long now = System.nanoTime();
+            if ((now - last > SHRINK_INTERVAL) && LAST_ADJUSTMENT_UPDATER.compareAndSet(this, last, now)) {
+                // Shrink halfway towards the larger of the minimum size and the number of instances in use
+                int floor = Math.max(min, this.maxSize - this.getAvailableCount());
+                if (retained > floor) {
+                    retained = floor + (retained - floor) / 2;
+                    this.retainedSize = retained;
+                    ROOT_LOGGER.tracef("%s will now retain %d instances", this, retained);
+                }
+            }
+        }
+        return retained;
+    }
+
+    /**
+     * Destroys idle instances until the pool holds no more than the specified number of instances.
+     */
+    private void evict(int size) {
+        for (Stripe<T> stripe : this.stripes) {
+            while (this.getCurrentSize() > size) {
+                T obj = stripe.instances.pollLast();
+                if (obj == null) break;
+                this.destroy(obj);
+            }
+        }
+    }
+
+    private static class Stripe<T> {
+        final Semaphore permits;
+        /**
+         * Free instances, most recently used first
+         */
+        final Deque<T> instances = new ConcurrentLinkedDeque<>();
+
+        Stripe(int permits) {
+            this.permits = new Semaphore(permits);
+        }
+    }
+}
@@ -69,16 +69,19 @@ public class CacheFactoryAdd extends AbstractAddStepHandler {
         final Collection<String> unwrappedAliasValues = CacheFactoryResourceDefinition.ALIASES.unwrap(context,model);
         final Set<String> aliases = unwrappedAliasValues != null ? new HashSet<>(unwrappedAliasValues) : Collections.<String>emptySet();
         ServiceTarget target = context.getServiceTarget();
-        ServiceBuilder<?> builder = buildCacheFactoryBuilder(target, name, passivationStore);
+        ModelNode expirationResolutionModel = CacheFactoryResourceDefinition.EXPIRATION_RESOLUTION.resolveModelAttribute(context, model);
+        Long expirationResolution = expirationResolutionModel.isDefined() ? expirationResolutionModel.asLong() : null;
+
+        ServiceBuilder<?> builder = buildCacheFactoryBuilder(target, name, passivationStore, expirationResolution);
         for (String alias: aliases) {
             builder.addAliases(CacheFactoryBuilderService.getServiceName(alias));
         }
         builder.install();
     }
 
-    private static ServiceBuilder<?> buildCacheFactoryBuilder(ServiceTarget target, String name, String passivationStore) {
+    private static ServiceBuilder<?> buildCacheFactoryBuilder(ServiceTarget target, String name, String passivationStore, Long expirationResolution) {
         if (passivationStore == null) {
-            return new SimpleCacheFactoryBuilderService<>(name).build(target);
+            return new SimpleCacheFactoryBuilderService<>(name, expirationResolution).build(target);
         }
         return new DelegateCacheFactoryBuilderService<>(name, DistributableCacheFactoryBuilderService.getServiceName(passivationStore)).build(target);
     }
@@ -28,6 +28,8 @@ import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.StringListAttributeDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
@@ -50,7 +52,19 @@ public class CacheFactoryResourceDefinition extends SimpleResourceDefinition {
                     .setFlags(AttributeAccess.Flag.RESTART_NONE)
                     .build();
 
-    private static final AttributeDefinition[] ATTRIBUTES = { ALIASES, PASSIVATION_STORE };
+    /**
+     * Tick duration of the timing wheel used to expire beans of a cache without a passivation store.
+     * If undefined, expiration is scheduled via a {@link java.util.concurrent.ScheduledExecutorService}.
+     */
+    public static final SimpleAttributeDefinition EXPIRATION_RESOLUTION =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.EXPIRATION_RESOLUTION, ModelType.LONG, true)
+                    .setAllowExpression(true)
+                    .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+                    .setValidator(new LongRangeValidator(1, Long.MAX_VALUE, true, true))
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
+    private static final AttributeDefinition[] ATTRIBUTES = { ALIASES, PASSIVATION_STORE, EXPIRATION_RESOLUTION };
     private static final CacheFactoryAdd ADD_HANDLER = new CacheFactoryAdd(ATTRIBUTES);
     private static final CacheFactoryRemove REMOVE_HANDLER = new CacheFactoryRemove(ADD_HANDLER);
 
@@ -30,6 +30,7 @@ import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.ejb3.deployment.processors.TimerServiceDeploymentProcessor;
+import org.jboss.as.ejb3.timerservice.TimerScheduler;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
 import org.jboss.as.ejb3.timerservice.persistence.database.DatabaseTimerPersistence;
 import org.jboss.as.naming.ManagedReferenceFactory;
@@ -82,7 +83,7 @@ public class DatabaseDataStoreAdd extends AbstractAddStepHandler {
         context.getServiceTarget().addService(serviceName, databaseTimerPersistence)
                 .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, databaseTimerPersistence.getModuleLoader())
                 .addDependency(ContextNames.bindInfoFor(jndiName).getBinderServiceName(), ManagedReferenceFactory.class, databaseTimerPersistence.getDataSourceInjectedValue())
-                .addDependency(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME, java.util.Timer.class, databaseTimerPersistence.getTimerInjectedValue())
+                .addDependency(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME, TimerScheduler.class, databaseTimerPersistence.getTimerInjectedValue())
                 .install();
     }
 
@@ -371,7 +371,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>
         }
     }
 
-    private void parseSingletonBean(final XMLExtendedStreamReader reader, final List<ModelNode> operations, final ModelNode ejb3SubsystemAddOperation) throws XMLStreamException {
+    void parseSingletonBean(final XMLExtendedStreamReader reader, final List<ModelNode> operations, final ModelNode ejb3SubsystemAddOperation) throws XMLStreamException {
         final int count = reader.getAttributeCount();
         final EnumSet<EJB3SubsystemXMLAttribute> missingRequiredAttributes = EnumSet.of(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT);
         for (int i = 0; i < count; i++) {
@@ -481,7 +481,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>
         }
     }
 
-    private void parseCache(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
+    void parseCache(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
         String name = null;
         ModelNode operation = Util.createAddOperation();
         //Set<String> aliases = new LinkedHashSet<String>();
@@ -180,7 +180,7 @@ public class EJB3Subsystem20Parser extends EJB3Subsystem14Parser {
         }
     }
 
-    private void parseDataStores(final XMLExtendedStreamReader reader, final List<ModelNode> operations) throws XMLStreamException {
+    void parseDataStores(final XMLExtendedStreamReader reader, final List<ModelNode> operations) throws XMLStreamException {
         while (reader.hasNext() && reader.nextTag() != XMLStreamConstants.END_ELEMENT) {
             switch (EJB3SubsystemXMLElement.forName(reader.getLocalName())) {
                 case FILE_DATA_STORE: {
@@ -198,7 +198,7 @@ public class EJB3Subsystem20Parser extends EJB3Subsystem14Parser {
         }
     }
 
-    private void parseFileDataStore(final XMLExtendedStreamReader reader, final List<ModelNode> operations) throws XMLStreamException {
+    void parseFileDataStore(final XMLExtendedStreamReader reader, final List<ModelNode> operations) throws XMLStreamException {
         String dataStorePath = null;
         String dataStorePathRelativeTo = null;
         String name = null;
@@ -0,0 +1,294 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.subsystem;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.parsing.ParseUtils.missingRequired;
+import static org.jboss.as.controller.parsing.ParseUtils.requireNoContent;
+import static org.jboss.as.controller.parsing.ParseUtils.requireNoNamespaceAttribute;
+import static org.jboss.as.controller.parsing.ParseUtils.unexpectedAttribute;
+import static org.jboss.as.controller.parsing.ParseUtils.unexpectedElement;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.CACHE;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DERIVE_SIZE;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.MAX_POOL_SIZE;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.STRICT_MAX_BEAN_INSTANCE_POOL;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.dmr.ModelNode;
+import org.jboss.staxmapper.XMLExtendedStreamReader;
+
+/**
+ * Parser for ejb3:6.0 namespace.
+ */
+public class EJB3Subsystem60Parser extends EJB3Subsystem50Parser {
+
+    EJB3Subsystem60Parser() {
+    }
+
+    @Override
+    protected EJB3SubsystemNamespace getExpectedNamespace() {
+        return EJB3SubsystemNamespace.EJB3_6_0;
+    }
+
+    @Override
+    protected void readElement(final XMLExtendedStreamReader reader, final EJB3SubsystemXMLElement element, final List<ModelNode> operations, final ModelNode ejb3SubsystemAddOperation) throws XMLStreamException {
+        switch (element) {
+            case INTERCEPTOR_CHAIN: {
+                parseInterceptorChain(reader, ejb3SubsystemAddOperation);
+                break;
+            }
+            default: {
+                super.readElement(reader, element, operations, ejb3SubsystemAddOperation);
+            }
+        }
+    }
+
+    private void parseInterceptorChain(final XMLExtendedStreamReader reader, final ModelNode ejb3SubsystemAddOperation) throws XMLStreamException {
+        final int count = reader.getAttributeCount();
+        for (int i = 0; i < count; i++) {
+            requireNoNamespaceAttribute(reader, i);
+            final String value = reader.getAttributeValue(i);
+            final EJB3SubsystemXMLAttribute attribute = EJB3SubsystemXMLAttribute.forName(reader.getAttributeLocalName(i));
+            switch (attribute) {
+                case LEAN:
+                    EJB3SubsystemRootResourceDefinition.LEAN_INTERCEPTOR_CHAIN.parseAndSetParameter(value, ejb3SubsystemAddOperation, reader);
+                    break;
+                case STATISTICS_ENABLED:
+                    EJB3SubsystemRootResourceDefinition.INTERCEPTOR_STATISTICS_ENABLED.parseAndSetParameter(value, ejb3SubsystemAddOperation, reader);
+                    break;
+                default:
+                    throw unexpectedAttribute(reader, i);
+            }
+        }
+        requireNoContent(reader);
+    }
+
+    @Override
+    void parseSingletonBean(final XMLExtendedStreamReader reader, final List<ModelNode> operations, final ModelNode ejb3SubsystemAddOperation) throws XMLStreamException {
+        final int count = reader.getAttributeCount();
+        for (int i = 0; i < count; i++) {
+            requireNoNamespaceAttribute(reader, i);
+            final String value = reader.getAttributeValue(i);
+            final EJB3SubsystemXMLAttribute attribute = EJB3SubsystemXMLAttribute.forName(reader.getAttributeLocalName(i));
+            switch (attribute) {
+                case DEFAULT_ACCESS_TIMEOUT:
+                    EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT.parseAndSetParameter(value, ejb3SubsystemAddOperation, reader);
+                    break;
+                case LOCK_MODE:
+                    EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_MODE.parseAndSetParameter(value, ejb3SubsystemAddOperation, reader);
+                    break;
+                default:
+                    throw unexpectedAttribute(reader, i);
+            }
+        }
+        requireNoContent(reader);
+    }
+
+    @Override
+    void parseStrictMaxPool(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
+        final int count = reader.getAttributeCount();
+        String poolName = null;
+        final ModelNode operation = Util.createAddOperation();
+        boolean sizeAttribute = false;
+        for (int i = 0; i < count; i++) {
+            requireNoNamespaceAttribute(reader, i);
+            final String value = reader.getAttributeValue(i);
+            final EJB3SubsystemXMLAttribute attribute = EJB3SubsystemXMLAttribute.forName(reader.getAttributeLocalName(i));
+            switch (attribute) {
+                case NAME:
+                    poolName = value;
+                    break;
+                case MAX_POOL_SIZE:
+                    if (sizeAttribute) {
+                        throw EjbLogger.ROOT_LOGGER.mutuallyExclusiveAttributes(reader.getLocation(), MAX_POOL_SIZE, DERIVE_SIZE);
+                    }
+                    sizeAttribute = true;
+                    StrictMaxPoolResourceDefinition.MAX_POOL_SIZE.parseAndSetParameter(value, operation, reader);
+                    break;
+                case DERIVE_SIZE:
+                    if (sizeAttribute) {
+                        throw EjbLogger.ROOT_LOGGER.mutuallyExclusiveAttributes(reader.getLocation(), MAX_POOL_SIZE, DERIVE_SIZE);
+                    }
+                    sizeAttribute = true;
+                    StrictMaxPoolResourceDefinition.DERIVE_SIZE.parseAndSetParameter(value, operation, reader);
+                    break;
+                case INSTANCE_ACQUISITION_TIMEOUT:
+                    StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT.parseAndSetParameter(value, operation, reader);
+                    break;
+                case INSTANCE_ACQUISITION_TIMEOUT_UNIT:
+                    StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.parseAndSetParameter(value, operation, reader);
+                    break;
+                case STRIPED:
+                    StrictMaxPoolResourceDefinition.STRIPED.parseAndSetParameter(value, operation, reader);
+                    break;
+                case MIN_POOL_SIZE:
+                    StrictMaxPoolResourceDefinition.MIN_POOL_SIZE.parseAndSetParameter(value, operation, reader);
+                    break;
+                default:
+                    throw unexpectedAttribute(reader, i);
+            }
+        }
+        requireNoContent(reader);
+        if (poolName == null) {
+            throw missingRequired(reader, Collections.singleton(EJB3SubsystemXMLAttribute.NAME.getLocalName()));
+        }
+        // create and add the operation
+        // create /subsystem=ejb3/strict-max-bean-instance-pool=name:add(...)
+        final PathAddress address = this.getEJB3SubsystemAddress().append(STRICT_MAX_BEAN_INSTANCE_POOL, poolName);
+        operation.get(OP_ADDR).set(address.toModelNode());
+        operations.add(operation);
+    }
+
+    @Override
+    void parseCache(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
+        String name = null;
+        ModelNode operation = Util.createAddOperation();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            requireNoNamespaceAttribute(reader, i);
+            final String value = reader.getAttributeValue(i);
+            switch (EJB3SubsystemXMLAttribute.forName(reader.getAttributeLocalName(i))) {
+                case NAME: {
+                    name = value;
+                    break;
+                }
+                case PASSIVATION_STORE_REF: {
+                    CacheFactoryResourceDefinition.PASSIVATION_STORE.parseAndSetParameter(value, operation, reader);
+                    break;
+                }
+                case ALIASES: {
+                    for (String alias : reader.getListAttributeValue(i)) {
+                        CacheFactoryResourceDefinition.ALIASES.parseAndAddParameterElement(alias, operation, reader);
+                    }
+                    break;
+                }
+                case EXPIRATION_RESOLUTION: {
+                    CacheFactoryResourceDefinition.EXPIRATION_RESOLUTION.parseAndSetParameter(value, operation, reader);
+                    break;
+                }
+                default: {
+                    throw unexpectedAttribute(reader, i);
+                }
+            }
+        }
+        requireNoContent(reader);
+        if (name == null) {
+            throw missingRequired(reader, Collections.singleton(EJB3SubsystemXMLAttribute.NAME.getLocalName()));
+        }
+        final PathAddress address = this.getEJB3SubsystemAddress().append(PathElement.pathElement(CACHE, name));
+        operation.get(OP_ADDR).set(address.toModelNode());
+        operations.add(operation);
+    }
+
+    @Override
+    protected void parseTimerService(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
+        final PathAddress address = this.getEJB3SubsystemAddress().append(EJB3SubsystemModel.TIMER_SERVICE_PATH);
+        final ModelNode timerServiceAdd = Util.createAddOperation(address);
+
+        final int attCount = reader.getAttributeCount();
+        final EnumSet<EJB3SubsystemXMLAttribute> required = EnumSet.of(EJB3SubsystemXMLAttribute.THREAD_POOL_NAME, EJB3SubsystemXMLAttribute.DEFAULT_DATA_STORE);
+        for (int i = 0; i < attCount; i++) {
+            requireNoNamespaceAttribute(reader, i);
+            final String value = reader.getAttributeValue(i);
+            final EJB3SubsystemXMLAttribute attribute = EJB3SubsystemXMLAttribute.forName(reader.getAttributeLocalName(i));
+            required.remove(attribute);
+            switch (attribute) {
+                case THREAD_POOL_NAME: {
+                    TimerServiceResourceDefinition.THREAD_POOL_NAME.parseAndSetParameter(value, timerServiceAdd, reader);
+                    break;
+                }
+                case DEFAULT_DATA_STORE: {
+                    TimerServiceResourceDefinition.DEFAULT_DATA_STORE.parseAndSetParameter(value, timerServiceAdd, reader);
+                    break;
+                }
+                case SCHEDULER_THREAD_COUNT: {
+                    TimerServiceResourceDefinition.SCHEDULER_THREAD_COUNT.parseAndSetParameter(value, timerServiceAdd, reader);
+                    break;
+                }
+                default:
+                    throw unexpectedAttribute(reader, i);
+            }
+        }
+        if (!required.isEmpty()) {
+            throw missingRequired(reader, required);
+        }
+        operations.add(timerServiceAdd);
+
+        while (reader.hasNext() && reader.nextTag() != XMLStreamConstants.END_ELEMENT) {
+            switch (EJB3SubsystemXMLElement.forName(reader.getLocalName())) {
+                case DATA_STORES: {
+                    parseDataStores(reader, operations);
+                    break;
+                }
+                default: {
+                    throw unexpectedElement(reader);
+                }
+            }
+        }
+    }
+
+    @Override
+    void parseFileDataStore(final XMLExtendedStreamReader reader, final List<ModelNode> operations) throws XMLStreamException {
+        String name = null;
+        final ModelNode fileDataStoreAdd = Util.createAddOperation();
+        final EnumSet<EJB3SubsystemXMLAttribute> required = EnumSet.of(EJB3SubsystemXMLAttribute.NAME, EJB3SubsystemXMLAttribute.PATH);
+        final int count = reader.getAttributeCount();
+        for (int i = 0; i < count; i++) {
+            requireNoNamespaceAttribute(reader, i);
+            final String value = reader.getAttributeValue(i);
+            final EJB3SubsystemXMLAttribute attribute = EJB3SubsystemXMLAttribute.forName(reader.getAttributeLocalName(i));
+            required.remove(attribute);
+            switch (attribute) {
+                case NAME:
+                    name = value;
+                    break;
+                case PATH:
+                    FileDataStoreResourceDefinition.PATH.parseAndSetParameter(value, fileDataStoreAdd, reader);
+                    break;
+                case RELATIVE_TO:
+                    FileDataStoreResourceDefinition.RELATIVE_TO.parseAndSetParameter(value, fileDataStoreAdd, reader);
+                    break;
+                case JOURNAL:
+                    FileDataStoreResourceDefinition.JOURNAL.parseAndSetParameter(value, fileDataStoreAdd, reader);
+                    break;
+                default:
+                    throw unexpectedAttribute(reader, i);
+            }
+        }
+        if (!required.isEmpty()) {
+            throw missingRequired(reader, required);
+        }
+        requireNoContent(reader);
+        final PathAddress address = this.getEJB3SubsystemAddress().append(EJB3SubsystemModel.TIMER_SERVICE_PATH).append(EJB3SubsystemModel.FILE_DATA_STORE, name);
+        fileDataStoreAdd.get(OP_ADDR).set(address.toModelNode());
+        operations.add(fileDataStoreAdd);
+    }
+}
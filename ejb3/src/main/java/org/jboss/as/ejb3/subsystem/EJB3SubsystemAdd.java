@@ -49,6 +49,7 @@ import org.jboss.as.controller.RunningMode;
 import org.jboss.as.controller.registry.Resource;
 import org.jboss.as.ejb3.clustering.ClusteredSingletonServiceCreator;
 import org.jboss.as.ejb3.component.EJBUtilities;
+import org.jboss.as.ejb3.component.singleton.SingletonLockMode;
 import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.deployment.processors.AnnotatedEJBComponentDescriptionDeploymentUnitProcessor;
 import org.jboss.as.ejb3.deployment.processors.ApplicationExceptionAnnotationProcessor;
@@ -94,6 +95,7 @@ import org.jboss.as.ejb3.deployment.processors.merging.EjbConcurrencyMergingProc
 import org.jboss.as.ejb3.deployment.processors.merging.EjbDependsOnMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.HomeViewMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.InitMethodMergingProcessor;
+import org.jboss.as.ejb3.deployment.processors.merging.InterceptorChainMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.MdbDeliveryMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.MessageDrivenBeanPoolMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.MethodPermissionsMergingProcessor;
@@ -105,6 +107,7 @@ import org.jboss.as.ejb3.deployment.processors.merging.SecurityDomainMergingProc
 import org.jboss.as.ejb3.deployment.processors.merging.SecurityRolesMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.SessionBeanMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.SessionSynchronizationMergingProcessor;
+import org.jboss.as.ejb3.deployment.processors.merging.SingletonLockMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.StartupMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.StatefulTimeoutMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.StatelessSessionBeanPoolMergingProcessor;
@@ -159,14 +162,18 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
 
     private final EJBDefaultSecurityDomainProcessor defaultSecurityDomainDeploymentProcessor;
     private final MissingMethodPermissionsDenyAccessMergingProcessor missingMethodPermissionsDenyAccessMergingProcessor;
+    private final SingletonLockMergingProcessor singletonLockMergingProcessor;
+    private final InterceptorChainMergingProcessor interceptorChainMergingProcessor;
     private static final String UNDERTOW_HTTP_INVOKER_CAPABILITY_NAME = "org.wildfly.undertow.http-invoker";
     private static final String LEGACY_SECURITY_CAPABILITY_NAME = "org.wildfly.legacy-security.server-security-manager";
 
     private static final String REMOTING_ENDPOINT_CAPABILITY = "org.wildfly.remoting.endpoint";
 
-    EJB3SubsystemAdd(final EJBDefaultSecurityDomainProcessor defaultSecurityDomainDeploymentProcessor, final MissingMethodPermissionsDenyAccessMergingProcessor missingMethodPermissionsDenyAccessMergingProcessor) {
+    EJB3SubsystemAdd(final EJBDefaultSecurityDomainProcessor defaultSecurityDomainDeploymentProcessor, final MissingMethodPermissionsDenyAccessMergingProcessor missingMethodPermissionsDenyAccessMergingProcessor, final SingletonLockMergingProcessor singletonLockMergingProcessor, final InterceptorChainMergingProcessor interceptorChainMergingProcessor) {
         this.defaultSecurityDomainDeploymentProcessor = defaultSecurityDomainDeploymentProcessor;
         this.missingMethodPermissionsDenyAccessMergingProcessor = missingMethodPermissionsDenyAccessMergingProcessor;
+        this.singletonLockMergingProcessor = singletonLockMergingProcessor;
+        this.interceptorChainMergingProcessor = interceptorChainMergingProcessor;
     }
 
     @Override
@@ -265,6 +272,14 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
         final boolean defaultMissingMethodValue = defaultMissingMethod.asBoolean();
         this.missingMethodPermissionsDenyAccessMergingProcessor.setDenyAccessByDefault(defaultMissingMethodValue);
 
+        // set the default lock mode of singleton beans in the deployment unit processor, configured at the subsystem level
+        final ModelNode defaultSingletonLockMode = EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_MODE.resolveModelAttribute(context, model);
+        this.singletonLockMergingProcessor.setDefaultLockMode(SingletonLockMode.fromValue(defaultSingletonLockMode.asString()));
+
+        // set the interceptor chain settings in the deployment unit processor, configured at the subsystem level
+        this.interceptorChainMergingProcessor.setLeanInterceptorChain(EJB3SubsystemRootResourceDefinition.LEAN_INTERCEPTOR_CHAIN.resolveModelAttribute(context, model).asBoolean());
+        this.interceptorChainMergingProcessor.setInterceptorStatisticsEnabled(EJB3SubsystemRootResourceDefinition.INTERCEPTOR_STATISTICS_ENABLED.resolveModelAttribute(context, model).asBoolean());
+
 
         context.addStep(new AbstractDeploymentChainStep() {
             @Override
@@ -315,6 +330,8 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
                     processorTarget.addDeploymentProcessor(EJB3Extension.SUBSYSTEM_NAME, Phase.POST_MODULE, Phase.POST_MODULE_EJB_TRANSACTION_MANAGEMENT, new TransactionManagementMergingProcessor());
                     processorTarget.addDeploymentProcessor(EJB3Extension.SUBSYSTEM_NAME, Phase.POST_MODULE, Phase.POST_MODULE_EJB_CONCURRENCY_MANAGEMENT_MERGE, new ConcurrencyManagementMergingProcessor());
                     processorTarget.addDeploymentProcessor(EJB3Extension.SUBSYSTEM_NAME, Phase.POST_MODULE, Phase.POST_MODULE_EJB_CONCURRENCY_MERGE, new EjbConcurrencyMergingProcessor());
+                    processorTarget.addDeploymentProcessor(EJB3Extension.SUBSYSTEM_NAME, Phase.POST_MODULE, Phase.POST_MODULE_EJB_CONCURRENCY_MERGE + 1, singletonLockMergingProcessor); //TODO: real phase numbers
+                    processorTarget.addDeploymentProcessor(EJB3Extension.SUBSYSTEM_NAME, Phase.POST_MODULE, Phase.POST_MODULE_EJB_CONCURRENCY_MERGE + 2, interceptorChainMergingProcessor); //TODO: real phase numbers
                     processorTarget.addDeploymentProcessor(EJB3Extension.SUBSYSTEM_NAME, Phase.POST_MODULE, Phase.POST_MODULE_EJB_TX_ATTR_MERGE, new TransactionAttributeMergingProcessor());
                     processorTarget.addDeploymentProcessor(EJB3Extension.SUBSYSTEM_NAME, Phase.POST_MODULE, Phase.POST_MODULE_EJB_RUN_AS_MERGE, new RunAsMergingProcessor());
                     processorTarget.addDeploymentProcessor(EJB3Extension.SUBSYSTEM_NAME, Phase.POST_MODULE, Phase.POST_MODULE_EJB_RESOURCE_ADAPTER_MERGE, new ResourceAdaptorMergingProcessor());
@@ -64,15 +64,22 @@ public interface EJB3SubsystemModel {
     String DISCOVERY = "discovery";
     String STATIC = "static";
     String LOG_SYSTEM_EXCEPTIONS = "log-system-exceptions";
+    String LEAN_INTERCEPTOR_CHAIN = "lean-interceptor-chain";
+    String INTERCEPTOR_STATISTICS_ENABLED = "interceptor-statistics-enabled";
 
     String ENABLE_STATISTICS = "enable-statistics";
     String STATISTICS_ENABLED = "statistics-enabled";
 
     String FILE_DATA_STORE = "file-data-store";
+    String JOURNAL = "journal";
 
     String MAX_POOL_SIZE = "max-pool-size";
     String DERIVE_SIZE = "derive-size";
     String DERIVED_SIZE = "derived-size";
+    String MIN_POOL_SIZE = "min-pool-size";
+    String STRIPED = "striped";
+    String EXPIRATION_RESOLUTION = "expiration-resolution";
+    String SCHEDULER_THREAD_COUNT = "scheduler-thread-count";
 
     String STRICT_MAX_BEAN_INSTANCE_POOL = "strict-max-bean-instance-pool";
 
@@ -83,6 +90,7 @@ public interface EJB3SubsystemModel {
     String PATH = "path";
 
     String DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT = "default-singleton-bean-access-timeout";
+    String DEFAULT_SINGLETON_BEAN_LOCK_MODE = "default-singleton-bean-lock-mode";
     String DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT = "default-stateful-bean-access-timeout";
     String DEFAULT_DATA_STORE = "default-data-store";
 
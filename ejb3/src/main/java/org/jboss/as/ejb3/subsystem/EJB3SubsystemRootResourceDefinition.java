@@ -41,14 +41,18 @@ import org.jboss.as.controller.capability.RuntimeCapability;
 import org.jboss.as.controller.operations.common.GenericSubsystemDescribeHandler;
 import org.jboss.as.controller.operations.global.ReadAttributeHandler;
 import org.jboss.as.controller.operations.global.WriteAttributeHandler;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.controller.services.path.PathManager;
+import org.jboss.as.ejb3.component.singleton.SingletonLockMode;
 import org.jboss.as.ejb3.deployment.processors.EJBDefaultSecurityDomainProcessor;
+import org.jboss.as.ejb3.deployment.processors.merging.InterceptorChainMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.MissingMethodPermissionsDenyAccessMergingProcessor;
+import org.jboss.as.ejb3.deployment.processors.merging.SingletonLockMergingProcessor;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.threads.ThreadFactoryResolver;
 import org.jboss.as.threads.ThreadsServices;
@@ -96,6 +100,13 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
                     .setValidator(new LongRangeValidator(1, Integer.MAX_VALUE, true, true))
                     .setFlags(AttributeAccess.Flag.RESTART_NONE)
                     .build();
+    static final SimpleAttributeDefinition DEFAULT_SINGLETON_BEAN_LOCK_MODE =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_LOCK_MODE, ModelType.STRING, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.LOCK_MODE.getLocalName())
+                    .setDefaultValue(new ModelNode(SingletonLockMode.REENTRANT.toString()))
+                    .setAllowExpression(true)
+                    .setValidator(new EnumValidator<>(SingletonLockMode.class, true, true))
+                    .build();
     static final SimpleAttributeDefinition DEFAULT_SFSB_CACHE =
             new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.DEFAULT_SFSB_CACHE, ModelType.STRING, true)
                     .setAllowExpression(true)
@@ -176,6 +187,20 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
             .setAllowExpression(true)
             .build();
 
+    static final SimpleAttributeDefinition LEAN_INTERCEPTOR_CHAIN =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.LEAN_INTERCEPTOR_CHAIN, ModelType.BOOLEAN, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.LEAN.getLocalName())
+                    .setDefaultValue(new ModelNode(false))
+                    .setAllowExpression(true)
+                    .build();
+
+    static final SimpleAttributeDefinition INTERCEPTOR_STATISTICS_ENABLED =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.INTERCEPTOR_STATISTICS_ENABLED, ModelType.BOOLEAN, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.STATISTICS_ENABLED.getLocalName())
+                    .setDefaultValue(new ModelNode(false))
+                    .setAllowExpression(true)
+                    .build();
+
     public static final RuntimeCapability<Void> CLUSTERED_SINGLETON_CAPABILITY =  RuntimeCapability.Builder.of(
             "org.wildfly.ejb3.clustered.singleton", Void.class).build();
 
@@ -191,6 +216,8 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
     private static final EJBDefaultSecurityDomainProcessor defaultSecurityDomainDeploymentProcessor = new EJBDefaultSecurityDomainProcessor(null,
             APPLICATION_SECURITY_DOMAIN.getKnownSecurityDomainFunction(), IDENTITY.getOutflowSecurityDomainsConfiguredSupplier());
     private static final MissingMethodPermissionsDenyAccessMergingProcessor missingMethodPermissionsDenyAccessMergingProcessor = new MissingMethodPermissionsDenyAccessMergingProcessor();
+    private static final SingletonLockMergingProcessor singletonLockMergingProcessor = new SingletonLockMergingProcessor();
+    private static final InterceptorChainMergingProcessor interceptorChainMergingProcessor = new InterceptorChainMergingProcessor();
 
 
     private final boolean registerRuntimeOnly;
@@ -201,7 +228,7 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
     EJB3SubsystemRootResourceDefinition(boolean registerRuntimeOnly, PathManager pathManager) {
         super(PathElement.pathElement(SUBSYSTEM, EJB3Extension.SUBSYSTEM_NAME),
                 EJB3Extension.getResourceDescriptionResolver(EJB3Extension.SUBSYSTEM_NAME),
-                new EJB3SubsystemAdd(defaultSecurityDomainDeploymentProcessor, missingMethodPermissionsDenyAccessMergingProcessor), EJB3SubsystemRemove.INSTANCE,
+                new EJB3SubsystemAdd(defaultSecurityDomainDeploymentProcessor, missingMethodPermissionsDenyAccessMergingProcessor, singletonLockMergingProcessor, interceptorChainMergingProcessor), EJB3SubsystemRemove.INSTANCE,
                 OperationEntry.Flag.RESTART_ALL_SERVICES, OperationEntry.Flag.RESTART_ALL_SERVICES);
         this.registerRuntimeOnly = registerRuntimeOnly;
         this.pathManager = pathManager;
@@ -214,6 +241,7 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
             DEFAULT_RESOURCE_ADAPTER_NAME,
             DEFAULT_SFSB_CACHE,
             DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT,
+            DEFAULT_SINGLETON_BEAN_LOCK_MODE,
             DEFAULT_SLSB_INSTANCE_POOL,
             DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT,
             STATISTICS_ENABLED,
@@ -226,7 +254,9 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
             DISABLE_DEFAULT_EJB_PERMISSIONS,
             ENABLE_GRACEFUL_TXN_SHUTDOWN,
             LOG_EJB_EXCEPTIONS,
-            ALLOW_EJB_NAME_REGEX
+            ALLOW_EJB_NAME_REGEX,
+            LEAN_INTERCEPTOR_CHAIN,
+            INTERCEPTOR_STATISTICS_ENABLED
     };
 
     @Override
@@ -262,6 +292,13 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
         final EJBDefaultMissingMethodPermissionsWriteHandler defaultMissingMethodPermissionsWriteHandler = new EJBDefaultMissingMethodPermissionsWriteHandler(DEFAULT_MISSING_METHOD_PERMISSIONS_DENY_ACCESS, missingMethodPermissionsDenyAccessMergingProcessor);
         resourceRegistration.registerReadWriteAttribute(DEFAULT_MISSING_METHOD_PERMISSIONS_DENY_ACCESS, null, defaultMissingMethodPermissionsWriteHandler);
 
+        final EJBDefaultSingletonLockModeWriteHandler defaultSingletonLockModeWriteHandler = new EJBDefaultSingletonLockModeWriteHandler(DEFAULT_SINGLETON_BEAN_LOCK_MODE, singletonLockMergingProcessor);
+        resourceRegistration.registerReadWriteAttribute(DEFAULT_SINGLETON_BEAN_LOCK_MODE, null, defaultSingletonLockModeWriteHandler);
+
+        final EJBInterceptorChainWriteHandler interceptorChainWriteHandler = new EJBInterceptorChainWriteHandler(interceptorChainMergingProcessor);
+        resourceRegistration.registerReadWriteAttribute(LEAN_INTERCEPTOR_CHAIN, null, interceptorChainWriteHandler);
+        resourceRegistration.registerReadWriteAttribute(INTERCEPTOR_STATISTICS_ENABLED, null, interceptorChainWriteHandler);
+
         resourceRegistration.registerReadWriteAttribute(DISABLE_DEFAULT_EJB_PERMISSIONS, null, new AbstractWriteAttributeHandler<Void>() {
             protected boolean applyUpdateToRuntime(final OperationContext context, final ModelNode operation, final String attributeName, final ModelNode resolvedValue, final ModelNode currentValue, final HandbackHolder<Void> handbackHolder) throws OperationFailedException {
                 if (resolvedValue.asBoolean()) {
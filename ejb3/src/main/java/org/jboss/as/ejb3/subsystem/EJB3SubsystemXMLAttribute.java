@@ -62,14 +62,19 @@ public enum EJB3SubsystemXMLAttribute {
     INSTANCE_ACQUISITION_TIMEOUT("instance-acquisition-timeout"),
     INSTANCE_ACQUISITION_TIMEOUT_UNIT("instance-acquisition-timeout-unit"),
 
+    JOURNAL("journal"),
+
     KEEPALIVE_TIME("keepalive-time"),
 
+    LEAN("lean"),
     LOCAL_RECEIVER_PASS_BY_VALUE("local-receiver-pass-by-value"),
+    LOCK_MODE("lock-mode"),
 
     MAX_POOL_SIZE("max-pool-size"),
     MAX_SIZE("max-size"),
     DERIVE_SIZE("derive-size"),
     MAX_THREADS("max-threads"),
+    MIN_POOL_SIZE("min-pool-size"),
 
     NAME("name"),
 
@@ -87,8 +92,12 @@ public enum EJB3SubsystemXMLAttribute {
     RELATIVE_TO("relative-to"),
     RESOURCE_ADAPTER_NAME("resource-adapter-name"),
 
+    SCHEDULER_THREAD_COUNT("scheduler-thread-count"),
+    STATISTICS_ENABLED("statistics-enabled"),
+
     @Deprecated SESSIONS_PATH("sessions-path"),
     STATIC_URLS("static-urls"),
+    STRIPED("striped"),
     @Deprecated SUBDIRECTORY_COUNT("subdirectory-count"),
 
     THREAD_POOL_NAME("thread-pool-name"),
@@ -101,6 +110,7 @@ public enum EJB3SubsystemXMLAttribute {
     ACTIVE("active"),
 
     EXECUTE_IN_WORKER("execute-in-worker"),
+    EXPIRATION_RESOLUTION("expiration-resolution"),
 
     // Elytron integration
     OUTFLOW_SECURITY_DOMAINS("outflow-security-domains"),
@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemRootResourceDefinition.INTERCEPTOR_STATISTICS_ENABLED;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemRootResourceDefinition.LEAN_INTERCEPTOR_CHAIN;
+
+import org.jboss.as.controller.AbstractWriteAttributeHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.ejb3.deployment.processors.merging.InterceptorChainMergingProcessor;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Write handler for the lean interceptor chain and interceptor statistics attributes
+ */
+class EJBInterceptorChainWriteHandler extends AbstractWriteAttributeHandler<Void> {
+
+    private final InterceptorChainMergingProcessor interceptorChainMergingProcessor;
+
+    EJBInterceptorChainWriteHandler(final InterceptorChainMergingProcessor interceptorChainMergingProcessor) {
+        super(LEAN_INTERCEPTOR_CHAIN, INTERCEPTOR_STATISTICS_ENABLED);
+        this.interceptorChainMergingProcessor = interceptorChainMergingProcessor;
+    }
+
+    @Override
+    protected boolean applyUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                                           ModelNode resolvedValue, ModelNode currentValue, HandbackHolder<Void> handbackHolder) throws OperationFailedException {
+        final ModelNode model = context.readResource(PathAddress.EMPTY_ADDRESS).getModel();
+        updateInterceptorChain(context, model);
+
+        return false;
+    }
+
+    @Override
+    protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                                         ModelNode valueToRestore, ModelNode valueToRevert, Void handback) throws OperationFailedException {
+        final ModelNode restored = context.readResource(PathAddress.EMPTY_ADDRESS).getModel().clone();
+        restored.get(attributeName).set(valueToRestore);
+        updateInterceptorChain(context, restored);
+    }
+
+    void updateInterceptorChain(final OperationContext context, final ModelNode model) throws OperationFailedException {
+        if (this.interceptorChainMergingProcessor == null) {
+            return;
+        }
+        this.interceptorChainMergingProcessor.setLeanInterceptorChain(LEAN_INTERCEPTOR_CHAIN.resolveModelAttribute(context, model).asBoolean());
+        this.interceptorChainMergingProcessor.setInterceptorStatisticsEnabled(INTERCEPTOR_STATISTICS_ENABLED.resolveModelAttribute(context, model).asBoolean());
+    }
+}
@@ -62,6 +62,8 @@ import org.jboss.as.controller.transform.description.RejectAttributeChecker;
 import org.jboss.as.controller.transform.description.ResourceTransformationDescriptionBuilder;
 import org.jboss.as.controller.transform.description.TransformationDescription;
 import org.jboss.as.controller.transform.description.TransformationDescriptionBuilder;
+import org.jboss.as.ejb3.component.pool.StrictMaxPoolConfig;
+import org.jboss.as.ejb3.component.singleton.SingletonLockMode;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.dmr.ModelNode;
 import org.wildfly.clustering.ejb.BeanManagerFactoryBuilderConfiguration;
@@ -74,6 +76,7 @@ public class EJBTransformers implements ExtensionTransformerRegistration {
     private static final ModelVersion VERSION_1_3_0 = ModelVersion.create(1, 3, 0);
     private static final ModelVersion VERSION_3_0_0 = ModelVersion.create(3, 0, 0);
     private static final ModelVersion VERSION_4_0_0 = ModelVersion.create(4, 0, 0);
+    private static final ModelVersion VERSION_5_0_0 = ModelVersion.create(5, 0, 0);
 
     @Override
     public String getSubsystemName() {
@@ -86,6 +89,7 @@ public class EJBTransformers implements ExtensionTransformerRegistration {
         registerTimerTransformers_1_3_0(subsystemRegistration);
         registerTransformers_3_0_0(subsystemRegistration);
         registerTransformers_4_0_0(subsystemRegistration);
+        registerTransformers_5_0_0(subsystemRegistration);
     }
 
     private static void registerTransformers_1_2_1(SubsystemTransformerRegistration subsystemRegistration) {
@@ -135,6 +139,9 @@ public class EJBTransformers implements ExtensionTransformerRegistration {
         registerRemoteTransformers(builder);
         registerMdbDeliveryGroupTransformers(builder);
         registerStrictMaxPoolTransformers(builder);
+        registerCacheTransformers(builder);
+        registerSingletonLockModeTransformers(builder);
+        registerInterceptorChainTransformers(builder);
         registerApplicationSecurityDomainDTransformers(builder);
         registerIdentityTransformers(builder);
         builder.rejectChildResource(PathElement.pathElement(EJB3SubsystemModel.REMOTING_PROFILE));
@@ -162,6 +169,10 @@ public class EJBTransformers implements ExtensionTransformerRegistration {
         registerMdbDeliveryGroupTransformers(builder);
         registerRemoteTransformers(builder);
         registerStrictMaxPoolTransformers(builder);
+        registerCacheTransformers(builder);
+        registerSingletonLockModeTransformers(builder);
+        registerInterceptorChainTransformers(builder);
+        registerTimerServiceTransformers(builder.addChildResource(EJB3SubsystemModel.TIMER_SERVICE_PATH));
         registerApplicationSecurityDomainDTransformers(builder);
         registerIdentityTransformers(builder);
 
@@ -178,6 +189,11 @@ public class EJBTransformers implements ExtensionTransformerRegistration {
         builder.addChildResource(RemotingProfileResourceDefinition.INSTANCE).getAttributeBuilder()
                 .addRejectCheck(RejectAttributeChecker.DEFINED, StaticEJBDiscoveryDefinition.INSTANCE)
                 .end();
+        registerStripedPoolTransformers(builder.addChildResource(PathElement.pathElement(EJB3SubsystemModel.STRICT_MAX_BEAN_INSTANCE_POOL)));
+        registerCacheTransformers(builder);
+        registerSingletonLockModeTransformers(builder);
+        registerInterceptorChainTransformers(builder);
+        registerTimerServiceTransformers(builder.addChildResource(EJB3SubsystemModel.TIMER_SERVICE_PATH));
 
         builder.getAttributeBuilder().setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(false)), EJB3SubsystemRootResourceDefinition.ALLOW_EJB_NAME_REGEX);
         builder.getAttributeBuilder().addRejectCheck(RejectAttributeChecker.DEFINED, EJB3SubsystemRootResourceDefinition.ALLOW_EJB_NAME_REGEX);
@@ -192,6 +208,18 @@ public class EJBTransformers implements ExtensionTransformerRegistration {
         TransformationDescription.Tools.register(builder.build(), subsystemRegistration, VERSION_4_0_0);
     }
 
+    private static void registerTransformers_5_0_0(SubsystemTransformerRegistration subsystemRegistration) {
+        final ResourceTransformationDescriptionBuilder builder = TransformationDescriptionBuilder.Factory.createSubsystemInstance();
+
+        registerStripedPoolTransformers(builder.addChildResource(PathElement.pathElement(EJB3SubsystemModel.STRICT_MAX_BEAN_INSTANCE_POOL)));
+        registerCacheTransformers(builder);
+        registerSingletonLockModeTransformers(builder);
+        registerInterceptorChainTransformers(builder);
+        registerTimerServiceTransformers(builder.addChildResource(EJB3SubsystemModel.TIMER_SERVICE_PATH));
+
+        TransformationDescription.Tools.register(builder.build(), subsystemRegistration, VERSION_5_0_0);
+    }
+
     private static void registerRemoteTransformers(ResourceTransformationDescriptionBuilder parent) {
         ResourceTransformationDescriptionBuilder remoteService = parent.addChildResource(EJB3SubsystemModel.REMOTE_SERVICE_PATH);
         remoteService.getAttributeBuilder()
@@ -210,10 +238,40 @@ public class EJBTransformers implements ExtensionTransformerRegistration {
     }
 
     private static void registerStrictMaxPoolTransformers(ResourceTransformationDescriptionBuilder parent) {
-        parent.addChildResource(PathElement.pathElement(EJB3SubsystemModel.STRICT_MAX_BEAN_INSTANCE_POOL))
-                .getAttributeBuilder()
+        ResourceTransformationDescriptionBuilder strictMaxPool = parent.addChildResource(PathElement.pathElement(EJB3SubsystemModel.STRICT_MAX_BEAN_INSTANCE_POOL));
+        strictMaxPool.getAttributeBuilder()
                 .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(StrictMaxPoolResourceDefinition.DeriveSize.NONE.toString())), DERIVE_SIZE)
                 .addRejectCheck(RejectAttributeChecker.DEFINED, DERIVE_SIZE);
+        registerStripedPoolTransformers(strictMaxPool);
+    }
+
+    private static void registerStripedPoolTransformers(ResourceTransformationDescriptionBuilder strictMaxPool) {
+        strictMaxPool.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(false)), StrictMaxPoolResourceDefinition.STRIPED)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, StrictMaxPoolResourceDefinition.STRIPED)
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(StrictMaxPoolConfig.DEFAULT_MIN_POOL_SIZE)), StrictMaxPoolResourceDefinition.MIN_POOL_SIZE)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, StrictMaxPoolResourceDefinition.MIN_POOL_SIZE)
+                .end();
+    }
+
+    private static void registerCacheTransformers(ResourceTransformationDescriptionBuilder parent) {
+        parent.addChildResource(PathElement.pathElement(EJB3SubsystemModel.CACHE)).getAttributeBuilder()
+                .addRejectCheck(RejectAttributeChecker.DEFINED, CacheFactoryResourceDefinition.EXPIRATION_RESOLUTION)
+                .end();
+    }
+
+    private static void registerSingletonLockModeTransformers(ResourceTransformationDescriptionBuilder builder) {
+        builder.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(SingletonLockMode.REENTRANT.toString())), EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_MODE)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_MODE)
+                .end();
+    }
+
+    private static void registerInterceptorChainTransformers(ResourceTransformationDescriptionBuilder builder) {
+        builder.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(false)), EJB3SubsystemRootResourceDefinition.LEAN_INTERCEPTOR_CHAIN, EJB3SubsystemRootResourceDefinition.INTERCEPTOR_STATISTICS_ENABLED)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, EJB3SubsystemRootResourceDefinition.LEAN_INTERCEPTOR_CHAIN, EJB3SubsystemRootResourceDefinition.INTERCEPTOR_STATISTICS_ENABLED)
+                .end();
     }
 
     private static void registerMdbDeliveryGroupTransformers(ResourceTransformationDescriptionBuilder parent) {
@@ -223,6 +281,7 @@ public class EJBTransformers implements ExtensionTransformerRegistration {
     private static void registerTimerTransformers_1_2_0(ResourceTransformationDescriptionBuilder parent) {
         ResourceTransformationDescriptionBuilder timerService = parent.addChildResource(EJB3SubsystemModel.TIMER_SERVICE_PATH);
         registerDataStoreTransformers(timerService);
+        registerTimerSchedulerTransformers(timerService);
     }
 
     private static void registerDataStoreTransformers(ResourceTransformationDescriptionBuilder timerService) {
@@ -240,6 +299,7 @@ public class EJBTransformers implements ExtensionTransformerRegistration {
                 .inheritResourceAttributeDefinitions()
                 .setCustomOperationTransformer(dataStoreTransformer)
                 .end();
+        registerFileDataStoreTransformers(fileDataStore);
 
     }
 
@@ -250,6 +310,26 @@ public class EJBTransformers implements ExtensionTransformerRegistration {
                         .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(-1)), REFRESH_INTERVAL)
                         .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(true)), ALLOW_EXECUTION)
                         .addRejectCheck(RejectAttributeChecker.DEFINED, REFRESH_INTERVAL, ALLOW_EXECUTION);
+        registerTimerServiceTransformers(timerService);
+    }
+
+    private static void registerTimerServiceTransformers(ResourceTransformationDescriptionBuilder timerService) {
+        registerTimerSchedulerTransformers(timerService);
+        registerFileDataStoreTransformers(timerService.addChildResource(EJB3SubsystemModel.FILE_DATA_STORE_PATH));
+    }
+
+    private static void registerTimerSchedulerTransformers(ResourceTransformationDescriptionBuilder timerService) {
+        timerService.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(TimerServiceResourceDefinition.DEFAULT_SCHEDULER_THREAD_COUNT)), TimerServiceResourceDefinition.SCHEDULER_THREAD_COUNT)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, TimerServiceResourceDefinition.SCHEDULER_THREAD_COUNT)
+                .end();
+    }
+
+    private static void registerFileDataStoreTransformers(ResourceTransformationDescriptionBuilder fileDataStore) {
+        fileDataStore.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(false)), FileDataStoreResourceDefinition.JOURNAL)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, FileDataStoreResourceDefinition.JOURNAL)
+                .end();
     }
 
     private static class DataStoreTransformer implements CombinedTransformer {
@@ -73,8 +73,10 @@ public class StrictMaxPoolAdd extends AbstractAddStepHandler {
         final Derive derive = StrictMaxPoolResourceDefinition.parseDeriveSize(context, strictMaxPoolModel);
         final long timeout = StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT.resolveModelAttribute(context, strictMaxPoolModel).asLong();
         final String unit = StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.resolveModelAttribute(context, strictMaxPoolModel).asString();
+        final boolean striped = StrictMaxPoolResourceDefinition.STRIPED.resolveModelAttribute(context, strictMaxPoolModel).asBoolean();
+        final int minPoolSize = StrictMaxPoolResourceDefinition.MIN_POOL_SIZE.resolveModelAttribute(context, strictMaxPoolModel).asInt();
         // create and install the service
-        final StrictMaxPoolConfigService poolConfigService = new StrictMaxPoolConfigService(poolName, maxPoolSize, derive, timeout, TimeUnit.valueOf(unit));
+        final StrictMaxPoolConfigService poolConfigService = new StrictMaxPoolConfigService(poolName, maxPoolSize, derive, timeout, TimeUnit.valueOf(unit), striped, minPoolSize);
 
 
         final ServiceName serviceName = StrictMaxPoolConfigService.EJB_POOL_CONFIG_BASE_SERVICE_NAME.append(poolName);
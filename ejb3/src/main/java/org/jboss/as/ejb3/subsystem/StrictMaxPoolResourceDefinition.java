@@ -95,6 +95,19 @@ public class StrictMaxPoolResourceDefinition extends SimpleResourceDefinition {
                     .setFlags(AttributeAccess.Flag.RESTART_NONE)
                     .setAllowExpression(true)
                     .build();
+    public static final SimpleAttributeDefinition MIN_POOL_SIZE =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.MIN_POOL_SIZE, ModelType.INT, true)
+                    .setDefaultValue(new ModelNode().set(StrictMaxPoolConfig.DEFAULT_MIN_POOL_SIZE))
+                    .setAllowExpression(true)
+                    .setValidator(new IntRangeValidator(0, Integer.MAX_VALUE, true, true))
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
+    public static final SimpleAttributeDefinition STRIPED =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.STRIPED, ModelType.BOOLEAN, true)
+                    .setDefaultValue(new ModelNode(false))
+                    .setAllowExpression(true)
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
     public static final SimpleAttributeDefinition DERIVED_SIZE =
             new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.DERIVED_SIZE, ModelType.INT, true)
                     .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
@@ -108,6 +121,8 @@ public class StrictMaxPoolResourceDefinition extends SimpleResourceDefinition {
         map.put(DERIVE_SIZE.getName(), DERIVE_SIZE);
         map.put(INSTANCE_ACQUISITION_TIMEOUT.getName(), INSTANCE_ACQUISITION_TIMEOUT);
         map.put(INSTANCE_ACQUISITION_TIMEOUT_UNIT.getName(), INSTANCE_ACQUISITION_TIMEOUT_UNIT);
+        map.put(STRIPED.getName(), STRIPED);
+        map.put(MIN_POOL_SIZE.getName(), MIN_POOL_SIZE);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
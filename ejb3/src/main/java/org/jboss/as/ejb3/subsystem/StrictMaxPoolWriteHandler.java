@@ -79,6 +79,12 @@ class StrictMaxPoolWriteHandler extends AbstractWriteAttributeHandler<Void> {
                 } else if (StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.getName().equals(attributeName)) {
                     String timeoutUnit = StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.resolveModelAttribute(context, model).asString();
                     smpc.setTimeoutUnit(TimeUnit.valueOf(timeoutUnit));
+                } else if (StrictMaxPoolResourceDefinition.STRIPED.getName().equals(attributeName)) {
+                    boolean striped = StrictMaxPoolResourceDefinition.STRIPED.resolveModelAttribute(context, model).asBoolean();
+                    smpc.setStriped(striped);
+                } else if (StrictMaxPoolResourceDefinition.MIN_POOL_SIZE.getName().equals(attributeName)) {
+                    int minPoolSize = StrictMaxPoolResourceDefinition.MIN_POOL_SIZE.resolveModelAttribute(context, model).asInt();
+                    smpc.setMinPoolSize(minPoolSize);
                 }
             }
         }
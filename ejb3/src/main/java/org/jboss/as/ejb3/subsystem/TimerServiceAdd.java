@@ -24,7 +24,10 @@ package org.jboss.as.ejb3.subsystem;
 
 import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
 
-import java.util.Timer;
+import static java.security.AccessController.doPrivileged;
+
+import java.security.PrivilegedAction;
+import java.util.concurrent.ThreadFactory;
 
 import org.jboss.as.controller.AbstractBoottimeAddStepHandler;
 import org.jboss.as.controller.AttributeDefinition;
@@ -34,6 +37,7 @@ import org.jboss.as.ejb3.deployment.processors.AroundTimeoutAnnotationParsingPro
 import org.jboss.as.ejb3.deployment.processors.TimerServiceDeploymentProcessor;
 import org.jboss.as.ejb3.deployment.processors.annotation.TimerServiceAnnotationProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.TimerMethodMergingProcessor;
+import org.jboss.as.ejb3.timerservice.TimerScheduler;
 import org.jboss.as.server.AbstractDeploymentChainStep;
 import org.jboss.as.server.DeploymentProcessorTarget;
 import org.jboss.as.server.deployment.Phase;
@@ -43,6 +47,7 @@ import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.threads.JBossThreadFactory;
 
 /**
  * Adds the timer service
@@ -77,6 +82,7 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
         final String defaultDataStore = TimerServiceResourceDefinition.DEFAULT_DATA_STORE.resolveModelAttribute(context, model).asString();
         final String threadPoolName = TimerServiceResourceDefinition.THREAD_POOL_NAME.resolveModelAttribute(context, model).asString();
         final ServiceName threadPoolServiceName = EJB3SubsystemModel.BASE_THREAD_POOL_SERVICE_NAME.append(threadPoolName);
+        final int schedulerThreadCount = TimerServiceResourceDefinition.SCHEDULER_THREAD_COUNT.resolveModelAttribute(context, model).asInt();
 
         context.addStep(new AbstractDeploymentChainStep() {
             protected void execute(DeploymentProcessorTarget processorTarget) {
@@ -89,29 +95,41 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
             }
         }, OperationContext.Stage.RUNTIME);
 
-        context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME, new TimerValueService())
+        context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME, new TimerSchedulerService(schedulerThreadCount))
                 .install();
 
     }
 
-    private static final class TimerValueService implements Service<Timer> {
+    private static final class TimerSchedulerService implements Service<TimerScheduler> {
+
+        private static final ThreadFactory THREAD_FACTORY = doPrivileged(new PrivilegedAction<JBossThreadFactory>() {
+            @Override
+            public JBossThreadFactory run() {
+                return new JBossThreadFactory(new ThreadGroup(TimerScheduler.class.getSimpleName()), Boolean.FALSE, null, "%G - %t", null, null);
+            }
+        });
 
-        private Timer timer;
+        private final int threads;
+        private TimerScheduler scheduler;
+
+        TimerSchedulerService(int threads) {
+            this.threads = threads;
+        }
 
         @Override
         public synchronized void start(final StartContext context) throws StartException {
-            timer = new Timer();
+            scheduler = new TimerScheduler(threads, THREAD_FACTORY);
         }
 
         @Override
         public synchronized void stop(final StopContext context) {
-            timer.cancel();
-            timer = null;
+            scheduler.shutdown();
+            scheduler = null;
         }
 
         @Override
-        public synchronized Timer getValue() throws IllegalStateException, IllegalArgumentException {
-            return timer;
+        public synchronized TimerScheduler getValue() throws IllegalStateException, IllegalArgumentException {
+            return scheduler;
         }
     }
 }
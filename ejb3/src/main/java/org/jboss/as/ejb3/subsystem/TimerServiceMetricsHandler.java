@@ -0,0 +1,58 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.subsystem;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.ejb3.deployment.processors.TimerServiceDeploymentProcessor;
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.timerservice.TimerScheduler;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
+
+/**
+ * Reads the metrics of the {@link TimerScheduler} of the timer service.
+ */
+public class TimerServiceMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+    @Override
+    protected void executeRuntimeStep(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+        final String name = operation.require(ModelDescriptionConstants.NAME).asString();
+        final ServiceName serviceName = TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME;
+        final ServiceController<?> controller = context.getServiceRegistry(false).getService(serviceName);
+        final TimerScheduler scheduler = (controller != null) && (controller.getState() == ServiceController.State.UP) ? (TimerScheduler) controller.getValue() : null;
+        if (scheduler == null) {
+            throw EjbLogger.ROOT_LOGGER.cannotReadTimerServiceMetric(serviceName);
+        }
+        if (TimerServiceResourceDefinition.TIMEOUT_COUNT.getName().equals(name)) {
+            context.getResult().set(scheduler.getTimeoutCount());
+        } else if (TimerServiceResourceDefinition.AVERAGE_TIMEOUT_LAG.getName().equals(name)) {
+            context.getResult().set(scheduler.getAverageLag());
+        } else if (TimerServiceResourceDefinition.MAX_TIMEOUT_LAG.getName().equals(name)) {
+            context.getResult().set(scheduler.getMaxLag());
+        }
+    }
+}
@@ -32,10 +32,13 @@ import org.jboss.as.controller.ReloadRequiredWriteAttributeHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.controller.services.path.PathManager;
+import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
 /**
@@ -57,6 +60,36 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                     //.setDefaultValue(new ModelNode("default-file-store")) //for backward compatibility!
                     .build();
 
+    static final int DEFAULT_SCHEDULER_THREAD_COUNT = 2;
+
+    static final SimpleAttributeDefinition SCHEDULER_THREAD_COUNT =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.SCHEDULER_THREAD_COUNT, ModelType.INT, true)
+                    .setAllowExpression(true)
+                    .setDefaultValue(new ModelNode(DEFAULT_SCHEDULER_THREAD_COUNT))
+                    .setValidator(new IntRangeValidator(1, Integer.MAX_VALUE, true, true))
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
+    static final SimpleAttributeDefinition TIMEOUT_COUNT =
+            new SimpleAttributeDefinitionBuilder("timeout-count", ModelType.LONG)
+                    .setUndefinedMetricValue(new ModelNode(0L))
+                    .setStorageRuntime()
+                    .build();
+
+    static final SimpleAttributeDefinition AVERAGE_TIMEOUT_LAG =
+            new SimpleAttributeDefinitionBuilder("average-timeout-lag", ModelType.LONG)
+                    .setUndefinedMetricValue(new ModelNode(0L))
+                    .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+                    .setStorageRuntime()
+                    .build();
+
+    static final SimpleAttributeDefinition MAX_TIMEOUT_LAG =
+            new SimpleAttributeDefinitionBuilder("max-timeout-lag", ModelType.LONG)
+                    .setUndefinedMetricValue(new ModelNode(0L))
+                    .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+                    .setStorageRuntime()
+                    .build();
+
     public static final Map<String, AttributeDefinition> ATTRIBUTES ;
 
     private final PathManager pathManager;
@@ -65,6 +98,7 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
         Map<String, AttributeDefinition> map = new LinkedHashMap<String, AttributeDefinition>();
         map.put(THREAD_POOL_NAME.getName(), THREAD_POOL_NAME);
         map.put(DEFAULT_DATA_STORE.getName(), DEFAULT_DATA_STORE);
+        map.put(SCHEDULER_THREAD_COUNT.getName(), SCHEDULER_THREAD_COUNT);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
@@ -83,6 +117,12 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
         for (AttributeDefinition attr : ATTRIBUTES.values()) {
             resourceRegistration.registerReadWriteAttribute(attr, null, new ReloadRequiredWriteAttributeHandler(attr));
         }
+        if (resourceRegistration.getProcessType().isServer()) {
+            TimerServiceMetricsHandler handler = new TimerServiceMetricsHandler();
+            for (AttributeDefinition metric : new AttributeDefinition[] { TIMEOUT_COUNT, AVERAGE_TIMEOUT_LAG, MAX_TIMEOUT_LAG }) {
+                resourceRegistration.registerMetric(metric, handler);
+            }
+        }
     }
 
     @Override
@@ -34,10 +34,12 @@ import org.jboss.as.controller.PrimitiveListAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.ejb3.component.EJBComponent;
+import org.jboss.as.ejb3.component.invocationmetrics.InterceptorMetrics;
 import org.jboss.as.ejb3.component.invocationmetrics.InvocationMetrics;
 import org.jboss.as.ejb3.component.stateful.StatefulSessionComponent;
 import org.jboss.as.ejb3.subsystem.EJB3Extension;
@@ -80,7 +82,26 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
 
-    private static final AttributeDefinition METHODS = ObjectTypeAttributeDefinition.Builder.of("methods", EXECUTION_TIME, INVOCATIONS, WAIT_TIME)
+    // Percentiles of execution and wait time, in the order of InvocationMetrics.QUANTILES
+    private static final String[] PERCENTILES = { "p50", "p99", "p999" };
+
+    private static final AttributeDefinition[] EXECUTION_TIME_PERCENTILES = createPercentileAttributes("execution-time");
+
+    private static final AttributeDefinition[] WAIT_TIME_PERCENTILES = createPercentileAttributes("wait-time");
+
+    private static final AttributeDefinition METHODS = ObjectTypeAttributeDefinition.Builder.of("methods", EXECUTION_TIME, INVOCATIONS, WAIT_TIME,
+            EXECUTION_TIME_PERCENTILES[0], EXECUTION_TIME_PERCENTILES[1], EXECUTION_TIME_PERCENTILES[2],
+            WAIT_TIME_PERCENTILES[0], WAIT_TIME_PERCENTILES[1], WAIT_TIME_PERCENTILES[2])
+            .setRequired(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition ALLOCATED_BYTES = new SimpleAttributeDefinitionBuilder("allocated-bytes", ModelType.LONG)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition INTERCEPTORS = ObjectTypeAttributeDefinition.Builder.of("interceptors", ALLOCATED_BYTES, EXECUTION_TIME, INVOCATIONS)
             .setRequired(false)
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
@@ -112,6 +133,31 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
 
+    private static final AttributeDefinition EXPIRATION_SCHEDULED_COUNT = new SimpleAttributeDefinitionBuilder("expiration-scheduled-count", ModelType.LONG)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition EXPIRED_COUNT = new SimpleAttributeDefinitionBuilder("expired-count", ModelType.LONG)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition PASSIVATION_QUEUE_DEPTH = new SimpleAttributeDefinitionBuilder("passivation-queue-depth", ModelType.LONG)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition MEAN_PASSIVATION_LATENCY = new SimpleAttributeDefinitionBuilder("mean-passivation-latency", ModelType.LONG)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition MAX_PASSIVATION_LATENCY = new SimpleAttributeDefinitionBuilder("max-passivation-latency", ModelType.LONG)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
     // Pool attributes
 
     public static final SimpleAttributeDefinition POOL_AVAILABLE_COUNT = new SimpleAttributeDefinitionBuilder("pool-available-count", ModelType.INT, false)
@@ -130,6 +176,18 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
 
     private final EJBComponentType componentType;
 
+    private static AttributeDefinition[] createPercentileAttributes(final String name) {
+        final AttributeDefinition[] attributes = new AttributeDefinition[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; ++i) {
+            attributes[i] = new SimpleAttributeDefinitionBuilder(name + "-" + PERCENTILES[i], ModelType.LONG)
+                    .setUndefinedMetricValue(new ModelNode(0))
+                    .setMeasurementUnit(MeasurementUnit.MICROSECONDS)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+        }
+        return attributes;
+    }
+
     public AbstractEJBComponentResourceDefinition(final EJBComponentType componentType) {
         super(PathElement.pathElement(componentType.getResourceType()),
                 EJB3Extension.getResourceDescriptionResolver(componentType.getResourceType()));
@@ -175,6 +233,36 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
                     context.getResult().set(((StatefulSessionComponent)component).getCache().getTotalSize());
                 }
             });
+            resourceRegistration.registerMetric(EXPIRATION_SCHEDULED_COUNT, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().set(((StatefulSessionComponent)component).getCache().getExpirationScheduledCount());
+                }
+            });
+            resourceRegistration.registerMetric(EXPIRED_COUNT, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().set(((StatefulSessionComponent)component).getCache().getExpiredCount());
+                }
+            });
+            resourceRegistration.registerMetric(PASSIVATION_QUEUE_DEPTH, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().set(((StatefulSessionComponent)component).getCache().getPassivationQueueDepth());
+                }
+            });
+            resourceRegistration.registerMetric(MEAN_PASSIVATION_LATENCY, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().set(((StatefulSessionComponent)component).getCache().getMeanPassivationLatency());
+                }
+            });
+            resourceRegistration.registerMetric(MAX_PASSIVATION_LATENCY, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().set(((StatefulSessionComponent)component).getCache().getMaxPassivationLatency());
+                }
+            });
         }
 
         resourceRegistration.registerMetric(EXECUTION_TIME, new AbstractRuntimeMetricsHandler() {
@@ -201,6 +289,21 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
                 context.getResult().set(component.getInvocationMetrics().getWaitTime());
             }
         });
+        for (int i = 0; i < PERCENTILES.length; ++i) {
+            final int index = i;
+            resourceRegistration.registerMetric(EXECUTION_TIME_PERCENTILES[index], new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().set(component.getInvocationMetrics().getExecutionTimePercentiles()[index]);
+                }
+            });
+            resourceRegistration.registerMetric(WAIT_TIME_PERCENTILES[index], new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().set(component.getInvocationMetrics().getWaitTimePercentiles()[index]);
+                }
+            });
+        }
         resourceRegistration.registerMetric(METHODS, new AbstractRuntimeMetricsHandler() {
             @Override
             protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
@@ -211,6 +314,30 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
                     result.get("execution-time").set(values.getExecutionTime());
                     result.get("invocations").set(values.getInvocations());
                     result.get("wait-time").set(values.getWaitTime());
+                    final long[] executionTimePercentiles = values.getExecutionTimePercentiles();
+                    final long[] waitTimePercentiles = values.getWaitTimePercentiles();
+                    for (int i = 0; i < PERCENTILES.length; ++i) {
+                        result.get(EXECUTION_TIME_PERCENTILES[i].getName()).set(executionTimePercentiles[i]);
+                        result.get(WAIT_TIME_PERCENTILES[i].getName()).set(waitTimePercentiles[i]);
+                    }
+                    context.getResult().get(entry.getKey()).set(result);
+                }
+            }
+        });
+        resourceRegistration.registerMetric(INTERCEPTORS, new AbstractRuntimeMetricsHandler() {
+            @Override
+            protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                final InterceptorMetrics metrics = component.getInterceptorMetrics();
+                if (metrics == null) {
+                    return;
+                }
+                context.getResult().setEmptyObject();
+                for (final Map.Entry<String, InterceptorMetrics.Values> entry : metrics.getInterceptors().entrySet()) {
+                    final InterceptorMetrics.Values values = entry.getValue();
+                    final ModelNode result = new ModelNode();
+                    result.get("allocated-bytes").set(values.getAllocatedBytes());
+                    result.get("execution-time").set(values.getExecutionTime());
+                    result.get("invocations").set(values.getInvocations());
                     context.getResult().get(entry.getKey()).set(result);
                 }
             }
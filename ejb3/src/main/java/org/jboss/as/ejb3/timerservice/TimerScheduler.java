@@ -0,0 +1,200 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+
+/**
+ * Schedules the timeouts of the EJB timer service, replacing a single {@link java.util.Timer}.
+ * Tasks are distributed across a number of single-threaded shards, each ordering its tasks by fire time.
+ * All tasks of a given owner (e.g. a deployment) are assigned to the same shard, so that an owner with slow or numerous
+ * tasks can only delay the timeouts of owners sharing its shard, rather than those of the whole server.
+ * Each execution records its lag, i.e. the difference between its scheduled and actual fire time.
+ */
+public class TimerScheduler {
+
+    private final ScheduledThreadPoolExecutor[] shards;
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder totalLag = new LongAdder();
+    private final AtomicLong maxLag = new AtomicLong();
+
+    /**
+     * Creates a new timer scheduler.
+     * @param threads the number of shards, each of which uses a single thread
+     * @param factory the factory for shard threads
+     */
+    public TimerScheduler(int threads, ThreadFactory factory) {
+        this.shards = new ScheduledThreadPoolExecutor[threads];
+        for (int i = 0; i < threads; ++i) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, factory);
+            // Cancelled timers must not accumulate in the queue until their fire time
+            executor.setRemoveOnCancelPolicy(true);
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            executor.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+            this.shards[i] = executor;
+        }
+    }
+
+    /**
+     * Schedules a single action task.
+     * @param owner the owner of the task, which determines its shard
+     * @param task the task
+     * @param delay the delay in milliseconds
+     * @return a future via which the task can be cancelled
+     */
+    public ScheduledFuture<?> schedule(Object owner, Runnable task, long delay) {
+        return this.shard(owner).schedule(new MeasuredTask(task, delay, 0), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules a repeating task at a fixed rate, consistent with {@link java.util.Timer#scheduleAtFixedRate(java.util.TimerTask, long, long)}.
+     * @param owner the owner of the task, which determines its shard
+     * @param task the task
+     * @param delay the initial delay in milliseconds
+     * @param period the period in milliseconds
+     * @return a future via which the task can be cancelled
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(Object owner, Runnable task, long delay, long period) {
+        return this.shard(owner).scheduleAtFixedRate(new MeasuredTask(task, delay, period), delay, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules a repeating task with a fixed delay, consistent with {@link java.util.Timer#schedule(java.util.TimerTask, long, long)}.
+     * @param owner the owner of the task, which determines its shard
+     * @param task the task
+     * @param delay the initial delay in milliseconds
+     * @param period the delay between the end of one execution and the start of the next, in milliseconds
+     * @return a future via which the task can be cancelled
+     */
+    public ScheduledFuture<?> scheduleWithFixedDelay(Object owner, Runnable task, long delay, long period) {
+        return this.shard(owner).scheduleWithFixedDelay(new MeasuredTask(task, delay, -period), delay, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels all scheduled tasks and stops all shard threads.
+     */
+    public void shutdown() {
+        for (ScheduledThreadPoolExecutor shard : this.shards) {
+            shard.shutdownNow();
+        }
+    }
+
+    public int getThreadCount() {
+        return this.shards.length;
+    }
+
+    /**
+     * @return the number of tasks awaiting execution across all shards
+     */
+    public int getScheduledCount() {
+        int count = 0;
+        for (ScheduledThreadPoolExecutor shard : this.shards) {
+            count += shard.getQueue().size();
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of task executions
+     */
+    public long getTimeoutCount() {
+        return this.timeoutCount.sum();
+    }
+
+    /**
+     * @return the average difference, in milliseconds, between the scheduled and actual fire time of a task
+     */
+    public long getAverageLag() {
+        long count = this.timeoutCount.sum();
+        return (count > 0) ? this.totalLag.sum() / count : 0L;
+    }
+
+    /**
+     * @return the maximum difference, in milliseconds, between the scheduled and actual fire time of a task
+     */
+    public long getMaxLag() {
+        return this.maxLag.get();
+    }
+
+    private ScheduledThreadPoolExecutor shard(Object owner) {
+        if (this.shards.length == 1) return this.shards[0];
+        int hash = (owner != null) ? owner.hashCode() : 0;
+        // Spread the hash, since owners are typically strings with similar prefixes
+        hash ^= (hash >>> 16);
+        return this.shards[Math.floorMod(hash, this.shards.length)];
+    }
+
+    void recordLag(long lag) {
+        this.timeoutCount.increment();
+        this.totalLag.add(lag);
+        long max = this.maxLag.get();
+        while ((lag > max) && !this.maxLag.compareAndSet(max, lag)) {
+            max = this.maxLag.get();
+        }
+    }
+
+    /**
+     * Decorates a task with lag measurement, and ensures that failures do not suppress subsequent executions of a repeating task.
+     */
+    private class MeasuredTask implements Runnable {
+        private final Runnable task;
+        // > 0 for fixed rate, < 0 for fixed delay, 0 for single action
+        private final long period;
+        // Only accessed by the shard thread, following construction
+        private long fireTime;
+
+        MeasuredTask(Runnable task, long delay, long period) {
+            this.task = task;
+            this.period = period;
+            this.fireTime = System.currentTimeMillis() + Math.max(delay, 0L);
+        }
+
+        @Override
+        public void run() {
+            long start = System.currentTimeMillis();
+            TimerScheduler.this.recordLag(Math.max(start - this.fireTime, 0L));
+            try {
+                this.task.run();
+            } catch (RuntimeException e) {
+                EjbLogger.EJB3_TIMER_LOGGER.timerSchedulerTaskFailed(this.task, e);
+            } finally {
+                if (this.period > 0) {
+                    this.fireTime += this.period;
+                } else if (this.period < 0) {
+                    this.fireTime = System.currentTimeMillis() - this.period;
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return this.task.toString();
+        }
+    }
+}
@@ -36,7 +36,10 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.ejb.EJBException;
 import javax.ejb.ScheduleExpression;
@@ -100,7 +103,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
 
     private final InjectedValue<ExecutorService> executorServiceInjectedValue = new InjectedValue<ExecutorService>();
 
-    private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
+    private final InjectedValue<TimerScheduler> timerInjectedValue = new InjectedValue<TimerScheduler>();
 
     private final InjectedValue<TimedObjectInvoker> timedObjectInvoker = new InjectedValue<TimedObjectInvoker>();
 
@@ -122,7 +125,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
     /**
      * Holds the {@link java.util.concurrent.Future} of each of the timer tasks that have been scheduled
      */
-    private final Map<String, java.util.TimerTask> scheduledTimerFutures = new HashMap<String, java.util.TimerTask>();
+    private final ConcurrentMap<String, Task> scheduledTimerFutures = new ConcurrentHashMap<String, Task>();
 
     /**
      * Key that is used to store timers that are waiting on transaction completion in the transaction local
@@ -850,16 +853,17 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
      * Creates and schedules a {@link TimerTask} for the next timeout of the passed <code>timer</code>
      */
     protected void scheduleTimeout(TimerImpl timer, boolean newTimer) {
-        synchronized (scheduledTimerFutures) {
-            if (!newTimer && !scheduledTimerFutures.containsKey(timer.getId())) {
+        // Only serializes scheduling of the same timer, rather than of all timers of this timer service
+        this.scheduledTimerFutures.compute(timer.getId(), (id, existing) -> {
+            if (!newTimer && existing == null) {
                 //this timer has been cancelled by another thread. We just return
-                return;
+                return null;
             }
 
             Date nextExpiration = timer.getNextExpiration();
             if (nextExpiration == null) {
                 EJB3_TIMER_LOGGER.nextExpirationIsNull(timer);
-                return;
+                return existing;
             }
             // create the timer task
             final TimerTask<?> timerTask = timer.getTimerTask();
@@ -870,23 +874,23 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
                 delay = 0;
             }
             long intervalDuration = timer.getInterval();
-            final Task task = new Task(timerTask, ejbComponentInjectedValue.getValue().getControlPoint());
+            final EJBComponent component = ejbComponentInjectedValue.getValue();
+            final Task task = new Task(timerTask, component.getControlPoint());
+            // timers of the same deployment share a scheduler thread
+            final String deployment = component.getApplicationName() + "/" + component.getModuleName() + "/" + component.getDistinctName();
             if (intervalDuration > 0) {
                 EJB3_TIMER_LOGGER.debugv("Scheduling timer {0} at fixed rate, starting at {1} milliseconds from now with repeated interval={2}",
                         timer, delay, intervalDuration);
                 // schedule the task
-                this.timerInjectedValue.getValue().scheduleAtFixedRate(task, delay, intervalDuration);
-                // maintain it in timerservice for future use (like cancellation)
-                this.scheduledTimerFutures.put(timer.getId(), task);
+                task.setFuture(this.timerInjectedValue.getValue().scheduleAtFixedRate(deployment, task, delay, intervalDuration));
             } else {
                 EJB3_TIMER_LOGGER.debugv("Scheduling a single action timer {0} starting at {1} milliseconds from now", timer, delay);
                 // schedule the task
-                this.timerInjectedValue.getValue().schedule(task, delay);
-                // maintain it in timerservice for future use (like cancellation)
-                this.scheduledTimerFutures.put(timer.getId(), task);
-
+                task.setFuture(this.timerInjectedValue.getValue().schedule(deployment, task, delay));
             }
-        }
+            // maintain it in timerservice for future use (like cancellation)
+            return task;
+        });
     }
 
     /**
@@ -895,18 +899,14 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
      * @param timer
      */
     protected void cancelTimeout(final TimerImpl timer) {
-        synchronized (this.scheduledTimerFutures) {
-            java.util.TimerTask timerTask = this.scheduledTimerFutures.remove(timer.getId());
-            if (timerTask != null) {
-                timerTask.cancel();
-            }
+        Task task = this.scheduledTimerFutures.remove(timer.getId());
+        if (task != null) {
+            task.cancel();
         }
     }
 
     public boolean isScheduled(final String tid){
-        synchronized (this.scheduledTimerFutures) {
-            return this.scheduledTimerFutures.containsKey(tid);
-        }
+        return this.scheduledTimerFutures.containsKey(tid);
     }
 
     /**
@@ -1061,7 +1061,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         return executorServiceInjectedValue;
     }
 
-    public InjectedValue<java.util.Timer> getTimerInjectedValue() {
+    public InjectedValue<TimerScheduler> getTimerInjectedValue() {
         return timerInjectedValue;
     }
 
@@ -1180,10 +1180,11 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         }
     }
 
-    private class Task extends java.util.TimerTask {
+    private class Task implements Runnable {
 
         private final TimerTask<?> delegate;
         private final ControlPoint controlPoint;
+        private volatile Future<?> future;
         /**
          * This is true if a task is queued up to be run by the request controller,
          * used to stop timer tasks banking up when the container is suspended.
@@ -1216,10 +1217,14 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
             }
         }
 
-        @Override
+        void setFuture(Future<?> future) {
+            this.future = future;
+        }
+
         public boolean cancel() {
             delegate.cancel();
-            return super.cancel();
+            Future<?> future = this.future;
+            return (future != null) && future.cancel(false);
         }
     }
 
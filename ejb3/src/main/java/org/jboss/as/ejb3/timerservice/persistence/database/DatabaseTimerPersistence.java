@@ -49,8 +49,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.sql.DataSource;
@@ -64,6 +65,7 @@ import javax.transaction.TransactionManager;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.timerservice.CalendarTimer;
 import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerScheduler;
 import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
 import org.jboss.as.ejb3.timerservice.TimerState;
 import org.jboss.as.ejb3.timerservice.persistence.TimeoutMethod;
@@ -101,9 +103,10 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private final InjectedValue<ModuleLoader> moduleLoader = new InjectedValue<ModuleLoader>();
     private final Map<String, TimerChangeListener> changeListeners = Collections.synchronizedMap(new HashMap<String, TimerChangeListener>());
 
-    private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
+    private final InjectedValue<TimerScheduler> timerInjectedValue = new InjectedValue<TimerScheduler>();
 
-    private final Map<String, Set<String>> knownTimerIds = new HashMap<>();
+    /** Ids of the timers known to this node, by timed object. Each id set also serves as the lock for its timed object */
+    private final ConcurrentMap<String, Set<String>> knownTimerIds = new ConcurrentHashMap<>();
 
     /** Identifier for the database dialect to be used for the timer-sql.properties */
     private String database;
@@ -122,7 +125,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private volatile Properties sql;
     private MarshallerFactory factory;
     private MarshallingConfiguration configuration;
-    private RefreshTask refreshTask;
+    private ScheduledFuture<?> refreshTask;
 
     /** Names for the different SQL commands stored in the properties*/
     private static final String CREATE_TABLE = "create-table";
@@ -130,6 +133,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private static final String UPDATE_TIMER = "update-timer";
     private static final String LOAD_ALL_TIMERS = "load-all-timers";
     private static final String LOAD_TIMER = "load-timer";
+    private static final String LOAD_TIMER_IDS = "load-timer-ids";
     private static final String DELETE_TIMER = "delete-timer";
     private static final String UPDATE_RUNNING = "update-running";
     /** The format for scheduler start and end date*/
@@ -164,16 +168,19 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         extractDialects();
         investigateDialect();
         checkDatabase();
+        if (sql(LOAD_TIMER_IDS) == null) {
+            EjbLogger.EJB3_TIMER_LOGGER.debugf("No '%s' statement in timer-sql.properties, timers will be refreshed using '%s'", LOAD_TIMER_IDS, LOAD_ALL_TIMERS);
+        }
         if (refreshInterval > 0) {
-            refreshTask = new RefreshTask();
-            timerInjectedValue.getValue().schedule(refreshTask, refreshInterval, refreshInterval);
+            refreshTask = timerInjectedValue.getValue().scheduleWithFixedDelay(this, new RefreshTask(), refreshInterval, refreshInterval);
         }
     }
 
     @Override
-    public synchronized void stop(final StopContext context) {
+    public void stop(final StopContext context) {
         if (refreshTask != null) {
-            refreshTask.cancel();
+            refreshTask.cancel(false);
+            refreshTask = null;
         }
         knownTimerIds.clear();
         managedReference.release();
@@ -325,9 +332,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         PreparedStatement statement = null;
         ResultSet resultSet = null;
         try {
-            synchronized (this) {
-                knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
-            }
+            addKnownTimerId(timerEntity.getTimedObjectId(), timerEntity.getId());
             connection = dataSource.getConnection();
             statement = connection.prepareStatement(createTimer);
             statementParameters(timerEntity, statement);
@@ -352,28 +357,14 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
                     timerEntity.getState() == TimerState.EXPIRED) {
                 String deleteTimer = sql(DELETE_TIMER);
                 statement = connection.prepareStatement(deleteTimer);
-                statement.setString(1, timerEntity.getTimedObjectId());
-                statement.setString(2, timerEntity.getId());
-                statement.setString(3, partition);
+                deleteStatementParameters(timerEntity.getTimedObjectId(), timerEntity.getId(), statement);
                 statement.execute();
-                synchronized (this) {
-                    knownTimerIds.get(timerEntity.getTimedObjectId()).remove(timerEntity.getId());
-                }
+                removeKnownTimerId(timerEntity.getTimedObjectId(), timerEntity.getId());
             } else {
-                synchronized (this) {
-                    knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
-                }
+                addKnownTimerId(timerEntity.getTimedObjectId(), timerEntity.getId());
                 String updateTimer = sql(UPDATE_TIMER);
                 statement = connection.prepareStatement(updateTimer);
-                statement.setTimestamp(1, timestamp(timerEntity.getNextExpiration()));
-                statement.setTimestamp(2, timestamp(timerEntity.getPreviousRun()));
-                statement.setString(3, timerEntity.getState().name());
-                setNodeName(timerEntity.getState(), statement, 4);
-                // WHERE CLAUSE
-                statement.setString(5, timerEntity.getTimedObjectId());
-                statement.setString(6, timerEntity.getId());
-                statement.setString(7, partition);
-                statement.setString(8, nodeName);   // only persist if this node or empty
+                updateStatementParameters(timerEntity, statement);
                 statement.execute();
             }
         } catch (SQLException e) {
@@ -438,7 +429,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     }
 
     @Override
-    public synchronized void timerUndeployed(final String timedObjectId) {
+    public void timerUndeployed(final String timedObjectId) {
         knownTimerIds.remove(timedObjectId);
     }
 
@@ -455,41 +446,68 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
             statement.setString(2, partition);
             resultSet = statement.executeQuery();
             final List<Holder> timers = new ArrayList<>();
+            // timers which can no longer be reinstated, as well as timers left in timeout by this node, are
+            // written back in batches rather than with a round trip per timer
+            final List<String> unreadable = new ArrayList<>();
             while (resultSet.next()) {
                 try {
                     final Holder timerImpl = timerFromResult(resultSet, timerService);
                     if (timerImpl != null) {
                         timers.add(timerImpl);
                     } else {
-                        final String deleteTimer = sql(DELETE_TIMER);
-                        try (PreparedStatement deleteStatement = connection.prepareStatement(deleteTimer)) {
-                            deleteStatement.setString(1, resultSet.getString(2));
-                            deleteStatement.setString(2, resultSet.getString(1));
-                            deleteStatement.setString(3, partition);
-                            deleteStatement.execute();
-                        }
+                        unreadable.add(resultSet.getString(1));
                     }
                 } catch (Exception e) {
                     EjbLogger.EJB3_TIMER_LOGGER.timerReinstatementFailed(resultSet.getString(2), resultSet.getString(1), e);
                 }
             }
-            synchronized (this) {
-                Set<String> ids = new HashSet<>();
+            if (!unreadable.isEmpty()) {
+                try (PreparedStatement deleteStatement = connection.prepareStatement(sql(DELETE_TIMER))) {
+                    for (String id : unreadable) {
+                        deleteStatementParameters(timedObjectId, id, deleteStatement);
+                        deleteStatement.addBatch();
+                    }
+                    deleteStatement.executeBatch();
+                }
+            }
+            final Set<String> ids = ConcurrentHashMap.newKeySet();
+            synchronized (ids) {
                 for (Holder timer : timers) {
                     ids.add(timer.timer.getId());
                 }
                 knownTimerIds.put(timedObjectId, ids);
-                for(Holder timer : timers) {
-                    if(timer.requiresReset) {
+                final List<TimerImpl> reset = new ArrayList<>();
+                final List<TimerImpl> canceled = new ArrayList<>();
+                for (Holder timer : timers) {
+                    if (timer.requiresReset) {
                         TimerImpl ret = timer.timer;
                         EjbLogger.DEPLOYMENT_LOGGER.loadedPersistentTimerInTimeout(ret.getId(), ret.getTimedObjectId());
-                        if(ret.getNextExpiration() == null) {
+                        if (ret.getNextExpiration() == null) {
                             ret.setTimerState(TimerState.CANCELED);
-                            persistTimer(ret);
+                            canceled.add(ret);
                         } else {
                             ret.setTimerState(TimerState.ACTIVE);
-                            persistTimer(ret);
+                            reset.add(ret);
+                        }
+                    }
+                }
+                if (!reset.isEmpty()) {
+                    try (PreparedStatement updateStatement = connection.prepareStatement(sql(UPDATE_TIMER))) {
+                        for (TimerImpl timer : reset) {
+                            updateStatementParameters(timer, updateStatement);
+                            updateStatement.addBatch();
+                        }
+                        updateStatement.executeBatch();
+                    }
+                }
+                if (!canceled.isEmpty()) {
+                    try (PreparedStatement deleteStatement = connection.prepareStatement(sql(DELETE_TIMER))) {
+                        for (TimerImpl timer : canceled) {
+                            deleteStatementParameters(timedObjectId, timer.getId(), deleteStatement);
+                            deleteStatement.addBatch();
+                            ids.remove(timer.getId());
                         }
+                        deleteStatement.executeBatch();
                     }
                 }
             }
@@ -648,6 +666,45 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         setNodeName(timerEntity.getState(), statement, 26);
     }
 
+    private void updateStatementParameters(final TimerImpl timerEntity, final PreparedStatement statement) throws SQLException {
+        statement.setTimestamp(1, timestamp(timerEntity.getNextExpiration()));
+        statement.setTimestamp(2, timestamp(timerEntity.getPreviousRun()));
+        statement.setString(3, timerEntity.getState().name());
+        setNodeName(timerEntity.getState(), statement, 4);
+        // WHERE CLAUSE
+        statement.setString(5, timerEntity.getTimedObjectId());
+        statement.setString(6, timerEntity.getId());
+        statement.setString(7, partition);
+        statement.setString(8, nodeName);   // only persist if this node or empty
+    }
+
+    private void deleteStatementParameters(final String timedObjectId, final String timerId, final PreparedStatement statement) throws SQLException {
+        statement.setString(1, timedObjectId);
+        statement.setString(2, timerId);
+        statement.setString(3, partition);
+    }
+
+    /**
+     * Records a timer id as known to this node, unless the timed object has already been undeployed.
+     */
+    private void addKnownTimerId(final String timedObjectId, final String timerId) {
+        final Set<String> ids = knownTimerIds.get(timedObjectId);
+        if (ids != null) {
+            synchronized (ids) {
+                ids.add(timerId);
+            }
+        }
+    }
+
+    private void removeKnownTimerId(final String timedObjectId, final String timerId) {
+        final Set<String> ids = knownTimerIds.get(timedObjectId);
+        if (ids != null) {
+            synchronized (ids) {
+                ids.remove(timerId);
+            }
+        }
+    }
+
     private String serialize(final Serializable serializable) {
         if (serializable == null) {
             return null;
@@ -739,7 +796,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         return moduleLoader;
     }
 
-    public InjectedValue<Timer> getTimerInjectedValue() {
+    public InjectedValue<TimerScheduler> getTimerInjectedValue() {
         return timerInjectedValue;
     }
 
@@ -783,7 +840,12 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         }
     }
 
-    private class RefreshTask extends TimerTask {
+    /**
+     * Picks up timers added or removed by other nodes in the partition. Rather than reloading every timer of every
+     * timed object, a single query fetches the ids of all timers in the partition, which are compared with the ids
+     * known to this node; only the timers that are new to this node are then loaded in full.
+     */
+    class RefreshTask implements Runnable {
 
         private volatile AtomicBoolean running = new AtomicBoolean();
 
@@ -791,66 +853,176 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         public void run() {
             if (running.compareAndSet(false, true)) {
                 try {
-                    Set<String> timedObjects;
-                    synchronized (DatabaseTimerPersistence.this) {
-                        timedObjects = new HashSet<>(knownTimerIds.keySet());
+                    if (knownTimerIds.isEmpty()) {
+                        return;
                     }
-                    for (String timedObjectId : timedObjects) {
-                        TimerChangeListener listener = changeListeners.get(timedObjectId);
-                        if (listener == null) {
-                            continue;
+                    Connection connection = null;
+                    try {
+                        connection = dataSource.getConnection();
+                        // snapshot the known ids before the query, so that timers created by this node while the
+                        // query runs are never mistaken for timers removed by another node
+                        final Map<String, Set<String>> snapshots = new HashMap<>();
+                        for (Map.Entry<String, Set<String>> entry : knownTimerIds.entrySet()) {
+                            final Set<String> known = entry.getValue();
+                            synchronized (known) {
+                                snapshots.put(entry.getKey(), new HashSet<>(known));
+                            }
+                        }
+                        final Map<String, Set<String>> persistedTimerIds = loadTimerIds(connection);
+                        for (Map.Entry<String, Set<String>> entry : knownTimerIds.entrySet()) {
+                            final String timedObjectId = entry.getKey();
+                            TimerChangeListener listener = changeListeners.get(timedObjectId);
+                            final Set<String> snapshot = snapshots.get(timedObjectId);
+                            if (listener == null || snapshot == null) {
+                                continue;
+                            }
+                            Set<String> persisted = persistedTimerIds.get(timedObjectId);
+                            if (persisted == null) {
+                                persisted = Collections.emptySet();
+                            }
+                            try {
+                                refresh(connection, timedObjectId, entry.getValue(), snapshot, persisted, listener);
+                            } catch (SQLException e) {
+                                EjbLogger.EJB3_TIMER_LOGGER.failedToRefreshTimers(timedObjectId);
+                            }
                         }
-                        final Set<String> existing;
-                        synchronized (DatabaseTimerPersistence.this) {
-                            existing = new HashSet<>(knownTimerIds.get(timedObjectId));
+                    } catch (SQLException e) {
+                        for (String timedObjectId : knownTimerIds.keySet()) {
+                            EjbLogger.EJB3_TIMER_LOGGER.failedToRefreshTimers(timedObjectId);
                         }
-                        String loadTimer = sql(LOAD_ALL_TIMERS);
-                        Connection connection = null;
-                        PreparedStatement statement = null;
+                    } finally {
+                        safeClose(connection);
+                    }
+                } finally {
+                    running.set(false);
+                }
+            }
+
+        }
+
+        private Map<String, Set<String>> loadTimerIds(final Connection connection) throws SQLException {
+            final String loadTimerIds = sql(LOAD_TIMER_IDS);
+            if (loadTimerIds == null) {
+                // a customized timer-sql.properties predating load-timer-ids
+                return loadAllTimerIds(connection);
+            }
+            final Map<String, Set<String>> result = new HashMap<>();
+            PreparedStatement statement = null;
+            ResultSet resultSet = null;
+            try {
+                statement = connection.prepareStatement(loadTimerIds);
+                statement.setString(1, partition);
+                resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    final String timedObjectId = resultSet.getString(1);
+                    // ignore timed objects which are not deployed on this node
+                    if (knownTimerIds.containsKey(timedObjectId)) {
+                        Set<String> ids = result.get(timedObjectId);
+                        if (ids == null) {
+                            ids = new HashSet<>();
+                            result.put(timedObjectId, ids);
+                        }
+                        ids.add(resultSet.getString(2));
+                    }
+                }
+            } finally {
+                safeClose(resultSet);
+                safeClose(statement);
+            }
+            return result;
+        }
+
+        /**
+         * Reads the timer ids of each known timed object using the load-all-timers statement.
+         */
+        private Map<String, Set<String>> loadAllTimerIds(final Connection connection) throws SQLException {
+            final Map<String, Set<String>> result = new HashMap<>();
+            PreparedStatement statement = null;
+            try {
+                statement = connection.prepareStatement(sql(LOAD_ALL_TIMERS));
+                for (String timedObjectId : knownTimerIds.keySet()) {
+                    statement.setString(1, timedObjectId);
+                    statement.setString(2, partition);
+                    ResultSet resultSet = null;
+                    try {
+                        resultSet = statement.executeQuery();
+                        final Set<String> ids = new HashSet<>();
+                        while (resultSet.next()) {
+                            ids.add(resultSet.getString(1));
+                        }
+                        result.put(timedObjectId, ids);
+                    } finally {
+                        safeClose(resultSet);
+                    }
+                }
+            } finally {
+                safeClose(statement);
+            }
+            return result;
+        }
+
+        /**
+         * Compares the persisted timer ids of a timed object with its known timer ids.
+         * Only ids of the snapshot taken before the persisted ids were read are reported as removed.
+         */
+        void refresh(final Connection connection, final String timedObjectId, final Set<String> known, final Set<String> snapshot, final Set<String> persisted, final TimerChangeListener listener) throws SQLException {
+            final List<String> added = new ArrayList<>();
+            final List<String> removed = new ArrayList<>();
+            synchronized (known) {
+                for (String id : persisted) {
+                    if (!known.contains(id)) {
+                        added.add(id);
+                    }
+                }
+                for (String id : snapshot) {
+                    if (!persisted.contains(id)) {
+                        removed.add(id);
+                    }
+                }
+            }
+            if (!added.isEmpty()) {
+                PreparedStatement statement = null;
+                try {
+                    statement = connection.prepareStatement(sql(LOAD_TIMER));
+                    for (String id : added) {
+                        statement.setString(1, timedObjectId);
+                        statement.setString(2, id);
+                        statement.setString(3, partition);
                         ResultSet resultSet = null;
                         try {
-                            connection = dataSource.getConnection();
-                            statement = connection.prepareStatement(loadTimer);
-                            statement.setString(1, timedObjectId);
-                            statement.setString(2, partition);
                             resultSet = statement.executeQuery();
-                            while (resultSet.next()) {
-                                try {
-                                    String id = resultSet.getString(1);
-                                    if (!existing.remove(id)) {
-                                        synchronized (DatabaseTimerPersistence.this) {
-                                            knownTimerIds.get(timedObjectId).add(id);
-                                        }
-                                        final Holder holder = timerFromResult(resultSet, listener.getTimerService());
-                                        if(holder != null) {
-                                            listener.timerAdded(holder.timer);
-                                        }
-                                    }
-                                } catch (Exception e) {
-                                    EjbLogger.EJB3_TIMER_LOGGER.timerReinstatementFailed(resultSet.getString(2), resultSet.getString(1), e);
+                            // the timer may have been removed since its id was read
+                            if (resultSet.next() && addKnown(known, id)) {
+                                final Holder holder = timerFromResult(resultSet, listener.getTimerService());
+                                if (holder != null) {
+                                    listener.timerAdded(holder.timer);
                                 }
                             }
-
-                            synchronized (DatabaseTimerPersistence.this) {
-                                Set<String> timers = knownTimerIds.get(timedObjectId);
-                                for (String timer : existing) {
-                                    timers.remove(timer);
-                                    listener.timerRemoved(timer);
-                                }
-                            }
-                        } catch (SQLException e) {
-                            EjbLogger.EJB3_TIMER_LOGGER.failedToRefreshTimers(timedObjectId);
+                        } catch (Exception e) {
+                            EjbLogger.EJB3_TIMER_LOGGER.timerReinstatementFailed(timedObjectId, id, e);
                         } finally {
                             safeClose(resultSet);
-                            safeClose(statement);
-                            safeClose(connection);
                         }
                     }
                 } finally {
-                    running.set(false);
+                    safeClose(statement);
                 }
             }
+            for (String id : removed) {
+                final boolean wasKnown;
+                synchronized (known) {
+                    wasKnown = known.remove(id);
+                }
+                if (wasKnown) {
+                    listener.timerRemoved(id);
+                }
+            }
+        }
 
+        private boolean addKnown(final Set<String> known, final String id) {
+            synchronized (known) {
+                return known.add(id);
+            }
         }
     }
 
@@ -92,13 +92,20 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
     private final InjectedValue<PathManager> pathManager = new InjectedValue<PathManager>();
     private final String path;
     private final String pathRelativeTo;
+    /** Whether timers are stored in a {@link TimerJournal} per timed object rather than in an XML file per timer */
+    private final boolean journal;
     private File baseDir;
     private PathManager.Callback.Handle callbackHandle;
 
     private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<String, Lock>();
     private final ConcurrentMap<String, String> directories = new ConcurrentHashMap<String, String>();
+    private final ConcurrentMap<String, TimerJournal> journals = new ConcurrentHashMap<String, TimerJournal>();
 
     public FileTimerPersistence(final boolean createIfNotExists, final String path, final String pathRelativeTo) {
+        this(createIfNotExists, path, pathRelativeTo, false);
+    }
+
+    public FileTimerPersistence(final boolean createIfNotExists, final String path, final String pathRelativeTo, final boolean journal) {
         final SecurityManager sm = System.getSecurityManager();
         if (sm != null) {
             sm.checkPermission(FILE_PERMISSION);
@@ -106,6 +113,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
         this.createIfNotExists = createIfNotExists;
         this.path = path;
         this.pathRelativeTo = pathRelativeTo;
+        this.journal = journal;
     }
 
     @Override
@@ -150,6 +158,10 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     @Override
     public void stop(final StopContext context) {
+        for (TimerJournal timerJournal : journals.values()) {
+            timerJournal.close();
+        }
+        journals.clear();
         locks.clear();
         directories.clear();
         if (callbackHandle != null) {
@@ -253,6 +265,10 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
             lock.lock();
             locks.remove(timedObjectId);
             directories.remove(timedObjectId);
+            final TimerJournal timerJournal = journals.remove(timedObjectId);
+            if (timerJournal != null) {
+                timerJournal.close();
+            }
         } finally {
             lock.unlock();
         }
@@ -331,9 +347,43 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
      * @return The timers for the object
      */
     private Map<String, TimerImpl> getTimers(final String timedObjectId, final TimerServiceImpl timerService) {
+        if (journal) {
+            return getJournal(timedObjectId, timerService).getTimers();
+        }
         return loadTimersFromFile(timedObjectId, timerService);
     }
 
+    /**
+     * Gets the journal for a given timed object, replaying it if necessary. If the timed object does not have a
+     * journal yet, any timers stored in the XML or legacy formats are migrated into a new one. Should be called under lock
+     *
+     * @param timedObjectId The timed object id
+     * @return The journal for the object
+     */
+    private TimerJournal getJournal(final String timedObjectId, final TimerServiceImpl timerService) {
+        TimerJournal timerJournal = journals.get(timedObjectId);
+        if (timerJournal == null) {
+            final String directory = getDirectory(timedObjectId);
+            timerJournal = new TimerJournal(timedObjectId, new File(directory, TimerJournal.FILE_NAME), factory, configuration);
+            try {
+                if (timerJournal.exists()) {
+                    timerJournal.open(timerService);
+                } else {
+                    final Map<String, TimerImpl> timers = new HashMap<>();
+                    timers.putAll(LegacyFileStore.loadTimersFromFile(timedObjectId, timerService, directory, factory, configuration));
+                    timers.putAll(loadTimersFromXmlFiles(directory, timerService));
+                    timerJournal.create(timers.values());
+                    // the journal has been forced to disk, so the XML files are no longer needed
+                    deleteXmlFiles(directory);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            journals.put(timedObjectId, timerJournal);
+        }
+        return timerJournal;
+    }
+
     private Map<String, TimerImpl> loadTimersFromFile(String timedObjectId, TimerServiceImpl timerService) {
         Map<String, TimerImpl> timers = new HashMap<>();
         String directory = getDirectory(timedObjectId);
@@ -343,6 +393,27 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
             writeFile(entry.getValue()); //write legacy timers into the new format
             //the legacy code handling code will write a marker file, to make sure that the old timers will not be loaded on next restart.
         }
+        final File journalFile = new File(directory, TimerJournal.FILE_NAME);
+        if (journalFile.exists()) {
+            //the store was previously configured to use a journal, write its timers back out as XML
+            final TimerJournal timerJournal = new TimerJournal(timedObjectId, journalFile, factory, configuration);
+            try {
+                timerJournal.open(timerService);
+                for (TimerImpl timer : timerJournal.getTimers().values()) {
+                    writeFile(timer);
+                }
+                timerJournal.delete();
+            } catch (IOException e) {
+                timerJournal.close();
+                EJB3_TIMER_LOGGER.failToRestoreTimersFromFile(journalFile, e);
+            }
+        }
+        timers.putAll(loadTimersFromXmlFiles(directory, timerService));
+        return timers;
+    }
+
+    private Map<String, TimerImpl> loadTimersFromXmlFiles(String directory, TimerServiceImpl timerService) {
+        Map<String, TimerImpl> timers = new HashMap<>();
         final File file = new File(directory);
         if (!file.exists()) {
             //no timers exist yet
@@ -395,6 +466,17 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
         return timers;
     }
 
+    private void deleteXmlFiles(String directory) {
+        final File[] files = new File(directory).listFiles();
+        if (files != null) {
+            for (File timerFile : files) {
+                if (timerFile.getName().endsWith(".xml")) {
+                    timerFile.delete();
+                }
+            }
+        }
+    }
+
     private XMLMapper createMapper(TimerServiceImpl timerService) {
         final XMLMapper mapper = XMLMapper.Factory.create();
         mapper.registerRootElement(new QName(EjbTimerXmlParser_1_0.NAMESPACE, EjbTimerXmlPersister.TIMERS), new EjbTimerXmlParser_1_0(timerService, factory, configuration, timerService.getTimedObjectInvoker().getValue().getClassLoader()));
@@ -484,6 +566,14 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
     }
 
     private void writeFile(TimerImpl timer) {
+        if (journal) {
+            try {
+                getJournal(timer.getTimedObjectId(), timer.getTimerService()).append(timer);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return;
+        }
         final File file = fileName(timer.getTimedObjectId(), timer.getId());
 
         //if the timer is expired or cancelled delete the file
@@ -0,0 +1,425 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.EJB3_TIMER_LOGGER;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.jboss.as.ejb3.timerservice.CalendarTimer;
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.persistence.TimeoutMethod;
+import org.jboss.marshalling.ByteBufferInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+
+/**
+ * Append-only binary journal holding the persistent timers of a single timed object.
+ * <p/>
+ * Every change to a timer appends one checksummed record to the journal, rather than rewriting a file per timer.
+ * The journal is replayed once, when the timers of the timed object are first requested, and is rewritten with only
+ * the live timers once the number of records grows well beyond the number of timers. A record that is truncated or
+ * fails its checksum, as left behind by a crash, ends the replay and is discarded. A journal whose header is not
+ * recognized is moved aside, rather than overwritten, and replaced by an empty journal.
+ * <p/>
+ * Instances are not thread safe; they are only used under the lock of their timed object.
+ */
+final class TimerJournal implements Closeable {
+
+    static final String FILE_NAME = "timers.journal";
+
+    private static final int MAGIC = 0x454A544A;
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = 5;
+    private static final int RECORD_HEADER_LENGTH = 8;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    /** The journal is never compacted while it holds fewer records than this */
+    private static final int COMPACTION_THRESHOLD = 1024;
+
+    private final String timedObjectId;
+    private final File file;
+    private final MarshallerFactory factory;
+    private final MarshallingConfiguration configuration;
+    private final Map<String, TimerImpl> timers = new HashMap<>();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private int records;
+
+    TimerJournal(String timedObjectId, File file, MarshallerFactory factory, MarshallingConfiguration configuration) {
+        this.timedObjectId = timedObjectId;
+        this.file = file;
+        this.factory = factory;
+        this.configuration = configuration;
+    }
+
+    boolean exists() {
+        return file.exists();
+    }
+
+    /**
+     * The live timers, by id.
+     */
+    Map<String, TimerImpl> getTimers() {
+        return timers;
+    }
+
+    /**
+     * Replays the existing journal and opens it for appending.
+     */
+    void open(TimerServiceImpl timerService) throws IOException {
+        final ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        final ClassLoader classLoader = timerService.getTimedObjectInvoker().getValue().getClassLoader();
+        long valid = 0;
+        if (data.remaining() >= HEADER_LENGTH && data.getInt() == MAGIC && data.get() == VERSION) {
+            valid = HEADER_LENGTH;
+            while (data.remaining() >= RECORD_HEADER_LENGTH) {
+                final int length = data.getInt();
+                final long checksum = data.getInt() & 0xFFFFFFFFL;
+                if (length <= 0 || length > data.remaining()) {
+                    break;
+                }
+                crc.reset();
+                crc.update(data.array(), data.position(), length);
+                if (crc.getValue() != checksum) {
+                    break;
+                }
+                replay(new DataInputStream(new ByteArrayInputStream(data.array(), data.position(), length)), timerService, classLoader);
+                data.position(data.position() + length);
+                valid = data.position();
+                records++;
+            }
+        }
+        if (valid == 0) {
+            if (data.capacity() > 0) {
+                // not a journal this version can read, so keep it for inspection rather than overwriting its timers
+                final File unrecognized = new File(file.getParentFile(), file.getName() + "." + System.currentTimeMillis() + ".unrecognized");
+                Files.move(file.toPath(), unrecognized.toPath());
+                EJB3_TIMER_LOGGER.unrecognizedTimerJournal(file, unrecognized);
+            }
+            // an empty file is left behind by a crash before the header of a new journal was written
+            create(timers.values());
+            return;
+        }
+        if (valid < data.capacity()) {
+            EJB3_TIMER_LOGGER.timerJournalTruncated(file, valid);
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+        channel.truncate(valid);
+        channel.position(valid);
+    }
+
+    /**
+     * Creates a new journal holding the given timers, replacing any existing journal.
+     */
+    void create(Collection<TimerImpl> initial) throws IOException {
+        final Map<String, TimerImpl> live = new HashMap<>();
+        for (TimerImpl timer : initial) {
+            live.put(timer.getId(), timer);
+        }
+        timers.clear();
+        timers.putAll(live);
+        compact();
+    }
+
+    /**
+     * Appends the current state of the given timer. Cancelled and expired timers are recorded as removed, live timers
+     * are only recorded if they are still present in {@link #getTimers()}.
+     */
+    void append(TimerImpl timer) throws IOException {
+        buffer.reset();
+        final DataOutputStream output = new DataOutputStream(buffer);
+        if (timer.getState() == TimerState.CANCELED || timer.getState() == TimerState.EXPIRED) {
+            output.writeByte(REMOVE);
+            output.writeUTF(timer.getId());
+        } else if (timers.containsKey(timer.getId())) {
+            output.writeByte(PUT);
+            writeTimer(output, timer);
+        } else {
+            return;
+        }
+        output.flush();
+        writeRecord(channel, buffer);
+        if (++records > COMPACTION_THRESHOLD && records > 2 * timers.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the journal so that it only holds the live timers. The new journal is written to a temporary file and
+     * forced to disk before it replaces the old one.
+     */
+    void compact() throws IOException {
+        final File compacted = new File(file.getParentFile(), file.getName() + ".compact");
+        try (FileChannel target = FileChannel.open(compacted.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.putInt(MAGIC).put(VERSION).flip();
+            target.write(header);
+            for (TimerImpl timer : timers.values()) {
+                buffer.reset();
+                final DataOutputStream output = new DataOutputStream(buffer);
+                output.writeByte(PUT);
+                writeTimer(output, timer);
+                output.flush();
+                writeRecord(target, buffer);
+            }
+            target.force(true);
+        }
+        close();
+        Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        records = timers.size();
+    }
+
+    /**
+     * Deletes the journal, after its timers have been migrated to another format.
+     */
+    void delete() {
+        close();
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                EJB3_TIMER_LOGGER.failToCloseFile(e);
+            }
+            channel = null;
+        }
+    }
+
+    private void writeRecord(FileChannel target, ByteArrayOutputStream record) throws IOException {
+        final byte[] bytes = record.toByteArray();
+        crc.reset();
+        crc.update(bytes, 0, bytes.length);
+        final ByteBuffer data = ByteBuffer.allocate(RECORD_HEADER_LENGTH + bytes.length);
+        data.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes).flip();
+        while (data.hasRemaining()) {
+            target.write(data);
+        }
+    }
+
+    private void replay(DataInputStream input, TimerServiceImpl timerService, ClassLoader classLoader) throws IOException {
+        switch (input.readByte()) {
+            case PUT: {
+                final String id = input.readUTF();
+                try {
+                    final TimerImpl timer = readTimer(input, id, timerService, classLoader);
+                    if (timer != null) {
+                        timers.put(id, timer);
+                    } else {
+                        timers.remove(id);
+                    }
+                } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                    EJB3_TIMER_LOGGER.timerReinstatementFailed(timedObjectId, id, e);
+                    timers.remove(id);
+                }
+                break;
+            }
+            case REMOVE: {
+                timers.remove(input.readUTF());
+                break;
+            }
+            default: {
+                throw new IOException(file.getAbsolutePath());
+            }
+        }
+    }
+
+    private void writeTimer(DataOutputStream output, TimerImpl timer) throws IOException {
+        output.writeUTF(timer.getId());
+        output.writeUTF(timer.getState().name());
+        writeDate(output, timer.getInitialExpiration());
+        writeDate(output, timer.getNextExpiration());
+        writeDate(output, timer.getPreviousRun());
+        output.writeLong(timer.getInterval());
+        writeObject(output, timer.getTimerInfo());
+        writeObject(output, timer.getPrimaryKey());
+        final boolean calendar = timer instanceof CalendarTimer;
+        output.writeBoolean(calendar);
+        if (calendar) {
+            final CalendarTimer calendarTimer = (CalendarTimer) timer;
+            writeString(output, calendarTimer.getScheduleExpression().getSecond());
+            writeString(output, calendarTimer.getScheduleExpression().getMinute());
+            writeString(output, calendarTimer.getScheduleExpression().getHour());
+            writeString(output, calendarTimer.getScheduleExpression().getDayOfWeek());
+            writeString(output, calendarTimer.getScheduleExpression().getDayOfMonth());
+            writeString(output, calendarTimer.getScheduleExpression().getMonth());
+            writeString(output, calendarTimer.getScheduleExpression().getYear());
+            writeDate(output, calendarTimer.getScheduleExpression().getStart());
+            writeDate(output, calendarTimer.getScheduleExpression().getEnd());
+            writeString(output, calendarTimer.getScheduleExpression().getTimezone());
+            output.writeBoolean(calendarTimer.isAutoTimer());
+            if (calendarTimer.isAutoTimer()) {
+                final Method method = calendarTimer.getTimeoutMethod();
+                output.writeUTF(method.getDeclaringClass().getName());
+                output.writeUTF(method.getName());
+                final Class<?>[] parameterTypes = method.getParameterTypes();
+                output.writeInt(parameterTypes.length);
+                for (Class<?> parameterType : parameterTypes) {
+                    output.writeUTF(parameterType.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a timer written by {@link #writeTimer}, returning {@code null} if its timeout method no longer exists.
+     */
+    private TimerImpl readTimer(DataInputStream input, String id, TimerServiceImpl timerService, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        final TimerState state = TimerState.valueOf(input.readUTF());
+        final Date initialDate = readDate(input);
+        final Date nextDate = readDate(input);
+        final Date previousRun = readDate(input);
+        final long repeatInterval = input.readLong();
+        final Object info = readObject(input);
+        final Object primaryKey = readObject(input);
+        final TimerImpl.Builder builder;
+        if (input.readBoolean()) {
+            final CalendarTimer.Builder calendarBuilder = CalendarTimer.builder();
+            calendarBuilder.setScheduleExprSecond(readString(input));
+            calendarBuilder.setScheduleExprMinute(readString(input));
+            calendarBuilder.setScheduleExprHour(readString(input));
+            calendarBuilder.setScheduleExprDayOfWeek(readString(input));
+            calendarBuilder.setScheduleExprDayOfMonth(readString(input));
+            calendarBuilder.setScheduleExprMonth(readString(input));
+            calendarBuilder.setScheduleExprYear(readString(input));
+            calendarBuilder.setScheduleExprStartDate(readDate(input));
+            calendarBuilder.setScheduleExprEndDate(readDate(input));
+            calendarBuilder.setScheduleExprTimezone(readString(input));
+            final boolean autoTimer = input.readBoolean();
+            calendarBuilder.setAutoTimer(autoTimer);
+            if (autoTimer) {
+                final String className = input.readUTF();
+                final String methodName = input.readUTF();
+                final String[] params = new String[input.readInt()];
+                for (int i = 0; i < params.length; i++) {
+                    params[i] = input.readUTF();
+                }
+                final Method timeoutMethod = CalendarTimer.getTimeoutMethod(new TimeoutMethod(className, methodName, params), classLoader);
+                if (timeoutMethod == null) {
+                    EJB3_TIMER_LOGGER.timerReinstatementFailed(timedObjectId, id, null);
+                    return null;
+                }
+                calendarBuilder.setTimeoutMethod(timeoutMethod);
+            }
+            builder = calendarBuilder;
+        } else {
+            builder = TimerImpl.builder();
+        }
+        builder.setId(id);
+        builder.setTimedObjectId(timedObjectId);
+        builder.setTimerState(state);
+        builder.setInitialDate(initialDate);
+        builder.setNextDate(nextDate);
+        builder.setPreviousRun(previousRun);
+        builder.setRepeatInterval(repeatInterval);
+        builder.setInfo((Serializable) info);
+        builder.setPrimaryKey(primaryKey);
+        builder.setPersistent(true);
+        return builder.build(timerService);
+    }
+
+    private void writeObject(DataOutputStream output, Object object) throws IOException {
+        if (object == null) {
+            output.writeInt(-1);
+            return;
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final Marshaller marshaller = factory.createMarshaller(configuration);
+        marshaller.start(new OutputStreamByteOutput(bytes));
+        marshaller.writeObject(object);
+        marshaller.finish();
+        output.writeInt(bytes.size());
+        bytes.writeTo(output);
+    }
+
+    private Object readObject(DataInputStream input) throws IOException, ClassNotFoundException {
+        final int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        final Unmarshaller unmarshaller = factory.createUnmarshaller(configuration);
+        unmarshaller.start(new ByteBufferInput(ByteBuffer.wrap(bytes)));
+        try {
+            return unmarshaller.readObject();
+        } finally {
+            unmarshaller.close();
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeDate(DataOutputStream output, Date date) throws IOException {
+        output.writeBoolean(date != null);
+        if (date != null) {
+            output.writeLong(date.getTime());
+        }
+    }
+
+    private static Date readDate(DataInputStream input) throws IOException {
+        return input.readBoolean() ? new Date(input.readLong()) : null;
+    }
+}
@@ -102,6 +102,13 @@ public class CalendarBasedTimeout {
      */
     private TimeZone timezone;
 
+    /**
+     * The day of the most recently computed timeout, if it is free of any DST transition.
+     * The day, month and year attributes match this day, so within it the next timeout
+     * only depends on the time of day.
+     */
+    private volatile MatchingDay matchingDay;
+
     /**
      * Creates a {@link CalendarBasedTimeout} from the passed <code>schedule</code>.
      * <p>
@@ -195,6 +202,103 @@ public class CalendarBasedTimeout {
     }
 
     private Calendar getNextTimeout(Calendar currentCal, boolean increment) {
+        if (increment) {
+            Calendar nextCal = this.computeNextTimeoutWithinMatchingDay(currentCal);
+            if (nextCal != null) {
+                return nextCal;
+            }
+        }
+        return this.computeNextTimeout(currentCal, increment);
+    }
+
+    /**
+     * Computes the next timeout from the bitmasks of the hour, minute and second attributes, if the current time
+     * falls within the last matching day and the next timeout is on that same day.
+     *
+     * @param currentCal the current time
+     * @return the next timeout, or null if it has to be computed by {@link #computeNextTimeout(Calendar, boolean)}
+     */
+    private Calendar computeNextTimeoutWithinMatchingDay(Calendar currentCal) {
+        MatchingDay day = this.matchingDay;
+        if (day == null) {
+            return null;
+        }
+        long currentTime = currentCal.getTimeInMillis();
+        if (currentTime < day.start || currentTime >= day.end) {
+            return null;
+        }
+        Date start = this.scheduleExpression.getStart();
+        if (start != null && currentTime < start.getTime()) {
+            return null;
+        }
+        // increment the current second by 1, dropping the milliseconds
+        int nextTimeInSeconds = this.getNextTimeOfDay((int) ((currentTime - day.start) / 1000) + 1);
+        if (nextTimeInSeconds < 0) {
+            return null;
+        }
+        long nextTime = day.start + nextTimeInSeconds * 1000L;
+        Date end = this.scheduleExpression.getEnd();
+        if (end != null && nextTime > end.getTime()) {
+            return null;
+        }
+        Calendar nextCal = (Calendar) currentCal.clone();
+        nextCal.setTimeZone(this.timezone);
+        nextCal.setTimeInMillis(nextTime);
+        nextCal.setFirstDayOfWeek(Calendar.SUNDAY);
+        return nextCal;
+    }
+
+    /**
+     * Returns the first matching time of day at or after the passed time of day.
+     *
+     * @param timeInSeconds the number of seconds since the start of the day
+     * @return the number of seconds since the start of the day of the next match, or -1 if there is no match left on this day
+     */
+    private int getNextTimeOfDay(int timeInSeconds) {
+        int currentHour = timeInSeconds / 3600;
+        int currentMinute = (timeInSeconds / 60) % 60;
+        int currentSecond = timeInSeconds % 60;
+        while (currentHour < 24) {
+            int nextHour = this.hour.getNextMatch(currentHour);
+            if (nextHour < currentHour) {
+                return -1;
+            }
+            if (nextHour > currentHour) {
+                return nextHour * 3600 + this.minute.getFirst() * 60 + this.second.getFirst();
+            }
+            int nextMinute = this.minute.getNextMatch(currentMinute);
+            if (nextMinute < currentMinute) {
+                // no match left within this hour
+                currentHour++;
+                currentMinute = 0;
+                currentSecond = 0;
+                continue;
+            }
+            if (nextMinute > currentMinute) {
+                return currentHour * 3600 + nextMinute * 60 + this.second.getFirst();
+            }
+            int nextSecond = this.second.getNextMatch(currentSecond);
+            if (nextSecond >= currentSecond) {
+                return currentHour * 3600 + currentMinute * 60 + nextSecond;
+            }
+            // no match left within this minute
+            currentSecond = 0;
+            if (++currentMinute == 60) {
+                currentHour++;
+                currentMinute = 0;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Computes the next timeout by walking the calendar fields.
+     *
+     * @param currentCal the current time
+     * @param increment whether the current second should be excluded
+     * @return the next timeout, or null if there are no more timeouts
+     */
+    Calendar computeNextTimeout(Calendar currentCal, boolean increment) {
         if (this.noMoreTimeouts(currentCal)) {
             return null;
         }
@@ -239,9 +343,32 @@ public class CalendarBasedTimeout {
         if (this.noMoreTimeouts(nextCal)) {
             return null;
         }
+        this.setMatchingDay(nextCal);
         return nextCal;
     }
 
+    private void setMatchingDay(Calendar nextCal) {
+        // read the date from a copy, as completing the fields would discard an explicitly set DST offset
+        Calendar dayCal = (Calendar) nextCal.clone();
+        int year = dayCal.get(Calendar.YEAR);
+        int month = dayCal.get(Calendar.MONTH);
+        int date = dayCal.get(Calendar.DAY_OF_MONTH);
+        dayCal = new GregorianCalendar(this.timezone);
+        dayCal.clear();
+        dayCal.set(year, month, date);
+        long start = dayCal.getTimeInMillis();
+        MatchingDay day = this.matchingDay;
+        if (day != null && day.start == start) {
+            return;
+        }
+        dayCal.clear();
+        dayCal.set(year, month, date + 1);
+        long end = dayCal.getTimeInMillis();
+        // days with a DST transition, including one skipping midnight, are left to the calendar based computation
+        boolean regular = (end - start == MatchingDay.LENGTH) && (this.timezone.getOffset(start) == this.timezone.getOffset(end - 1));
+        this.matchingDay = regular ? new MatchingDay(start, end) : null;
+    }
+
     private Calendar computeNextTime(Calendar nextCal) {
         int currentSecond = nextCal.get(Calendar.SECOND);
         int currentMinute = nextCal.get(Calendar.MINUTE);
@@ -594,4 +721,18 @@ public class CalendarBasedTimeout {
         calendar.set(Calendar.DST_OFFSET, dst);
     }
 
+    /**
+     * The bounds, in milliseconds, of a day on which the day, month and year attributes match.
+     */
+    private static class MatchingDay {
+        static final long LENGTH = 24 * 60 * 60 * 1000L;
+
+        final long start;
+        final long end;
+
+        MatchingDay(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
 }
@@ -53,6 +53,11 @@ public class Hour extends IntegerBasedExpression {
      */
     public static final Integer MIN_HOUR = 0;
 
+    /**
+     * Bitmask of the matching values, see {@link #toBitmask()}
+     */
+    private final long matches;
+
     /**
      * Creates a {@link Hour} by parsing the passed {@link String} <code>value</code>
      * <p>
@@ -68,6 +73,7 @@ public class Hour extends IntegerBasedExpression {
      */
     public Hour(String value) {
         super(value);
+        this.matches = this.toBitmask();
     }
 
     public int getFirst() {
@@ -118,21 +124,7 @@ public class Hour extends IntegerBasedExpression {
     }
 
     public Integer getNextMatch(int currentHour) {
-        if (this.scheduleExpressionType == ScheduleExpressionType.WILDCARD) {
-            return currentHour;
-        }
-        if (this.absoluteValues.isEmpty()) {
-            return null;
-        }
-        for (Integer hour : this.absoluteValues) {
-            if (currentHour == hour) {
-                return currentHour;
-            }
-            if (hour > currentHour) {
-                return hour;
-            }
-        }
-        return this.absoluteValues.first();
+        return getNextMatch(this.matches, currentHour);
     }
 
 }
@@ -213,4 +213,40 @@ public abstract class IntegerBasedExpression {
 
     public abstract boolean isRelativeValue(String value);
 
+    /**
+     * Compiles the absolute values of this expression into a bitmask, in which bit <code>n</code> is set
+     * if <code>n</code> is a matching value. A wildcard sets every bit between the min and max value.
+     * Only meaningful for attributes whose values lie within [0, 63] and which don't support relative values.
+     *
+     * @return the bitmask of matching values
+     */
+    protected long toBitmask() {
+        long mask = 0L;
+        if (this.scheduleExpressionType == ScheduleExpressionType.WILDCARD) {
+            for (int i = this.getMinValue(); i <= this.getMaxValue(); i++) {
+                mask |= 1L << i;
+            }
+        } else {
+            for (Integer value : this.absoluteValues) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the smallest value in <code>mask</code> which is greater than or equal to <code>current</code>,
+     * wrapping around to the smallest value in the mask if there is none.
+     *
+     * @param mask    a bitmask as returned by {@link #toBitmask()}
+     * @param current the current value
+     * @return the next matching value, or null if the mask is empty
+     */
+    protected static Integer getNextMatch(long mask, int current) {
+        if (mask == 0L) {
+            return null;
+        }
+        long candidates = (current < Long.SIZE) ? mask & (-1L << current) : 0L;
+        return Long.numberOfTrailingZeros((candidates != 0L) ? candidates : mask);
+    }
 }
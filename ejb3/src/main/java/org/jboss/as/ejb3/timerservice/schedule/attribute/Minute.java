@@ -57,6 +57,11 @@ public class Minute extends IntegerBasedExpression {
      */
     public static final Integer MIN_MINUTE = 0;
 
+    /**
+     * Bitmask of the matching values, see {@link #toBitmask()}
+     */
+    private final long matches;
+
     /**
      * Creates a {@link Minute} by parsing the passed {@link String} <code>value</code>
      * <p>
@@ -72,6 +77,7 @@ public class Minute extends IntegerBasedExpression {
      */
     public Minute(String value) {
         super(value);
+        this.matches = this.toBitmask();
     }
 
     public int getFirst() {
@@ -131,22 +137,7 @@ public class Minute extends IntegerBasedExpression {
     }
 
     public Integer getNextMatch(int currentMinute) {
-        if (this.scheduleExpressionType == ScheduleExpressionType.WILDCARD) {
-            return currentMinute;
-        }
-        if (this.absoluteValues.isEmpty()) {
-            return null;
-        }
-
-        for (Integer minute : this.absoluteValues) {
-            if (currentMinute == minute) {
-                return currentMinute;
-            }
-            if (minute > currentMinute) {
-                return minute;
-            }
-        }
-        return this.absoluteValues.first();
+        return getNextMatch(this.matches, currentMinute);
     }
 
 }
@@ -65,8 +65,14 @@ public class Month extends IntegerBasedExpression {
 
     private SortedSet<Integer> offsetAdjustedMonths = new TreeSet<Integer>();
 
+    /**
+     * Bitmask of the matching offset adjusted months, see {@link #toBitmask()}
+     */
+    private final long matches;
+
     public Month(String value) {
         super(value);
+        this.matches = this.toBitmask() >>> OFFSET;
         if (OFFSET != 0) {
             for (Integer month : this.absoluteValues) {
                 this.offsetAdjustedMonths.add(month - OFFSET);
@@ -121,22 +127,7 @@ public class Month extends IntegerBasedExpression {
     }
 
     public Integer getNextMatch(Calendar currentCal) {
-        if (this.scheduleExpressionType == ScheduleExpressionType.WILDCARD) {
-            return currentCal.get(Calendar.MONTH);
-        }
-        if (this.offsetAdjustedMonths.isEmpty()) {
-            return null;
-        }
-        int currentMonth = currentCal.get(Calendar.MONTH);
-        for (Integer month : this.offsetAdjustedMonths) {
-            if (currentMonth == month) {
-                return currentMonth;
-            }
-            if (month > currentMonth) {
-                return month;
-            }
-        }
-        return this.offsetAdjustedMonths.first();
+        return getNextMatch(this.matches, currentCal.get(Calendar.MONTH));
     }
 
     public Integer getFirstMatch() {
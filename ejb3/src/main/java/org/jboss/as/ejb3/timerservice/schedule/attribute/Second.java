@@ -55,6 +55,11 @@ public class Second extends IntegerBasedExpression {
      */
     public static final Integer MIN_SECOND = 0;
 
+    /**
+     * Bitmask of the matching values, see {@link #toBitmask()}
+     */
+    private final long matches;
+
     /**
      * Creates a {@link Second} by parsing the passed {@link String} <code>value</code>
      * <p>
@@ -70,24 +75,11 @@ public class Second extends IntegerBasedExpression {
      */
     public Second(String value) {
         super(value);
+        this.matches = this.toBitmask();
     }
 
     public Integer getNextMatch(int currentSecond) {
-        if (this.scheduleExpressionType == ScheduleExpressionType.WILDCARD) {
-            return currentSecond;
-        }
-        if (this.absoluteValues.isEmpty()) {
-            return null;
-        }
-        for (Integer second : this.absoluteValues) {
-            if (currentSecond == second) {
-                return currentSecond;
-            }
-            if (second > currentSecond) {
-                return second;
-            }
-        }
-        return this.absoluteValues.first();
+        return getNextMatch(this.matches, currentSecond);
     }
 
     public int getFirst() {
@@ -0,0 +1,112 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.as.ee.component.ComponentConfiguration;
+import org.jboss.as.ee.component.interceptors.InterceptorOrder;
+import org.jboss.as.ejb3.component.invocationmetrics.InterceptorMetrics;
+import org.jboss.invocation.ImmediateInterceptorFactory;
+import org.jboss.invocation.Interceptor;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.invocation.InterceptorFactory;
+import org.jboss.invocation.SimpleInterceptorFactoryContext;
+import org.junit.Test;
+
+/**
+ * Tests the instrumentation of the interceptor chains of an {@link EJBViewConfiguration}.
+ */
+public class EJBViewConfigurationTestCase {
+
+    public interface View {
+        void invoke();
+    }
+
+    @Test
+    public void testStatisticsDisabled() throws Exception {
+        final EJBViewConfiguration configuration = createViewConfiguration(null);
+        final Method method = View.class.getMethod("invoke");
+        final InterceptorFactory factory = new ImmediateInterceptorFactory(InterceptorContext::proceed);
+        configuration.addViewInterceptor(method, factory, InterceptorOrder.View.CMT_TRANSACTION_INTERCEPTOR);
+        configuration.addClientInterceptor(method, factory, InterceptorOrder.Client.CLIENT_DISPATCHER);
+        assertSame(factory, configuration.getViewInterceptors(method).get(0));
+        assertSame(factory, configuration.getClientInterceptors(method).get(0));
+    }
+
+    @Test
+    public void testInstrumentedChainKeepsOrder() throws Exception {
+        final InterceptorMetrics metrics = new InterceptorMetrics();
+        final EJBViewConfiguration configuration = createViewConfiguration(metrics);
+        final Method method = View.class.getMethod("invoke");
+        final List<String> invoked = new ArrayList<>();
+        configuration.addViewInterceptor(method, recording(invoked, "dispatcher"), InterceptorOrder.View.COMPONENT_DISPATCHER);
+        configuration.addViewInterceptor(method, recording(invoked, "transaction"), InterceptorOrder.View.CMT_TRANSACTION_INTERCEPTOR);
+        configuration.addViewInterceptor(method, recording(invoked, "checking"), InterceptorOrder.View.CHECKING_INTERCEPTOR);
+        configuration.addClientInterceptor(method, recording(invoked, "client-dispatcher"), InterceptorOrder.Client.CLIENT_DISPATCHER);
+        configuration.addClientInterceptor(method, recording(invoked, "to-string"), InterceptorOrder.Client.TO_STRING);
+
+        final List<InterceptorFactory> factories = new ArrayList<>(configuration.getClientInterceptors(method));
+        factories.addAll(configuration.getViewInterceptors(method));
+        final SimpleInterceptorFactoryContext factoryContext = new SimpleInterceptorFactoryContext();
+        final List<Interceptor> interceptors = new ArrayList<>();
+        for (InterceptorFactory factory : factories) {
+            interceptors.add(factory.create(factoryContext));
+        }
+        interceptors.add(new ImmediateInterceptorFactory(context -> null).create(factoryContext));
+        final InterceptorContext context = new InterceptorContext();
+        context.setInterceptors(interceptors);
+        context.proceed();
+
+        assertEquals(Arrays.asList("to-string", "client-dispatcher", "checking", "transaction", "dispatcher"), invoked);
+        final Map<String, InterceptorMetrics.Values> values = metrics.getInterceptors();
+        assertEquals(Arrays.asList("client:to-string", "client:client-dispatcher", "view:checking-interceptor", "view:cmt-transaction-interceptor", "view:component-dispatcher"),
+                new ArrayList<>(values.keySet()));
+        for (InterceptorMetrics.Values value : values.values()) {
+            assertEquals(1L, value.getInvocations());
+        }
+    }
+
+    private static InterceptorFactory recording(final List<String> invoked, final String name) {
+        return new ImmediateInterceptorFactory(context -> {
+            invoked.add(name);
+            return context.proceed();
+        });
+    }
+
+    private static EJBViewConfiguration createViewConfiguration(final InterceptorMetrics metrics) {
+        final EJBComponentDescription description = mock(EJBComponentDescription.class);
+        when(description.getInterceptorMetrics()).thenReturn(metrics);
+        final ComponentConfiguration componentConfiguration = mock(ComponentConfiguration.class);
+        when(componentConfiguration.getComponentDescription()).thenReturn(description);
+        return new EJBViewConfiguration(View.class, componentConfiguration, null, null, MethodIntf.LOCAL);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.invocationmetrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ee.component.interceptors.InterceptorOrder;
+import org.jboss.invocation.ImmediateInterceptorFactory;
+import org.jboss.invocation.Interceptor;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.invocation.InterceptorFactory;
+import org.jboss.invocation.SimpleInterceptorFactoryContext;
+import org.junit.Test;
+
+/**
+ * Tests the per interceptor statistics recorded by {@link InstrumentedInterceptorFactory} into {@link InterceptorMetrics}.
+ */
+public class InstrumentedInterceptorFactoryTestCase {
+
+    private static final long OUTER_SLEEP = TimeUnit.MILLISECONDS.toNanos(40);
+    private static final long INNER_SLEEP = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    public void testSelfTimeExcludesNestedInterceptors() throws Exception {
+        final InterceptorMetrics metrics = new InterceptorMetrics();
+        final List<InterceptorFactory> factories = Arrays.asList(
+                InstrumentedInterceptorFactory.client(sleeping(OUTER_SLEEP, null), metrics, InterceptorOrder.Client.CLIENT_DISPATCHER),
+                // an interceptor which is not instrumented counts towards the enclosing instrumented one
+                sleeping(OUTER_SLEEP, null),
+                InstrumentedInterceptorFactory.view(sleeping(INNER_SLEEP, null), metrics, InterceptorOrder.View.CMT_TRANSACTION_INTERCEPTOR),
+                new ImmediateInterceptorFactory(context -> "result"));
+
+        final long start = System.nanoTime();
+        assertEquals("result", invoke(factories));
+        final long elapsed = System.nanoTime() - start;
+
+        final Map<String, InterceptorMetrics.Values> interceptors = metrics.getInterceptors();
+        final InterceptorMetrics.Values outer = interceptors.get("client:client-dispatcher");
+        final InterceptorMetrics.Values inner = interceptors.get("view:cmt-transaction-interceptor");
+        assertEquals(1L, outer.getInvocations());
+        assertEquals(1L, inner.getInvocations());
+        assertTrue(inner.getExecutionTime() >= INNER_SLEEP);
+        assertTrue(outer.getExecutionTime() >= 2 * OUTER_SLEEP);
+        // had the outer interceptor been charged for the inner one, the sum would exceed the wall clock time
+        assertTrue(outer.getExecutionTime() + inner.getExecutionTime() <= elapsed);
+    }
+
+    @Test
+    public void testSelfTimeOfSiblingInvocations() throws Exception {
+        final InterceptorMetrics metrics = new InterceptorMetrics();
+        final InterceptorFactory inner = InstrumentedInterceptorFactory.view(sleeping(INNER_SLEEP, null), metrics, InterceptorOrder.View.COMPONENT_DISPATCHER);
+        // the outer interceptor runs the rest of the chain twice, e.g. like a retrying interceptor
+        final InterceptorFactory outer = InstrumentedInterceptorFactory.view(new ImmediateInterceptorFactory(context -> {
+            context.proceed();
+            return context.proceed();
+        }), metrics, InterceptorOrder.View.CHECKING_INTERCEPTOR);
+
+        final long start = System.nanoTime();
+        invoke(Arrays.asList(outer, inner, new ImmediateInterceptorFactory(context -> null)));
+        final long elapsed = System.nanoTime() - start;
+
+        final Map<String, InterceptorMetrics.Values> interceptors = metrics.getInterceptors();
+        final InterceptorMetrics.Values outerValues = interceptors.get("view:checking-interceptor");
+        final InterceptorMetrics.Values innerValues = interceptors.get("view:component-dispatcher");
+        assertEquals(1L, outerValues.getInvocations());
+        assertEquals(2L, innerValues.getInvocations());
+        assertTrue(innerValues.getExecutionTime() >= 2 * INNER_SLEEP);
+        assertTrue(outerValues.getExecutionTime() + innerValues.getExecutionTime() <= elapsed);
+        assertTrue(outerValues.getExecutionTime() <= elapsed - 2 * INNER_SLEEP);
+    }
+
+    @Test
+    public void testFailedInvocationIsRecorded() throws Exception {
+        final InterceptorMetrics metrics = new InterceptorMetrics();
+        final IllegalStateException exception = new IllegalStateException();
+        final List<InterceptorFactory> factories = Arrays.asList(
+                InstrumentedInterceptorFactory.view(new ImmediateInterceptorFactory(InterceptorContext::proceed), metrics, InterceptorOrder.View.EE_SETUP),
+                InstrumentedInterceptorFactory.view(sleeping(INNER_SLEEP, exception), metrics, InterceptorOrder.View.COMPONENT_DISPATCHER));
+        try {
+            invoke(factories);
+            fail("expected an exception");
+        } catch (IllegalStateException e) {
+            assertSame(exception, e);
+        }
+        final Map<String, InterceptorMetrics.Values> interceptors = metrics.getInterceptors();
+        assertEquals(1L, interceptors.get("view:ee-setup").getInvocations());
+        assertEquals(1L, interceptors.get("view:component-dispatcher").getInvocations());
+        assertTrue(interceptors.get("view:component-dispatcher").getExecutionTime() >= INNER_SLEEP);
+        assertTrue(interceptors.get("view:ee-setup").getExecutionTime() < INNER_SLEEP);
+    }
+
+    @Test
+    public void testInterceptorsFollowChainOrder() throws Exception {
+        final InterceptorMetrics metrics = new InterceptorMetrics();
+        final InterceptorFactory passThrough = new ImmediateInterceptorFactory(InterceptorContext::proceed);
+        // registered out of order, the statistics are reported in the order of the chain
+        InstrumentedInterceptorFactory.view(passThrough, metrics, InterceptorOrder.View.COMPONENT_DISPATCHER).create(new SimpleInterceptorFactoryContext());
+        InstrumentedInterceptorFactory.client(passThrough, metrics, InterceptorOrder.Client.CLIENT_DISPATCHER).create(new SimpleInterceptorFactoryContext());
+        InstrumentedInterceptorFactory.view(passThrough, metrics, InterceptorOrder.View.CHECKING_INTERCEPTOR).create(new SimpleInterceptorFactoryContext());
+        InstrumentedInterceptorFactory.client(passThrough, metrics, InterceptorOrder.Client.TO_STRING).create(new SimpleInterceptorFactoryContext());
+        InstrumentedInterceptorFactory.view(passThrough, metrics, InterceptorOrder.View.CMT_TRANSACTION_INTERCEPTOR).create(new SimpleInterceptorFactoryContext());
+        InstrumentedInterceptorFactory.view(passThrough, metrics, 0x7FF).create(new SimpleInterceptorFactoryContext());
+
+        assertEquals(Arrays.asList("client:to-string", "client:client-dispatcher", "view:checking-interceptor", "view:cmt-transaction-interceptor", "view:0x7ff", "view:component-dispatcher"),
+                new ArrayList<>(metrics.getInterceptors().keySet()));
+        for (InterceptorMetrics.Values values : metrics.getInterceptors().values()) {
+            assertEquals(0L, values.getInvocations());
+        }
+    }
+
+    private static Object invoke(final List<InterceptorFactory> factories) throws Exception {
+        final SimpleInterceptorFactoryContext factoryContext = new SimpleInterceptorFactoryContext();
+        final List<Interceptor> interceptors = new ArrayList<>();
+        for (InterceptorFactory factory : factories) {
+            interceptors.add(factory.create(factoryContext));
+        }
+        final InterceptorContext context = new InterceptorContext();
+        context.setInterceptors(interceptors);
+        return context.proceed();
+    }
+
+    /**
+     * Creates an interceptor which sleeps before it proceeds, or fails with the given exception instead of proceeding.
+     */
+    private static InterceptorFactory sleeping(final long nanos, final Exception exception) {
+        return new ImmediateInterceptorFactory(context -> {
+            final long deadline = System.nanoTime() + nanos;
+            for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            }
+            if (exception != null) {
+                throw exception;
+            }
+            return context.proceed();
+        });
+    }
+}
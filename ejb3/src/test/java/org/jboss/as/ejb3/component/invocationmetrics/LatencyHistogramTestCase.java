@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.component.invocationmetrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTestCase {
+
+    @Test
+    public void empty() {
+        assertEquals(0L, new LatencyHistogram().getValueAtQuantile(0.99));
+    }
+
+    @Test
+    public void buckets() {
+        long previousIndex = -1;
+        for (long value = 0; value < (1L << 20); ++value) {
+            final int index = LatencyHistogram.index(value);
+            assertTrue(index == previousIndex || index == previousIndex + 1);
+            final long highest = LatencyHistogram.highestEquivalentValue(index);
+            assertTrue(value <= highest);
+            // Relative error is bounded by the sub bucket resolution
+            assertTrue(highest - value <= value / 8);
+            previousIndex = index;
+        }
+        // Values beyond the range of the histogram are recorded into the last bucket
+        assertEquals(LatencyHistogram.index(Long.MAX_VALUE), LatencyHistogram.index(1L << 40));
+    }
+
+    @Test
+    public void quantiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; ++value) {
+            histogram.record(value);
+        }
+        assertWithinResolution(500, histogram.getValueAtQuantile(0.5));
+        assertWithinResolution(990, histogram.getValueAtQuantile(0.99));
+        assertWithinResolution(999, histogram.getValueAtQuantile(0.999));
+        assertWithinResolution(1000, histogram.getValueAtQuantile(1.0));
+    }
+
+    private static void assertWithinResolution(final long expected, final long actual) {
+        assertTrue(actual + " < " + expected, actual >= expected);
+        assertTrue(actual + " > " + expected, actual <= expected + expected / 8);
+    }
+}
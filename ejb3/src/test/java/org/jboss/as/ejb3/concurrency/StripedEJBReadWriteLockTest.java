@@ -0,0 +1,218 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import javax.ejb.IllegalLoopbackException;
+
+import org.jboss.as.ejb3.component.singleton.StripedEJBReadWriteLock;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link StripedEJBReadWriteLock}
+ */
+public class StripedEJBReadWriteLockTest {
+
+    private final StripedEJBReadWriteLock lock = new StripedEJBReadWriteLock();
+
+    @Test
+    public void testIllegalLoopBack() {
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            this.lock.writeLock().lock();
+            this.lock.writeLock().unlock();
+            Assert.fail("Unexpected acquired write lock");
+        } catch (IllegalLoopbackException e) {
+            // expected
+        } finally {
+            readLock.unlock();
+        }
+        // the failed upgrade must not leave the lock in a locked state
+        Assert.assertTrue(this.lock.writeLock().tryLock());
+        this.lock.writeLock().unlock();
+    }
+
+    @Test
+    public void testSameThreadCanGetWriteThenReadLock() throws Exception {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            Lock readLock = this.lock.readLock();
+            boolean readLockAcquired = readLock.tryLock(2, TimeUnit.SECONDS);
+            if (readLockAcquired) {
+                readLock.unlock();
+            }
+            Assert.assertTrue("Could not obtain read lock when write lock was held by the same thread!", readLockAcquired);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Test
+    public void testReentrancy() throws Exception {
+        Lock readLock = this.lock.readLock();
+        Lock writeLock = this.lock.writeLock();
+        readLock.lock();
+        readLock.lock();
+        readLock.unlock();
+        // still held once
+        Assert.assertFalse(this.tryLockInOtherThread(writeLock));
+        readLock.unlock();
+        Assert.assertTrue(this.tryLockInOtherThread(writeLock));
+
+        writeLock.lock();
+        writeLock.lock();
+        writeLock.unlock();
+        // still held once
+        Assert.assertFalse(this.tryLockInOtherThread(readLock));
+        writeLock.unlock();
+        Assert.assertTrue(this.tryLockInOtherThread(readLock));
+    }
+
+    @Test
+    public void testReadLockTimeout() throws Exception {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            long start = System.nanoTime();
+            Assert.assertFalse(this.tryLockInOtherThread(this.lock.readLock()));
+            Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Test
+    public void testWriteLockTimeout() throws Exception {
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            Assert.assertFalse(this.tryLockInOtherThread(this.lock.writeLock()));
+            // a timed out writer must not exclude readers
+            Assert.assertTrue(this.tryLockInOtherThread(this.lock.readLock()));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Test
+    public void testWriterWaitsForReaders() throws Exception {
+        Lock readLock = this.lock.readLock();
+        CountDownLatch writerStarted = new CountDownLatch(1);
+        AtomicInteger state = new AtomicInteger();
+        readLock.lock();
+        Thread writer = new Thread(() -> {
+            writerStarted.countDown();
+            this.lock.writeLock().lock();
+            try {
+                state.compareAndSet(1, 2);
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        });
+        writer.start();
+        writerStarted.await();
+        Thread.sleep(100);
+        // a reentrant read lock is granted to a reader while a writer is pending
+        readLock.lock();
+        readLock.unlock();
+        state.set(1);
+        readLock.unlock();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertEquals(2, state.get());
+    }
+
+    @Test
+    public void testMutualExclusion() throws Exception {
+        int threads = 8;
+        int iterations = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger readers = new AtomicInteger();
+        AtomicInteger writers = new AtomicInteger();
+        AtomicInteger violations = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; ++i) {
+                final boolean writer = (i == 0);
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < iterations; ++j) {
+                        if (writer && (j % 10 == 0)) {
+                            this.lock.writeLock().lock();
+                            try {
+                                if (writers.incrementAndGet() != 1 || readers.get() != 0) {
+                                    violations.incrementAndGet();
+                                }
+                                writers.decrementAndGet();
+                            } finally {
+                                this.lock.writeLock().unlock();
+                            }
+                        } else {
+                            this.lock.readLock().lock();
+                            try {
+                                readers.incrementAndGet();
+                                if (writers.get() != 0) {
+                                    violations.incrementAndGet();
+                                }
+                                readers.decrementAndGet();
+                            } finally {
+                                this.lock.readLock().unlock();
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(0, violations.get());
+    }
+
+    private boolean tryLockInOtherThread(Lock lock) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(() -> {
+                boolean locked = lock.tryLock(100, TimeUnit.MILLISECONDS);
+                if (locked) {
+                    lock.unlock();
+                }
+                return locked;
+            }).get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
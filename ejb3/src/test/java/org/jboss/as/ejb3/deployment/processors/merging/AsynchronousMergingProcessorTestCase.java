@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.deployment.processors.merging;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.jboss.as.ee.component.ComponentConfiguration;
+import org.jboss.as.ee.component.ViewConfiguration;
+import org.jboss.as.ejb3.component.EJBComponentDescription;
+import org.jboss.as.ejb3.component.EJBViewConfiguration;
+import org.jboss.as.ejb3.component.MethodIntf;
+import org.jboss.as.ejb3.component.interceptors.AsyncFutureInterceptorFactory;
+import org.jboss.as.ejb3.component.interceptors.LogDiagnosticContextRecoveryInterceptor;
+import org.jboss.as.ejb3.component.interceptors.LogDiagnosticContextStorageInterceptor;
+import org.jboss.as.ejb3.security.SecurityDomainInterceptorFactory;
+import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
+import org.jboss.invocation.InterceptorFactory;
+import org.junit.Test;
+
+/**
+ * Tests the client interceptors {@link AsynchronousMergingProcessor} adds to asynchronous methods, with and without
+ * a lean interceptor chain.
+ */
+public class AsynchronousMergingProcessorTestCase {
+
+    public interface AsyncView {
+        void fire();
+
+        Future<String> compute();
+
+        String call();
+    }
+
+    @Test
+    public void testFullChain() throws Exception {
+        this.verifyChain(AsyncView.class.getMethod("fire"), false, false,
+                LogDiagnosticContextStorageInterceptor.getFactory(), AsyncFutureInterceptorFactory.INSTANCE, LogDiagnosticContextRecoveryInterceptor.getFactory());
+        this.verifyChain(AsyncView.class.getMethod("compute"), true, false,
+                LogDiagnosticContextStorageInterceptor.getFactory(), SecurityDomainInterceptorFactory.INSTANCE, AsyncFutureInterceptorFactory.INSTANCE, LogDiagnosticContextRecoveryInterceptor.getFactory());
+    }
+
+    @Test
+    public void testLeanChain() throws Exception {
+        this.verifyChain(AsyncView.class.getMethod("fire"), false, true, AsyncFutureInterceptorFactory.INSTANCE);
+        // the remaining interceptors keep their relative order
+        this.verifyChain(AsyncView.class.getMethod("compute"), true, true, SecurityDomainInterceptorFactory.INSTANCE, AsyncFutureInterceptorFactory.INSTANCE);
+    }
+
+    @Test(expected = DeploymentUnitProcessingException.class)
+    public void testWrongReturnType() throws Exception {
+        AsynchronousMergingProcessor.addAsyncInterceptor(createViewConfiguration(), AsyncView.class.getMethod("call"), false, true);
+    }
+
+    private void verifyChain(final Method method, final boolean isSecurityDomainKnown, final boolean leanInterceptorChain, final InterceptorFactory... expected) throws DeploymentUnitProcessingException {
+        final ViewConfiguration configuration = createViewConfiguration();
+        AsynchronousMergingProcessor.addAsyncInterceptor(configuration, method, isSecurityDomainKnown, leanInterceptorChain);
+        final List<InterceptorFactory> factories = configuration.getClientInterceptors(method);
+        assertEquals(Arrays.asList(expected), factories);
+        assertEquals(Collections.emptyList(), configuration.getViewInterceptors(method));
+    }
+
+    private static ViewConfiguration createViewConfiguration() {
+        final EJBComponentDescription description = mock(EJBComponentDescription.class);
+        final ComponentConfiguration componentConfiguration = mock(ComponentConfiguration.class);
+        when(componentConfiguration.getComponentDescription()).thenReturn(description);
+        return new EJBViewConfiguration(AsyncView.class, componentConfiguration, null, null, MethodIntf.LOCAL);
+    }
+}
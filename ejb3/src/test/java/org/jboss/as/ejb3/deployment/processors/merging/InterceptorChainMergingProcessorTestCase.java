@@ -0,0 +1,59 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.deployment.processors.merging;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.jboss.as.ejb3.component.EJBComponentDescription;
+import org.junit.Test;
+
+/**
+ * Tests that {@link InterceptorChainMergingProcessor} applies the current subsystem settings to each deployed bean.
+ */
+public class InterceptorChainMergingProcessorTestCase {
+
+    @Test
+    public void testDefaults() throws Exception {
+        final EJBComponentDescription description = mock(EJBComponentDescription.class);
+        new InterceptorChainMergingProcessor().handleDeploymentDescriptor(null, null, null, description);
+        verify(description).setLeanInterceptorChain(false);
+        verify(description).setInterceptorStatisticsEnabled(false);
+    }
+
+    @Test
+    public void testSettingsApplyToLaterDeployments() throws Exception {
+        final InterceptorChainMergingProcessor processor = new InterceptorChainMergingProcessor();
+        processor.setLeanInterceptorChain(true);
+        processor.setInterceptorStatisticsEnabled(true);
+        final EJBComponentDescription first = mock(EJBComponentDescription.class);
+        processor.handleDeploymentDescriptor(null, null, null, first);
+        verify(first).setLeanInterceptorChain(true);
+        verify(first).setInterceptorStatisticsEnabled(true);
+
+        processor.setLeanInterceptorChain(false);
+        final EJBComponentDescription second = mock(EJBComponentDescription.class);
+        processor.handleDeploymentDescriptor(null, null, null, second);
+        verify(second).setLeanInterceptorChain(false);
+        verify(second).setInterceptorStatisticsEnabled(true);
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.striped;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.pool.Pool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+import org.jboss.as.ejb3.pool.common.MockBean;
+import org.jboss.as.ejb3.pool.common.MockFactory;
+import org.junit.Test;
+
+/**
+ * Tests for {@link StripedPool}, using more stripes than there are threads so that permits and instances must be
+ * stolen from other stripes.
+ */
+public class StripedPoolUnitTestCase {
+
+    @Test
+    public void test1() {
+        MockBean.reset();
+        StatelessObjectFactory<MockBean> factory = new MockFactory();
+        Pool<MockBean> pool = new StripedPool<>(factory, 0, 10, 4, 1, TimeUnit.SECONDS);
+        pool.start();
+
+        MockBean[] beans = new MockBean[10];
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = pool.get();
+        }
+        assertEquals(0, pool.getAvailableCount());
+
+        for (int i = 0; i < beans.length; i++) {
+            pool.release(beans[i]);
+            beans[i] = null;
+        }
+        assertEquals(10, pool.getAvailableCount());
+
+        // Instances released to one stripe must be reused by the others
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = pool.get();
+        }
+        for (int i = 0; i < beans.length; i++) {
+            pool.release(beans[i]);
+        }
+
+        pool.stop();
+
+        assertEquals(10, MockBean.getPostConstructs());
+        assertEquals(10, MockBean.getPreDestroys());
+    }
+
+    /**
+     * More threads than the pool size.
+     */
+    @Test
+    public void testMultiThread() throws Exception {
+        MockBean.reset();
+        StatelessObjectFactory<MockBean> factory = new MockFactory();
+        final Pool<MockBean> pool = new StripedPool<>(factory, 0, 10, 8, 60, TimeUnit.SECONDS);
+        pool.start();
+
+        final AtomicInteger used = new AtomicInteger(0);
+        final CountDownLatch in = new CountDownLatch(1);
+        final CountDownLatch ready = new CountDownLatch(10);
+
+        Callable<Void> task = new Callable<Void>() {
+            public Void call() throws Exception {
+                MockBean bean = pool.get();
+                ready.countDown();
+                in.await();
+                pool.release(bean);
+
+                used.incrementAndGet();
+
+                return null;
+            }
+        };
+
+        ExecutorService service = Executors.newFixedThreadPool(20);
+        Future<?>[] results = new Future<?>[20];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = service.submit(task);
+        }
+
+        ready.await(120, TimeUnit.SECONDS);
+        in.countDown();
+
+        for (Future<?> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        service.shutdown();
+
+        pool.stop();
+
+        assertEquals(20, used.intValue());
+        assertEquals(10, MockBean.getPostConstructs());
+        assertEquals(10, MockBean.getPreDestroys());
+    }
+
+    @Test
+    public void testTooMany() {
+        MockBean.reset();
+        StatelessObjectFactory<MockBean> factory = new MockFactory();
+        Pool<MockBean> pool = new StripedPool<>(factory, 0, 10, 4, 1, TimeUnit.SECONDS);
+        pool.start();
+
+        MockBean[] beans = new MockBean[10];
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = pool.get();
+        }
+
+        try {
+            pool.get();
+            fail("should have thrown an exception");
+        } catch (Exception e) {
+            assertEquals(EjbLogger.ROOT_LOGGER.failedToAcquirePermit(1, TimeUnit.SECONDS).getMessage(), e.getMessage());
+        }
+
+        for (int i = 0; i < beans.length; i++) {
+            pool.release(beans[i]);
+            beans[i] = null;
+        }
+
+        pool.stop();
+
+        assertEquals(10, MockBean.getPostConstructs());
+        assertEquals(10, MockBean.getPreDestroys());
+    }
+
+    @Test
+    public void testSetMaxSize() throws Exception {
+        MockBean.reset();
+        StatelessObjectFactory<MockBean> factory = new MockFactory();
+        final Pool<MockBean> pool = new StripedPool<>(factory, 0, 2, 4, 60, TimeUnit.SECONDS);
+        pool.start();
+
+        MockBean first = pool.get();
+        MockBean second = pool.get();
+        assertEquals(0, pool.getAvailableCount());
+
+        // A waiting caller must be woken by an increase in the maximum size
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        Future<MockBean> result = service.submit(new Callable<MockBean>() {
+            public MockBean call() {
+                return pool.get();
+            }
+        });
+        pool.setMaxSize(3);
+        MockBean third = result.get(5, TimeUnit.SECONDS);
+        assertNotNull(third);
+        assertEquals(3, pool.getMaxSize());
+        service.shutdown();
+
+        // Shrinking below the number of instances in use destroys the surplus as it is released
+        pool.setMaxSize(1);
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        assertEquals(1, pool.getCurrentSize());
+        assertEquals(1, pool.getAvailableCount());
+
+        pool.stop();
+
+        assertEquals(3, MockBean.getPostConstructs());
+        assertEquals(3, MockBean.getPreDestroys());
+    }
+
+    /**
+     * Shrinks a pool whose permits were stolen from, and returned to, different stripes.
+     */
+    @Test
+    public void testShrinkAfterStealing() throws Exception {
+        MockBean.reset();
+        StatelessObjectFactory<MockBean> factory = new MockFactory();
+        final Pool<MockBean> pool = new StripedPool<>(factory, 0, 8, 2, 100, TimeUnit.MILLISECONDS);
+        pool.start();
+
+        // Acquire from every stripe, then release everything from this thread, i.e. to a single stripe
+        MockBean[] beans = new MockBean[8];
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = pool.get();
+        }
+        pool.setMaxSize(4);
+        for (MockBean bean : beans) {
+            pool.release(bean);
+        }
+        assertEquals(4, pool.getAvailableCount());
+        assertEquals(4, pool.getCurrentSize());
+
+        for (int i = 0; i < 4; i++) {
+            beans[i] = pool.get();
+        }
+        assertEquals(0, pool.getAvailableCount());
+        try {
+            pool.get();
+            fail("should have thrown an exception");
+        } catch (Exception e) {
+            assertEquals(EjbLogger.ROOT_LOGGER.failedToAcquirePermit(100, TimeUnit.MILLISECONDS).getMessage(), e.getMessage());
+        }
+        for (int i = 0; i < 4; i++) {
+            pool.release(beans[i]);
+        }
+
+        pool.stop();
+
+        assertEquals(8, MockBean.getPostConstructs());
+        assertEquals(8, MockBean.getPreDestroys());
+    }
+
+    /**
+     * Shrinks a pool while it is in use, and verifies that, once every thread has returned the instance it held at
+     * the time, concurrent checkouts never exceed the new maximum size.
+     */
+    @Test
+    public void testConcurrentShrink() throws Exception {
+        MockBean.reset();
+        StatelessObjectFactory<MockBean> factory = new MockFactory();
+        final Pool<MockBean> pool = new StripedPool<>(factory, 0, 8, 2, 60, TimeUnit.SECONDS);
+        pool.start();
+
+        final int threads = 8;
+        final int iterations = 20000;
+        final AtomicInteger inUse = new AtomicInteger(0);
+        final AtomicInteger settled = new AtomicInteger(0);
+        final AtomicInteger maxInUse = new AtomicInteger(0);
+        final Semaphore shrunk = new Semaphore(0);
+        final CountDownLatch running = new CountDownLatch(threads);
+
+        Callable<Void> task = new Callable<Void>() {
+            public Void call() {
+                boolean observed = false;
+                running.countDown();
+                for (int i = 0; i < iterations; i++) {
+                    // Only count checkouts made once every thread has released what it held before the shrink
+                    if (!observed && (shrunk.availablePermits() > 0)) {
+                        observed = true;
+                        settled.incrementAndGet();
+                    }
+                    MockBean bean = pool.get();
+                    int current = inUse.incrementAndGet();
+                    if (settled.get() == threads) {
+                        int max = maxInUse.get();
+                        while ((current > max) && !maxInUse.compareAndSet(max, current)) {
+                            max = maxInUse.get();
+                        }
+                    }
+                    Thread.yield();
+                    inUse.decrementAndGet();
+                    pool.release(bean);
+                }
+                return null;
+            }
+        };
+
+        ExecutorService service = Executors.newFixedThreadPool(threads);
+        Future<?>[] results = new Future<?>[threads];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = service.submit(task);
+        }
+        running.await(60, TimeUnit.SECONDS);
+        pool.setMaxSize(4);
+        shrunk.release();
+
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        service.shutdown();
+
+        assertEquals(threads, settled.get());
+        assertTrue(String.valueOf(maxInUse.get()), maxInUse.get() <= 4);
+        assertTrue(String.valueOf(pool.getCurrentSize()), pool.getCurrentSize() <= 4);
+        assertEquals(pool.getCurrentSize(), pool.getAvailableCount());
+
+        pool.stop();
+
+        assertEquals(MockBean.getPostConstructs(), MockBean.getPreDestroys());
+    }
+}
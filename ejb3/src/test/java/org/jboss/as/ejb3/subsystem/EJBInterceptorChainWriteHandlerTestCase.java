@@ -0,0 +1,85 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.as.ejb3.deployment.processors.merging.InterceptorChainMergingProcessor;
+import org.jboss.dmr.ModelNode;
+import org.junit.Test;
+
+/**
+ * Tests that {@link EJBInterceptorChainWriteHandler} pushes the interceptor chain settings to the
+ * {@link InterceptorChainMergingProcessor}, and restores them on rollback.
+ */
+public class EJBInterceptorChainWriteHandlerTestCase {
+
+    @Test
+    public void testUpdateAndRevert() throws Exception {
+        final InterceptorChainMergingProcessor processor = new InterceptorChainMergingProcessor();
+        final EJBInterceptorChainWriteHandler handler = new EJBInterceptorChainWriteHandler(processor);
+        final ModelNode model = new ModelNode();
+        final OperationContext context = createOperationContext(model);
+
+        // undefined attributes fall back to their defaults
+        handler.updateInterceptorChain(context, model);
+        assertFalse(processor.isLeanInterceptorChain());
+        assertFalse(processor.isInterceptorStatisticsEnabled());
+
+        model.get(EJB3SubsystemModel.LEAN_INTERCEPTOR_CHAIN).set(true);
+        handler.applyUpdateToRuntime(context, new ModelNode(), EJB3SubsystemModel.LEAN_INTERCEPTOR_CHAIN, new ModelNode(true), new ModelNode(false), null);
+        assertTrue(processor.isLeanInterceptorChain());
+        assertFalse(processor.isInterceptorStatisticsEnabled());
+
+        model.get(EJB3SubsystemModel.INTERCEPTOR_STATISTICS_ENABLED).set(true);
+        handler.applyUpdateToRuntime(context, new ModelNode(), EJB3SubsystemModel.INTERCEPTOR_STATISTICS_ENABLED, new ModelNode(true), new ModelNode(false), null);
+        assertTrue(processor.isLeanInterceptorChain());
+        assertTrue(processor.isInterceptorStatisticsEnabled());
+
+        handler.revertUpdateToRuntime(context, new ModelNode(), EJB3SubsystemModel.INTERCEPTOR_STATISTICS_ENABLED, new ModelNode(false), new ModelNode(true), null);
+        assertTrue(processor.isLeanInterceptorChain());
+        assertFalse(processor.isInterceptorStatisticsEnabled());
+    }
+
+    @Test
+    public void testNoProcessor() throws Exception {
+        final ModelNode model = new ModelNode();
+        model.get(EJB3SubsystemModel.LEAN_INTERCEPTOR_CHAIN).set(true);
+        new EJBInterceptorChainWriteHandler(null).updateInterceptorChain(createOperationContext(model), model);
+    }
+
+    private static OperationContext createOperationContext(final ModelNode model) throws Exception {
+        final Resource resource = mock(Resource.class);
+        when(resource.getModel()).thenReturn(model);
+        final OperationContext context = mock(OperationContext.class);
+        when(context.readResource(PathAddress.EMPTY_ADDRESS)).thenReturn(resource);
+        when(context.resolveExpressions(any(ModelNode.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+        return context;
+    }
+}
@@ -68,7 +68,7 @@ public class Ejb3SubsystemUnitTestCase extends AbstractSubsystemBaseTest {
 
     @Override
     protected String getSubsystemXsdPath() throws Exception {
-        return "schema/wildfly-ejb3_5_0.xsd";
+        return "schema/wildfly-ejb3_6_0.xsd";
     }
 
     @Override
@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.ejb3.timerservice.TimerScheduler;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TimerScheduler}.
+ */
+public class TimerSchedulerTestCase {
+
+    @Test
+    public void testSlowOwnerDoesNotDelayOtherOwners() throws InterruptedException {
+        TimerScheduler scheduler = new TimerScheduler(2, Executors.defaultThreadFactory());
+        try {
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch fired = new CountDownLatch(1);
+            scheduler.schedule("slow", () -> {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, 0);
+            // Tasks of some other owner, assigned to the other shard, must still fire
+            int owner = 0;
+            while ((fired.getCount() > 0) && (owner < 16)) {
+                scheduler.schedule(Integer.toString(owner++), fired::countDown, 0);
+                fired.await(100, TimeUnit.MILLISECONDS);
+            }
+            blocked.countDown();
+            Assert.assertEquals(0, fired.getCount());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testFixedRate() throws InterruptedException {
+        TimerScheduler scheduler = new TimerScheduler(1, Executors.defaultThreadFactory());
+        try {
+            CountDownLatch latch = new CountDownLatch(3);
+            AtomicInteger failures = new AtomicInteger();
+            ScheduledFuture<?> future = scheduler.scheduleAtFixedRate("owner", () -> {
+                latch.countDown();
+                // A failing execution must not suppress subsequent executions
+                if (failures.getAndIncrement() == 0) {
+                    throw new IllegalStateException();
+                }
+            }, 0, 10);
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            future.cancel(false);
+            Assert.assertTrue(scheduler.getTimeoutCount() >= 3);
+            Assert.assertTrue(scheduler.getMaxLag() >= scheduler.getAverageLag());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        TimerScheduler scheduler = new TimerScheduler(1, Executors.defaultThreadFactory());
+        try {
+            AtomicInteger count = new AtomicInteger();
+            ScheduledFuture<?> future = scheduler.schedule("owner", count::incrementAndGet, 50);
+            Assert.assertEquals(1, scheduler.getScheduledCount());
+            Assert.assertTrue(future.cancel(false));
+            Assert.assertEquals(0, scheduler.getScheduledCount());
+            Thread.sleep(100);
+            Assert.assertEquals(0, count.get());
+            Assert.assertEquals(0, scheduler.getTimeoutCount());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
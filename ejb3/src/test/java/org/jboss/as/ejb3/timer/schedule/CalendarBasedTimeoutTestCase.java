@@ -22,10 +22,12 @@
 package org.jboss.as.ejb3.timer.schedule;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
+import java.util.Random;
 import java.util.TimeZone;
 
 import javax.ejb.ScheduleExpression;
@@ -879,6 +881,174 @@ public class CalendarBasedTimeoutTestCase {
         }
     }
 
+    /**
+     * Successive timeouts within a matching day are computed from the time of day only,
+     * make sure they are identical to the ones walking the calendar fields, including the transition to the next matching day.
+     */
+    @Test
+    public void testNextTimeoutWithinMatchingDay() {
+        Calendar start = new GregorianCalendar(TimeZone.getTimeZone("Europe/Berlin"));
+        start.clear();
+        // Friday
+        start.set(2018, Calendar.JUNE, 15, 8, 0, 0);
+
+        ScheduleExpression schedule = new ScheduleExpression();
+        schedule.dayOfWeek("Mon-Fri")
+                .hour("9-17")
+                .minute("*/20")
+                .second("30")
+                .timezone("Europe/Berlin")
+                .start(start.getTime());
+        CalendarBasedTimeout calendarTimeout = new CalendarBasedTimeout(schedule);
+        Calendar current = calendarTimeout.getFirstTimeout();
+        Assert.assertNotNull(current);
+        Assert.assertEquals(15, current.get(Calendar.DAY_OF_MONTH));
+        Assert.assertEquals(9, current.get(Calendar.HOUR_OF_DAY));
+        Assert.assertEquals(0, current.get(Calendar.MINUTE));
+        Assert.assertEquals(30, current.get(Calendar.SECOND));
+        for (int i = 1; i < 27; i++) {
+            Calendar next = calendarTimeout.getNextTimeout(current);
+            Assert.assertEquals(current.getTimeInMillis() + 1200000, next.getTimeInMillis());
+            current = next;
+        }
+        Assert.assertEquals(17, current.get(Calendar.HOUR_OF_DAY));
+        Assert.assertEquals(40, current.get(Calendar.MINUTE));
+
+        // in between two timeouts, with a millisecond component
+        Calendar between = (Calendar) current.clone();
+        between.set(Calendar.HOUR_OF_DAY, 12);
+        between.set(Calendar.MINUTE, 20);
+        between.set(Calendar.MILLISECOND, 500);
+        Calendar next = calendarTimeout.getNextTimeout(between);
+        Assert.assertEquals(12, next.get(Calendar.HOUR_OF_DAY));
+        Assert.assertEquals(40, next.get(Calendar.MINUTE));
+        Assert.assertEquals(30, next.get(Calendar.SECOND));
+        Assert.assertEquals(0, next.get(Calendar.MILLISECOND));
+
+        // Monday
+        next = calendarTimeout.getNextTimeout(current);
+        Assert.assertEquals(18, next.get(Calendar.DAY_OF_MONTH));
+        Assert.assertEquals(9, next.get(Calendar.HOUR_OF_DAY));
+        Assert.assertEquals(0, next.get(Calendar.MINUTE));
+        Assert.assertEquals(30, next.get(Calendar.SECOND));
+    }
+
+    /**
+     * Cross-checks successive timeouts of randomized schedules against a fresh {@link CalendarBasedTimeout}, which
+     * always walks the calendar fields, and, for UTC schedules, against a brute force search over the matching values.
+     */
+    @Test
+    public void testNextTimeoutWithinMatchingDayRandomized() {
+        String[] zones = { "UTC", "Europe/Berlin", "America/New_York", "Australia/Lord_Howe", "Asia/Kolkata" };
+        long seed = System.nanoTime();
+        Random random = new Random(seed);
+        for (int i = 0; i < 200; i++) {
+            TimeZone zone = TimeZone.getTimeZone(zones[random.nextInt(zones.length)]);
+            BitSet seconds = new BitSet();
+            BitSet minutes = new BitSet();
+            BitSet hours = new BitSet();
+            BitSet daysOfWeek = new BitSet();
+            ScheduleExpression schedule = new ScheduleExpression()
+                    .second(randomValues(random, 0, 59, true, seconds))
+                    .minute(randomValues(random, 0, 59, true, minutes))
+                    .hour(randomValues(random, 0, 23, true, hours))
+                    .dayOfWeek((random.nextInt(3) == 0) ? randomValues(random, 0, 6, false, daysOfWeek) : wildcard(0, 6, daysOfWeek))
+                    .timezone(zone.getID());
+            CalendarBasedTimeout calendarTimeout = new CalendarBasedTimeout(schedule);
+
+            Calendar current = new GregorianCalendar(zone);
+            current.setTimeInMillis(1514764800000L + (long) (random.nextDouble() * 3L * 365L * 24L * 3600L * 1000L));
+            for (int j = 0; j < 50 && current != null; j++) {
+                String message = "seed " + seed + ", " + schedule + " after " + current.getTime().getTime();
+                Calendar expected = new CalendarBasedTimeout(schedule).getNextTimeout(current);
+                Calendar next = calendarTimeout.getNextTimeout(current);
+                Assert.assertNotNull(message, next);
+                Assert.assertEquals(message, expected.getTimeInMillis(), next.getTimeInMillis());
+                if (zone.getID().equals("UTC")) {
+                    Assert.assertEquals(message, nextMatch(current.getTimeInMillis(), seconds, minutes, hours, daysOfWeek), next.getTimeInMillis());
+                }
+                if (random.nextInt(4) == 0) {
+                    // somewhere in between two timeouts, including the milliseconds
+                    current.setTimeInMillis(current.getTimeInMillis() + (long) (random.nextDouble() * (next.getTimeInMillis() - current.getTimeInMillis())));
+                } else {
+                    current = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates a random attribute value, i.e. a single value, a range, an increment, a list or a wildcard, and
+     * records the values it matches.
+     */
+    private static String randomValues(Random random, int min, int max, boolean increments, BitSet matches) {
+        int first = min + random.nextInt(max - min + 1);
+        int type = random.nextInt(5);
+        if (type == 2 && !increments) {
+            type = 3;
+        }
+        switch (type) {
+            case 0: {
+                matches.set(first);
+                return String.valueOf(first);
+            }
+            case 1: {
+                int last = first + random.nextInt(max - first + 1);
+                matches.set(first, last + 1);
+                return first + "-" + last;
+            }
+            case 2: {
+                int increment = 1 + random.nextInt(max - min);
+                for (int value = first; value <= max; value += increment) {
+                    matches.set(value);
+                }
+                return first + "/" + increment;
+            }
+            case 3: {
+                StringBuilder builder = new StringBuilder().append(first);
+                matches.set(first);
+                for (int count = random.nextInt(4); count > 0; count--) {
+                    int value = min + random.nextInt(max - min + 1);
+                    matches.set(value);
+                    builder.append(',').append(value);
+                }
+                return builder.toString();
+            }
+            default: {
+                return wildcard(min, max, matches);
+            }
+        }
+    }
+
+    private static String wildcard(int min, int max, BitSet matches) {
+        matches.set(min, max + 1);
+        return "*";
+    }
+
+    /**
+     * Searches the first matching second, in UTC, after the given time.
+     */
+    private static long nextMatch(long time, BitSet seconds, BitSet minutes, BitSet hours, BitSet daysOfWeek) {
+        long day = 24L * 3600L * 1000L;
+        long after = (time / 1000L) * 1000L + 1000L;
+        for (long start = (after / day) * day; ; start += day) {
+            // 1970-01-01 was a Thursday
+            if (!daysOfWeek.get((int) (((start / day) + 4) % 7))) {
+                continue;
+            }
+            for (int hour = hours.nextSetBit(0); hour >= 0; hour = hours.nextSetBit(hour + 1)) {
+                for (int minute = minutes.nextSetBit(0); minute >= 0; minute = minutes.nextSetBit(minute + 1)) {
+                    for (int second = seconds.nextSetBit(0); second >= 0; second = seconds.nextSetBit(second + 1)) {
+                        long match = start + ((hour * 60L + minute) * 60L + second) * 1000L;
+                        if (match >= after) {
+                            return match;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     private ScheduleExpression getTimezoneSpecificScheduleExpression() {
         ScheduleExpression scheduleExpression = new ScheduleExpression().timezone(this.timezone.getID());
         GregorianCalendar start = new GregorianCalendar(this.timezone);
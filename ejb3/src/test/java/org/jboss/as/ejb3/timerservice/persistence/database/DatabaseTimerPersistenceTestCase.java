@@ -0,0 +1,117 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.database;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence.TimerChangeListener;
+import org.junit.Test;
+
+/**
+ * Unit test for the refresh of the timer ids known to a {@link DatabaseTimerPersistence}.
+ */
+public class DatabaseTimerPersistenceTestCase {
+
+    private static final String TIMED_OBJECT_ID = "timed-object";
+
+    private final DatabaseTimerPersistence persistence = new DatabaseTimerPersistence("h2", "default", "node", 0, true);
+    private final TimerChangeListener listener = mock(TimerChangeListener.class);
+    private final Connection connection = mock(Connection.class);
+
+    private static Set<String> known(String... ids) {
+        Set<String> known = ConcurrentHashMap.newKeySet();
+        known.addAll(Arrays.asList(ids));
+        return known;
+    }
+
+    private static Set<String> ids(String... ids) {
+        return new HashSet<>(Arrays.asList(ids));
+    }
+
+    @Test
+    public void timerPersistedDuringQuery() throws SQLException {
+        Set<String> known = known("a", "b");
+        Set<String> snapshot = new HashSet<>(known);
+        // the query does not see a timer persisted by this node after the snapshot was taken
+        Set<String> persisted = ids("a", "b");
+        known.add("c");
+
+        this.persistence.new RefreshTask().refresh(this.connection, TIMED_OBJECT_ID, known, snapshot, persisted, this.listener);
+
+        assertEquals(ids("a", "b", "c"), known);
+        verify(this.listener, never()).timerRemoved(anyString());
+        verifyZeroInteractions(this.connection);
+    }
+
+    @Test
+    public void timerRemovedByOtherNode() throws SQLException {
+        Set<String> known = known("a", "b");
+        Set<String> snapshot = new HashSet<>(known);
+        Set<String> persisted = ids("a");
+        known.add("c");
+
+        this.persistence.new RefreshTask().refresh(this.connection, TIMED_OBJECT_ID, known, snapshot, persisted, this.listener);
+
+        assertEquals(ids("a", "c"), known);
+        verify(this.listener).timerRemoved("b");
+        verify(this.listener, never()).timerRemoved("c");
+        verifyZeroInteractions(this.connection);
+    }
+
+    @Test
+    public void timerRemovedDuringQuery() throws SQLException {
+        Set<String> known = known("a", "b");
+        Set<String> snapshot = new HashSet<>(known);
+        Set<String> persisted = ids("a");
+        // this node removes the timer itself after the snapshot was taken
+        known.remove("b");
+
+        this.persistence.new RefreshTask().refresh(this.connection, TIMED_OBJECT_ID, known, snapshot, persisted, this.listener);
+
+        assertEquals(ids("a"), known);
+        verify(this.listener, never()).timerRemoved(anyString());
+    }
+
+    @Test
+    public void timerPersistedAfterSnapshot() throws SQLException {
+        Set<String> known = known("a");
+        Set<String> snapshot = new HashSet<>(known);
+        // the query sees a timer that this node persisted after the snapshot was taken
+        known.add("b");
+        Set<String> persisted = ids("a", "b");
+
+        this.persistence.new RefreshTask().refresh(this.connection, TIMED_OBJECT_ID, known, snapshot, persisted, this.listener);
+
+        assertEquals(ids("a", "b"), known);
+        verify(this.listener, never()).timerAdded(any());
+        verify(this.listener, never()).timerRemoved(anyString());
+        verifyZeroInteractions(this.connection);
+    }
+}
@@ -30,6 +30,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.NavigableSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 
 import javax.naming.Binding;
@@ -58,12 +60,18 @@ import org.wildfly.security.manager.WildFlySecurityManager;
  * @author Eduardo Martins
  */
 public class ServiceBasedNamingStore implements NamingStore {
+    // upper bound of the number of names whose service names are cached for lookup
+    private static final int MAX_LOOKUP_NAMES = 1024;
+
     private final Name EMPTY_NAME = new CompositeName();
     private Name baseName;
     private final ServiceRegistry serviceRegistry;
     private final ServiceName serviceNameBase;
 
     private ConcurrentSkipListSet<ServiceName> boundServices = new ConcurrentSkipListSet<ServiceName>();
+    // service names of looked up composite names, by name, so that repeated lookups of the same name, e.g. java:comp/env
+    // entries, don't rebuild the service name one component at a time
+    private final ConcurrentMap<String, ServiceName> lookupNames = new ConcurrentHashMap<String, ServiceName>();
 
     public ServiceBasedNamingStore(final ServiceRegistry serviceRegistry, final ServiceName serviceNameBase) {
         this.serviceRegistry = serviceRegistry;
@@ -79,13 +87,14 @@ public class ServiceBasedNamingStore implements NamingStore {
         if (name.isEmpty()) {
             return new NamingContext(EMPTY_NAME, this, null);
         }
-        final ServiceName lookupName = buildServiceName(name);
-        Object obj = lookup(name.toString(), lookupName, dereference);
+        final String nameString = name.toString();
+        final ServiceName lookupName = buildLookupServiceName(name, nameString);
+        Object obj = lookup(nameString, lookupName, dereference);
         if (obj == null) {
             final ServiceName lower = boundServices.lower(lookupName);
             if (lower != null && lower.isParentOf(lookupName)) {
                 // Parent might be a reference or a link
-                obj = lookup(name.toString(), lower, dereference);
+                obj = lookup(nameString, lower, dereference);
                 //if the lower is a context that has been explicitly bound then
                 //we do not return a resolve result, as this will result in an
                 //infinite loop
@@ -103,12 +112,31 @@ public class ServiceBasedNamingStore implements NamingStore {
                 }
                 return new NamingContext((Name) name.clone(), this, null);
             }
-            throw new NameNotFoundException(name.toString() + " -- " + lookupName);
+            throw new NameNotFoundException(nameString + " -- " + lookupName);
         }
 
         return obj;
     }
 
+    /**
+     * Returns the service name of the specified name, from the cache of looked up names if possible.  Only composite
+     * names are cached, since their string form identifies their components.  The service name of a name never changes,
+     * so cached entries never need to be invalidated; bindings themselves are still resolved from the service registry.
+     */
+    private ServiceName buildLookupServiceName(final Name name, final String nameString) {
+        if (name.getClass() != CompositeName.class) {
+            return buildServiceName(name);
+        }
+        ServiceName serviceName = lookupNames.get(nameString);
+        if (serviceName == null) {
+            serviceName = buildServiceName(name);
+            if (lookupNames.size() < MAX_LOOKUP_NAMES) {
+                lookupNames.putIfAbsent(nameString, serviceName);
+            }
+        }
+        return serviceName;
+    }
+
     private void checkReferenceForContinuation(final Name name, final Object object) throws CannotProceedException {
         if (object instanceof Reference) {
             if (((Reference) object).get("nns") != null) {
@@ -257,6 +285,7 @@ public class ServiceBasedNamingStore implements NamingStore {
 
     public void close() throws NamingException {
         boundServices.clear();
+        lookupNames.clear();
     }
 
     public void addNamingListener(Name target, int scope, NamingListener listener) {
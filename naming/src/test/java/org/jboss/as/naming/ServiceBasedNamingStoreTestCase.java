@@ -31,12 +31,15 @@ import javax.naming.CompositeName;
 import javax.naming.Context;
 import javax.naming.Name;
 import javax.naming.NameClassPair;
+import javax.naming.NameNotFoundException;
 import javax.naming.NameParser;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
 
+import org.jboss.msc.service.AbstractServiceListener;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceContainer;
+import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
@@ -98,6 +101,42 @@ public class ServiceBasedNamingStoreTestCase {
         assertEquals(value, obj);
     }
 
+    @Test
+    public void testRepeatedLookupBinding() throws Exception {
+        final ServiceName bindingName = ServiceName.JBOSS.append("foo", "bar");
+        final Object value = new Object();
+        bindObject(bindingName, value);
+
+        for (int i = 0; i < 3; ++i) {
+            assertEquals(value, store.lookup(new CompositeName("foo/bar")));
+        }
+        assertEquals(value, store.lookup(new CompositeName("foo//bar")));
+        assertTrue(store.lookup(new CompositeName("foo")) instanceof Context);
+
+        // A cached name must resolve to the current binding
+        unbindObject(bindingName);
+        try {
+            store.lookup(new CompositeName("foo/bar"));
+            fail("Should have thrown name not found");
+        } catch (NameNotFoundException expected) {
+        }
+        final Object newValue = new Object();
+        bindObject(bindingName, newValue);
+        assertEquals(newValue, store.lookup(new CompositeName("foo/bar")));
+    }
+
+    @Test
+    public void testLookupBindingAfterNameNotFound() throws Exception {
+        try {
+            store.lookup(new CompositeName("foo/bar"));
+            fail("Should have thrown name not found");
+        } catch (NameNotFoundException expected) {
+        }
+        final Object value = new Object();
+        bindObject(ServiceName.JBOSS.append("foo", "bar"), value);
+        assertEquals(value, store.lookup(new CompositeName("foo/bar")));
+    }
+
     @Test
     public void testLookupParentContext() throws Exception {
         final ServiceName bindingName = ServiceName.JBOSS.append("foo", "bar");
@@ -398,6 +437,20 @@ public class ServiceBasedNamingStoreTestCase {
         fail("Child [" + name + "] not found in [" + list + "]");
     }
 
+    private void unbindObject(final ServiceName serviceName) throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final ServiceController<?> controller = container.getRequiredService(serviceName);
+        controller.addListener(new AbstractServiceListener<Object>() {
+            public void transition(ServiceController<?> controller, ServiceController.Transition transition) {
+                if (transition == ServiceController.Transition.REMOVING_to_REMOVED) {
+                    latch.countDown();
+                }
+            }
+        });
+        controller.setMode(ServiceController.Mode.REMOVE);
+        latch.await();
+    }
+
     private void bindObject(final ServiceName serviceName, final Object value) throws Exception {
         final CountDownLatch latch = new CountDownLatch(1);
         container.addService(serviceName, new Service<ManagedReferenceFactory>() {
@@ -407,6 +460,7 @@ public class ServiceBasedNamingStoreTestCase {
             }
 
             public void stop(StopContext context) {
+                store.remove(serviceName);
             }
 
             public ManagedReferenceFactory getValue() throws IllegalStateException, IllegalArgumentException {
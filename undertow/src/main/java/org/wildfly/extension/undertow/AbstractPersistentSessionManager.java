@@ -47,6 +47,7 @@ import java.nio.ByteBuffer;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Persistent session manager
@@ -69,19 +70,7 @@ public abstract class AbstractPersistentSessionManager implements SessionPersist
             try {
                 final Map<String, SessionEntry> serializedData = new HashMap<String, SessionEntry>();
                 for (Map.Entry<String, PersistentSession> sessionEntry : sessionData.entrySet()) {
-                    Map<String, byte[]> data = new HashMap<String, byte[]>();
-                    for (Map.Entry<String, Object> sessionAttribute : sessionEntry.getValue().getSessionData().entrySet()) {
-                        try {
-                            final ByteArrayOutputStream out = new ByteArrayOutputStream();
-                            marshaller.start(new OutputStreamByteOutput(out));
-                            marshaller.writeObject(sessionAttribute.getValue());
-                            marshaller.finish();
-                            data.put(sessionAttribute.getKey(), out.toByteArray());
-                        } catch (Exception e) {
-                            UndertowLogger.ROOT_LOGGER.failedToPersistSessionAttribute(sessionAttribute.getKey(), sessionAttribute.getValue(), sessionEntry.getKey(), e);
-                        }
-                    }
-                    serializedData.put(sessionEntry.getKey(), new SessionEntry(sessionEntry.getValue().getExpiration(), data));
+                    serializedData.put(sessionEntry.getKey(), serializeSession(marshaller, sessionEntry.getKey(), sessionEntry.getValue()));
                 }
                 persistSerializedSessions(deploymentName, serializedData);
             } finally {
@@ -97,6 +86,23 @@ public abstract class AbstractPersistentSessionManager implements SessionPersist
 
     protected abstract Map<String, SessionEntry> loadSerializedSessions(final String deploymentName) throws IOException;
 
+    /**
+     * Stores the serialized sessions of a deployment that were modified since they were last stored, and removes the
+     * stored sessions that no longer exist, for managers that store sessions incrementally.
+     * Unlike {@link #persistSerializedSessions(String, Map)}, the specified sessions need not be all sessions of the deployment.
+     * Does nothing by default.
+     */
+    protected void persistModifiedSessions(String deploymentName, Map<String, SessionEntry> modifiedData, Set<String> removedSessions) throws IOException {
+    }
+
+    /**
+     * Loads the serialized attributes of a single stored session of a deployment, for managers that load sessions lazily.
+     * Returns null, i.e. the session is not stored, by default.
+     */
+    protected Map<String, byte[]> loadSerializedSession(String deploymentName, String sessionId) throws IOException {
+        return null;
+    }
+
     @Override
     public Map<String, PersistentSession> loadSessionAttributes(String deploymentName, final ClassLoader classLoader) {
         try {
@@ -108,13 +114,7 @@ public abstract class AbstractPersistentSessionManager implements SessionPersist
                     Map<String, PersistentSession> ret = new HashMap<String, PersistentSession>();
                     for (Map.Entry<String, SessionEntry> sessionEntry : data.entrySet()) {
                         if (sessionEntry.getValue().expiry.getTime() > time) {
-                            Map<String, Object> session = new HashMap<String, Object>();
-                            for (Map.Entry<String, byte[]> sessionAttribute : sessionEntry.getValue().data.entrySet()) {
-                                unmarshaller.start(new ByteBufferInput(ByteBuffer.wrap(sessionAttribute.getValue())));
-                                session.put(sessionAttribute.getKey(), unmarshaller.readObject());
-                                unmarshaller.finish();
-                            }
-                            ret.put(sessionEntry.getKey(), new PersistentSession(sessionEntry.getValue().expiry, session));
+                            ret.put(sessionEntry.getKey(), new PersistentSession(sessionEntry.getValue().expiry, deserializeSessionAttributes(unmarshaller, sessionEntry.getValue().data)));
                         }
                     }
                     return ret;
@@ -128,6 +128,36 @@ public abstract class AbstractPersistentSessionManager implements SessionPersist
         return null;
     }
 
+    /**
+     * Serializes each attribute of the given session separately, so that a single non-serializable attribute does not
+     * prevent the rest of the session from being persisted.
+     */
+    protected SessionEntry serializeSession(Marshaller marshaller, String sessionId, PersistentSession session) {
+        Map<String, byte[]> data = new HashMap<String, byte[]>();
+        for (Map.Entry<String, Object> sessionAttribute : session.getSessionData().entrySet()) {
+            try {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                marshaller.start(new OutputStreamByteOutput(out));
+                marshaller.writeObject(sessionAttribute.getValue());
+                marshaller.finish();
+                data.put(sessionAttribute.getKey(), out.toByteArray());
+            } catch (Exception e) {
+                UndertowLogger.ROOT_LOGGER.failedToPersistSessionAttribute(sessionAttribute.getKey(), sessionAttribute.getValue(), sessionId, e);
+            }
+        }
+        return new SessionEntry(session.getExpiration(), data);
+    }
+
+    protected Map<String, Object> deserializeSessionAttributes(Unmarshaller unmarshaller, Map<String, byte[]> data) throws IOException, ClassNotFoundException {
+        Map<String, Object> session = new HashMap<String, Object>();
+        for (Map.Entry<String, byte[]> sessionAttribute : data.entrySet()) {
+            unmarshaller.start(new ByteBufferInput(ByteBuffer.wrap(sessionAttribute.getValue())));
+            session.put(sessionAttribute.getKey(), unmarshaller.readObject());
+            unmarshaller.finish();
+        }
+        return session;
+    }
+
     protected Marshaller createMarshaller() throws IOException {
         return factory.createMarshaller(configuration);
     }
@@ -166,7 +196,7 @@ public abstract class AbstractPersistentSessionManager implements SessionPersist
         private final Date expiry;
         private final Map<String, byte[]> data;
 
-        private SessionEntry(Date expiry, Map<String, byte[]> data) {
+        SessionEntry(Date expiry, Map<String, byte[]> data) {
             this.expiry = expiry;
             this.data = data;
         }
@@ -25,6 +25,7 @@ package org.wildfly.extension.undertow;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 
 
+import io.undertow.server.handlers.cache.DirectBufferCache;
 import org.jboss.as.controller.AbstractAddStepHandler;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.OperationContext;
@@ -63,5 +64,11 @@ final class BufferCacheAdd extends AbstractAddStepHandler {
         target.addService(BufferCacheService.SERVICE_NAME.append(name), service)
                 .setInitialMode(ServiceController.Mode.ON_DEMAND)
                 .install();
+
+        final CompressedContentCacheService compressedContentCache = new CompressedContentCacheService();
+        target.addService(CompressedContentCacheService.SERVICE_NAME.append(name), compressedContentCache)
+                .addDependency(BufferCacheService.SERVICE_NAME.append(name), DirectBufferCache.class, compressedContentCache.getBufferCacheInjector())
+                .setInitialMode(ServiceController.Mode.ON_DEMAND)
+                .install();
     }
 }
@@ -28,13 +28,19 @@ import java.util.Collections;
 import java.util.List;
 
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
 import org.jboss.as.controller.PersistentResourceDefinition;
 import org.jboss.as.controller.ServiceRemoveStepHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
 
 /**
  * @author <a href="mailto:tomaz.cerar@redhat.com">Tomaz Cerar</a> (c) 2013 Red Hat Inc.
@@ -61,6 +67,14 @@ public class BufferCacheDefinition extends PersistentResourceDefinition {
             .setAllowExpression(true)
             .setDefaultValue(new ModelNode(10))
             .build();
+    static final AttributeDefinition COMPRESSED_CONTENT_HITS = new SimpleAttributeDefinitionBuilder("compressed-content-hits", ModelType.LONG)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+    static final AttributeDefinition COMPRESSED_CONTENT_MISSES = new SimpleAttributeDefinitionBuilder("compressed-content-misses", ModelType.LONG)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
     static final BufferCacheDefinition INSTANCE = new BufferCacheDefinition();
     private static final List<SimpleAttributeDefinition> ATTRIBUTES = Collections.unmodifiableList(Arrays.asList(BUFFER_SIZE, BUFFERS_PER_REGION, MAX_REGIONS));
 
@@ -68,11 +82,46 @@ public class BufferCacheDefinition extends PersistentResourceDefinition {
         super(UndertowExtension.PATH_BUFFER_CACHE,
                 UndertowExtension.getResolver(Constants.BUFFER_CACHE),
                 BufferCacheAdd.INSTANCE,
-                new ServiceRemoveStepHandler(BufferCacheService.SERVICE_NAME, BufferCacheAdd.INSTANCE));
+                new ServiceRemoveStepHandler(BufferCacheService.SERVICE_NAME, BufferCacheAdd.INSTANCE) {
+                    @Override
+                    protected void performRuntime(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+                        super.performRuntime(context, operation, model);
+                        context.removeService(CompressedContentCacheService.SERVICE_NAME.append(context.getCurrentAddressValue()));
+                    }
+                });
     }
 
     @Override
     public Collection<AttributeDefinition> getAttributes() {
         return (Collection) ATTRIBUTES;
     }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        super.registerAttributes(resourceRegistration);
+        resourceRegistration.registerMetric(COMPRESSED_CONTENT_HITS, new CompressedContentMetricHandler() {
+            @Override
+            long getMetric(CompressedContentCache cache) {
+                return cache.getHitCount();
+            }
+        });
+        resourceRegistration.registerMetric(COMPRESSED_CONTENT_MISSES, new CompressedContentMetricHandler() {
+            @Override
+            long getMetric(CompressedContentCache cache) {
+                return cache.getMissCount();
+            }
+        });
+    }
+
+    private abstract static class CompressedContentMetricHandler implements OperationStepHandler {
+
+        abstract long getMetric(CompressedContentCache cache);
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            ServiceController<?> controller = context.getServiceRegistry(false).getService(CompressedContentCacheService.SERVICE_NAME.append(context.getCurrentAddressValue()));
+            CompressedContentCache cache = (controller != null && controller.getState() == ServiceController.State.UP) ? (CompressedContentCache) controller.getValue() : null;
+            context.getResult().set(cache != null ? this.getMetric(cache) : 0L);
+        }
+    }
 }
@@ -0,0 +1,171 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import io.undertow.server.handlers.cache.DirectBufferCache;
+import io.undertow.server.handlers.cache.LimitedBufferSlicePool;
+import io.undertow.server.handlers.resource.Resource;
+
+/**
+ * Caches the gzip compressed variants of static resources within a {@link DirectBufferCache}, so that the same content
+ * is not compressed again for every request.
+ * Entries are keyed by the cache key and last modified time of a resource, so a modified resource is compressed anew.
+ */
+public class CompressedContentCache {
+
+    // Resources smaller than this are not worth compressing
+    private static final int MIN_SIZE = 256;
+
+    private final DirectBufferCache cache;
+    private final Set<Key> incompressible = ConcurrentHashMap.newKeySet();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CompressedContentCache(final DirectBufferCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns a referenced cache entry containing the gzip compressed content of the specified resource, compressing
+     * and caching the content if necessary. The caller must dereference the returned entry once its buffers were sent.
+     *
+     * @param resource a static resource
+     * @param maxSize the maximum size of a resource to compress, in bytes
+     * @return a referenced cache entry, or null if the resource cannot be served compressed from this cache
+     * @throws IOException if the resource could not be read
+     */
+    public DirectBufferCache.CacheEntry get(final Resource resource, final int maxSize) throws IOException {
+        final Key key = createKey(resource);
+        if (key == null) {
+            return null;
+        }
+        final DirectBufferCache.CacheEntry existing = cache.get(key);
+        if (existing != null && existing.enabled() && existing.reference()) {
+            hits.increment();
+            return existing;
+        }
+        misses.increment();
+        final DirectBufferCache.CacheEntry entry = compress(key, resource, maxSize);
+        return entry != null && entry.reference() ? entry : null;
+    }
+
+    /**
+     * Compresses and caches the content of the specified resource ahead of its first request.
+     *
+     * @param resource a static resource
+     * @param maxSize the maximum size of a resource to compress, in bytes
+     * @return true, if the compressed content of the resource is cached
+     * @throws IOException if the resource could not be read
+     */
+    public boolean populate(final Resource resource, final int maxSize) throws IOException {
+        final Key key = createKey(resource);
+        if (key == null) {
+            return false;
+        }
+        final DirectBufferCache.CacheEntry existing = cache.get(key);
+        return (existing != null && existing.enabled()) || compress(key, resource, maxSize) != null;
+    }
+
+    private static Key createKey(final Resource resource) {
+        final String cacheKey = resource.getCacheKey();
+        final Date lastModified = resource.getLastModified();
+        return cacheKey != null && !resource.isDirectory() ? new Key(cacheKey, lastModified != null ? lastModified.getTime() : 0L) : null;
+    }
+
+    private DirectBufferCache.CacheEntry compress(final Key key, final Resource resource, final int maxSize) throws IOException {
+        final Long length = resource.getContentLength();
+        final File file = resource.getFile();
+        if (length == null || length < MIN_SIZE || length > maxSize || file == null || incompressible.contains(key)) {
+            return null;
+        }
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(length.intValue() / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            Files.copy(file.toPath(), gzip);
+        }
+        final byte[] compressed = output.toByteArray();
+        if (compressed.length >= length) {
+            incompressible.add(key);
+            return null;
+        }
+        final DirectBufferCache.CacheEntry entry = cache.add(key, compressed.length);
+        // Another thread may be populating this entry, or the cache may be full
+        if (entry == null || !entry.allocate() || !entry.claimEnable()) {
+            return null;
+        }
+        int offset = 0;
+        for (LimitedBufferSlicePool.PooledByteBuffer pooled : entry.buffers()) {
+            final ByteBuffer buffer = pooled.getBuffer();
+            buffer.clear();
+            final int size = Math.min(buffer.remaining(), compressed.length - offset);
+            buffer.put(compressed, offset, size);
+            buffer.flip();
+            offset += size;
+        }
+        entry.enable();
+        return entry;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private static final class Key {
+        private final String cacheKey;
+        private final long lastModified;
+
+        Key(final String cacheKey, final long lastModified) {
+            this.cacheKey = cacheKey;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) object;
+            return cacheKey.equals(key.cacheKey) && lastModified == key.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cacheKey, lastModified);
+        }
+    }
+}
@@ -125,6 +125,7 @@ public interface Constants {
     String ALLOW_NON_STANDARD_WRAPPERS = "allow-non-standard-wrappers";
 
     String PERSISTENT_SESSIONS = "persistent-sessions";
+    String INCREMENTAL = "incremental";
     String DEFAULT_BUFFER_CACHE = "default-buffer-cache";
 
     String RELATIVE_TO = "relative-to";
@@ -0,0 +1,480 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow;
+
+import static java.security.AccessController.doPrivileged;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.session.Session;
+import io.undertow.server.session.SessionListener;
+import io.undertow.servlet.UndertowServletLogger;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.threads.JBossThreadFactory;
+import org.wildfly.extension.undertow.logging.UndertowLogger;
+
+/**
+ * Persistent session manager that stores sessions to disk incrementally.
+ *
+ * Rather than serializing every session of a deployment into a single file on undeploy, sessions are tracked via a
+ * {@link SessionListener} and, periodically, those that were modified or accessed since they were last written are
+ * serialized in parallel and appended to a {@link PersistentSessionStore}. Undeploy then only needs to write the sessions
+ * that changed since the last flush, and a crash loses at most the changes of the last flush interval.
+ * On deploy, only the index of the store is read, and each session is deserialized on first access.
+ */
+public class IncrementalPersistentSessionManager extends DiskBasedModularPersistentSessionManager {
+
+    private static final long FLUSH_INTERVAL = 5;
+    // Minimum number of sessions per serialization task
+    private static final int BATCH_SIZE = 64;
+    private static final String STORE_SUFFIX = ".sessions";
+
+    private static final ThreadFactory THREAD_FACTORY = doPrivileged(new PrivilegedAction<JBossThreadFactory>() {
+        @Override
+        public JBossThreadFactory run() {
+            return new JBossThreadFactory(new ThreadGroup(IncrementalPersistentSessionManager.class.getSimpleName()), Boolean.TRUE, null, "%G - %t", null, null);
+        }
+    });
+
+    private final ConcurrentMap<String, SessionTracker> trackers = new ConcurrentHashMap<>();
+    private final Map<String, PersistentSessionStore> stores = new HashMap<>();
+    private final int parallelism = Runtime.getRuntime().availableProcessors();
+    private volatile ScheduledExecutorService flusher;
+    private volatile ExecutorService serializer;
+
+    public IncrementalPersistentSessionManager(String path, String pathRelativeTo) {
+        super(path, pathRelativeTo);
+    }
+
+    @Override
+    public synchronized void start(StartContext startContext) throws StartException {
+        super.start(startContext);
+        this.serializer = Executors.newFixedThreadPool(this.parallelism, THREAD_FACTORY);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(THREAD_FACTORY);
+        this.flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void stop(StopContext stopContext) {
+        this.flusher.shutdown();
+        try {
+            this.flusher.awaitTermination(FLUSH_INTERVAL, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.serializer.shutdown();
+        this.trackers.clear();
+        synchronized (this.stores) {
+            for (PersistentSessionStore store : this.stores.values()) {
+                store.close();
+            }
+            this.stores.clear();
+        }
+        super.stop(stopContext);
+    }
+
+    /**
+     * Returns a listener that tracks the sessions of the specified deployment, so that they can be flushed to disk while
+     * the deployment is running.
+     */
+    public SessionListener getSessionListener(String deploymentName) {
+        return this.trackers.computeIfAbsent(deploymentName, name -> new SessionTracker());
+    }
+
+    @Override
+    public void persistSessions(String deploymentName, Map<String, PersistentSession> sessionData) {
+        SessionTracker tracker = this.trackers.get(deploymentName);
+        try {
+            PersistentSessionStore store = this.getStore(deploymentName);
+            synchronized ((tracker != null) ? tracker : store) {
+                Map<String, PersistentSession> sessions = new HashMap<>();
+                for (Map.Entry<String, PersistentSession> entry : sessionData.entrySet()) {
+                    String id = entry.getKey();
+                    if ((tracker == null) || tracker.isDirty(id) || !isStored(store, id, entry.getValue().getExpiration())) {
+                        sessions.put(id, entry.getValue());
+                    }
+                }
+                this.persistModifiedSessions(deploymentName, this.serialize(sessions), (tracker != null) ? tracker.drainRemoved() : Collections.<String>emptySet());
+                if (tracker != null) {
+                    tracker.clear();
+                }
+                store.compact(System.currentTimeMillis());
+            }
+        } catch (Exception e) {
+            UndertowServletLogger.ROOT_LOGGER.failedToPersistSessions(e);
+        }
+    }
+
+    @Override
+    public Map<String, PersistentSession> loadSessionAttributes(String deploymentName, ClassLoader classLoader) {
+        try {
+            PersistentSessionStore store = this.getStore(deploymentName);
+            long time = System.currentTimeMillis();
+            Map<String, PersistentSession> result = new HashMap<>();
+            for (Map.Entry<String, Date> entry : store.getSessions().entrySet()) {
+                if (entry.getValue().getTime() > time) {
+                    result.put(entry.getKey(), new LazyPersistentSession(entry.getValue(), deploymentName, entry.getKey()));
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            UndertowServletLogger.ROOT_LOGGER.failedtoLoadPersistentSessions(e);
+        }
+        return null;
+    }
+
+    private void flush() {
+        for (Map.Entry<String, SessionTracker> entry : this.trackers.entrySet()) {
+            String deploymentName = entry.getKey();
+            SessionTracker tracker = entry.getValue();
+            try {
+                synchronized (tracker) {
+                    if (!tracker.isEmpty()) {
+                        this.flush(deploymentName, tracker);
+                    }
+                }
+            } catch (Exception e) {
+                UndertowLogger.ROOT_LOGGER.failedToPersistSessions(deploymentName, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the modified and removed sessions of the specified tracker to the store of the specified deployment.
+     * Sessions that could not be serialized completely remain dirty, so that they are written by a subsequent flush.
+     */
+    void flush(String deploymentName, SessionTracker tracker) throws IOException, InterruptedException, ExecutionException {
+        Map<String, PersistentSession> sessions = tracker.getModifiedSessions(this.getStore(deploymentName));
+        Map<String, SessionEntry> entries = this.serialize(sessions);
+        this.persistModifiedSessions(deploymentName, entries, tracker.drainRemoved());
+        for (String id : sessions.keySet()) {
+            if (!entries.containsKey(id)) {
+                tracker.markDirty(id);
+            }
+        }
+    }
+
+    @Override
+    protected void persistSerializedSessions(String deploymentName, Map<String, SessionEntry> serializedData) throws IOException {
+        // The specified sessions are all sessions of the deployment, so any other stored session no longer exists
+        Set<String> removed = new HashSet<>(this.getStore(deploymentName).getSessions().keySet());
+        removed.removeAll(serializedData.keySet());
+        this.persistModifiedSessions(deploymentName, serializedData, removed);
+    }
+
+    @Override
+    protected Map<String, SessionEntry> loadSerializedSessions(String deploymentName) throws IOException {
+        PersistentSessionStore store = this.getStore(deploymentName);
+        Map<String, SessionEntry> result = new HashMap<>();
+        for (Map.Entry<String, Date> entry : store.getSessions().entrySet()) {
+            Map<String, byte[]> data = store.read(entry.getKey());
+            if (data != null) {
+                result.put(entry.getKey(), new SessionEntry(entry.getValue(), data));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected void persistModifiedSessions(String deploymentName, Map<String, SessionEntry> modifiedData, Set<String> removedSessions) throws IOException {
+        this.getStore(deploymentName).write(modifiedData, removedSessions);
+    }
+
+    @Override
+    protected Map<String, byte[]> loadSerializedSession(String deploymentName, String sessionId) throws IOException {
+        return this.getStore(deploymentName).read(sessionId);
+    }
+
+    PersistentSessionStore getStore(String deploymentName) throws IOException {
+        synchronized (this.stores) {
+            PersistentSessionStore store = this.stores.get(deploymentName);
+            if (store == null) {
+                store = new PersistentSessionStore(new File(this.getBaseDir(), deploymentName + STORE_SUFFIX));
+                this.stores.put(deploymentName, store);
+            }
+            return store;
+        }
+    }
+
+    /**
+     * Serializes the specified sessions, partitioning them across the serializer threads.
+     * Sessions that could not be serialized completely are omitted from the result.
+     */
+    Map<String, SessionEntry> serialize(Map<String, PersistentSession> sessions) throws IOException, InterruptedException, ExecutionException {
+        List<Map.Entry<String, PersistentSession>> entries = new ArrayList<>(sessions.entrySet());
+        int tasks = Math.min(this.parallelism, (entries.size() + BATCH_SIZE - 1) / BATCH_SIZE);
+        if (tasks <= 1) {
+            return this.serialize(entries);
+        }
+        List<Callable<Map<String, SessionEntry>>> partitions = new ArrayList<>(tasks);
+        int size = (entries.size() + tasks - 1) / tasks;
+        for (int i = 0; i < entries.size(); i += size) {
+            List<Map.Entry<String, PersistentSession>> partition = entries.subList(i, Math.min(i + size, entries.size()));
+            partitions.add(() -> this.serialize(partition));
+        }
+        Map<String, SessionEntry> result = new HashMap<>();
+        for (Future<Map<String, SessionEntry>> future : this.serializer.invokeAll(partitions)) {
+            result.putAll(future.get());
+        }
+        return result;
+    }
+
+    private Map<String, SessionEntry> serialize(List<Map.Entry<String, PersistentSession>> sessions) throws IOException {
+        Map<String, SessionEntry> result = new HashMap<>();
+        Marshaller marshaller = this.createMarshaller();
+        try {
+            for (Map.Entry<String, PersistentSession> entry : sessions) {
+                SessionEntry sessionEntry = this.serializeRecord(marshaller, entry.getKey(), entry.getValue());
+                if (sessionEntry != null) {
+                    result.put(entry.getKey(), sessionEntry);
+                }
+            }
+        } finally {
+            marshaller.close();
+        }
+        return result;
+    }
+
+    /**
+     * Serializes each attribute of the specified session.
+     * Unlike {@link #serializeSession(Marshaller, String, PersistentSession)}, this returns null if an attribute fails to
+     * serialize, e.g. because it was modified concurrently, since storing the remaining attributes would supersede the
+     * complete record of the session with a partial one. Only attributes that are not serializable at all are omitted.
+     */
+    private SessionEntry serializeRecord(Marshaller marshaller, String id, PersistentSession session) {
+        Map<String, byte[]> data = new HashMap<>();
+        for (Map.Entry<String, Object> attribute : session.getSessionData().entrySet()) {
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                marshaller.start(new OutputStreamByteOutput(out));
+                marshaller.writeObject(attribute.getValue());
+                marshaller.finish();
+                data.put(attribute.getKey(), out.toByteArray());
+            } catch (NotSerializableException e) {
+                UndertowLogger.ROOT_LOGGER.failedToPersistSessionAttribute(attribute.getKey(), attribute.getValue(), id, e);
+            } catch (Exception e) {
+                UndertowLogger.ROOT_LOGGER.failedToPersistSessionAttribute(attribute.getKey(), attribute.getValue(), id, e);
+                return null;
+            }
+        }
+        return new SessionEntry(session.getExpiration(), data);
+    }
+
+    private static boolean isStored(PersistentSessionStore store, String id, Date expiration) {
+        Long expiry = store.getExpiry(id);
+        return (expiry != null) && (expiry == expiration.getTime());
+    }
+
+    /**
+     * Persistent session whose attributes are only read from the store, and deserialized, when first requested.
+     */
+    class LazyPersistentSession extends PersistentSession {
+        private final String deploymentName;
+        private final String id;
+        private volatile Map<String, Object> sessionData;
+
+        LazyPersistentSession(Date expiration, String deploymentName, String id) {
+            super(expiration, null);
+            this.deploymentName = deploymentName;
+            this.id = id;
+        }
+
+        @Override
+        public Map<String, Object> getSessionData() {
+            if (this.sessionData == null) {
+                Map<String, Object> sessionData = Collections.emptyMap();
+                try {
+                    Map<String, byte[]> data = loadSerializedSession(this.deploymentName, this.id);
+                    if (data != null) {
+                        Unmarshaller unmarshaller = createUnmarshaller();
+                        try {
+                            sessionData = deserializeSessionAttributes(unmarshaller, data);
+                        } finally {
+                            unmarshaller.close();
+                        }
+                    }
+                } catch (Exception e) {
+                    UndertowServletLogger.ROOT_LOGGER.failedtoLoadPersistentSessions(e);
+                }
+                this.sessionData = sessionData;
+            }
+            return this.sessionData;
+        }
+    }
+
+    /**
+     * Tracks the live sessions of a deployment, along with their attributes.
+     * Attributes are captured from listener events, since reading them from the session would extend its lifetime.
+     */
+    static class SessionTracker implements SessionListener {
+        private final ConcurrentMap<String, TrackedSession> sessions = new ConcurrentHashMap<>();
+        private final Set<String> removed = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void sessionCreated(Session session, HttpServerExchange exchange) {
+            this.removed.remove(session.getId());
+            this.sessions.put(session.getId(), new TrackedSession(session));
+        }
+
+        @Override
+        public void sessionDestroyed(Session session, HttpServerExchange exchange, SessionDestroyedReason reason) {
+            // Sessions destroyed by undeploy have already been persisted
+            if (reason != SessionDestroyedReason.UNDEPLOY) {
+                this.sessions.remove(session.getId());
+                this.removed.add(session.getId());
+            }
+        }
+
+        @Override
+        public void attributeAdded(Session session, String name, Object value) {
+            TrackedSession tracked = this.sessions.get(session.getId());
+            if (tracked != null) {
+                if (value != null) {
+                    tracked.attributes.put(name, value);
+                } else {
+                    tracked.attributes.remove(name);
+                }
+                tracked.dirty = true;
+            }
+        }
+
+        @Override
+        public void attributeUpdated(Session session, String name, Object newValue, Object oldValue) {
+            this.attributeAdded(session, name, newValue);
+        }
+
+        @Override
+        public void attributeRemoved(Session session, String name, Object oldValue) {
+            TrackedSession tracked = this.sessions.get(session.getId());
+            if (tracked != null) {
+                tracked.attributes.remove(name);
+                tracked.dirty = true;
+            }
+        }
+
+        @Override
+        public void sessionIdChanged(Session session, String oldSessionId) {
+            TrackedSession tracked = this.sessions.remove(oldSessionId);
+            if (tracked != null) {
+                tracked.dirty = true;
+                this.sessions.put(session.getId(), tracked);
+            }
+            this.removed.add(oldSessionId);
+        }
+
+        boolean isEmpty() {
+            return this.sessions.isEmpty() && this.removed.isEmpty();
+        }
+
+        boolean isDirty(String id) {
+            TrackedSession tracked = this.sessions.get(id);
+            return (tracked == null) || tracked.dirty;
+        }
+
+        /**
+         * Returns a snapshot of the sessions that were modified, or accessed, since they were last stored.
+         * An accessed session is rewritten even if none of its attributes were set, since they may have been mutated in place.
+         */
+        Map<String, PersistentSession> getModifiedSessions(PersistentSessionStore store) {
+            Map<String, PersistentSession> result = new HashMap<>();
+            for (Map.Entry<String, TrackedSession> entry : this.sessions.entrySet()) {
+                TrackedSession tracked = entry.getValue();
+                Date expiration;
+                try {
+                    expiration = new Date(tracked.session.getLastAccessedTime() + (tracked.session.getMaxInactiveInterval() * 1000L));
+                } catch (IllegalStateException e) {
+                    // Session was invalidated concurrently
+                    continue;
+                }
+                if (tracked.dirty || !isStored(store, entry.getKey(), expiration)) {
+                    // Reset before taking the snapshot, so that a concurrent modification is caught by the next flush
+                    tracked.dirty = false;
+                    result.put(entry.getKey(), new PersistentSession(expiration, new HashMap<>(tracked.attributes)));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Marks the specified session as modified, e.g. because its last snapshot could not be stored.
+         */
+        void markDirty(String id) {
+            TrackedSession tracked = this.sessions.get(id);
+            if (tracked != null) {
+                tracked.dirty = true;
+            }
+        }
+
+        Set<String> drainRemoved() {
+            Set<String> result = new HashSet<>();
+            for (String id : this.removed) {
+                if (this.removed.remove(id)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+
+        void clear() {
+            this.sessions.clear();
+        }
+    }
+
+    private static class TrackedSession {
+        final Session session;
+        final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        volatile boolean dirty = true;
+
+        TrackedSession(Session session) {
+            this.session = session;
+        }
+    }
+}
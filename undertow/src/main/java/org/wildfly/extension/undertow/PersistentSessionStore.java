@@ -0,0 +1,370 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.wildfly.extension.undertow.AbstractPersistentSessionManager.SessionEntry;
+import org.wildfly.extension.undertow.logging.UndertowLogger;
+import org.xnio.IoUtils;
+
+/**
+ * Append-only store of the serialized sessions of a single deployment.
+ *
+ * Sessions are written as records to a sequence of segment files, and an in-memory index maps each stored session to its
+ * most recent record, so that a session can be read back individually. A record is framed by its length and a CRC32 of
+ * its content, so that a record torn by a crash is detected, and discarded, when the store is reopened. Segments whose
+ * records have mostly been superseded are reclaimed by {@link #compact(long)}.
+ */
+class PersistentSessionStore implements AutoCloseable {
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final long SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private final File dir;
+    private final NavigableMap<Integer, FileChannel> segments = new TreeMap<>();
+    private final Map<String, Location> index = new HashMap<>();
+    private long liveBytes = 0;
+    private long totalBytes = 0;
+
+    PersistentSessionStore(File dir) throws IOException {
+        this.dir = dir;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw UndertowLogger.ROOT_LOGGER.failedToCreatePersistentSessionDir(dir);
+        }
+        File[] files = dir.listFiles((directory, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    this.segments.put(Integer.valueOf(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), null);
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        for (Integer segment : new ArrayList<>(this.segments.keySet())) {
+            this.replay(segment);
+        }
+        if (this.segments.isEmpty()) {
+            this.segments.put(1, this.open(1));
+        }
+    }
+
+    /**
+     * Returns the expiration time of the stored sessions, indexed by session id.
+     */
+    synchronized Map<String, Date> getSessions() {
+        Map<String, Date> sessions = new HashMap<>();
+        for (Map.Entry<String, Location> entry : this.index.entrySet()) {
+            sessions.put(entry.getKey(), new Date(entry.getValue().expiry));
+        }
+        return sessions;
+    }
+
+    /**
+     * Returns the expiration time of the stored session with the specified identifier, or null if no such session is stored.
+     */
+    synchronized Long getExpiry(String id) {
+        Location location = this.index.get(id);
+        return (location != null) ? location.expiry : null;
+    }
+
+    /**
+     * Reads the serialized attributes of the stored session with the specified identifier.
+     * @return the serialized attributes, or null if no such session is stored
+     */
+    synchronized Map<String, byte[]> read(String id) throws IOException {
+        Location location = this.index.get(id);
+        if (location == null) {
+            return null;
+        }
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(this.readRecord(location)));
+        input.readByte();
+        input.readUTF();
+        input.readLong();
+        int count = input.readInt();
+        Map<String, byte[]> data = new HashMap<>();
+        for (int i = 0; i < count; ++i) {
+            String name = input.readUTF();
+            byte[] value = new byte[input.readInt()];
+            input.readFully(value);
+            data.put(name, value);
+        }
+        return data;
+    }
+
+    /**
+     * Appends the specified sessions, followed by removals of the specified session identifiers, and forces them to disk.
+     */
+    synchronized void write(Map<String, SessionEntry> sessions, Collection<String> removed) throws IOException {
+        if (sessions.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        Map<String, byte[]> records = new LinkedHashMap<>();
+        for (Map.Entry<String, SessionEntry> entry : sessions.entrySet()) {
+            records.put(entry.getKey(), createRecord(PUT, entry.getKey(), entry.getValue().getExpiry().getTime(), entry.getValue().getData()));
+        }
+        List<byte[]> removals = new ArrayList<>(removed.size());
+        for (String id : removed) {
+            if (this.index.containsKey(id)) {
+                removals.add(createRecord(REMOVE, id, 0, null));
+            }
+        }
+        FileChannel channel = this.current();
+        for (Map.Entry<String, byte[]> entry : records.entrySet()) {
+            long offset = this.append(channel, entry.getValue());
+            this.index(entry.getKey(), new Location(this.segments.lastKey(), offset, entry.getValue().length, sessions.get(entry.getKey()).getExpiry().getTime()));
+        }
+        for (byte[] record : removals) {
+            this.append(channel, record);
+            this.totalBytes += record.length;
+        }
+        for (String id : removed) {
+            Location location = this.index.remove(id);
+            if (location != null) {
+                this.liveBytes -= location.length;
+            }
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Rewrites the unexpired sessions into new segments and deletes the existing segments, if most of the stored bytes
+     * belong to superseded or removed records.
+     */
+    synchronized void compact(long time) throws IOException {
+        if ((this.totalBytes < SEGMENT_SIZE) || (this.liveBytes * 2 > this.totalBytes)) {
+            return;
+        }
+        NavigableMap<Integer, FileChannel> obsolete = new TreeMap<>(this.segments);
+        int segment = this.segments.lastKey() + 1;
+        FileChannel channel = this.open(segment);
+        this.segments.put(segment, channel);
+        Map<String, Location> index = new HashMap<>();
+        long bytes = 0;
+        for (Map.Entry<String, Location> entry : this.index.entrySet()) {
+            Location location = entry.getValue();
+            if (location.expiry > time) {
+                if (channel.size() >= SEGMENT_SIZE) {
+                    channel.force(false);
+                    segment += 1;
+                    channel = this.open(segment);
+                    this.segments.put(segment, channel);
+                }
+                byte[] record = frame(this.readRecord(location));
+                index.put(entry.getKey(), new Location(segment, this.append(channel, record), record.length, location.expiry));
+                bytes += record.length;
+            }
+        }
+        channel.force(false);
+        this.index.clear();
+        this.index.putAll(index);
+        this.liveBytes = bytes;
+        this.totalBytes = bytes;
+        for (Map.Entry<Integer, FileChannel> entry : obsolete.entrySet()) {
+            this.segments.remove(entry.getKey());
+            IoUtils.safeClose(entry.getValue());
+            File file = this.file(entry.getKey());
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (FileChannel channel : this.segments.values()) {
+            IoUtils.safeClose(channel);
+        }
+        this.segments.clear();
+        this.index.clear();
+    }
+
+    private void replay(int segment) throws IOException {
+        FileChannel channel = this.open(segment);
+        this.segments.put(segment, channel);
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        while (position < size) {
+            byte[] content = null;
+            header.clear();
+            if (readFully(channel, header, position)) {
+                int length = header.getInt(0);
+                if ((length > 0) && (position + Integer.BYTES + length + Long.BYTES <= size)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(length + Long.BYTES);
+                    if (readFully(channel, buffer, position + Integer.BYTES)) {
+                        CRC32 crc = new CRC32();
+                        crc.update(buffer.array(), 0, length);
+                        if (crc.getValue() == buffer.getLong(length)) {
+                            content = new byte[length];
+                            buffer.position(0);
+                            buffer.get(content);
+                        }
+                    }
+                }
+            }
+            if (content == null) {
+                // Discard a record torn by a crash, and anything following it
+                UndertowLogger.ROOT_LOGGER.discardingCorruptPersistentSessions(this.file(segment), position);
+                channel.truncate(position);
+                break;
+            }
+            int recordLength = Integer.BYTES + content.length + Long.BYTES;
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(content));
+            byte type = input.readByte();
+            String id = input.readUTF();
+            long expiry = input.readLong();
+            if (type == PUT) {
+                this.index(id, new Location(segment, position, recordLength, expiry));
+            } else {
+                this.totalBytes += recordLength;
+                Location location = this.index.remove(id);
+                if (location != null) {
+                    this.liveBytes -= location.length;
+                }
+            }
+            position += recordLength;
+        }
+    }
+
+    private void index(String id, Location location) {
+        Location previous = this.index.put(id, location);
+        if (previous != null) {
+            this.liveBytes -= previous.length;
+        }
+        this.liveBytes += location.length;
+        this.totalBytes += location.length;
+    }
+
+    private FileChannel current() throws IOException {
+        Map.Entry<Integer, FileChannel> last = this.segments.lastEntry();
+        if (last.getValue().size() < SEGMENT_SIZE) {
+            return last.getValue();
+        }
+        last.getValue().force(false);
+        int segment = last.getKey() + 1;
+        FileChannel channel = this.open(segment);
+        this.segments.put(segment, channel);
+        return channel;
+    }
+
+    private long append(FileChannel channel, byte[] record) throws IOException {
+        long position = channel.size();
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+        return position;
+    }
+
+    // Returns the content of the record at the specified location, without its framing
+    private byte[] readRecord(Location location) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(location.length - Integer.BYTES - Long.BYTES);
+        if (!readFully(this.segments.get(location.segment), buffer, location.offset + Integer.BYTES)) {
+            throw new EOFException();
+        }
+        return buffer.array();
+    }
+
+    private FileChannel open(int segment) throws IOException {
+        return FileChannel.open(this.file(segment).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private File file(int segment) {
+        return new File(this.dir, String.format("%08d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] createRecord(byte type, String id, long expiry, Map<String, byte[]> data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeByte(type);
+        output.writeUTF(id);
+        output.writeLong(expiry);
+        if (data != null) {
+            output.writeInt(data.size());
+            for (Map.Entry<String, byte[]> entry : data.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeInt(entry.getValue().length);
+                output.write(entry.getValue());
+            }
+        }
+        output.flush();
+        return frame(bytes.toByteArray());
+    }
+
+    private static byte[] frame(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + content.length + Long.BYTES);
+        buffer.putInt(content.length);
+        buffer.put(content);
+        buffer.putLong(crc.getValue());
+        return buffer.array();
+    }
+
+    private static class Location {
+        final int segment;
+        final long offset;
+        final int length;
+        final long expiry;
+
+        Location(int segment, long offset, int length, long expiry) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.expiry = expiry;
+        }
+    }
+}
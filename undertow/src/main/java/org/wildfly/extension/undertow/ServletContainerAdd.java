@@ -144,6 +144,7 @@ final class ServletContainerAdd extends AbstractBoottimeAddStepHandler {
                 .addCapability(ServletContainerDefinition.SERVLET_CONTAINER_CAPABILITY, container);
         if(bufferCache != null) {
             builder.addDependency(BufferCacheService.SERVICE_NAME.append(bufferCache), DirectBufferCache.class, container.getBufferCacheInjectedValue());
+            builder.addDependency(CompressedContentCacheService.SERVICE_NAME.append(bufferCache), CompressedContentCache.class, container.getCompressedContentCacheInjectedValue());
         }
         if(persistentSessions) {
             builder.addDependency(AbstractPersistentSessionManager.SERVICE_NAME, SessionPersistenceManager.class, container.getSessionPersistenceManagerInjectedValue());
@@ -56,6 +56,7 @@ public class ServletContainerService implements Service<ServletContainerService>
     private final JSPConfig jspConfig;
     private volatile ServletContainer servletContainer;
     private final InjectedValue<DirectBufferCache> bufferCacheInjectedValue = new InjectedValue<>();
+    private final InjectedValue<CompressedContentCache> compressedContentCacheInjectedValue = new InjectedValue<>();
     private final InjectedValue<SessionPersistenceManager> sessionPersistenceManagerInjectedValue = new InjectedValue<>();
     private final String defaultEncoding;
     private final boolean useListenerEncoding;
@@ -170,6 +171,14 @@ public class ServletContainerService implements Service<ServletContainerService>
         return bufferCacheInjectedValue.getOptionalValue();
     }
 
+    InjectedValue<CompressedContentCache> getCompressedContentCacheInjectedValue() {
+        return compressedContentCacheInjectedValue;
+    }
+
+    public CompressedContentCache getCompressedContentCache() {
+        return compressedContentCacheInjectedValue.getOptionalValue();
+    }
+
     public boolean isDisableCachingForSecuredPages() {
         return disableCachingForSecuredPages;
     }
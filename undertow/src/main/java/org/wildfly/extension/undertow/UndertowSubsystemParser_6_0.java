@@ -30,6 +30,7 @@ import org.jboss.as.controller.PersistentResourceDefinition;
 import org.jboss.as.controller.PersistentResourceXMLDescription;
 import org.jboss.as.controller.PersistentResourceXMLParser;
 import org.jboss.as.controller.operations.common.Util;
+import org.wildfly.extension.undertow.filters.AdaptiveRequestLimitFilter;
 import org.wildfly.extension.undertow.filters.CustomFilterDefinition;
 import org.wildfly.extension.undertow.filters.ErrorPageDefinition;
 import org.wildfly.extension.undertow.filters.ExpressionFilterDefinition;
@@ -214,7 +215,8 @@ public class UndertowSubsystemParser_6_0 extends PersistentResourceXMLParser {
                                         builder(PersistentSessionsDefinition.INSTANCE.getPathElement())
                                                 .addAttributes(
                                                         PersistentSessionsDefinition.PATH,
-                                                        PersistentSessionsDefinition.RELATIVE_TO
+                                                        PersistentSessionsDefinition.RELATIVE_TO,
+                                                        PersistentSessionsDefinition.INCREMENTAL
                                                 )
                                 )
                                 .addChild(
@@ -333,6 +335,13 @@ public class UndertowSubsystemParser_6_0 extends PersistentResourceXMLParser {
                         ).addChild(
                                 builder(RewriteFilterDefinition.INSTANCE.getPathElement())
                                         .addAttributes(RewriteFilterDefinition.TARGET, RewriteFilterDefinition.REDIRECT)
+                        ).addChild(
+                                builder(AdaptiveRequestLimitFilter.INSTANCE.getPathElement())
+                                        .addAttributes(AdaptiveRequestLimitFilter.INITIAL_LIMIT,
+                                                AdaptiveRequestLimitFilter.MIN_LIMIT,
+                                                AdaptiveRequestLimitFilter.MAX_LIMIT,
+                                                AdaptiveRequestLimitFilter.QUEUE_SIZE,
+                                                AdaptiveRequestLimitFilter.QUEUE_TIMEOUT)
                         )
 
                 )
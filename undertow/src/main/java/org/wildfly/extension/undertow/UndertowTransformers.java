@@ -64,6 +64,7 @@ import org.jboss.as.controller.transform.description.RejectAttributeChecker.Simp
 import org.jboss.as.controller.transform.description.ResourceTransformationDescriptionBuilder;
 import org.jboss.as.controller.transform.description.TransformationDescriptionBuilder;
 import org.jboss.dmr.ModelNode;
+import org.wildfly.extension.undertow.filters.AdaptiveRequestLimitFilter;
 import org.wildfly.extension.undertow.filters.ModClusterDefinition;
 
 
@@ -104,6 +105,11 @@ public class UndertowTransformers implements ExtensionTransformerRegistration {
                     .setDiscard(new DiscardAttributeValueChecker(new ModelNode(0)), DEFAULT_COOKIE_VERSION)
                     .addRejectCheck(RejectAttributeChecker.DEFINED,
                             FILE_CACHE_MAX_FILE_SIZE, FILE_CACHE_METADATA_SIZE, FILE_CACHE_TIME_TO_LIVE, DEFAULT_COOKIE_VERSION)
+                .end()
+                .addChildResource(UndertowExtension.PATH_PERSISTENT_SESSIONS)
+                .getAttributeBuilder()
+                    .setDiscard(FALSE_DISCARD_CHECKER, PersistentSessionsDefinition.INCREMENTAL)
+                    .addRejectCheck(RejectAttributeChecker.DEFINED, PersistentSessionsDefinition.INCREMENTAL)
                 .end();
 
         final AttributeTransformationDescriptionBuilder http = serverBuilder.addChildResource(UndertowExtension.HTTP_LISTENER_PATH).getAttributeBuilder()
@@ -124,6 +130,7 @@ public class UndertowTransformers implements ExtensionTransformerRegistration {
                 .addRejectCheck(RejectAttributeChecker.DEFINED, QUEUE_REQUESTS_ON_START)
                 .end();
         subsystemBuilder.rejectChildResource(UndertowExtension.BYTE_BUFFER_POOL_PATH);
+        subsystemBuilder.addChildResource(UndertowExtension.PATH_FILTERS).rejectChildResource(AdaptiveRequestLimitFilter.INSTANCE.getPathElement());
     }
 
     private static void addCommonListenerRules_EAP_7_1_0(AttributeTransformationDescriptionBuilder listener) {
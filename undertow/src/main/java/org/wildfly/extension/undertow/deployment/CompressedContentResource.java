@@ -0,0 +1,275 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow.deployment;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import io.undertow.UndertowLogger;
+import io.undertow.io.IoCallback;
+import io.undertow.io.Sender;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.handlers.cache.DirectBufferCache;
+import io.undertow.server.handlers.cache.LimitedBufferSlicePool;
+import io.undertow.server.handlers.resource.RangeAwareResource;
+import io.undertow.server.handlers.resource.Resource;
+import io.undertow.util.ETag;
+import io.undertow.util.ETagUtils;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import io.undertow.util.MimeMappings;
+import io.undertow.util.StatusCodes;
+import org.wildfly.extension.undertow.CompressedContentCache;
+
+/**
+ * Resource implementation that wraps an underlying resource, and serves its gzip compressed variant from a
+ * {@link CompressedContentCache} if the client accepts it.
+ * The compressed variant is a distinct representation of the resource, so it is served with its own entity tag,
+ * i.e. the entity tag of the underlying resource suffixed with {@value #GZIP_ETAG_SUFFIX}.
+ */
+public class CompressedContentResource implements Resource, RangeAwareResource {
+
+    private static final String GZIP = "gzip";
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    private final Resource underlying;
+    private final CompressedContentCache cache;
+    private final int maxSize;
+
+    public CompressedContentResource(Resource underlying, CompressedContentCache cache, int maxSize) {
+        this.underlying = underlying;
+        this.cache = cache;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public String getPath() {
+        return underlying.getPath();
+    }
+
+    @Override
+    public Date getLastModified() {
+        return underlying.getLastModified();
+    }
+
+    @Override
+    public String getLastModifiedString() {
+        return underlying.getLastModifiedString();
+    }
+
+    @Override
+    public ETag getETag() {
+        return underlying.getETag();
+    }
+
+    @Override
+    public String getName() {
+        return underlying.getName();
+    }
+
+    @Override
+    public boolean isDirectory() {
+        return underlying.isDirectory();
+    }
+
+    @Override
+    public List<Resource> list() {
+        return underlying.list();
+    }
+
+    @Override
+    public String getContentType(MimeMappings mimeMappings) {
+        return underlying.getContentType(mimeMappings);
+    }
+
+    @Override
+    public void serve(Sender sender, HttpServerExchange exchange, IoCallback completionCallback) {
+        if (!isCompressible(exchange)) {
+            underlying.serve(sender, exchange, completionCallback);
+            return;
+        }
+        // The response depends on the Accept-Encoding request header, whichever variant is served, so that caches do not
+        // serve the identity variant to a client that accepts gzip, nor the gzip variant to a client that does not
+        exchange.getResponseHeaders().add(Headers.VARY, Headers.ACCEPT_ENCODING_STRING);
+        // Compressing on a cache miss blocks, so this is not attempted on an IO thread
+        if (!exchange.isInIoThread() && isCompressionAccepted(exchange)) {
+            DirectBufferCache.CacheEntry entry = null;
+            try {
+                entry = cache.get(underlying, maxSize);
+            } catch (IOException e) {
+                UndertowLogger.REQUEST_IO_LOGGER.ioException(e);
+            }
+            if (entry != null) {
+                boolean sent = false;
+                try {
+                    final HeaderMap headers = exchange.getResponseHeaders();
+                    final ETag etag = getCompressedETag();
+                    if (etag != null) {
+                        headers.put(Headers.ETAG, etag.toString());
+                        // The conditional request was evaluated against the entity tag of the uncompressed variant
+                        if (!ETagUtils.handleIfNoneMatch(exchange, etag, false)) {
+                            headers.remove(Headers.CONTENT_LENGTH);
+                            exchange.setStatusCode(StatusCodes.NOT_MODIFIED);
+                            completionCallback.onComplete(exchange, sender);
+                            return;
+                        }
+                    }
+                    final LimitedBufferSlicePool.PooledByteBuffer[] pooled = entry.buffers();
+                    final ByteBuffer[] buffers = new ByteBuffer[pooled.length];
+                    for (int i = 0; i < buffers.length; i++) {
+                        buffers[i] = pooled[i].getBuffer().duplicate();
+                    }
+                    headers.put(Headers.CONTENT_ENCODING, GZIP);
+                    headers.put(Headers.CONTENT_LENGTH, entry.size());
+                    sender.send(buffers, new DereferenceCallback(entry, completionCallback));
+                    sent = true;
+                } finally {
+                    if (!sent) {
+                        entry.dereference();
+                    }
+                }
+                return;
+            }
+        }
+        underlying.serve(sender, exchange, completionCallback);
+    }
+
+    private ETag getCompressedETag() {
+        final ETag etag = underlying.getETag();
+        return etag != null ? new ETag(etag.isWeak(), etag.getTag() + GZIP_ETAG_SUFFIX) : null;
+    }
+
+    /**
+     * Indicates whether the response has a compressible content type and is not already encoded, i.e. whether a gzip
+     * variant of this resource may be served.
+     */
+    private static boolean isCompressible(HttpServerExchange exchange) {
+        final HeaderMap headers = exchange.getResponseHeaders();
+        return !headers.contains(Headers.CONTENT_ENCODING) && CompressedContentResourceManager.isCompressible(headers.getFirst(Headers.CONTENT_TYPE));
+    }
+
+    private static boolean isCompressionAccepted(HttpServerExchange exchange) {
+        final HeaderValues values = exchange.getRequestHeaders().get(Headers.ACCEPT_ENCODING);
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            for (String encoding : value.split(",")) {
+                final String[] parts = encoding.split(";");
+                final String name = parts[0].trim();
+                if (name.equalsIgnoreCase(GZIP) || name.equals("*")) {
+                    // An encoding with a quality value of 0 is not acceptable
+                    return parts.length < 2 || !parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Long getContentLength() {
+        return underlying.getContentLength();
+    }
+
+    @Override
+    public String getCacheKey() {
+        return underlying.getCacheKey();
+    }
+
+    @Override
+    public File getFile() {
+        return underlying.getFile();
+    }
+
+    @Override
+    public File getResourceManagerRoot() {
+        return underlying.getResourceManagerRoot();
+    }
+
+    @Override
+    public URL getUrl() {
+        return underlying.getUrl();
+    }
+
+    public Path getResourceManagerRootPath() {
+        return getResourceManagerRoot().toPath();
+    }
+
+    public Path getFilePath() {
+        if(getFile() == null) {
+            return null;
+        }
+        return getFile().toPath();
+    }
+
+    @Override
+    public void serveRange(Sender sender, HttpServerExchange exchange, long start, long end, IoCallback completionCallback) {
+        // Ranges are always served from the identity variant, which nonetheless depends on the Accept-Encoding request header
+        if (isCompressible(exchange)) {
+            exchange.getResponseHeaders().add(Headers.VARY, Headers.ACCEPT_ENCODING_STRING);
+        }
+        ((RangeAwareResource) underlying).serveRange(sender, exchange, start, end, completionCallback);
+    }
+
+    @Override
+    public boolean isRangeSupported() {
+        if(underlying instanceof RangeAwareResource) {
+            return ((RangeAwareResource) underlying).isRangeSupported();
+        }
+        return false;
+    }
+
+    private static class DereferenceCallback implements IoCallback {
+        private final DirectBufferCache.CacheEntry entry;
+        private final IoCallback callback;
+
+        DereferenceCallback(DirectBufferCache.CacheEntry entry, IoCallback callback) {
+            this.entry = entry;
+            this.callback = callback;
+        }
+
+        @Override
+        public void onComplete(HttpServerExchange exchange, Sender sender) {
+            try {
+                entry.dereference();
+            } finally {
+                callback.onComplete(exchange, sender);
+            }
+        }
+
+        @Override
+        public void onException(HttpServerExchange exchange, Sender sender, IOException exception) {
+            try {
+                entry.dereference();
+            } finally {
+                callback.onException(exchange, sender, exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow.deployment;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import io.undertow.server.handlers.resource.Resource;
+import io.undertow.server.handlers.resource.ResourceChangeListener;
+import io.undertow.server.handlers.resource.ResourceManager;
+import io.undertow.util.MimeMappings;
+import org.jboss.metadata.javaee.spec.ParamValueMetaData;
+import org.jboss.metadata.web.jboss.JBossWebMetaData;
+import org.wildfly.extension.undertow.CompressedContentCache;
+
+/**
+ * Resource manager that serves the static resources of a deployment from the gzip compressed variants held by a
+ * {@link CompressedContentCache}, if the client accepts them.
+ * Enabled per deployment via the {@value #PARAMETER} context parameter, whose value is either {@code true}, to compress
+ * resources on first request, or {@value #PRELOAD}, to also compress all static resources of the deployment as it starts.
+ */
+public class CompressedContentResourceManager implements ResourceManager {
+
+    public static final String PARAMETER = "org.wildfly.extension.undertow.compressed-content-cache";
+    public static final String PRELOAD = "preload";
+
+    private static final Set<String> COMPRESSIBLE_TYPES = new HashSet<>(Arrays.asList("application/javascript", "application/x-javascript", "application/json", "application/xml", "image/svg+xml"));
+
+    private final ResourceManager delegate;
+    private final CompressedContentCache cache;
+    private final int maxSize;
+
+    public CompressedContentResourceManager(final ResourceManager delegate, final CompressedContentCache cache, final int maxSize) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the value of the {@value #PARAMETER} context parameter of the specified deployment, or null if undefined
+     */
+    public static String getParameter(final JBossWebMetaData metaData) {
+        final List<ParamValueMetaData> parameters = metaData.getContextParams();
+        if (parameters != null) {
+            for (ParamValueMetaData parameter : parameters) {
+                if (PARAMETER.equals(parameter.getParamName())) {
+                    return parameter.getParamValue().trim();
+                }
+            }
+        }
+        return null;
+    }
+
+    static boolean isCompressible(final String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        final int index = contentType.indexOf(';');
+        final String type = (index >= 0 ? contentType.substring(0, index) : contentType).trim().toLowerCase();
+        return type.startsWith("text/") || COMPRESSIBLE_TYPES.contains(type);
+    }
+
+    /**
+     * Indicates whether the specified resource path lies within the WEB-INF or META-INF directory of a deployment,
+     * whose resources are never served to clients.
+     */
+    static boolean isProtected(final String path) {
+        int start = 0;
+        while (start < path.length() && (path.charAt(start) == '/' || path.charAt(start) == '\\')) {
+            start++;
+        }
+        int end = start;
+        while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '\\') {
+            end++;
+        }
+        final String directory = path.substring(start, end).toUpperCase(Locale.ENGLISH);
+        return directory.equals("WEB-INF") || directory.equals("META-INF");
+    }
+
+    /**
+     * Compresses all static resources beneath the specified path into the cache, excluding those within the WEB-INF and
+     * META-INF directories.
+     *
+     * @param path a resource path
+     * @return the number of cached resources
+     */
+    public int populate(final String path) throws IOException {
+        if (isProtected(path)) {
+            return 0;
+        }
+        final Resource resource = delegate.getResource(path);
+        if (resource == null) {
+            return 0;
+        }
+        if (resource.isDirectory()) {
+            int count = 0;
+            for (Resource child : resource.list()) {
+                // Guard against resources that report the path of their parent
+                if (!path.equals(child.getPath())) {
+                    count += populate(child.getPath());
+                }
+            }
+            return count;
+        }
+        return isCompressible(resource.getContentType(MimeMappings.DEFAULT)) && cache.populate(resource, maxSize) ? 1 : 0;
+    }
+
+    @Override
+    public Resource getResource(final String path) throws IOException {
+        final Resource resource = delegate.getResource(path);
+        return resource != null && !resource.isDirectory() ? new CompressedContentResource(resource, cache, maxSize) : resource;
+    }
+
+    @Override
+    public boolean isResourceChangeListenerSupported() {
+        return delegate.isResourceChangeListenerSupported();
+    }
+
+    @Override
+    public void registerResourceChangeListener(final ResourceChangeListener listener) {
+        delegate.registerResourceChangeListener(listener);
+    }
+
+    @Override
+    public void removeResourceChangeListener(final ResourceChangeListener listener) {
+        delegate.removeResourceChangeListener(listener);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
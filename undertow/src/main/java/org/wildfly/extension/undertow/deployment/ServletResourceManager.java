@@ -26,8 +26,12 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.jboss.metadata.javaee.spec.ParamValueMetaData;
+import org.jboss.metadata.web.jboss.JBossWebMetaData;
 import org.jboss.vfs.VirtualFile;
 import io.undertow.server.handlers.resource.PathResourceManager;
 import io.undertow.server.handlers.resource.Resource;
@@ -42,16 +46,32 @@ import io.undertow.util.CanonicalPathUtils;
  */
 public class ServletResourceManager implements ResourceManager {
 
+    /**
+     * Context parameter that, if {@code true}, resolves the overlay resources of an archive deployment via an index of
+     * all overlay entries, built on first use, rather than probing each overlay in turn.
+     */
+    public static final String OVERLAY_INDEX_PARAMETER = "org.wildfly.extension.undertow.overlay-index";
+
     public static final int TRANSFER_MIN_SIZE = 1024 * 1024;
     private final PathResourceManager deploymentResourceManager;
     private final Collection<VirtualFile> overlays;
     private final ResourceManager[] externalOverlays;
     private final boolean explodedDeployment;
+    // Overlay content of archive deployments is immutable, so overlay lookups can be served from an index built on first use
+    private final boolean indexOverlays;
+    private volatile Map<String, OverlayEntry> overlayIndex;
 
     public ServletResourceManager(final VirtualFile resourcesRoot, final Collection<VirtualFile> overlays,
                                   boolean explodedDeployment, boolean followSymlink, boolean disableFileWatchService,
                                   List<String> externalOverlays) throws IOException {
+        this(resourcesRoot, overlays, explodedDeployment, followSymlink, disableFileWatchService, externalOverlays, false);
+    }
+
+    public ServletResourceManager(final VirtualFile resourcesRoot, final Collection<VirtualFile> overlays,
+                                  boolean explodedDeployment, boolean followSymlink, boolean disableFileWatchService,
+                                  List<String> externalOverlays, boolean indexOverlays) throws IOException {
         this.explodedDeployment = explodedDeployment;
+        this.indexOverlays = indexOverlays && !explodedDeployment;
         Path physicalFile = resourcesRoot.getPhysicalFile().toPath().toRealPath();
         deploymentResourceManager = new PathResourceManager(physicalFile, TRANSFER_MIN_SIZE, true,
                 followSymlink, !disableFileWatchService);
@@ -81,17 +101,24 @@ public class ServletResourceManager implements ResourceManager {
         }
         if (overlays != null) {
             String canonical = CanonicalPathUtils.canonicalize(p); //we don't need to do this for other resources, as the underlying RM will handle it
-            for (VirtualFile overlay : overlays) {
-                VirtualFile child = overlay.getChild(canonical);
-                if (child.exists()) {
-                    try {
-                        //we make sure the child is actually a child of the parent
-                        //CanonicalPathUtils should make sure this cannot happen
-                        //but just to be safe we do it anyway
-                        child.getPathNameRelativeTo(overlay);
-                        return new ServletResource(this, new VirtualFileResource(overlay.getPhysicalFile(), child, canonical));
-                    } catch (IllegalArgumentException ignore) {
+            if (indexOverlays && isIndexable(canonical)) {
+                OverlayEntry entry = getOverlayIndex().get(canonical);
+                if (entry != null) {
+                    return new ServletResource(this, new VirtualFileResource(entry.overlay.getPhysicalFile(), entry.file, canonical));
+                }
+            } else {
+                for (VirtualFile overlay : overlays) {
+                    VirtualFile child = overlay.getChild(canonical);
+                    if (child.exists()) {
+                        try {
+                            //we make sure the child is actually a child of the parent
+                            //CanonicalPathUtils should make sure this cannot happen
+                            //but just to be safe we do it anyway
+                            child.getPathNameRelativeTo(overlay);
+                            return new ServletResource(this, new VirtualFileResource(overlay.getPhysicalFile(), child, canonical));
+                        } catch (IllegalArgumentException ignore) {
 
+                        }
                     }
                 }
             }
@@ -106,6 +133,57 @@ public class ServletResourceManager implements ResourceManager {
         return null;
     }
 
+    /**
+     * @return true if the {@value #OVERLAY_INDEX_PARAMETER} context parameter of the specified deployment is {@code true}
+     */
+    public static boolean isOverlayIndexEnabled(final JBossWebMetaData metaData) {
+        final List<ParamValueMetaData> parameters = metaData.getContextParams();
+        if (parameters != null) {
+            for (ParamValueMetaData parameter : parameters) {
+                if (OVERLAY_INDEX_PARAMETER.equals(parameter.getParamName())) {
+                    return Boolean.parseBoolean(parameter.getParamValue().trim());
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indicates whether the overlay index was built, i.e. whether overlay lookups were served from the index.
+     */
+    boolean isOverlayIndexed() {
+        return overlayIndex != null;
+    }
+
+    /**
+     * Indicates whether the specified canonical path has the form of the keys of the overlay index, i.e. it has no empty,
+     * "." or ".." segments. Any other path is resolved against each overlay, as before.
+     */
+    private static boolean isIndexable(String path) {
+        return !path.startsWith("/") && !path.endsWith("/") && !path.contains("//") && !path.startsWith(".") && !path.contains("/.") && path.indexOf('\\') < 0;
+    }
+
+    private Map<String, OverlayEntry> getOverlayIndex() {
+        Map<String, OverlayEntry> index = overlayIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = overlayIndex;
+                if (index == null) {
+                    index = new HashMap<>();
+                    for (VirtualFile overlay : overlays) {
+                        index.putIfAbsent("", new OverlayEntry(overlay, overlay));
+                        for (VirtualFile child : overlay.getChildrenRecursively()) {
+                            //earlier overlays take precedence, as when resolving against each overlay in turn
+                            index.putIfAbsent(child.getPathNameRelativeTo(overlay), new OverlayEntry(overlay, child));
+                        }
+                    }
+                    overlayIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
     @Override
     public boolean isResourceChangeListenerSupported() {
         return true;
@@ -176,4 +254,14 @@ public class ServletResourceManager implements ResourceManager {
             throw new RuntimeException(e); //this method really should have thrown IOException
         }
     }
+
+    private static final class OverlayEntry {
+        final VirtualFile overlay;
+        final VirtualFile file;
+
+        OverlayEntry(VirtualFile overlay, VirtualFile file) {
+            this.overlay = overlay;
+            this.file = file;
+        }
+    }
 }
@@ -123,7 +123,9 @@ import org.jboss.security.config.AuthorizationInfo;
 import org.jboss.security.config.SecurityConfiguration;
 import org.jboss.vfs.VirtualFile;
 import org.wildfly.extension.requestcontroller.ControlPoint;
+import org.wildfly.extension.undertow.CompressedContentCache;
 import org.wildfly.extension.undertow.Host;
+import org.wildfly.extension.undertow.IncrementalPersistentSessionManager;
 import org.wildfly.extension.undertow.JSPConfig;
 import org.wildfly.extension.undertow.ServletContainerService;
 import org.wildfly.extension.undertow.SessionCookieConfig;
@@ -580,9 +582,18 @@ public class UndertowDeploymentInfoService implements Service<DeploymentInfo> {
                 //TODO: make the caching limits configurable
                 List<String> externalOverlays = mergedMetaData.getOverlays();
 
-                ResourceManager resourceManager = new ServletResourceManager(deploymentRoot, overlays, explodedDeployment, mergedMetaData.isSymbolicLinkingEnabled(), servletContainer.isDisableFileWatchService(), externalOverlays);
+                ResourceManager resourceManager = new ServletResourceManager(deploymentRoot, overlays, explodedDeployment, mergedMetaData.isSymbolicLinkingEnabled(), servletContainer.isDisableFileWatchService(), externalOverlays, ServletResourceManager.isOverlayIndexEnabled(mergedMetaData));
 
                 resourceManager = new CachingResourceManager(servletContainer.getFileCacheMetadataSize(), servletContainer.getFileCacheMaxFileSize(), servletContainer.getBufferCache(), resourceManager, servletContainer.getFileCacheTimeToLive() == null ? (explodedDeployment ? 2000 : -1) : servletContainer.getFileCacheTimeToLive());
+                final String compressedContent = CompressedContentResourceManager.getParameter(mergedMetaData);
+                final CompressedContentCache compressedContentCache = servletContainer.getCompressedContentCache();
+                if (compressedContentCache != null && compressedContent != null && (Boolean.parseBoolean(compressedContent) || CompressedContentResourceManager.PRELOAD.equals(compressedContent))) {
+                    final CompressedContentResourceManager compressedResourceManager = new CompressedContentResourceManager(resourceManager, compressedContentCache, servletContainer.getFileCacheMaxFileSize());
+                    if (CompressedContentResourceManager.PRELOAD.equals(compressedContent)) {
+                        compressedResourceManager.populate("/");
+                    }
+                    resourceManager = compressedResourceManager;
+                }
                 if(externalResources != null && !externalResources.isEmpty()) {
                     //TODO: we don't cache external deployments, as they are intended for development use
                     //should be make this configurable or something?
@@ -628,6 +639,9 @@ public class UndertowDeploymentInfoService implements Service<DeploymentInfo> {
 
             if (servletContainer.getSessionPersistenceManager() != null) {
                 d.setSessionPersistenceManager(servletContainer.getSessionPersistenceManager());
+                if (servletContainer.getSessionPersistenceManager() instanceof IncrementalPersistentSessionManager) {
+                    d.addSessionListener(((IncrementalPersistentSessionManager) servletContainer.getSessionPersistenceManager()).getSessionListener(d.getDeploymentName()));
+                }
             }
 
             //for 2.2 apps we do not require a leading / in path mappings
@@ -0,0 +1,258 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow.filters;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.handlers.ResponseCodeHandler;
+import io.undertow.util.SameThreadExecutor;
+import io.undertow.util.StatusCodes;
+import org.xnio.XnioExecutor;
+
+/**
+ * Concurrency limit shared by all filter-refs of an adaptive-request-limit filter.
+ *
+ * The limit follows a gradient on the measured round trip time of admitted requests: while the short term RTT stays within
+ * a tolerance of the long term RTT the limit grows by roughly its square root, and it shrinks proportionally once the short
+ * term RTT rises above it. Requests that exceed the limit are queued, and are rejected with a 503 if the queue is full or if
+ * they are not admitted within the queue timeout. A queue timeout is also treated as a congestion signal and backs off the
+ * limit multiplicatively.
+ */
+final class AdaptiveRequestLimit {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final long queueTimeout;
+    private final Queue<SuspendedRequest> queue = new ConcurrentLinkedQueue<>();
+    // Number of queued requests, including those reserving a slot that are not yet added to the queue
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    // Written while holding the monitor, read without it
+    private volatile double limit;
+    // Guarded by this
+    private long samples = 0;
+    private double shortRtt = 0;
+    private double longRtt = 0;
+
+    /**
+     * @param initialLimit the initial concurrency limit
+     * @param minLimit the lower bound of the concurrency limit
+     * @param maxLimit the upper bound of the concurrency limit
+     * @param queueSize the maximum number of requests waiting for admission
+     * @param queueTimeout the maximum time, in milliseconds, a request may wait for admission, or 0 to wait indefinitely
+     */
+    AdaptiveRequestLimit(int initialLimit, int minLimit, int maxLimit, int queueSize, long queueTimeout) {
+        this.minLimit = minLimit;
+        this.maxLimit = Math.max(minLimit, maxLimit);
+        this.queueSize = queueSize;
+        this.queueTimeout = queueTimeout;
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+    }
+
+    void handleRequest(HttpServerExchange exchange, HttpHandler next) throws Exception {
+        if (this.tryAcquire()) {
+            exchange.addExchangeCompleteListener(new CompletionListener());
+            next.handleRequest(exchange);
+        } else if (this.queueSize == 0) {
+            this.rejected.increment();
+            exchange.setStatusCode(StatusCodes.SERVICE_UNAVAILABLE);
+        } else {
+            // We must be dispatched before the exchange is visible to other threads via the queue
+            exchange.dispatch(SameThreadExecutor.INSTANCE, () -> this.enqueue(exchange, next));
+        }
+    }
+
+    private void enqueue(HttpServerExchange exchange, HttpHandler next) {
+        if (this.tryAcquire()) {
+            exchange.addExchangeCompleteListener(new CompletionListener());
+            exchange.dispatch(next);
+            return;
+        }
+        if (!this.tryReserveQueueSlot()) {
+            this.rejected.increment();
+            exchange.dispatch(SameThreadExecutor.INSTANCE, ResponseCodeHandler.HANDLE_503);
+            return;
+        }
+        SuspendedRequest request = new SuspendedRequest(exchange, next);
+        this.queue.add(request);
+        if (this.queueTimeout > 0) {
+            request.timeout = exchange.getIoThread().executeAfter(() -> this.expire(request), this.queueTimeout, TimeUnit.MILLISECONDS);
+        }
+        // Every active request may have completed before this request was queued
+        this.drain();
+    }
+
+    private void expire(SuspendedRequest request) {
+        // Only one of this and drain() can remove a given request
+        if (!this.queue.remove(request)) {
+            // Already admitted
+            return;
+        }
+        this.queued.decrementAndGet();
+        synchronized (this) {
+            this.limit = Math.max(this.minLimit, this.limit * BACKOFF_RATIO);
+        }
+        this.timedOut.increment();
+        request.exchange.dispatch(SameThreadExecutor.INSTANCE, ResponseCodeHandler.HANDLE_503);
+    }
+
+    private void release(long rtt) {
+        synchronized (this) {
+            this.update(Math.max(rtt, 1L));
+        }
+        this.active.decrementAndGet();
+        this.drain();
+    }
+
+    /**
+     * Admits queued requests, in order, while the limit allows.
+     * A request is queued before it checks for a free permit, and a permit is freed before checking for a queued request,
+     * so a queued request is never stranded while no request is active.
+     */
+    private void drain() {
+        while (!this.queue.isEmpty() && this.tryAcquire()) {
+            SuspendedRequest request = this.queue.poll();
+            if (request == null) {
+                // Another thread admitted or expired the last queued request
+                this.active.decrementAndGet();
+                continue;
+            }
+            this.queued.decrementAndGet();
+            XnioExecutor.Key timeout = request.timeout;
+            if (timeout != null) {
+                timeout.remove();
+            }
+            request.exchange.addExchangeCompleteListener(new CompletionListener());
+            request.exchange.dispatch(request.next);
+        }
+    }
+
+    private boolean tryAcquire() {
+        int limit = (int) this.limit;
+        int current = this.active.get();
+        while (current < limit) {
+            if (this.active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = this.active.get();
+        }
+        return false;
+    }
+
+    private boolean tryReserveQueueSlot() {
+        int current = this.queued.get();
+        while (current < this.queueSize) {
+            if (this.queued.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = this.queued.get();
+        }
+        return false;
+    }
+
+    // Must be called while holding the monitor
+    private void update(long rtt) {
+        this.samples += 1;
+        this.shortRtt = this.average(this.shortRtt, rtt, SHORT_WINDOW);
+        this.longRtt = this.average(this.longRtt, rtt, LONG_WINDOW);
+        // After a sustained drop in latency, the long term average lags behind, so pull it down to let the limit recover
+        if (this.longRtt > 2 * this.shortRtt) {
+            this.longRtt *= 0.95;
+        }
+        double limit = this.limit;
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * this.longRtt / this.shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        // Don't grow the limit if the offered load does not come close to using it
+        if (this.active.get() < limit / 2) {
+            target = Math.min(target, limit);
+        }
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    // Exponential moving average that behaves as a simple average until the window has filled
+    private double average(double current, long sample, int window) {
+        double weight = Math.max(1d / this.samples, 2d / (window + 1));
+        return current + (sample - current) * weight;
+    }
+
+    int getLimit() {
+        return (int) this.limit;
+    }
+
+    int getActiveRequests() {
+        return this.active.get();
+    }
+
+    int getQueuedRequests() {
+        return this.queued.get();
+    }
+
+    long getRejectedRequests() {
+        return this.rejected.sum();
+    }
+
+    long getTimedOutRequests() {
+        return this.timedOut.sum();
+    }
+
+    private class CompletionListener implements ExchangeCompletionListener {
+        private final long start = System.nanoTime();
+
+        @Override
+        public void exchangeEvent(HttpServerExchange exchange, NextListener nextListener) {
+            try {
+                AdaptiveRequestLimit.this.release(System.nanoTime() - this.start);
+            } finally {
+                nextListener.proceed();
+            }
+        }
+    }
+
+    private static class SuspendedRequest {
+        final HttpServerExchange exchange;
+        final HttpHandler next;
+        volatile XnioExecutor.Key timeout;
+
+        SuspendedRequest(HttpServerExchange exchange, HttpHandler next) {
+            this.exchange = exchange;
+            this.next = next;
+        }
+    }
+}
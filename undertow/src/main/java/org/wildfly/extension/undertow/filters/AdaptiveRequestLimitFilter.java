@@ -0,0 +1,196 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow.filters;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Function;
+
+import io.undertow.predicate.Predicate;
+import io.undertow.server.HttpHandler;
+import org.jboss.as.controller.AbstractAddStepHandler;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.ServiceRemoveStepHandler;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+import org.wildfly.extension.undertow.UndertowService;
+
+/**
+ * Request limiting filter whose concurrency limit adapts to the measured response time of the requests it admits.
+ */
+public class AdaptiveRequestLimitFilter extends Filter {
+
+    public static final AttributeDefinition INITIAL_LIMIT = new SimpleAttributeDefinitionBuilder("initial-limit", ModelType.INT)
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setAllowExpression(true)
+            .setRequired(false)
+            .setDefaultValue(new ModelNode(20))
+            .setRestartAllServices()
+            .build();
+
+    public static final AttributeDefinition MIN_LIMIT = new SimpleAttributeDefinitionBuilder("min-limit", ModelType.INT)
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setAllowExpression(true)
+            .setRequired(false)
+            .setDefaultValue(new ModelNode(1))
+            .setRestartAllServices()
+            .build();
+
+    public static final AttributeDefinition MAX_LIMIT = new SimpleAttributeDefinitionBuilder("max-limit", ModelType.INT)
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setAllowExpression(true)
+            .setRequired(false)
+            .setDefaultValue(new ModelNode(1000))
+            .setRestartAllServices()
+            .build();
+
+    public static final AttributeDefinition QUEUE_SIZE = new SimpleAttributeDefinitionBuilder("queue-size", ModelType.INT)
+            .setValidator(new IntRangeValidator(0, true, true))
+            .setAllowExpression(true)
+            .setRequired(false)
+            .setDefaultValue(new ModelNode(100))
+            .setRestartAllServices()
+            .build();
+
+    public static final AttributeDefinition QUEUE_TIMEOUT = new SimpleAttributeDefinitionBuilder("queue-timeout", ModelType.LONG)
+            .setValidator(new LongRangeValidator(0, true, true))
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setAllowExpression(true)
+            .setRequired(false)
+            .setDefaultValue(new ModelNode(1000L))
+            .setRestartAllServices()
+            .build();
+
+    static final AttributeDefinition CURRENT_LIMIT = new SimpleAttributeDefinitionBuilder("current-limit", ModelType.INT)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    static final AttributeDefinition ACTIVE_REQUESTS = new SimpleAttributeDefinitionBuilder("active-requests", ModelType.INT)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    static final AttributeDefinition QUEUED_REQUESTS = new SimpleAttributeDefinitionBuilder("queued-requests", ModelType.INT)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    static final AttributeDefinition REJECTED_REQUESTS = new SimpleAttributeDefinitionBuilder("rejected-requests", ModelType.LONG)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    static final AttributeDefinition TIMED_OUT_REQUESTS = new SimpleAttributeDefinitionBuilder("timed-out-requests", ModelType.LONG)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    static final Collection<AttributeDefinition> ATTRIBUTES = Collections.unmodifiableList(Arrays.asList(INITIAL_LIMIT, MIN_LIMIT, MAX_LIMIT, QUEUE_SIZE, QUEUE_TIMEOUT));
+
+    public static final AdaptiveRequestLimitFilter INSTANCE = new AdaptiveRequestLimitFilter();
+
+    private AdaptiveRequestLimitFilter() {
+        super("adaptive-request-limit");
+    }
+
+    @Override
+    public Collection<AttributeDefinition> getAttributes() {
+        return ATTRIBUTES;
+    }
+
+    @Override
+    public void registerOperations(ManagementResourceRegistration resourceRegistration) {
+        AdaptiveRequestLimitAdd add = new AdaptiveRequestLimitAdd();
+        registerAddOperation(resourceRegistration, add, OperationEntry.Flag.RESTART_RESOURCE_SERVICES);
+        registerRemoveOperation(resourceRegistration, new ServiceRemoveStepHandler(UndertowService.FILTER, add), OperationEntry.Flag.RESTART_RESOURCE_SERVICES);
+    }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        super.registerAttributes(resourceRegistration);
+        resourceRegistration.registerMetric(CURRENT_LIMIT, new LimitMetricHandler(limit -> new ModelNode(limit.getLimit())));
+        resourceRegistration.registerMetric(ACTIVE_REQUESTS, new LimitMetricHandler(limit -> new ModelNode(limit.getActiveRequests())));
+        resourceRegistration.registerMetric(QUEUED_REQUESTS, new LimitMetricHandler(limit -> new ModelNode(limit.getQueuedRequests())));
+        resourceRegistration.registerMetric(REJECTED_REQUESTS, new LimitMetricHandler(limit -> new ModelNode(limit.getRejectedRequests())));
+        resourceRegistration.registerMetric(TIMED_OUT_REQUESTS, new LimitMetricHandler(limit -> new ModelNode(limit.getTimedOutRequests())));
+    }
+
+    @Override
+    public HttpHandler createHttpHandler(Predicate predicate, ModelNode model, HttpHandler next) {
+        throw new IllegalStateException(); //not used, as all handlers share the limit held by AdaptiveRequestLimitService
+    }
+
+    @Override
+    protected Class[] getConstructorSignature() {
+        throw new IllegalStateException(); //should not be used, as the handler is constructed by the service
+    }
+
+    static class AdaptiveRequestLimitAdd extends AbstractAddStepHandler {
+        AdaptiveRequestLimitAdd() {
+            super(ATTRIBUTES);
+        }
+
+        @Override
+        protected void performRuntime(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+            final String name = context.getCurrentAddressValue();
+            ModelNode resolved = new ModelNode();
+            for (AttributeDefinition attribute : ATTRIBUTES) {
+                resolved.get(attribute.getName()).set(attribute.resolveModelAttribute(context, model));
+            }
+            context.getServiceTarget().addService(UndertowService.FILTER.append(name), new AdaptiveRequestLimitService(resolved))
+                    .setInitialMode(ServiceController.Mode.ON_DEMAND)
+                    .install();
+        }
+    }
+
+    private static class LimitMetricHandler implements OperationStepHandler {
+        private final Function<AdaptiveRequestLimit, ModelNode> metric;
+
+        LimitMetricHandler(Function<AdaptiveRequestLimit, ModelNode> metric) {
+            this.metric = metric;
+        }
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            ServiceController<?> controller = context.getServiceRegistry(false).getService(UndertowService.FILTER.append(context.getCurrentAddressValue()));
+            // Filter services are on demand, so the limit only exists while some filter-ref uses it
+            if (controller != null && controller.getState() == ServiceController.State.UP) {
+                AdaptiveRequestLimitService service = (AdaptiveRequestLimitService) controller.getService();
+                context.getResult().set(this.metric.apply(service.getRequestLimit()));
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow.filters;
+
+import io.undertow.Handlers;
+import io.undertow.predicate.Predicate;
+import io.undertow.server.HttpHandler;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Filter service for the adaptive request limit. Unlike most filters, which create independent handlers per filter-ref,
+ * all handlers created by this service share a single {@link AdaptiveRequestLimit}, so that the limit and its metrics
+ * reflect the combined load of every location referencing the filter.
+ */
+public class AdaptiveRequestLimitService extends FilterService {
+
+    private final AdaptiveRequestLimit limit;
+
+    AdaptiveRequestLimitService(ModelNode model) {
+        super(AdaptiveRequestLimitFilter.INSTANCE, model);
+        this.limit = new AdaptiveRequestLimit(
+                model.get(AdaptiveRequestLimitFilter.INITIAL_LIMIT.getName()).asInt(),
+                model.get(AdaptiveRequestLimitFilter.MIN_LIMIT.getName()).asInt(),
+                model.get(AdaptiveRequestLimitFilter.MAX_LIMIT.getName()).asInt(),
+                model.get(AdaptiveRequestLimitFilter.QUEUE_SIZE.getName()).asInt(),
+                model.get(AdaptiveRequestLimitFilter.QUEUE_TIMEOUT.getName()).asLong());
+    }
+
+    @Override
+    public HttpHandler createHttpHandler(Predicate predicate, HttpHandler next) {
+        HttpHandler handler = exchange -> this.limit.handleRequest(exchange, next);
+        return (predicate != null) ? Handlers.predicate(predicate, handler, next) : handler;
+    }
+
+    AdaptiveRequestLimit getRequestLimit() {
+        return this.limit;
+    }
+}
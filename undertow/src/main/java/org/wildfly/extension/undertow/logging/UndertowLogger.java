@@ -407,4 +407,15 @@ public interface UndertowLogger extends BasicLogger {
 
     @Message(id = 100, value = "Session %s not found")
     OperationFailedException sessionNotFound(String sessionId);
+
+    @LogMessage(level = WARN)
+    @Message(id = 101, value = "Discarding corrupt persistent session data in %s from offset %d")
+    void discardingCorruptPersistentSessions(File file, long offset);
+
+    @LogMessage(level = WARN)
+    @Message(id = 102, value = "Failed to persist sessions of deployment %s")
+    void failedToPersistSessions(String deploymentName, @Cause Throwable cause);
+
+    @Message(id = 103, value = "Invalid value '%s' of context parameter %s")
+    IllegalArgumentException invalidContextParameter(String value, String name);
 }
@@ -21,10 +21,21 @@
  */
 package org.wildfly.extension.undertow.session;
 
+import java.time.Duration;
+
 import org.jboss.metadata.web.jboss.ReplicationGranularity;
 import org.jboss.modules.Module;
 
 public interface DistributableSessionManagerConfiguration {
+    /**
+     * Backends for marshalling session attributes.
+     * <ul>
+     * <li>{@link #JBOSS} marshals via JBoss Marshalling</li>
+     * <li>{@link #BINARY} marshals via the compact binary backend, which does not support compression</li>
+     * </ul>
+     */
+    enum SessionMarshaller { JBOSS, BINARY }
+
     int getMaxActiveSessions();
 
     ReplicationGranularity getGranularity();
@@ -36,4 +47,41 @@ public interface DistributableSessionManagerConfiguration {
     Module getModule();
 
     String getCacheName();
+
+    /**
+     * Returns the minimum size, in bytes, of a marshalled session or session attribute to be compressed.
+     * @return a number of bytes, or -1 if compression is disabled
+     */
+    int getCompressionThreshold();
+
+    /**
+     * Indicates whether SESSION granularity sessions should replicate only their changed attributes.
+     * Attributes are then marshalled individually, so references shared between attributes are not preserved.
+     * @return true, if delta replication is enabled, false otherwise
+     */
+    boolean isDeltaReplicationEnabled();
+
+    /**
+     * Returns the maximum number of sessions, not owned by the local node, whose meta data should be cached locally.
+     * @return a number of sessions, or 0 if the near-cache is disabled
+     */
+    int getMetaDataNearCacheSize();
+
+    /**
+     * Returns the number of timing wheels across which the expiration of sessions is scheduled.
+     * @return a positive number of timing wheels
+     */
+    int getExpirationSchedulerShards();
+
+    /**
+     * Returns the interval at which coalesced last access time updates of sessions are written.
+     * @return a flush interval, or {@link Duration#ZERO} if the last access time is written per request
+     */
+    Duration getAccessMetaDataFlushInterval();
+
+    /**
+     * Returns the backend used to marshal session attributes.
+     * @return a marshalling backend
+     */
+    SessionMarshaller getMarshaller();
 }
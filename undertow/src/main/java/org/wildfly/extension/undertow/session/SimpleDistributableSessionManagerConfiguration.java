@@ -21,10 +21,16 @@
  */
 package org.wildfly.extension.undertow.session;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+import org.jboss.metadata.javaee.spec.ParamValueMetaData;
 import org.jboss.metadata.web.jboss.JBossWebMetaData;
 import org.jboss.metadata.web.jboss.ReplicationConfig;
 import org.jboss.metadata.web.jboss.ReplicationGranularity;
 import org.jboss.modules.Module;
+import org.wildfly.extension.undertow.logging.UndertowLogger;
 
 /**
  * Simple {@link DistributableSessionManagerConfiguration} implementation that delegates to {@link JBossWebMetaData}.
@@ -32,26 +38,162 @@ import org.jboss.modules.Module;
  */
 public class SimpleDistributableSessionManagerConfiguration implements DistributableSessionManagerConfiguration {
 
+    /**
+     * Name of the context parameter that enables compression of marshalled sessions whose size meets the specified number of bytes.
+     */
+    public static final String COMPRESSION_THRESHOLD_PARAMETER = "org.wildfly.clustering.web.session.compression-threshold";
+
+    /**
+     * Name of the context parameter that enables the replication of only the changed attributes of SESSION granularity sessions.
+     */
+    public static final String DELTA_REPLICATION_PARAMETER = "org.wildfly.clustering.web.session.delta-replication";
+
+    /**
+     * Name of the context parameter that enables a near-cache of the meta data of the specified number of sessions not owned by the local node.
+     */
+    public static final String META_DATA_NEAR_CACHE_SIZE_PARAMETER = "org.wildfly.clustering.web.session.meta-data-near-cache-size";
+
+    /**
+     * Name of the context parameter that selects the backend used to marshal session attributes, i.e. "jboss" or "binary".
+     */
+    public static final String MARSHALLER_PARAMETER = "org.wildfly.clustering.web.session.marshaller";
+
+    /**
+     * Name of the context parameter that specifies the number of timing wheels across which the expiration of sessions is scheduled.
+     */
+    public static final String EXPIRATION_SCHEDULER_SHARDS_PARAMETER = "org.wildfly.clustering.web.session.expiration-scheduler-shards";
+
+    /**
+     * Name of the context parameter that specifies the interval, in milliseconds, at which coalesced last access time updates of sessions are written.
+     */
+    public static final String ACCESS_META_DATA_FLUSH_INTERVAL_PARAMETER = "org.wildfly.clustering.web.session.access-meta-data-flush-interval";
+
     private final Integer maxActiveSessions;
     private final ReplicationConfig replicationConfig;
     private final String serverName;
     private final String deploymentName;
     private final Module module;
+    private final int compressionThreshold;
+    private final boolean deltaReplication;
+    private final int metaDataNearCacheSize;
+    private final SessionMarshaller marshaller;
+    private final int expirationSchedulerShards;
+    private final Duration accessMetaDataFlushInterval;
 
     public SimpleDistributableSessionManagerConfiguration(JBossWebMetaData metaData, String serverName, String deploymentName, Module module) {
-        this(metaData.getMaxActiveSessions(), metaData.getReplicationConfig(), serverName, deploymentName, module);
+        this(metaData.getMaxActiveSessions(), metaData.getReplicationConfig(), serverName, deploymentName, module, getCompressionThreshold(metaData), isDeltaReplicationEnabled(metaData), getMetaDataNearCacheSize(metaData), getMarshaller(metaData), getExpirationSchedulerShards(metaData), getAccessMetaDataFlushInterval(metaData));
     }
 
     public SimpleDistributableSessionManagerConfiguration(SharedSessionManagerConfig config, String serverName, String deploymentName, Module module) {
-        this(config.getMaxActiveSessions(), config.getReplicationConfig(), serverName, deploymentName, module);
+        this(config.getMaxActiveSessions(), config.getReplicationConfig(), serverName, deploymentName, module, -1, false, 0, SessionMarshaller.JBOSS, 1, Duration.ZERO);
     }
 
-    public SimpleDistributableSessionManagerConfiguration(Integer maxActiveSessions, ReplicationConfig replicationConfig, String serverName, String deploymentName, Module module) {
+    public SimpleDistributableSessionManagerConfiguration(Integer maxActiveSessions, ReplicationConfig replicationConfig, String serverName, String deploymentName, Module module, int compressionThreshold, boolean deltaReplication, int metaDataNearCacheSize, SessionMarshaller marshaller, int expirationSchedulerShards, Duration accessMetaDataFlushInterval) {
         this.maxActiveSessions = maxActiveSessions;
         this.replicationConfig = replicationConfig;
         this.serverName = serverName;
         this.deploymentName = deploymentName;
         this.module = module;
+        this.compressionThreshold = compressionThreshold;
+        this.deltaReplication = deltaReplication;
+        this.metaDataNearCacheSize = metaDataNearCacheSize;
+        this.marshaller = marshaller;
+        this.expirationSchedulerShards = expirationSchedulerShards;
+        this.accessMetaDataFlushInterval = accessMetaDataFlushInterval;
+    }
+
+    /**
+     * Returns the compression threshold specified via the {@value #COMPRESSION_THRESHOLD_PARAMETER} context parameter of the specified deployment.
+     * @param metaData the meta data of a web deployment
+     * @return a number of bytes, or -1 if compression is disabled
+     */
+    public static int getCompressionThreshold(JBossWebMetaData metaData) {
+        String value = getContextParameter(metaData, COMPRESSION_THRESHOLD_PARAMETER);
+        return (value != null) ? Integer.parseInt(value) : -1;
+    }
+
+    /**
+     * Indicates whether delta replication was enabled via the {@value #DELTA_REPLICATION_PARAMETER} context parameter of the specified deployment.
+     * @param metaData the meta data of a web deployment
+     * @return true, if delta replication was enabled, false otherwise
+     */
+    public static boolean isDeltaReplicationEnabled(JBossWebMetaData metaData) {
+        return Boolean.parseBoolean(getContextParameter(metaData, DELTA_REPLICATION_PARAMETER));
+    }
+
+    /**
+     * Returns the size of the session meta data near-cache specified via the {@value #META_DATA_NEAR_CACHE_SIZE_PARAMETER} context parameter of the specified deployment.
+     * @param metaData the meta data of a web deployment
+     * @return a number of sessions, or 0 if the near-cache is disabled
+     */
+    public static int getMetaDataNearCacheSize(JBossWebMetaData metaData) {
+        String value = getContextParameter(metaData, META_DATA_NEAR_CACHE_SIZE_PARAMETER);
+        return (value != null) ? Integer.parseInt(value) : 0;
+    }
+
+    /**
+     * Returns the marshalling backend selected via the {@value #MARSHALLER_PARAMETER} context parameter of the specified deployment.
+     * @param metaData the meta data of a web deployment
+     * @return a marshalling backend, {@link SessionMarshaller#JBOSS} by default
+     */
+    public static SessionMarshaller getMarshaller(JBossWebMetaData metaData) {
+        String value = getContextParameter(metaData, MARSHALLER_PARAMETER);
+        return (value != null) ? SessionMarshaller.valueOf(value.toUpperCase(Locale.ENGLISH)) : SessionMarshaller.JBOSS;
+    }
+
+    /**
+     * Returns the number of timing wheels specified via the {@value #EXPIRATION_SCHEDULER_SHARDS_PARAMETER} context parameter of the specified deployment.
+     * @param metaData the meta data of a web deployment
+     * @return a positive number of timing wheels, 1 by default
+     * @throws IllegalArgumentException if the context parameter is not a positive integer
+     */
+    public static int getExpirationSchedulerShards(JBossWebMetaData metaData) {
+        String value = getContextParameter(metaData, EXPIRATION_SCHEDULER_SHARDS_PARAMETER);
+        return (value != null) ? parsePositiveInt(EXPIRATION_SCHEDULER_SHARDS_PARAMETER, value) : 1;
+    }
+
+    /**
+     * Returns the flush interval specified via the {@value #ACCESS_META_DATA_FLUSH_INTERVAL_PARAMETER} context parameter of the specified deployment.
+     * @param metaData the meta data of a web deployment
+     * @return a flush interval, {@link Duration#ZERO} by default, i.e. the last access time is written per request
+     * @throws IllegalArgumentException if the context parameter is not a non-negative number of milliseconds
+     */
+    public static Duration getAccessMetaDataFlushInterval(JBossWebMetaData metaData) {
+        String value = getContextParameter(metaData, ACCESS_META_DATA_FLUSH_INTERVAL_PARAMETER);
+        if (value == null) return Duration.ZERO;
+        try {
+            long millis = Long.parseLong(value);
+            if (millis >= 0) {
+                return Duration.ofMillis(millis);
+            }
+        } catch (NumberFormatException e) {
+            // Fall through
+        }
+        throw UndertowLogger.ROOT_LOGGER.invalidContextParameter(value, ACCESS_META_DATA_FLUSH_INTERVAL_PARAMETER);
+    }
+
+    private static int parsePositiveInt(String name, String value) {
+        try {
+            int result = Integer.parseInt(value);
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through
+        }
+        throw UndertowLogger.ROOT_LOGGER.invalidContextParameter(value, name);
+    }
+
+    private static String getContextParameter(JBossWebMetaData metaData, String name) {
+        List<ParamValueMetaData> parameters = metaData.getContextParams();
+        if (parameters != null) {
+            for (ParamValueMetaData parameter : parameters) {
+                if (name.equals(parameter.getParamName())) {
+                    return parameter.getParamValue().trim();
+                }
+            }
+        }
+        return null;
     }
 
     @Override
@@ -83,4 +225,34 @@ public class SimpleDistributableSessionManagerConfiguration implements Distribut
     public String getCacheName() {
         return (this.replicationConfig != null) ? this.replicationConfig.getCacheName() : null;
     }
+
+    @Override
+    public int getCompressionThreshold() {
+        return this.compressionThreshold;
+    }
+
+    @Override
+    public boolean isDeltaReplicationEnabled() {
+        return this.deltaReplication;
+    }
+
+    @Override
+    public int getMetaDataNearCacheSize() {
+        return this.metaDataNearCacheSize;
+    }
+
+    @Override
+    public SessionMarshaller getMarshaller() {
+        return this.marshaller;
+    }
+
+    @Override
+    public int getExpirationSchedulerShards() {
+        return this.expirationSchedulerShards;
+    }
+
+    @Override
+    public Duration getAccessMetaDataFlushInterval() {
+        return this.accessMetaDataFlushInterval;
+    }
 }
@@ -0,0 +1,241 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Date;
+import java.util.Map;
+
+import io.undertow.server.session.Session;
+import io.undertow.server.session.SessionListener.SessionDestroyedReason;
+import io.undertow.servlet.api.SessionPersistenceManager.PersistentSession;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.extension.undertow.AbstractPersistentSessionManager.SessionEntry;
+import org.wildfly.extension.undertow.IncrementalPersistentSessionManager.SessionTracker;
+
+/**
+ * Unit test for the session tracking, flushing and lazy loading of {@link IncrementalPersistentSessionManager}.
+ */
+public class IncrementalPersistentSessionManagerTestCase {
+
+    private static final Date EXPIRATION = new Date(61000L);
+    private static final String DEPLOYMENT = "test.war";
+
+    private final MarshallerFactory factory = new RiverMarshallerFactory();
+    private final MarshallingConfiguration configuration = new MarshallingConfiguration();
+    private final IncrementalPersistentSessionManager manager = new IncrementalPersistentSessionManager("sessions", null) {
+        @Override
+        protected Marshaller createMarshaller() throws IOException {
+            return IncrementalPersistentSessionManagerTestCase.this.factory.createMarshaller(IncrementalPersistentSessionManagerTestCase.this.configuration);
+        }
+
+        @Override
+        protected Unmarshaller createUnmarshaller() throws IOException {
+            return IncrementalPersistentSessionManagerTestCase.this.factory.createUnmarshaller(IncrementalPersistentSessionManagerTestCase.this.configuration);
+        }
+
+        @Override
+        PersistentSessionStore getStore(String deploymentName) {
+            return IncrementalPersistentSessionManagerTestCase.this.store;
+        }
+    };
+    private final SessionTracker tracker = new SessionTracker();
+
+    private File dir;
+    private PersistentSessionStore store;
+
+    @Before
+    public void init() throws IOException {
+        this.dir = Files.createTempDirectory("sessions").toFile();
+        this.store = new PersistentSessionStore(this.dir);
+    }
+
+    @After
+    public void destroy() {
+        this.store.close();
+        File[] files = this.dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.dir.delete();
+    }
+
+    @Test
+    public void modifiedSessions() throws Exception {
+        Session session = createSession("a");
+        this.tracker.sessionCreated(session, null);
+        this.tracker.attributeAdded(session, "x", "1");
+
+        Map<String, PersistentSession> modified = this.tracker.getModifiedSessions(this.store);
+        assertEquals(Collections.singleton("a"), modified.keySet());
+        assertEquals(Collections.singletonMap("x", "1"), modified.get("a").getSessionData());
+        assertEquals(EXPIRATION, modified.get("a").getExpiration());
+        assertFalse(this.tracker.isDirty("a"));
+        // Session is not yet stored
+        assertEquals(Collections.singleton("a"), this.tracker.getModifiedSessions(this.store).keySet());
+
+        this.manager.flush(DEPLOYMENT, this.tracker);
+        assertTrue(this.tracker.getModifiedSessions(this.store).isEmpty());
+
+        this.tracker.attributeUpdated(session, "x", "2", "1");
+        assertEquals(Collections.singletonMap("x", "2"), this.tracker.getModifiedSessions(this.store).get("a").getSessionData());
+
+        this.tracker.attributeRemoved(session, "x", "2");
+        assertEquals(Collections.emptyMap(), this.tracker.getModifiedSessions(this.store).get("a").getSessionData());
+
+        this.manager.flush(DEPLOYMENT, this.tracker);
+        assertTrue(this.tracker.getModifiedSessions(this.store).isEmpty());
+
+        // An accessed session is rewritten, since its expiration changed
+        when(session.getLastAccessedTime()).thenReturn(2000L);
+        assertEquals(Collections.singleton("a"), this.tracker.getModifiedSessions(this.store).keySet());
+    }
+
+    @Test
+    public void removedSessions() {
+        Session a = createSession("a");
+        Session b = createSession("b");
+        this.tracker.sessionCreated(a, null);
+        this.tracker.sessionCreated(b, null);
+
+        this.tracker.sessionDestroyed(a, null, SessionDestroyedReason.INVALIDATED);
+        // Sessions destroyed by undeploy are not removed from the store
+        this.tracker.sessionDestroyed(b, null, SessionDestroyedReason.UNDEPLOY);
+
+        assertEquals(Collections.singleton("a"), this.tracker.drainRemoved());
+        assertTrue(this.tracker.drainRemoved().isEmpty());
+
+        Session c = createSession("c");
+        this.tracker.sessionCreated(c, null);
+        this.tracker.getModifiedSessions(this.store);
+        assertFalse(this.tracker.isDirty("c"));
+
+        this.tracker.sessionIdChanged(createSession("d"), "c");
+
+        assertEquals(Collections.singleton("c"), this.tracker.drainRemoved());
+        assertTrue(this.tracker.isDirty("d"));
+        Map<String, PersistentSession> modified = this.tracker.getModifiedSessions(this.store);
+        assertTrue(modified.containsKey("d"));
+        assertFalse(modified.containsKey("c"));
+    }
+
+    @Test
+    public void incompleteRecord() throws Exception {
+        Session session = createSession("a");
+        this.tracker.sessionCreated(session, null);
+        this.tracker.attributeAdded(session, "x", "1");
+        this.tracker.attributeAdded(session, "y", new ConcurrentlyModified());
+
+        this.manager.flush(DEPLOYMENT, this.tracker);
+
+        // A partial record must not be stored, and the session must be written by the next flush
+        assertNull(this.store.read("a"));
+        assertTrue(this.tracker.isDirty("a"));
+
+        this.tracker.attributeRemoved(session, "y", null);
+        this.manager.flush(DEPLOYMENT, this.tracker);
+
+        assertEquals(Collections.singleton("x"), this.store.read("a").keySet());
+        assertFalse(this.tracker.isDirty("a"));
+    }
+
+    @Test
+    public void notSerializable() throws Exception {
+        Session session = createSession("a");
+        this.tracker.sessionCreated(session, null);
+        this.tracker.attributeAdded(session, "x", "1");
+        this.tracker.attributeAdded(session, "y", new Object());
+
+        this.manager.flush(DEPLOYMENT, this.tracker);
+
+        // Attributes that can never be serialized are omitted
+        assertEquals(Collections.singleton("x"), this.store.read("a").keySet());
+        assertFalse(this.tracker.isDirty("a"));
+    }
+
+    @Test
+    public void lazySession() throws Exception {
+        this.store.write(this.manager.serialize(Collections.singletonMap("a", new PersistentSession(EXPIRATION, Collections.singletonMap("x", "1")))), Collections.<String>emptySet());
+
+        PersistentSession session = this.manager.new LazyPersistentSession(EXPIRATION, DEPLOYMENT, "a");
+        assertEquals(EXPIRATION, session.getExpiration());
+
+        // Attributes are not read until first requested
+        this.store.write(this.manager.serialize(Collections.singletonMap("a", new PersistentSession(EXPIRATION, Collections.singletonMap("x", "2")))), Collections.<String>emptySet());
+
+        Map<String, Object> data = session.getSessionData();
+        assertEquals(Collections.singletonMap("x", "2"), data);
+        // Attributes are only deserialized once
+        assertSame(data, session.getSessionData());
+
+        assertEquals(Collections.emptyMap(), this.manager.new LazyPersistentSession(EXPIRATION, DEPLOYMENT, "b").getSessionData());
+    }
+
+    @Test
+    public void serializedSessions() throws Exception {
+        this.manager.persistSerializedSessions(DEPLOYMENT, this.manager.serialize(Collections.singletonMap("a", new PersistentSession(EXPIRATION, Collections.singletonMap("x", "1")))));
+        assertEquals(Collections.singleton("a"), this.manager.loadSerializedSessions(DEPLOYMENT).keySet());
+
+        // A snapshot of all sessions of a deployment removes the stored sessions it does not contain
+        this.manager.persistSerializedSessions(DEPLOYMENT, this.manager.serialize(Collections.singletonMap("b", new PersistentSession(EXPIRATION, Collections.singletonMap("y", "2")))));
+        Map<String, SessionEntry> entries = this.manager.loadSerializedSessions(DEPLOYMENT);
+        assertEquals(Collections.singleton("b"), entries.keySet());
+        assertEquals(EXPIRATION, entries.get("b").getExpiry());
+        assertEquals(Collections.singleton("y"), entries.get("b").getData().keySet());
+        assertNull(this.store.read("a"));
+    }
+
+    private static Session createSession(String id) {
+        Session session = mock(Session.class);
+        when(session.getId()).thenReturn(id);
+        when(session.getLastAccessedTime()).thenReturn(1000L);
+        when(session.getMaxInactiveInterval()).thenReturn(60);
+        return session;
+    }
+
+    private static class ConcurrentlyModified implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            throw new ConcurrentModificationException();
+        }
+    }
+}
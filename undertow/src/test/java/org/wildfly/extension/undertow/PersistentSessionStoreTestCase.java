@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.extension.undertow.AbstractPersistentSessionManager.SessionEntry;
+
+/**
+ * Unit test for {@link PersistentSessionStore}.
+ */
+public class PersistentSessionStoreTestCase {
+
+    private File dir;
+
+    @Before
+    public void init() throws IOException {
+        this.dir = Files.createTempDirectory("sessions").toFile();
+    }
+
+    @After
+    public void destroy() {
+        File[] files = this.dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.dir.delete();
+    }
+
+    @Test
+    public void reopen() throws IOException {
+        try (PersistentSessionStore store = new PersistentSessionStore(this.dir)) {
+            store.write(Collections.singletonMap("a", entry(1000L, "x", new byte[] { 1, 2, 3 })), Collections.<String>emptySet());
+            store.write(Collections.singletonMap("b", entry(2000L, "y", new byte[] { 4 })), Collections.<String>emptySet());
+            store.write(Collections.singletonMap("a", entry(3000L, "x", new byte[] { 5, 6 })), Collections.singleton("b"));
+        }
+        try (PersistentSessionStore store = new PersistentSessionStore(this.dir)) {
+            Map<String, Date> sessions = store.getSessions();
+            assertEquals(Collections.singleton("a"), sessions.keySet());
+            assertEquals(3000L, sessions.get("a").getTime());
+            assertEquals(Long.valueOf(3000L), store.getExpiry("a"));
+            assertNull(store.getExpiry("b"));
+            assertNull(store.read("b"));
+            Map<String, byte[]> data = store.read("a");
+            assertEquals(Collections.singleton("x"), data.keySet());
+            assertArrayEquals(new byte[] { 5, 6 }, data.get("x"));
+        }
+    }
+
+    @Test
+    public void tornRecord() throws IOException {
+        try (PersistentSessionStore store = new PersistentSessionStore(this.dir)) {
+            store.write(Collections.singletonMap("a", entry(1000L, "x", new byte[] { 1 })), Collections.<String>emptySet());
+        }
+        File[] segments = this.dir.listFiles();
+        assertEquals(1, segments.length);
+        long length = segments[0].length();
+        // Simulate a crash in the middle of writing a record
+        try (FileOutputStream out = new FileOutputStream(segments[0], true)) {
+            out.write(new byte[] { 0, 0, 0, 100, 1, 0 });
+        }
+        try (PersistentSessionStore store = new PersistentSessionStore(this.dir)) {
+            assertEquals(Collections.singleton("a"), store.getSessions().keySet());
+            assertArrayEquals(new byte[] { 1 }, store.read("a").get("x"));
+            store.write(Collections.singletonMap("b", entry(1000L, "y", new byte[] { 2 })), Collections.<String>emptySet());
+        }
+        assertTrue(segments[0].length() > length);
+        try (PersistentSessionStore store = new PersistentSessionStore(this.dir)) {
+            assertEquals(2, store.getSessions().size());
+            assertArrayEquals(new byte[] { 2 }, store.read("b").get("y"));
+        }
+    }
+
+    @Test
+    public void compact() throws IOException {
+        byte[] value = new byte[1024 * 1024];
+        Arrays.fill(value, (byte) 7);
+        try (PersistentSessionStore store = new PersistentSessionStore(this.dir)) {
+            store.write(Collections.singletonMap("expired", entry(1000L, "x", new byte[] { 1 })), Collections.<String>emptySet());
+            for (int i = 0; i < 20; ++i) {
+                store.write(Collections.singletonMap("a", entry(5000L + i, "x", value)), Collections.<String>emptySet());
+            }
+            assertEquals(2, this.dir.listFiles().length);
+            store.compact(2000L);
+            assertEquals(1, this.dir.listFiles().length);
+            assertTrue(this.dir.listFiles()[0].length() < 2 * value.length);
+            assertEquals(Collections.singleton("a"), store.getSessions().keySet());
+            assertArrayEquals(value, store.read("a").get("x"));
+        }
+        try (PersistentSessionStore store = new PersistentSessionStore(this.dir)) {
+            assertEquals(Long.valueOf(5019L), store.getExpiry("a"));
+            assertArrayEquals(value, store.read("a").get("x"));
+        }
+    }
+
+    private static SessionEntry entry(long expiry, String attribute, byte[] value) {
+        return new SessionEntry(new Date(expiry), Collections.singletonMap(attribute, value));
+    }
+}
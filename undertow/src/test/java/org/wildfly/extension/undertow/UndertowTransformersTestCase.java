@@ -44,6 +44,7 @@ import org.jboss.as.subsystem.test.LegacyKernelServicesInitializer;
 import org.jboss.dmr.ModelNode;
 import org.junit.Assert;
 import org.junit.Test;
+import org.wildfly.extension.undertow.filters.AdaptiveRequestLimitFilter;
 import org.wildfly.extension.undertow.filters.ModClusterDefinition;
 import org.wildfly.extension.undertow.handlers.ReverseProxyHandler;
 
@@ -83,9 +84,11 @@ public class UndertowTransformersTestCase extends AbstractSubsystemTest {
         PathAddress modClusterPath = subsystemAddress.append(UndertowExtension.PATH_FILTERS).append(Constants.MOD_CLUSTER);
         PathAddress servletContainer = subsystemAddress.append(UndertowExtension.PATH_SERVLET_CONTAINER);
         PathAddress byteBufferPath = subsystemAddress.append(UndertowExtension.BYTE_BUFFER_POOL_PATH);
+        PathAddress adaptiveRequestLimitPath = subsystemAddress.append(UndertowExtension.PATH_FILTERS).append(AdaptiveRequestLimitFilter.INSTANCE.getPathElement());
 
         doRejectTest(ModelTestControllerVersion.EAP_7_0_0, EAP7_0_0, new FailedOperationTransformationConfig()
                 .addFailedAttribute(byteBufferPath, FailedOperationTransformationConfig.REJECTED_RESOURCE)
+                .addFailedAttribute(adaptiveRequestLimitPath, FailedOperationTransformationConfig.REJECTED_RESOURCE)
                 .addFailedAttribute(hostAddress, new FailedOperationTransformationConfig.NewAttributesConfig(HostDefinition.QUEUE_REQUESTS_ON_START))
                 .addFailedAttribute(httpAddress,
                         new FailedOperationTransformationConfig.NewAttributesConfig(
@@ -141,9 +144,11 @@ public class UndertowTransformersTestCase extends AbstractSubsystemTest {
         PathAddress httpAddress = serverAddress.append(UndertowExtension.HTTP_LISTENER_PATH);
         PathAddress servletContainer = subsystemAddress.append(UndertowExtension.PATH_SERVLET_CONTAINER);
         PathAddress byteBufferPath = subsystemAddress.append(UndertowExtension.BYTE_BUFFER_POOL_PATH);
+        PathAddress adaptiveRequestLimitPath = subsystemAddress.append(UndertowExtension.PATH_FILTERS).append(AdaptiveRequestLimitFilter.INSTANCE.getPathElement());
 
         doRejectTest(ModelTestControllerVersion.EAP_7_1_0, EAP7_1_0, new FailedOperationTransformationConfig()
                 .addFailedAttribute(byteBufferPath, FailedOperationTransformationConfig.REJECTED_RESOURCE)
+                .addFailedAttribute(adaptiveRequestLimitPath, FailedOperationTransformationConfig.REJECTED_RESOURCE)
                 .addFailedAttribute(hostAddress, new FailedOperationTransformationConfig.NewAttributesConfig(HostDefinition.QUEUE_REQUESTS_ON_START))
                 .addFailedAttribute(httpAddress,
                         new FailedOperationTransformationConfig.NewAttributesConfig(
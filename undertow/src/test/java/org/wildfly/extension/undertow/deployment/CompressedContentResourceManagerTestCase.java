@@ -0,0 +1,200 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow.deployment;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import io.undertow.io.IoCallback;
+import io.undertow.io.Sender;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.ServerConnection;
+import io.undertow.server.handlers.cache.DirectBufferCache;
+import io.undertow.server.handlers.resource.PathResourceManager;
+import io.undertow.server.handlers.resource.Resource;
+import io.undertow.util.ETag;
+import io.undertow.util.Headers;
+import io.undertow.util.StatusCodes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.extension.undertow.CompressedContentCache;
+
+/**
+ * Unit test for {@link CompressedContentResourceManager} and {@link CompressedContentResource}.
+ */
+public class CompressedContentResourceManagerTestCase {
+
+    private static final int MAX_SIZE = 1024 * 1024;
+
+    private final CompressedContentCache cache = new CompressedContentCache(new DirectBufferCache(1024, 10, MAX_SIZE));
+    private Path root;
+
+    @Before
+    public void init() throws IOException {
+        this.root = Files.createTempDirectory("content");
+        write(this.root.resolve("index.html"));
+        write(this.root.resolve("js/app.js"));
+        write(this.root.resolve("WEB-INF/web.xml"));
+        write(this.root.resolve("WEB-INF/classes/messages.txt"));
+        write(this.root.resolve("META-INF/resources.txt"));
+    }
+
+    @After
+    public void destroy() throws IOException {
+        try (Stream<Path> paths = Files.walk(this.root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static void write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            builder.append("<p>Compressible content</p>\n");
+        }
+        Files.write(file, builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void populate() throws IOException {
+        CompressedContentResourceManager manager = new CompressedContentResourceManager(new PathResourceManager(this.root), this.cache, MAX_SIZE);
+        try {
+            // Only index.html and js/app.js, since resources within WEB-INF and META-INF are never served
+            assertEquals(2, manager.populate("/"));
+            assertEquals(0, manager.populate("/WEB-INF"));
+            assertEquals(0, manager.populate("/META-INF/resources.txt"));
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void isProtected() {
+        assertTrue(CompressedContentResourceManager.isProtected("/WEB-INF"));
+        assertTrue(CompressedContentResourceManager.isProtected("/WEB-INF/web.xml"));
+        assertTrue(CompressedContentResourceManager.isProtected("//web-inf/classes/messages.txt"));
+        assertTrue(CompressedContentResourceManager.isProtected("META-INF/resources.txt"));
+        assertTrue(CompressedContentResourceManager.isProtected("\\Meta-Inf\\resources.txt"));
+        assertFalse(CompressedContentResourceManager.isProtected("/"));
+        assertFalse(CompressedContentResourceManager.isProtected("/index.html"));
+        assertFalse(CompressedContentResourceManager.isProtected("/WEB-INF.html"));
+        assertFalse(CompressedContentResourceManager.isProtected("/js/WEB-INF/app.js"));
+    }
+
+    @Test
+    public void compressedETag() throws IOException {
+        Resource resource = createResource(this.root.resolve("index.html"));
+        Resource compressed = new CompressedContentResource(resource, this.cache, MAX_SIZE);
+        HttpServerExchange exchange = createExchange();
+        Sender sender = mock(Sender.class);
+        IoCallback callback = mock(IoCallback.class);
+
+        compressed.serve(sender, exchange, callback);
+
+        verify(sender).send(any(ByteBuffer[].class), any(IoCallback.class));
+        assertEquals("gzip", exchange.getResponseHeaders().getFirst(Headers.CONTENT_ENCODING));
+        assertEquals("\"index-gzip\"", exchange.getResponseHeaders().getFirst(Headers.ETAG));
+        assertEquals(Headers.ACCEPT_ENCODING_STRING, exchange.getResponseHeaders().getFirst(Headers.VARY));
+        // The uncompressed variant retains the entity tag of the underlying resource
+        assertEquals("\"index\"", compressed.getETag().toString());
+    }
+
+    @Test
+    public void compressedNotModified() throws IOException {
+        Resource resource = createResource(this.root.resolve("index.html"));
+        Resource compressed = new CompressedContentResource(resource, this.cache, MAX_SIZE);
+        HttpServerExchange exchange = createExchange();
+        exchange.getRequestHeaders().put(Headers.IF_NONE_MATCH, "\"index-gzip\"");
+        Sender sender = mock(Sender.class);
+        IoCallback callback = mock(IoCallback.class);
+
+        compressed.serve(sender, exchange, callback);
+
+        assertEquals(StatusCodes.NOT_MODIFIED, exchange.getStatusCode());
+        verify(sender, never()).send(any(ByteBuffer[].class), any(IoCallback.class));
+        verify(callback).onComplete(exchange, sender);
+        assertEquals(Headers.ACCEPT_ENCODING_STRING, exchange.getResponseHeaders().getFirst(Headers.VARY));
+    }
+
+    @Test
+    public void compressedModified() throws IOException {
+        Resource resource = createResource(this.root.resolve("index.html"));
+        Resource compressed = new CompressedContentResource(resource, this.cache, MAX_SIZE);
+        HttpServerExchange exchange = createExchange();
+        // Entity tag of the uncompressed variant must not match the compressed variant
+        exchange.getRequestHeaders().put(Headers.IF_NONE_MATCH, "\"index\"");
+        Sender sender = mock(Sender.class);
+        IoCallback callback = mock(IoCallback.class);
+
+        compressed.serve(sender, exchange, callback);
+
+        assertEquals(StatusCodes.OK, exchange.getStatusCode());
+        verify(sender).send(any(ByteBuffer[].class), any(IoCallback.class));
+    }
+
+    @Test
+    public void uncompressed() throws IOException {
+        Resource resource = createResource(this.root.resolve("index.html"));
+        Resource compressed = new CompressedContentResource(resource, this.cache, MAX_SIZE);
+        HttpServerExchange exchange = createExchange();
+        exchange.getRequestHeaders().remove(Headers.ACCEPT_ENCODING);
+        Sender sender = mock(Sender.class);
+        IoCallback callback = mock(IoCallback.class);
+
+        compressed.serve(sender, exchange, callback);
+
+        verify(resource).serve(sender, exchange, callback);
+        assertNull(exchange.getResponseHeaders().getFirst(Headers.CONTENT_ENCODING));
+        assertNull(exchange.getResponseHeaders().getFirst(Headers.ETAG));
+        // The identity variant also varies by the Accept-Encoding request header
+        assertEquals(Headers.ACCEPT_ENCODING_STRING, exchange.getResponseHeaders().getFirst(Headers.VARY));
+    }
+
+    private static Resource createResource(Path file) throws IOException {
+        Resource resource = mock(Resource.class);
+        when(resource.getETag()).thenReturn(new ETag(false, "index"));
+        when(resource.getCacheKey()).thenReturn(file.toString());
+        when(resource.getLastModified()).thenReturn(new Date(Files.getLastModifiedTime(file).toMillis()));
+        when(resource.getContentLength()).thenReturn(Files.size(file));
+        when(resource.getFile()).thenReturn(file.toFile());
+        when(resource.isDirectory()).thenReturn(false);
+        return resource;
+    }
+
+    private static HttpServerExchange createExchange() {
+        HttpServerExchange exchange = new HttpServerExchange(mock(ServerConnection.class));
+        exchange.getRequestHeaders().put(Headers.ACCEPT_ENCODING, "gzip, deflate");
+        exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "text/html");
+        return exchange;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow.deployment;
+
+import static org.junit.Assert.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import io.undertow.server.handlers.resource.Resource;
+import org.jboss.metadata.javaee.spec.ParamValueMetaData;
+import org.jboss.metadata.web.jboss.JBossWebMetaData;
+import org.jboss.vfs.TempFileProvider;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for the overlay resolution of {@link ServletResourceManager}, using the deployment root of a war and the
+ * META-INF/resources overlays of its library jars, mounted as archives.
+ */
+public class ServletResourceManagerTestCase {
+
+    private static final String[] PATHS = new String[] { "/index.html", "/shared.txt", "/first.txt", "/second.txt", "/dir/nested.txt", "/dir/../shared.txt", "dir/nested.txt", "/dir", "/missing.txt", "/dir/missing.txt", "/" };
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final List<Closeable> mounts = new ArrayList<>();
+    private Path directory;
+    private TempFileProvider provider;
+    private VirtualFile root;
+    private List<VirtualFile> overlays;
+
+    @Before
+    public void init() throws IOException {
+        this.directory = Files.createTempDirectory("deployment");
+        this.provider = TempFileProvider.create("test", this.executor);
+
+        Path war = this.directory.resolve("test.war");
+        write(war.resolve("index.html"), "root");
+        write(war.resolve("root.txt"), "root");
+        this.root = VFS.getChild(war.toUri());
+
+        this.overlays = new ArrayList<>();
+        // Overlays are listed in precedence order
+        this.overlays.add(this.mount(this.jar("first.jar", "index.html", "shared.txt", "first.txt", "dir/nested.txt")));
+        this.overlays.add(this.mount(this.jar("second.jar", "index.html", "shared.txt", "second.txt", "dir/nested.txt")));
+    }
+
+    @After
+    public void destroy() throws IOException {
+        for (Closeable mount : this.mounts) {
+            mount.close();
+        }
+        this.provider.close();
+        this.executor.shutdown();
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private Path jar(String name, String... entries) throws IOException {
+        Path jar = this.directory.resolve(name);
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for (String entry : entries) {
+                output.putNextEntry(new ZipEntry("META-INF/resources/" + entry));
+                output.write(name.getBytes(StandardCharsets.UTF_8));
+                output.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private VirtualFile mount(Path jar) throws IOException {
+        VirtualFile mountPoint = VFS.getChild(this.directory.resolve("mounts").resolve(jar.getFileName().toString()).toUri());
+        this.mounts.add(VFS.mountZip(jar.toFile(), mountPoint, this.provider));
+        return mountPoint.getChild("META-INF/resources");
+    }
+
+    private ServletResourceManager createResourceManager(boolean explodedDeployment, boolean indexOverlays) throws IOException {
+        return new ServletResourceManager(this.root, this.overlays, explodedDeployment, false, true, null, indexOverlays);
+    }
+
+    @Test
+    public void deploymentRootShadowsOverlays() throws IOException {
+        for (boolean indexOverlays : new boolean[] { false, true }) {
+            try (ServletResourceManager manager = this.createResourceManager(false, indexOverlays)) {
+                assertEquals("root", read(manager.getResource("/index.html")));
+                assertEquals("root", read(manager.getResource("/root.txt")));
+            }
+        }
+    }
+
+    @Test
+    public void earlierOverlayShadowsLaterOverlay() throws IOException {
+        for (boolean indexOverlays : new boolean[] { false, true }) {
+            try (ServletResourceManager manager = this.createResourceManager(false, indexOverlays)) {
+                // Repeat, so that the second pass resolves against the index, if enabled
+                for (int i = 0; i < 2; ++i) {
+                    assertEquals("first.jar", read(manager.getResource("/shared.txt")));
+                    assertEquals("first.jar", read(manager.getResource("/first.txt")));
+                    assertEquals("second.jar", read(manager.getResource("/second.txt")));
+                    assertEquals("first.jar", read(manager.getResource("/dir/nested.txt")));
+                    assertEquals("first.jar", read(manager.getResource("/dir/../shared.txt")));
+                    assertEquals("root", read(manager.getResource("/index.html")));
+                    assertNull(manager.getResource("/missing.txt"));
+                    assertNull(manager.getResource("/dir/missing.txt"));
+                }
+                assertEquals(indexOverlays, manager.isOverlayIndexed());
+            }
+        }
+    }
+
+    @Test
+    public void indexMatchesOverlayResolution() throws IOException {
+        try (ServletResourceManager resolved = this.createResourceManager(false, false);
+                ServletResourceManager indexed = this.createResourceManager(false, true)) {
+            // Once before and once after the index is built
+            for (int i = 0; i < 2; ++i) {
+                for (String path : PATHS) {
+                    Resource expected = resolved.getResource(path);
+                    Resource resource = indexed.getResource(path);
+                    if (expected == null) {
+                        assertNull(path, resource);
+                    } else {
+                        assertNotNull(path, resource);
+                        assertEquals(path, expected.isDirectory(), resource.isDirectory());
+                        assertEquals(path, expected.getFile(), resource.getFile());
+                    }
+                }
+                assertTrue(indexed.isOverlayIndexed());
+            }
+            assertFalse(resolved.isOverlayIndexed());
+        }
+    }
+
+    @Test
+    public void explodedDeploymentIsNeverIndexed() throws IOException {
+        try (ServletResourceManager manager = this.createResourceManager(true, true)) {
+            assertEquals("first.jar", read(manager.getResource("/shared.txt")));
+            assertNull(manager.getResource("/missing.txt"));
+            assertFalse(manager.isOverlayIndexed());
+        }
+    }
+
+    @Test
+    public void isOverlayIndexEnabled() {
+        JBossWebMetaData metaData = new JBossWebMetaData();
+        assertFalse(ServletResourceManager.isOverlayIndexEnabled(metaData));
+
+        ParamValueMetaData parameter = new ParamValueMetaData();
+        parameter.setParamName(ServletResourceManager.OVERLAY_INDEX_PARAMETER);
+        parameter.setParamValue("false");
+        metaData.setContextParams(Collections.singletonList(parameter));
+        assertFalse(ServletResourceManager.isOverlayIndexEnabled(metaData));
+
+        parameter.setParamValue(" true ");
+        assertTrue(ServletResourceManager.isOverlayIndexEnabled(metaData));
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (OutputStream output = Files.newOutputStream(file)) {
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String read(Resource resource) throws IOException {
+        assertNotNull(resource);
+        return new String(Files.readAllBytes(resource.getFilePath()), StandardCharsets.UTF_8);
+    }
+}
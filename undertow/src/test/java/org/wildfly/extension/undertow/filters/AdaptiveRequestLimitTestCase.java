@@ -0,0 +1,197 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow.filters;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.handlers.BlockingHandler;
+import io.undertow.util.StatusCodes;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link AdaptiveRequestLimit}, which drives requests through an embedded server.
+ */
+public class AdaptiveRequestLimitTestCase {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private Undertow server;
+    private URL url;
+
+    @After
+    public void destroy() {
+        this.release.countDown();
+        this.executor.shutdownNow();
+        if (this.server != null) {
+            this.server.stop();
+        }
+    }
+
+    private void start(AdaptiveRequestLimit limit, HttpHandler next) throws IOException {
+        this.server = Undertow.builder()
+                .addHttpListener(0, "localhost")
+                .setHandler(exchange -> limit.handleRequest(exchange, next))
+                .build();
+        this.server.start();
+        InetSocketAddress address = (InetSocketAddress) this.server.getListenerInfo().get(0).getAddress();
+        this.url = new URL("http", address.getHostString(), address.getPort(), "/");
+    }
+
+    private int request() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) this.url.openConnection();
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private Future<Integer> requestAsync() {
+        Callable<Integer> task = this::request;
+        return this.executor.submit(task);
+    }
+
+    private HttpHandler blocking() {
+        return new BlockingHandler(exchange -> this.release.await(10, TimeUnit.SECONDS));
+    }
+
+    private static void await(IntSupplier actual, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (actual.getAsInt() != expected) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void reject() throws Exception {
+        AdaptiveRequestLimit limit = new AdaptiveRequestLimit(1, 1, 1, 0, 0);
+        this.start(limit, this.blocking());
+
+        Future<Integer> admitted = this.requestAsync();
+        await(limit::getActiveRequests, 1);
+
+        // Limit is reached and there is no queue
+        assertEquals(StatusCodes.SERVICE_UNAVAILABLE, this.request());
+        assertEquals(1L, limit.getRejectedRequests());
+
+        this.release.countDown();
+        assertEquals(StatusCodes.OK, admitted.get(10, TimeUnit.SECONDS).intValue());
+        await(limit::getActiveRequests, 0);
+    }
+
+    @Test
+    public void queue() throws Exception {
+        AdaptiveRequestLimit limit = new AdaptiveRequestLimit(1, 1, 1, 1, 0);
+        this.start(limit, this.blocking());
+
+        Future<Integer> admitted = this.requestAsync();
+        await(limit::getActiveRequests, 1);
+        Future<Integer> queued = this.requestAsync();
+        await(limit::getQueuedRequests, 1);
+
+        // Limit is reached and the queue is full
+        assertEquals(StatusCodes.SERVICE_UNAVAILABLE, this.request());
+        assertEquals(1L, limit.getRejectedRequests());
+
+        // Completion of the admitted request admits the queued request
+        this.release.countDown();
+        assertEquals(StatusCodes.OK, admitted.get(10, TimeUnit.SECONDS).intValue());
+        assertEquals(StatusCodes.OK, queued.get(10, TimeUnit.SECONDS).intValue());
+        assertEquals(0, limit.getQueuedRequests());
+        assertEquals(0L, limit.getTimedOutRequests());
+    }
+
+    @Test
+    public void queueTimeout() throws Exception {
+        AdaptiveRequestLimit limit = new AdaptiveRequestLimit(2, 1, 2, 1, 100);
+        this.start(limit, this.blocking());
+
+        Future<Integer> admitted1 = this.requestAsync();
+        Future<Integer> admitted2 = this.requestAsync();
+        await(limit::getActiveRequests, 2);
+
+        // Queued request is rejected once the queue timeout elapses
+        assertEquals(StatusCodes.SERVICE_UNAVAILABLE, this.request());
+        assertEquals(1L, limit.getTimedOutRequests());
+        assertEquals(0, limit.getQueuedRequests());
+        // Queue timeout backs off the limit
+        assertEquals(1, limit.getLimit());
+
+        this.release.countDown();
+        assertEquals(StatusCodes.OK, admitted1.get(10, TimeUnit.SECONDS).intValue());
+        assertEquals(StatusCodes.OK, admitted2.get(10, TimeUnit.SECONDS).intValue());
+    }
+
+    @Test
+    public void increase() throws Exception {
+        AdaptiveRequestLimit limit = new AdaptiveRequestLimit(1, 1, 10, 100, 0);
+        this.start(limit, new BlockingHandler(exchange -> {}));
+
+        for (int i = 0; i < 50; ++i) {
+            assertEquals(StatusCodes.OK, this.request());
+        }
+        await(limit::getActiveRequests, 0);
+
+        // Limit grows while the offered load uses it
+        assertTrue(limit.getLimit() >= 2);
+    }
+
+    @Test
+    public void decrease() throws Exception {
+        AdaptiveRequestLimit limit = new AdaptiveRequestLimit(20, 1, 20, 100, 0);
+        AtomicLong delay = new AtomicLong(0);
+        this.start(limit, new BlockingHandler(exchange -> Thread.sleep(delay.get())));
+
+        for (int i = 0; i < 20; ++i) {
+            assertEquals(StatusCodes.OK, this.request());
+        }
+        await(limit::getActiveRequests, 0);
+        int initialLimit = limit.getLimit();
+
+        // Limit shrinks once the round trip time rises
+        delay.set(50);
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(StatusCodes.OK, this.request());
+        }
+        await(limit::getActiveRequests, 0);
+
+        assertTrue(limit.getLimit() < initialLimit);
+    }
+}